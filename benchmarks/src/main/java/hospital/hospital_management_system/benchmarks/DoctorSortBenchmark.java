@@ -0,0 +1,57 @@
+package hospital.hospital_management_system.benchmarks;
+
+import hospital.hospital_management_system.model.Doctor;
+import hospital.hospital_management_system.services.DoctorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DoctorService sort methods across list sizes. Each call copies and sorts, as the UI does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DoctorSortBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    private final DoctorService doctorService = new DoctorService();
+    private List<Doctor> doctors;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        doctors = Fixtures.doctors(size, 42);
+    }
+
+    @Benchmark
+    public List<Doctor> sortByLastName() {
+        return doctorService.sortDoctorsByLastName(doctors);
+    }
+
+    @Benchmark
+    public List<Doctor> sortById() {
+        return doctorService.sortDoctorsById(doctors);
+    }
+
+    @Benchmark
+    public List<Doctor> sortBySpecialization() {
+        return doctorService.sortDoctorsBySpecialization(doctors);
+    }
+}
@@ -0,0 +1,89 @@
+package hospital.hospital_management_system.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * In-memory, forward-only ResultSet over pre-built rows, as a dynamic proxy like the ones
+ * InstrumentedConnection hands the DAOs. Call beforeFirst() to replay it. Values are stored
+ * pre-converted and boxed, so a read allocates only the proxy's argument array, as it does in
+ * the application. Anything but cursor movement and the getters the mappers use throws
+ * SQLFeatureNotSupportedException.
+ */
+final class FakeResultSet implements InvocationHandler {
+
+    private final String[] columns;
+    private final Object[][] rows;
+    private int cursor = -1;
+    private boolean lastWasNull;
+
+    private FakeResultSet(String[] columns, Object[][] rows) {
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    static ResultSet of(String[] columns, Object[][] rows) {
+        return (ResultSet) Proxy.newProxyInstance(FakeResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, new FakeResultSet(columns, rows));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+        switch (method.getName()) {
+            case "next":
+                return ++cursor < rows.length;
+            case "beforeFirst":
+                cursor = -1;
+                return null;
+            case "close":
+                cursor = rows.length;
+                return null;
+            case "wasNull":
+                return lastWasNull;
+            case "findColumn":
+                return findColumn((String) args[0]);
+            case "getLong":
+                return value(args[0], 0L);
+            case "getInt":
+                return value(args[0], 0);
+            case "getString":
+            case "getDate":
+            case "getTimestamp":
+            case "getBigDecimal":
+                if (args.length == 1) {
+                    return value(args[0], null);
+                }
+                break;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "FakeResultSet[" + rows.length + " rows]";
+            default:
+                break;
+        }
+        throw new SQLFeatureNotSupportedException("Not supported by this fake: " + method.getName());
+    }
+
+    private int findColumn(String columnLabel) throws SQLException {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].equalsIgnoreCase(columnLabel)) {
+                return i + 1;
+            }
+        }
+        throw new SQLException("Unknown column: " + columnLabel);
+    }
+
+    // column is an index or a label; ifNull is what JDBC returns for SQL NULL
+    private Object value(Object column, Object ifNull) throws SQLException {
+        int columnIndex = column instanceof String label ? findColumn(label) : (Integer) column;
+        Object value = rows[cursor][columnIndex - 1];
+        lastWasNull = value == null;
+        return value == null ? ifNull : value;
+    }
+}
@@ -0,0 +1,96 @@
+package hospital.hospital_management_system.benchmarks;
+
+import hospital.hospital_management_system.model.Department;
+import hospital.hospital_management_system.model.Doctor;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic test data shared by the benchmarks, so runs are comparable release to release.
+ */
+final class Fixtures {
+
+    private static final String[] FIRST_NAMES = {"Alice", "Jean", "Marie", "Eric", "Grace", "Paul", "Aline", "David"};
+    private static final String[] LAST_NAMES = {"Uwase", "Mugisha", "Habimana", "Ingabire", "Niyonzima", "Smith", "Keza"};
+    private static final String[] SPECIALIZATIONS = {"Cardiology", "Pediatrics", "Neurology", "Oncology", "Surgery", "Dermatology"};
+    private static final String[] STATUSES = {"Scheduled", "Completed", "Cancelled"};
+
+    static final String[] PATIENT_COLUMNS = {
+            "patient_id", "first_name", "last_name", "dob", "gender", "contact_number", "address"
+    };
+    static final String[] APPOINTMENT_COLUMNS = {
+            "appointment_id", "patient_id", "doctor_id", "appointment_date", "status", "reason"
+    };
+
+    private Fixtures() {}
+
+    static ResultSet patientRows(int count, long seed) {
+        Random random = new Random(seed);
+        Object[][] rows = new Object[count][];
+        for (int i = 0; i < count; i++) {
+            rows[i] = new Object[]{
+                    (long) i + 1,
+                    pick(random, FIRST_NAMES),
+                    pick(random, LAST_NAMES),
+                    Date.valueOf(LocalDate.of(1940, 1, 1).plusDays(random.nextInt(30_000))),
+                    random.nextBoolean() ? "Male" : "Female",
+                    "07" + (10_000_000 + random.nextInt(89_999_999)),
+                    "KG " + random.nextInt(999) + " St, Kigali"
+            };
+        }
+        return FakeResultSet.of(PATIENT_COLUMNS, rows);
+    }
+
+    static ResultSet appointmentRows(int count, long seed) {
+        Random random = new Random(seed);
+        Object[][] rows = new Object[count][];
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 8, 0);
+        for (int i = 0; i < count; i++) {
+            rows[i] = new Object[]{
+                    (long) i + 1,
+                    // a few rows without a patient or doctor exercise the wasNull() branches
+                    random.nextInt(50) == 0 ? null : (long) random.nextInt(10_000) + 1,
+                    random.nextInt(50) == 0 ? null : (long) random.nextInt(200) + 1,
+                    Timestamp.valueOf(start.plusMinutes(15L * random.nextInt(100_000))),
+                    pick(random, STATUSES),
+                    "Follow-up visit"
+            };
+        }
+        return FakeResultSet.of(APPOINTMENT_COLUMNS, rows);
+    }
+
+    static List<Doctor> doctors(int count, long seed) {
+        Random random = new Random(seed);
+        List<Doctor> doctors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // shuffled ids so sortDoctorsById has real work to do
+            long id = (long) random.nextInt(count * 10) + 1;
+            doctors.add(doctor(id, random));
+        }
+        return doctors;
+    }
+
+    static Doctor doctor(long id, Random random) {
+        String last = pick(random, LAST_NAMES);
+        return new Doctor(
+                id,
+                pick(random, FIRST_NAMES),
+                last,
+                last.toLowerCase() + id + "@hospital.rw",
+                pick(random, SPECIALIZATIONS),
+                new Department((long) random.nextInt(12) + 1),
+                "078" + (1_000_000 + random.nextInt(8_999_999))
+        );
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
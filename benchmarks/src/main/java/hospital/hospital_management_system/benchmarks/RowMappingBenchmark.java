@@ -0,0 +1,69 @@
+package hospital.hospital_management_system.benchmarks;
+
+import hospital.hospital_management_system.dao.AppointmentDAO;
+import hospital.hospital_management_system.dao.PatientDAO;
+import hospital.hospital_management_system.dao.RowStubs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning one ResultSet row into a model object. Scores are per row; run with the GC
+ * profiler (BenchmarkRunner does) to see bytes allocated per row in gc.alloc.rate.norm.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMappingBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    private final PatientDAO patientDAO = new PatientDAO();
+    private final AppointmentDAO appointmentDAO = new AppointmentDAO();
+
+    private ResultSet patientRows;
+    private ResultSet appointmentRows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        patientRows = Fixtures.patientRows(ROWS, 42);
+        appointmentRows = Fixtures.appointmentRows(ROWS, 42);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapRowToPatient(Blackhole bh) throws SQLException {
+        patientRows.beforeFirst();
+        while (patientRows.next()) {
+            bh.consume(patientDAO.mapRowToPatient(patientRows));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapRowToAppointment(Blackhole bh) throws SQLException {
+        // one RowStubs per result set, as the DAO list methods do
+        RowStubs stubs = new RowStubs();
+        appointmentRows.beforeFirst();
+        while (appointmentRows.next()) {
+            bh.consume(appointmentDAO.mapRowToAppointment(appointmentRows, stubs));
+        }
+    }
+}
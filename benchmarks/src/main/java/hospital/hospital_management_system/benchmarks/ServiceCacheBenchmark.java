@@ -0,0 +1,80 @@
+package hospital.hospital_management_system.benchmarks;
+
+import hospital.hospital_management_system.dao.DoctorDAO;
+import hospital.hospital_management_system.dao.PatientDAO;
+import hospital.hospital_management_system.model.Doctor;
+import hospital.hospital_management_system.model.Patient;
+import hospital.hospital_management_system.services.DoctorService;
+import hospital.hospital_management_system.services.PatientService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache-hit lookups on the services with several threads reading at once.
+ * The DAOs are stubbed so a miss never reaches a database; setup warms every key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ServiceCacheBenchmark {
+
+    private static final int PATIENTS = 10_000;
+    private static final int DOCTORS = 500;
+
+    private PatientService patientService;
+    private DoctorService doctorService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        patientService = new PatientService(new PatientDAO() {
+            @Override
+            public Patient searchPatientById(long patientId) {
+                return new Patient(patientId, "First", "Last", LocalDate.of(1990, 1, 1), "Female", "0780000000", "Kigali");
+            }
+        });
+
+        Random random = new Random(42);
+        doctorService = new DoctorService(new DoctorDAO() {
+            @Override
+            public Doctor findById(long doctorId) {
+                return Fixtures.doctor(doctorId, random);
+            }
+        });
+
+        for (long id = 1; id <= PATIENTS; id++) {
+            patientService.getPatientById(id);
+        }
+        for (long id = 1; id <= DOCTORS; id++) {
+            doctorService.getDoctorById(id);
+        }
+    }
+
+    @Benchmark
+    public Patient patientCacheHit() {
+        return patientService.getPatientById(ThreadLocalRandom.current().nextLong(1, PATIENTS + 1));
+    }
+
+    @Benchmark
+    public Doctor doctorCacheHit() {
+        return doctorService.getDoctorById(ThreadLocalRandom.current().nextLong(1, DOCTORS + 1));
+    }
+}
@@ -0,0 +1,14 @@
+package hospital.hospital_management_system.datagen;
+
+import java.io.IOException;
+
+/**
+ * Destination for encoded CSV bytes of one table.
+ */
+interface ChunkSink extends AutoCloseable {
+
+    void write(byte[] buffer, int length) throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,39 @@
+package hospital.hospital_management_system.datagen;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Streams bytes straight into COPY ... FROM STDIN, so rows never pile up client-side.
+ */
+final class CopyChunkSink implements ChunkSink {
+
+    private final CopyIn copyIn;
+
+    CopyChunkSink(Connection conn, String table, String[] columns) throws SQLException {
+        String sql = "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT csv)";
+        copyIn = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+    }
+
+    @Override
+    public void write(byte[] buffer, int length) throws IOException {
+        try {
+            copyIn.writeToCopy(buffer, 0, length);
+        } catch (SQLException e) {
+            throw new IOException("COPY failed", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            copyIn.endCopy();
+        } catch (SQLException e) {
+            throw new IOException("COPY failed", e);
+        }
+    }
+}
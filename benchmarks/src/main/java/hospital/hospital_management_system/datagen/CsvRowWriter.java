@@ -0,0 +1,156 @@
+package hospital.hospital_management_system.datagen;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Encodes rows as PostgreSQL-compatible CSV into a fixed 64 KiB buffer that is handed to the
+ * sink whenever it fills, so memory stays constant however many rows are written.
+ * A null field is written as an unquoted empty value, which COPY reads as NULL.
+ */
+final class CsvRowWriter implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_FIELD = 1 << 12;
+
+    private final ChunkSink sink;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private boolean rowStart = true;
+    private long rows;
+
+    CsvRowWriter(ChunkSink sink) {
+        this.sink = sink;
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    CsvRowWriter writeLong(long value) throws IOException {
+        separator();
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int start = position;
+        do {
+            buffer[position++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        reverse(start, position - 1);
+        return this;
+    }
+
+    /** Writes an amount in cents as a decimal with two places, e.g. 1999 as 19.99. */
+    CsvRowWriter writeCents(long cents) throws IOException {
+        writeLong(cents / 100);
+        buffer[position++] = '.';
+        writeDigits((int) Math.abs(cents % 100), 2);
+        return this;
+    }
+
+    CsvRowWriter writeNull() throws IOException {
+        separator();
+        return this;
+    }
+
+    CsvRowWriter writeString(String value) throws IOException {
+        if (value == null) {
+            return writeNull();
+        }
+        separator();
+        boolean quote = needsQuoting(value);
+        if (quote) buffer[position++] = '"';
+        for (int i = 0; i < value.length(); i++) {
+            if (position >= BUFFER_SIZE - 2) flush();
+            char c = value.charAt(i);
+            if (c == '"') buffer[position++] = '"';
+            // generated text is ASCII; anything else is replaced rather than UTF-8 encoded
+            buffer[position++] = c < 128 ? (byte) c : (byte) '?';
+        }
+        if (quote) buffer[position++] = '"';
+        return this;
+    }
+
+    CsvRowWriter writeDate(long epochDay) throws IOException {
+        separator();
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        writeDigits(date.getYear(), 4);
+        buffer[position++] = '-';
+        writeDigits(date.getMonthValue(), 2);
+        buffer[position++] = '-';
+        writeDigits(date.getDayOfMonth(), 2);
+        return this;
+    }
+
+    CsvRowWriter writeTimestamp(long epochMinute) throws IOException {
+        writeDate(Math.floorDiv(epochMinute, 1440));
+        int minuteOfDay = Math.floorMod(epochMinute, 1440);
+        buffer[position++] = ' ';
+        writeDigits(minuteOfDay / 60, 2);
+        buffer[position++] = ':';
+        writeDigits(minuteOfDay % 60, 2);
+        buffer[position++] = ':';
+        writeDigits(0, 2);
+        return this;
+    }
+
+    void endRow() throws IOException {
+        ensure(1);
+        buffer[position++] = '\n';
+        rowStart = true;
+        rows++;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        sink.close();
+    }
+
+    private void separator() throws IOException {
+        ensure(MAX_FIELD);
+        if (!rowStart) {
+            buffer[position++] = ',';
+        }
+        rowStart = false;
+    }
+
+    private void writeDigits(int value, int width) {
+        for (int i = width - 1; i >= 0; i--) {
+            buffer[position + i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += width;
+    }
+
+    private void reverse(int from, int to) {
+        while (from < to) {
+            byte tmp = buffer[from];
+            buffer[from++] = buffer[to];
+            buffer[to--] = tmp;
+        }
+    }
+
+    private static boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return value.isEmpty();
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (position + bytes > BUFFER_SIZE) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        if (position > 0) {
+            sink.write(buffer, position);
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package hospital.hospital_management_system.datagen;
+
+import hospital.hospital_management_system.utils.DBConnection;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+/**
+ * Deterministic synthetic dataset for benchmarking pagination, search and reports.
+ * The same seed, anchor date and size always produce byte-identical data.
+ * <pre>
+ *   --patients=1000000     size; every other table scales from it
+ *   --seed=42
+ *   --anchor=2025-01-01    "today" of the dataset: history runs three years back, bookings 60 days ahead
+ *   --out=copy             stream into the .env database with COPY (tables must exist and be empty)
+ *   --out=csv:DIR          or write one CSV file per table into DIR
+ *   --truncate             with --out=copy, empty the tables first
+ * </pre>
+ */
+public class DataGenerator {
+
+    private interface RowSource {
+        void write(long id, CsvRowWriter row) throws IOException;
+    }
+
+    private final SyntheticData data;
+    private final Connection connection;
+    private final Path directory;
+
+    private DataGenerator(SyntheticData data, Connection connection, Path directory) {
+        this.data = data;
+        this.connection = connection;
+        this.directory = directory;
+    }
+
+    public static void main(String[] args) throws Exception {
+        long patients = 1_000_000;
+        long seed = 42;
+        LocalDate anchor = LocalDate.of(2025, 1, 1);
+        String out = "copy";
+        boolean truncate = false;
+        for (String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            switch (parts[0]) {
+                case "patients" -> patients = Long.parseLong(parts[1]);
+                case "seed" -> seed = Long.parseLong(parts[1]);
+                case "anchor" -> anchor = LocalDate.parse(parts[1]);
+                case "out" -> out = parts[1];
+                case "truncate" -> truncate = true;
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        SyntheticData data = new SyntheticData(seed, anchor, patients);
+        long started = System.nanoTime();
+
+        if (out.startsWith("csv:")) {
+            Path directory = Files.createDirectories(Path.of(out.substring(4)));
+            new DataGenerator(data, null, directory).generateAll();
+        } else {
+            try (Connection conn = DBConnection.getConnection()) {
+                if (truncate) {
+                    try (Statement st = conn.createStatement()) {
+                        st.execute("TRUNCATE patient_feedback, prescription_items, prescriptions, appointments, "
+                                + "medical_inventory, patients, doctors, departments RESTART IDENTITY CASCADE");
+                    }
+                }
+                new DataGenerator(data, conn, null).generateAll();
+                resetSequences(conn);
+            }
+        }
+        System.out.printf("Done in %.1fs%n", (System.nanoTime() - started) / 1e9);
+    }
+
+    private void generateAll() throws IOException, SQLException {
+        // Parents before children so COPY satisfies the foreign keys
+        table("departments", new String[]{"dept_id", "dept_name", "location_floor"}, data.departments,
+                (id, row) -> row.writeLong(id).writeString(data.departmentName(id)).writeLong(data.departmentFloor(id)));
+
+        table("doctors", new String[]{"doctor_id", "first_name", "last_name", "email", "specialization", "phone", "dept_id"},
+                data.doctors,
+                (id, row) -> row.writeLong(id).writeString(data.doctorFirstName(id)).writeString(data.doctorLastName(id))
+                        .writeString(data.doctorEmail(id)).writeString(data.doctorSpecialization(id))
+                        .writeString(data.doctorPhone(id)).writeLong(data.doctorDepartment(id)));
+
+        table("patients", new String[]{"patient_id", "first_name", "last_name", "dob", "gender", "contact_number", "address"},
+                data.patients,
+                (id, row) -> row.writeLong(id).writeString(data.patientFirstName(id)).writeString(data.patientLastName(id))
+                        .writeDate(data.patientDob(id)).writeString(data.patientGender(id))
+                        .writeString(data.patientContact(id)).writeString(data.patientAddress(id)));
+
+        table("medical_inventory", new String[]{"item_id", "item_name", "stock_quantity", "unit_price"}, data.inventoryItems,
+                (id, row) -> row.writeLong(id).writeString(data.itemName(id)).writeLong(data.itemStock(id))
+                        .writeCents(data.itemPriceCents(id)));
+
+        table("appointments", new String[]{"appointment_id", "patient_id", "doctor_id", "appointment_date", "status", "reason"},
+                data.appointments,
+                (id, row) -> row.writeLong(id).writeLong(data.appointmentPatient(id)).writeLong(data.appointmentDoctor(id))
+                        .writeTimestamp(data.appointmentMinute(id)).writeString(data.appointmentStatus(id))
+                        .writeString(data.appointmentReason(id)));
+
+        table("prescriptions", new String[]{"prescription_id", "appointment_id", "date_issued", "notes"}, data.prescriptions,
+                (id, row) -> row.writeLong(id).writeLong(data.prescriptionAppointment(id))
+                        .writeTimestamp(data.prescriptionMinute(id)).writeString(data.prescriptionNotes(id)));
+
+        writeTable("prescription_items", new String[]{"prescription_id", "item_id", "dosage_instruction", "quantity_dispensed"},
+                row -> {
+                    long[] chosen = new long[4];
+                    for (long id = 1; id <= data.prescriptions; id++) {
+                        int count = data.prescriptionItemCount(id);
+                        int written = 0;
+                        for (int n = 0; n < count; n++) {
+                            long item = data.prescriptionItem(id, n);
+                            if (contains(chosen, written, item)) continue;
+                            chosen[written++] = item;
+                            row.writeLong(id).writeLong(item).writeString(data.dosage(id, n)).writeLong(data.quantity(id, n));
+                            row.endRow();
+                        }
+                    }
+                });
+
+        table("patient_feedback", new String[]{"feedback_id", "patient_id", "rating", "comments", "feedback_date"}, data.feedback,
+                (id, row) -> row.writeLong(id).writeLong(data.feedbackPatient(id)).writeLong(data.feedbackRating(id))
+                        .writeString(data.feedbackComments(id)).writeDate(data.feedbackDay(id)));
+    }
+
+    private interface TableBody {
+        void write(CsvRowWriter row) throws IOException;
+    }
+
+    private void table(String name, String[] columns, long rows, RowSource source) throws IOException, SQLException {
+        writeTable(name, columns, row -> {
+            for (long id = 1; id <= rows; id++) {
+                source.write(id, row);
+                row.endRow();
+            }
+        });
+    }
+
+    private void writeTable(String name, String[] columns, TableBody body) throws IOException, SQLException {
+        long started = System.nanoTime();
+        ChunkSink sink = connection != null
+                ? new CopyChunkSink(connection, name, columns)
+                : new FileChunkSink(directory, name, columns);
+        long rows;
+        try (CsvRowWriter row = new CsvRowWriter(sink)) {
+            body.write(row);
+            rows = row.rows();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("%-20s %,12d rows  %6.1fs  %,12.0f rows/min%n", name, rows, seconds, rows / seconds * 60);
+    }
+
+    private static boolean contains(long[] values, int length, long value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    /** Ids were written explicitly, so move each sequence past them for later inserts. */
+    private static void resetSequences(Connection conn) throws SQLException {
+        String[][] keys = {
+                {"departments", "dept_id"}, {"doctors", "doctor_id"}, {"patients", "patient_id"},
+                {"medical_inventory", "item_id"}, {"appointments", "appointment_id"},
+                {"prescriptions", "prescription_id"}, {"patient_feedback", "feedback_id"}
+        };
+        try (Statement st = conn.createStatement()) {
+            for (String[] key : keys) {
+                st.execute("SELECT setval(pg_get_serial_sequence('" + key[0] + "', '" + key[1] + "'), "
+                        + "COALESCE((SELECT MAX(" + key[1] + ") FROM " + key[0] + "), 0) + 1, false)");
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package hospital.hospital_management_system.datagen;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes &lt;table&gt;.csv with a header row, loadable later with COPY ... WITH (FORMAT csv, HEADER).
+ */
+final class FileChunkSink implements ChunkSink {
+
+    private final FileChannel channel;
+
+    FileChunkSink(Path directory, String table, String[] columns) throws IOException {
+        channel = FileChannel.open(directory.resolve(table + ".csv"),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        byte[] header = (String.join(",", columns) + "\n").getBytes(StandardCharsets.US_ASCII);
+        write(header, header.length);
+    }
+
+    @Override
+    public void write(byte[] buffer, int length) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, length);
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
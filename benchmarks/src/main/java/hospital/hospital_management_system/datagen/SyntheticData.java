@@ -0,0 +1,299 @@
+package hospital.hospital_management_system.datagen;
+
+import java.time.LocalDate;
+
+/**
+ * Every attribute of every generated row is a pure function of (seed, id), so tables can be
+ * streamed independently and a child row can re-derive what it needs from its parent (an
+ * appointment's date for its prescription, say) without keeping anything in memory.
+ */
+final class SyntheticData {
+
+    static final String[] DEPARTMENTS = {
+            "Cardiology", "Pediatrics", "Neurology", "Oncology", "Surgery", "Dermatology",
+            "Orthopedics", "Gynecology", "Radiology", "Emergency", "Psychiatry", "General Medicine"
+    };
+    // Ordered most to least common; Zipf over the index gives realistic surname clustering
+    static final String[] SURNAMES = {
+            "Uwimana", "Niyonzima", "Mugisha", "Habimana", "Uwase", "Ingabire", "Nshimiyimana", "Mukamana",
+            "Hakizimana", "Tuyishime", "Iradukunda", "Nsengiyumva", "Mutesi", "Nkurunziza", "Bizimana",
+            "Ndayisaba", "Umutoni", "Kayitesi", "Mukeshimana", "Nzeyimana", "Smith", "Johnson", "Keza",
+            "Gasana", "Karangwa", "Rukundo", "Mbabazi", "Manzi", "Kamanzi", "Murenzi", "Byiringiro",
+            "Twagirayezu", "Munyaneza", "Rwigema", "Kalisa", "Sibomana", "Ntwari", "Gatete", "Ishimwe", "Cyuzuzo"
+    };
+    static final String[] FIRST_NAMES = {
+            "Jean", "Marie", "Eric", "Grace", "Claude", "Aline", "Patrick", "Diane", "Emmanuel", "Josiane",
+            "David", "Alice", "Olivier", "Chantal", "Innocent", "Esther", "Samuel", "Clarisse", "Fabrice", "Sandrine",
+            "Paul", "Ange", "Kevin", "Yvonne", "Thierry", "Divine", "Moses", "Sarah", "Pacifique", "Joy"
+    };
+    private static final String[] DISTRICTS = {"Gasabo", "Kicukiro", "Nyarugenge", "Musanze", "Huye", "Rubavu", "Rwamagana"};
+    private static final String[] MEDICINES = {
+            "Paracetamol", "Amoxicillin", "Ibuprofen", "Metformin", "Omeprazole", "Ciprofloxacin", "Artemether",
+            "Salbutamol", "Amlodipine", "Cotrimoxazole", "Diclofenac", "Vitamin C", "ORS Sachet", "Insulin", "Prednisolone"
+    };
+    private static final String[] REASONS = {
+            "Consultation", "Follow-up visit", "Fever", "Chest pain", "Routine check-up", "Headache",
+            "Vaccination", "Back pain", "Prenatal visit", "Skin rash", "Lab results review", "Cough"
+    };
+    private static final String[] NOTES = {
+            "Take after meals", "Complete the full course", "Review in two weeks", "Avoid alcohol",
+            "Drink plenty of fluids", "Return if symptoms persist", null
+    };
+    private static final String[] COMMENTS = {
+            "Very satisfied with the care", "Long waiting time", "Doctor was attentive", "Clean facility",
+            "Staff could be friendlier", "Quick service", "Pharmacy was out of stock", null, null
+    };
+
+    // Attribute salts keep the hash streams of different columns independent
+    private static final long FIRST = 1, LAST = 2, DOB = 3, GENDER = 4, CONTACT = 5, ADDRESS = 6, DUPLICATE = 7,
+            DUPLICATE_OF = 8, VARIANT = 9, PATIENT = 10, DOCTOR = 11, DATE = 12, STATUS = 13, REASON = 14,
+            APPOINTMENT = 15, NOTE = 16, ITEM_COUNT = 17, ITEM = 18, QUANTITY = 19, RATING = 20, COMMENT = 21,
+            STOCK = 22, PRICE = 23, FLOOR = 24, DOSAGE = 25;
+
+    /** Share of patients registered a second time with a spelling variant or swapped names. */
+    private static final double DUPLICATE_RATE = 0.005;
+
+    final long seed;
+    final long anchorDay;
+    final long departments;
+    final long doctors;
+    final long patients;
+    final long inventoryItems;
+    final long appointments;
+    final long prescriptions;
+    final long feedback;
+
+    private final Zipf surnames = new Zipf(SURNAMES.length, 1.0);
+    private final Zipf firstNames = new Zipf(FIRST_NAMES.length, 0.8);
+    private final Zipf doctorPopularity;
+    private final Zipf itemPopularity;
+
+    SyntheticData(long seed, LocalDate anchor, long patients) {
+        this.seed = seed;
+        this.anchorDay = anchor.toEpochDay();
+        this.patients = patients;
+        this.departments = DEPARTMENTS.length;
+        this.doctors = Math.max(20, patients / 500);
+        this.inventoryItems = 500;
+        this.appointments = patients * 3;
+        this.prescriptions = appointments * 6 / 10;
+        this.feedback = patients * 3 / 10;
+        this.doctorPopularity = new Zipf((int) doctors, 1.1);
+        this.itemPopularity = new Zipf((int) inventoryItems, 1.2);
+    }
+
+    // ---- hashing -----------------------------------------------------------------------------
+
+    private long hash(long salt, long id) {
+        long z = seed + salt * 0x9E3779B97F4A7C15L + id * 0xD1B54A32D192ED03L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private double unit(long salt, long id) {
+        return (hash(salt, id) >>> 11) * 0x1.0p-53;
+    }
+
+    private long below(long salt, long id, long bound) {
+        return Math.floorMod(hash(salt, id), bound);
+    }
+
+    // ---- departments -------------------------------------------------------------------------
+
+    String departmentName(long deptId) {
+        return DEPARTMENTS[(int) (deptId - 1) % DEPARTMENTS.length];
+    }
+
+    long departmentFloor(long deptId) {
+        return 1 + below(FLOOR, deptId, 6);
+    }
+
+    // ---- doctors -----------------------------------------------------------------------------
+
+    String doctorFirstName(long doctorId) {
+        return FIRST_NAMES[firstNames.sample(unit(FIRST + 100, doctorId))];
+    }
+
+    String doctorLastName(long doctorId) {
+        return SURNAMES[surnames.sample(unit(LAST + 100, doctorId))];
+    }
+
+    long doctorDepartment(long doctorId) {
+        return 1 + (doctorId - 1) % departments;
+    }
+
+    String doctorSpecialization(long doctorId) {
+        return departmentName(doctorDepartment(doctorId));
+    }
+
+    String doctorEmail(long doctorId) {
+        return doctorLastName(doctorId).toLowerCase() + doctorId + "@hospital.rw";
+    }
+
+    String doctorPhone(long doctorId) {
+        return "078" + (1_000_000 + below(CONTACT + 100, doctorId, 8_999_999));
+    }
+
+    // ---- patients ----------------------------------------------------------------------------
+
+    /** The earlier patient this one duplicates, or 0 when it is an original registration. */
+    private long duplicateOf(long patientId) {
+        if (patientId < 2 || unit(DUPLICATE, patientId) >= DUPLICATE_RATE) return 0;
+        return 1 + below(DUPLICATE_OF, patientId, patientId - 1);
+    }
+
+    private String originalFirstName(long patientId) {
+        return FIRST_NAMES[firstNames.sample(unit(FIRST, patientId))];
+    }
+
+    private String originalLastName(long patientId) {
+        return SURNAMES[surnames.sample(unit(LAST, patientId))];
+    }
+
+    String patientFirstName(long patientId) {
+        long original = duplicateOf(patientId);
+        if (original == 0) return originalFirstName(patientId);
+        return below(VARIANT, patientId, 3) == 0 ? patientLastName(original) : patientFirstName(original);
+    }
+
+    String patientLastName(long patientId) {
+        long original = duplicateOf(patientId);
+        if (original == 0) return originalLastName(patientId);
+        long variant = below(VARIANT, patientId, 3);
+        if (variant == 0) return patientFirstName(original); // first and last swapped
+        String name = patientLastName(original);
+        return variant == 1 ? misspell(name, patientId) : name;
+    }
+
+    private String misspell(String name, long patientId) {
+        int at = 1 + (int) below(VARIANT + 1, patientId, Math.max(1, name.length() - 1));
+        if (at >= name.length()) return name + "e";
+        // drop or double one letter, the most common data-entry slips
+        return below(VARIANT + 2, patientId, 2) == 0
+                ? name.substring(0, at) + name.substring(at + 1)
+                : name.substring(0, at) + name.charAt(at) + name.substring(at);
+    }
+
+    long patientDob(long patientId) {
+        long original = duplicateOf(patientId);
+        if (original != 0) return patientDob(original);
+        return LocalDate.of(1930, 1, 1).toEpochDay() + below(DOB, patientId, 365L * 90);
+    }
+
+    String patientGender(long patientId) {
+        long original = duplicateOf(patientId);
+        if (original != 0) return patientGender(original);
+        return below(GENDER, patientId, 2) == 0 ? "Male" : "Female";
+    }
+
+    String patientContact(long patientId) {
+        return "07" + (20_000_000 + below(CONTACT, patientId, 79_999_999));
+    }
+
+    String patientAddress(long patientId) {
+        return "KG " + (1 + below(ADDRESS, patientId, 999)) + " St, " + DISTRICTS[(int) below(ADDRESS + 1, patientId, DISTRICTS.length)];
+    }
+
+    // ---- inventory ---------------------------------------------------------------------------
+
+    String itemName(long itemId) {
+        return MEDICINES[(int) ((itemId - 1) % MEDICINES.length)] + " " + (100 + 50 * ((itemId - 1) / MEDICINES.length)) + "mg";
+    }
+
+    long itemStock(long itemId) {
+        return below(STOCK, itemId, 5_000);
+    }
+
+    /** Unit price in cents. */
+    long itemPriceCents(long itemId) {
+        return 5_000 + below(PRICE, itemId, 200_000);
+    }
+
+    // ---- appointments ------------------------------------------------------------------------
+
+    long appointmentPatient(long appointmentId) {
+        // u^2 leans visits toward lower ids: some patients come back far more often than others
+        double u = unit(PATIENT, appointmentId);
+        return 1 + Math.min(patients - 1, (long) (u * u * patients));
+    }
+
+    long appointmentDoctor(long appointmentId) {
+        return 1 + doctorPopularity.sample(unit(DOCTOR, appointmentId));
+    }
+
+    /** Three years of history plus sixty days of bookings, in 15-minute slots from 08:00 to 17:00. */
+    long appointmentMinute(long appointmentId) {
+        long day = anchorDay - 3 * 365 + below(DATE, appointmentId, 3 * 365 + 60);
+        long slot = below(DATE + 1, appointmentId, 36);
+        return day * 1440 + 8 * 60 + slot * 15;
+    }
+
+    String appointmentStatus(long appointmentId) {
+        if (appointmentMinute(appointmentId) >= anchorDay * 1440) return "Scheduled";
+        double u = unit(STATUS, appointmentId);
+        if (u < 0.80) return "Completed";
+        if (u < 0.93) return "Cancelled";
+        return "No-show";
+    }
+
+    String appointmentReason(long appointmentId) {
+        return REASONS[(int) below(REASON, appointmentId, REASONS.length)];
+    }
+
+    // ---- prescriptions and items -------------------------------------------------------------
+
+    long prescriptionAppointment(long prescriptionId) {
+        return 1 + below(APPOINTMENT, prescriptionId, appointments);
+    }
+
+    long prescriptionMinute(long prescriptionId) {
+        return appointmentMinute(prescriptionAppointment(prescriptionId)) + 20;
+    }
+
+    String prescriptionNotes(long prescriptionId) {
+        return NOTES[(int) below(NOTE, prescriptionId, NOTES.length)];
+    }
+
+    int prescriptionItemCount(long prescriptionId) {
+        return 1 + (int) below(ITEM_COUNT, prescriptionId, 4);
+    }
+
+    /**
+     * The n-th item of a prescription; callers skip repeats since (prescription_id, item_id) is the key.
+     */
+    long prescriptionItem(long prescriptionId, int n) {
+        return 1 + itemPopularity.sample(unit(ITEM + n, prescriptionId));
+    }
+
+    String dosage(long prescriptionId, int n) {
+        return (1 + below(DOSAGE, prescriptionId * 8 + n, 2)) + " tablet(s) " + (1 + below(DOSAGE + 1, prescriptionId * 8 + n, 3)) + " times daily";
+    }
+
+    long quantity(long prescriptionId, int n) {
+        return 1 + below(QUANTITY, prescriptionId * 8 + n, 30);
+    }
+
+    // ---- feedback ----------------------------------------------------------------------------
+
+    long feedbackPatient(long feedbackId) {
+        return 1 + below(PATIENT + 100, feedbackId, patients);
+    }
+
+    long feedbackRating(long feedbackId) {
+        double u = unit(RATING, feedbackId);
+        if (u < 0.40) return 5;
+        if (u < 0.70) return 4;
+        if (u < 0.85) return 3;
+        if (u < 0.93) return 2;
+        return 1;
+    }
+
+    String feedbackComments(long feedbackId) {
+        return COMMENTS[(int) below(COMMENT, feedbackId, COMMENTS.length)];
+    }
+
+    long feedbackDay(long feedbackId) {
+        return anchorDay - below(DATE + 100, feedbackId, 3 * 365);
+    }
+}
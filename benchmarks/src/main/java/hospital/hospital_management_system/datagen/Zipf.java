@@ -0,0 +1,33 @@
+package hospital.hospital_management_system.datagen;
+
+import java.util.Arrays;
+
+/**
+ * Zipf-distributed ranks 0..n-1 by inverse CDF. Rank 0 is the most popular.
+ * Memory is one double per rank, so keep n to reference-data sizes (doctors, surnames, items).
+ */
+final class Zipf {
+
+    private final double[] cdf;
+
+    Zipf(int n, double exponent) {
+        cdf = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cdf[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cdf[rank] /= sum;
+        }
+    }
+
+    /**
+     * @param uniform a value in [0, 1)
+     */
+    int sample(double uniform) {
+        int index = Arrays.binarySearch(cdf, uniform);
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cdf.length - 1);
+    }
+}
@@ -0,0 +1,40 @@
+package hospital.hospital_management_system.loadgen;
+
+import hospital.hospital_management_system.db.MigrationRunner;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Throwaway PostgreSQL for load runs. Points DBConnection at it through system properties,
+ * so it must be started before any DAO is used.
+ */
+final class EmbeddedDatabase implements AutoCloseable {
+
+    private final EmbeddedPostgres postgres;
+
+    private EmbeddedDatabase(EmbeddedPostgres postgres) {
+        this.postgres = postgres;
+    }
+
+    static EmbeddedDatabase start() throws IOException, SQLException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+
+        System.setProperty("DB__HOST", "localhost");
+        System.setProperty("DB__PORT", String.valueOf(postgres.getPort()));
+        System.setProperty("DB__NAME", "postgres");
+        System.setProperty("DB__USER", "postgres");
+        System.setProperty("DB__PASSWORD", "postgres");
+
+        // Same versioned scripts, and so the same indexes, as a production database
+        MigrationRunner.migrate();
+        System.out.println("Embedded PostgreSQL started on port " + postgres.getPort());
+        return new EmbeddedDatabase(postgres);
+    }
+
+    @Override
+    public void close() throws IOException {
+        postgres.close();
+    }
+}
@@ -0,0 +1,69 @@
+package hospital.hospital_management_system.loadgen;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Command-line options of the load generator, all in --key=value form:
+ * <pre>
+ *   --workstations=50            concurrent simulated workstations (one virtual thread each)
+ *   --duration=60                measured seconds
+ *   --warmup=10                  seconds run before measuring starts
+ *   --think-ms=0                 pause between a workstation's operations
+ *   --mix=register:10,search:50,book:25,dispense:15
+ *   --seed-patients=1000         patients created before the run (0 keeps existing data only)
+ *   --embedded                   start a throwaway embedded PostgreSQL instead of using .env settings
+ * </pre>
+ */
+final class LoadConfig {
+
+    int workstations = 50;
+    Duration duration = Duration.ofSeconds(60);
+    Duration warmup = Duration.ofSeconds(10);
+    long thinkMillis = 0;
+    final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+    int seedPatients = -1;
+    boolean embedded;
+
+    private LoadConfig() {
+        mix.put(Operation.REGISTER, 10);
+        mix.put(Operation.SEARCH, 50);
+        mix.put(Operation.BOOK, 25);
+        mix.put(Operation.DISPENSE, 15);
+    }
+
+    static LoadConfig parse(String[] args) {
+        LoadConfig config = new LoadConfig();
+        for (String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            String value = parts.length == 2 ? parts[1] : "";
+            switch (parts[0]) {
+                case "workstations" -> config.workstations = Integer.parseInt(value);
+                case "duration" -> config.duration = Duration.ofSeconds(Long.parseLong(value));
+                case "warmup" -> config.warmup = Duration.ofSeconds(Long.parseLong(value));
+                case "think-ms" -> config.thinkMillis = Long.parseLong(value);
+                case "mix" -> config.parseMix(value);
+                case "seed-patients" -> config.seedPatients = Integer.parseInt(value);
+                case "embedded" -> config.embedded = true;
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (config.seedPatients < 0) {
+            // An empty embedded database needs data; a local instance is assumed to have some
+            config.seedPatients = config.embedded ? 1_000 : 0;
+        }
+        return config;
+    }
+
+    private void parseMix(String value) {
+        mix.clear();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            mix.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("Operation mix must have a positive total weight");
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package hospital.hospital_management_system.loadgen;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless load test of the service layer: N simulated workstations, each on its own virtual
+ * thread, run a weighted mix of registrations, searches, bookings and dispensings against one
+ * database and report throughput and latency percentiles per operation. See {@link LoadConfig}.
+ */
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = LoadConfig.parse(args);
+
+        EmbeddedDatabase embedded = config.embedded ? EmbeddedDatabase.start() : null;
+        try {
+            run(config);
+        } finally {
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+    }
+
+    private static void run(LoadConfig config) throws InterruptedException, ExecutionException {
+        Seeder.ReferenceIds ids = Seeder.prepare(config);
+
+        System.out.printf("Running %d workstations for %ds (+%ds warm-up), mix %s%n",
+                config.workstations, config.duration.toSeconds(), config.warmup.toSeconds(), config.mix);
+
+        long measureFrom = System.nanoTime() + config.warmup.toNanos();
+        long stopAt = measureFrom + config.duration.toNanos();
+
+        List<Future<Workstation>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.workstations; i++) {
+                futures.add(executor.submit(new Workstation(config, ids, 1_000L + i, measureFrom, stopAt)));
+            }
+        }
+
+        Map<Operation, LatencyHistogram> merged = new EnumMap<>(Operation.class);
+        Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            merged.put(operation, new LatencyHistogram());
+            errors.put(operation, 0L);
+        }
+        for (Future<Workstation> future : futures) {
+            Workstation workstation = future.get();
+            for (Operation operation : Operation.values()) {
+                merged.get(operation).merge(workstation.latencies.get(operation));
+                errors.merge(operation, workstation.errors.get(operation), Long::sum);
+            }
+        }
+
+        report(config, merged, errors);
+    }
+
+    private static void report(LoadConfig config, Map<Operation, LatencyHistogram> latencies, Map<Operation, Long> errors) {
+        double seconds = config.duration.toMillis() / 1000.0;
+        long totalOps = 0;
+
+        System.out.println();
+        System.out.printf("%-10s %10s %10s %10s %10s %10s %10s %8s%n",
+                "operation", "count", "ops/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors");
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram h = latencies.get(operation);
+            totalOps += h.count();
+            System.out.printf("%-10s %10d %10.1f %10.2f %10.2f %10.2f %10.2f %8d%n",
+                    operation.name().toLowerCase(), h.count(), h.count() / seconds,
+                    h.percentile(0.50) / 1000.0, h.percentile(0.99) / 1000.0, h.percentile(0.999) / 1000.0,
+                    h.max() / 1000.0, errors.get(operation));
+        }
+        System.out.printf("%-10s %10d %10.1f%n", "total", totalOps, totalOps / seconds);
+    }
+}
@@ -0,0 +1,11 @@
+package hospital.hospital_management_system.loadgen;
+
+/**
+ * Front-desk, scheduling and pharmacy actions a simulated workstation performs.
+ */
+public enum Operation {
+    REGISTER,
+    SEARCH,
+    BOOK,
+    DISPENSE
+}
@@ -0,0 +1,82 @@
+package hospital.hospital_management_system.loadgen;
+
+import hospital.hospital_management_system.dao.DepartmentDAO;
+import hospital.hospital_management_system.dao.DoctorDAO;
+import hospital.hospital_management_system.dao.MedicalInventoryDAO;
+import hospital.hospital_management_system.dao.PatientDAO;
+import hospital.hospital_management_system.model.Department;
+import hospital.hospital_management_system.model.Doctor;
+import hospital.hospital_management_system.model.MedicalInventory;
+import hospital.hospital_management_system.model.Patient;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Creates the reference data a run needs and collects the ids workstations draw from.
+ */
+final class Seeder {
+
+    static final String[] FIRST_NAMES = {"Alice", "Jean", "Marie", "Eric", "Grace", "Paul", "Aline", "David", "Claude", "Diane"};
+    static final String[] LAST_NAMES = {"Uwase", "Mugisha", "Habimana", "Ingabire", "Niyonzima", "Smith", "Keza", "Mutesi", "Nkurunziza"};
+    private static final String[] SPECIALIZATIONS = {"Cardiology", "Pediatrics", "Neurology", "Oncology", "Surgery", "General"};
+
+    private static final int MAX_PATIENT_IDS = 10_000;
+
+    private Seeder() {}
+
+    record ReferenceIds(long[] patientIds, long[] doctorIds) {}
+
+    static ReferenceIds prepare(LoadConfig config) {
+        Random random = new Random(42);
+        PatientDAO patientDAO = new PatientDAO();
+        DoctorDAO doctorDAO = new DoctorDAO();
+
+        if (config.seedPatients > 0) {
+            System.out.println("Seeding " + config.seedPatients + " patients and reference data...");
+            DepartmentDAO departmentDAO = new DepartmentDAO();
+            for (int i = 0; i < SPECIALIZATIONS.length; i++) {
+                departmentDAO.addDepartment(new Department(SPECIALIZATIONS[i], i + 1));
+            }
+            List<Department> departments = departmentDAO.getAllDepartments();
+            for (int i = 0; i < 50; i++) {
+                String last = pick(random, LAST_NAMES);
+                doctorDAO.addDoctor(new Doctor(pick(random, FIRST_NAMES), last, last.toLowerCase() + i + "@hospital.rw",
+                        pick(random, SPECIALIZATIONS), departments.get(i % departments.size()), "0780000" + i));
+            }
+            MedicalInventoryDAO inventoryDAO = new MedicalInventoryDAO();
+            for (int i = 0; i < 100; i++) {
+                inventoryDAO.addInventoryItem(new MedicalInventory("Medicine " + i, 1_000_000, BigDecimal.valueOf(500 + i)));
+            }
+            for (int i = 0; i < config.seedPatients; i++) {
+                patientDAO.addPatient(randomPatient(random));
+            }
+        }
+
+        long[] patientIds = patientDAO.getPatientsPaginated(MAX_PATIENT_IDS, 0).stream()
+                .mapToLong(Patient::getPatientId).toArray();
+        long[] doctorIds = doctorDAO.getAllDoctors().stream()
+                .mapToLong(Doctor::getDoctorId).toArray();
+        if (patientIds.length == 0 || doctorIds.length == 0) {
+            throw new IllegalStateException("Database has no patients or doctors; run with --seed-patients=N");
+        }
+        return new ReferenceIds(patientIds, doctorIds);
+    }
+
+    static Patient randomPatient(Random random) {
+        return new Patient(
+                pick(random, FIRST_NAMES),
+                pick(random, LAST_NAMES),
+                LocalDate.of(1940, 1, 1).plusDays(random.nextInt(30_000)),
+                random.nextBoolean() ? "Male" : "Female",
+                "07" + (10_000_000 + random.nextInt(89_999_999)),
+                "KG " + random.nextInt(999) + " St, Kigali"
+        );
+    }
+
+    static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,154 @@
+package hospital.hospital_management_system.loadgen;
+
+import hospital.hospital_management_system.model.Appointment;
+import hospital.hospital_management_system.model.Doctor;
+import hospital.hospital_management_system.model.MedicalInventory;
+import hospital.hospital_management_system.model.Patient;
+import hospital.hospital_management_system.model.PrescriptionItems;
+import hospital.hospital_management_system.model.Prescriptions;
+import hospital.hospital_management_system.services.AppointmentService;
+import hospital.hospital_management_system.services.MedicalInventoryService;
+import hospital.hospital_management_system.services.PatientService;
+import hospital.hospital_management_system.services.PrescriptionService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+/**
+ * One simulated desk with its own service instances. The service caches are static, so all
+ * workstations share them, like the screens of one app instance rather than separate
+ * installations. It records latencies of successful operations into its own histograms, so
+ * workstations never contend on them; failures are only counted.
+ */
+final class Workstation implements Callable<Workstation> {
+
+    private static final int MAX_OPEN_APPOINTMENTS = 100;
+
+    private final LoadConfig config;
+    private final Seeder.ReferenceIds ids;
+    private final Random random;
+    private final long measureFromNanos;
+    private final long stopAtNanos;
+
+    private final PatientService patientService = new PatientService();
+    private final AppointmentService appointmentService = new AppointmentService();
+    private final MedicalInventoryService inventoryService = new MedicalInventoryService();
+    private final PrescriptionService prescriptionService = new PrescriptionService();
+
+    private final Operation[] weightedOperations;
+    private final ArrayDeque<Long> openAppointments = new ArrayDeque<>();
+    private List<MedicalInventory> inventory;
+
+    final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+    final Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+
+    Workstation(LoadConfig config, Seeder.ReferenceIds ids, long seed, long measureFromNanos, long stopAtNanos) {
+        this.config = config;
+        this.ids = ids;
+        this.random = new Random(seed);
+        this.measureFromNanos = measureFromNanos;
+        this.stopAtNanos = stopAtNanos;
+        this.weightedOperations = expandMix(config.mix);
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+            errors.put(operation, 0L);
+        }
+    }
+
+    private static Operation[] expandMix(Map<Operation, Integer> mix) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        Operation[] table = new Operation[total];
+        int i = 0;
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            for (int w = 0; w < entry.getValue(); w++) {
+                table[i++] = entry.getKey();
+            }
+        }
+        return table;
+    }
+
+    @Override
+    public Workstation call() throws InterruptedException {
+        inventory = inventoryService.getAllInventoryItems();
+
+        while (System.nanoTime() < stopAtNanos) {
+            Operation operation = weightedOperations[random.nextInt(weightedOperations.length)];
+            if (operation == Operation.DISPENSE && inventory.isEmpty()) {
+                continue; // no stock to prescribe from; the other operations keep their share
+            }
+            if (operation == Operation.DISPENSE && openAppointments.isEmpty()) {
+                operation = Operation.BOOK; // nothing to dispense against yet
+            }
+
+            long start = System.nanoTime();
+            try {
+                perform(operation);
+                if (start >= measureFromNanos) {
+                    latencies.get(operation).record((System.nanoTime() - start) / 1_000);
+                }
+            } catch (RuntimeException e) {
+                // a fast failure (e.g. an open circuit breaker) would otherwise pull the percentiles down
+                if (start >= measureFromNanos) {
+                    errors.merge(operation, 1L, Long::sum);
+                }
+            }
+
+            if (config.thinkMillis > 0) {
+                Thread.sleep(config.thinkMillis);
+            }
+        }
+        return this;
+    }
+
+    private void perform(Operation operation) {
+        switch (operation) {
+            case REGISTER -> patientService.addPatient(Seeder.randomPatient(random));
+            case SEARCH -> {
+                String lastName = Seeder.pick(random, Seeder.LAST_NAMES);
+                patientService.searchPatientByLastName(lastName.substring(0, 3));
+            }
+            case BOOK -> book();
+            case DISPENSE -> dispense();
+        }
+    }
+
+    private void book() {
+        long patientId = ids.patientIds()[random.nextInt(ids.patientIds().length)];
+        long doctorId = ids.doctorIds()[random.nextInt(ids.doctorIds().length)];
+        LocalDateTime slot = LocalDateTime.now().plusDays(1 + random.nextInt(30))
+                .withHour(8 + random.nextInt(9)).withMinute(15 * random.nextInt(4)).withSecond(0).withNano(0);
+
+        Appointment appointment = new Appointment(new Patient(patientId), new Doctor(doctorId), slot, "Consultation");
+        appointmentService.create(appointment);
+        if (appointment.getAppointmentId() != null) {
+            if (openAppointments.size() == MAX_OPEN_APPOINTMENTS) {
+                openAppointments.removeFirst();
+            }
+            openAppointments.addLast(appointment.getAppointmentId());
+        }
+    }
+
+    private void dispense() {
+        Prescriptions prescription = new Prescriptions(openAppointments.removeFirst(), LocalDateTime.now(), "Take after meals");
+
+        // 1-3 distinct items, since (prescription_id, item_id) is the key
+        int itemCount = 1 + random.nextInt(3);
+        int first = random.nextInt(inventory.size());
+        List<PrescriptionItems> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount && i < inventory.size(); i++) {
+            MedicalInventory item = inventory.get((first + i) % inventory.size());
+            items.add(new PrescriptionItems(prescription, item, "1 tablet twice daily", 1 + random.nextInt(10)));
+        }
+
+        // Prescription, items and stock in one transaction and one commit
+        if (!prescriptionService.createPrescription(prescription, items)) {
+            throw new IllegalStateException("Prescription was not created");
+        }
+    }
+}
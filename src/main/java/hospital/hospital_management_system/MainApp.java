@@ -1,23 +1,174 @@
 package hospital.hospital_management_system;
 
+import hospital.hospital_management_system.audit.AuditTrail;
+import hospital.hospital_management_system.controller.ErrorDialogs;
+import hospital.hospital_management_system.db.MigrationRunner;
+import hospital.hospital_management_system.reminders.ReminderScheduler;
+import hospital.hospital_management_system.services.DoctorAssignmentService;
+import hospital.hospital_management_system.services.ReferenceDataSync;
+import hospital.hospital_management_system.services.WalkInQueueService;
+import hospital.hospital_management_system.utils.Log;
+import hospital.hospital_management_system.utils.StartupMetrics;
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+
+import java.sql.SQLException;
+import java.util.List;
 
 public class MainApp extends Application {
 
+    private static final Log log = Log.get(MainApp.class);
+
     @Override
     public void start(Stage stage) throws Exception {
-        Parent root = FXMLLoader.load(
-                getClass().getResource("PatientView.fxml")
-        );
-
-        Scene scene = new Scene(root, 1000, 600);
-        stage.setTitle("Hospital Management System");
-        stage.setScene(scene);
-        stage.show();
+        StartupMetrics.mark("fx-start");
+        Thread.currentThread().setUncaughtExceptionHandler(MainApp::uncaughtOnFxThread);
+
+        // Show a splash built in code first, so nothing heavy runs before the first frame
+        Stage splash = createSplash();
+        splash.show();
+        StartupMetrics.mark("splash-shown");
+
+        // FXML parsing and the first controller's data load happen off the FX thread
+        Task<Parent> loadMainView = new Task<>() {
+            @Override
+            protected Parent call() throws Exception {
+                warmUpReferenceData();
+                migrateSchema();
+                ReferenceDataSync.start();
+                AuditTrail.start();   // also replays audit events spooled while the database was down
+                ReminderScheduler.start();
+                WalkInQueueService.start();   // starts reading the shared walk-in queues
+                DoctorAssignmentService.start();
+                return FXMLLoader.load(MainApp.class.getResource("PatientView.fxml"));
+            }
+        };
+
+        loadMainView.setOnSucceeded(event -> {
+            StartupMetrics.mark("main-view-loaded");
+            Scene scene = new Scene(loadMainView.getValue(), 1000, 600);
+            scene.addPostLayoutPulseListener(new FirstFrameListener(scene));
+            stage.setTitle("Hospital Management System");
+            stage.setScene(scene);
+            stage.show();
+            splash.close();
+            checkSchemaVersion(stage);
+        });
+
+        loadMainView.setOnFailed(event -> {
+            log.error("Error loading main view", loadMainView.getException());
+            Log.flush();
+            Platform.exit();
+        });
+
+        Thread loader = new Thread(loadMainView, "main-view-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    // A DAO failure in a button or selection handler ends up here
+    private static void uncaughtOnFxThread(Thread thread, Throwable error) {
+        if (!ErrorDialogs.showIfDatabaseFailure(error)) {
+            log.error("Uncaught exception on {}", thread.getName(), error);
+        }
+    }
+
+    // Patients, doctors and departments from the local snapshot, before anything touches the database
+    private static void warmUpReferenceData() {
+        int records = ReferenceDataSync.warmUp();
+        StartupMetrics.mark("reference-data-warmed");
+        if (records > 0) {
+            log.info("Loaded {} records from the reference data snapshot", records);
+        }
+    }
+
+    // Migrations are a deploy step (MigrationRunner.main); DB__MIGRATE=true runs them here instead,
+    // for development
+    private static void migrateSchema() {
+        if (!MigrationRunner.enabled()) {
+            return;   // checkSchemaVersion reports a schema left behind once the window is up
+        }
+        try {
+            MigrationRunner.migrate();
+            StartupMetrics.mark("schema-migrated");
+        } catch (SQLException e) {
+            // The screens still open; every DAO reports its own failures
+            log.error("Schema migration failed", e);
+        }
+    }
+
+    // Warns, on a background thread so startup does not wait for the database, when migrations
+    // of this version have not been applied
+    private static void checkSchemaVersion(Stage owner) {
+        if (MigrationRunner.enabled()) {
+            return;
+        }
+        Thread check = new Thread(() -> {
+            List<String> pending;
+            try {
+                pending = MigrationRunner.pending();
+            } catch (SQLException e) {
+                log.warn("Could not check the database schema version: {}", e.getMessage());
+                return;
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+            log.warn("The database schema is {} migration(s) behind this version ({} onwards); run MigrationRunner",
+                    pending.size(), pending.get(0));
+            Platform.runLater(() -> {
+                Alert alert = new Alert(Alert.AlertType.WARNING, "The database has not been upgraded for this version of "
+                        + "the application (" + pending.size() + " migration(s) pending), so some screens may fail. "
+                        + "Ask an administrator to run the database migrations.");
+                alert.setHeaderText("Database schema out of date");
+                alert.initOwner(owner);
+                alert.show();
+            });
+        }, "schema-version-check");
+        check.setDaemon(true);
+        check.start();
+    }
+
+    private Stage createSplash() {
+        VBox box = new VBox(12, new Label("Hospital Management System"), new ProgressIndicator());
+        box.setPadding(new Insets(24));
+        box.setStyle("-fx-alignment: center;");
+
+        Stage splash = new Stage(StageStyle.UNDECORATED);
+        splash.setScene(new Scene(box, 320, 160));
+        return splash;
+    }
+
+    /**
+     * Fires once, after the first layout pulse of the main scene has been rendered.
+     */
+    private static final class FirstFrameListener implements Runnable {
+        private final Scene scene;
+
+        private FirstFrameListener(Scene scene) {
+            this.scene = scene;
+        }
+
+        @Override
+        public void run() {
+            // Removing the listener while the pulse is iterating them is not allowed
+            Platform.runLater(() -> scene.removePostLayoutPulseListener(this));
+            StartupMetrics.firstFrame();
+            if (StartupMetrics.exitAfterFirstFrame()) {
+                Platform.exit();
+            }
+        }
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,13 @@
+package hospital.hospital_management_system.audit;
+
+import java.time.Instant;
+
+/**
+ * One audited write: the row before and after it as JSON text (to_jsonb of the row), null for the
+ * side that does not exist (before an insert, after a delete).
+ */
+public record AuditEvent(Instant occurredAt, String actor, String entity, long entityId,
+                         AuditEvent.Action action, String before, String after) {
+
+    public enum Action { INSERT, UPDATE, DELETE }
+}
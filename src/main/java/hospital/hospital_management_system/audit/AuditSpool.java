@@ -0,0 +1,167 @@
+package hospital.hospital_management_system.audit;
+
+import hospital.hospital_management_system.utils.PrivateFiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Append-only local log of audit events that could not be written to the database, in segments
+ * of about 8 MB (audit-&lt;n&gt;.log). Every append is forced to disk. The writer replays sealed
+ * segments into audit_log once the database is back and deletes them; a record cut short by a
+ * crash ends its segment. Segments hold patient data, so only their owner can read them.
+ */
+final class AuditSpool {
+
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".log";
+    private static final long SEGMENT_BYTES = 8L << 20;
+
+    private final Path directory;
+    private FileChannel segment;
+    private long nextNumber = -1;
+
+    AuditSpool(Path directory) {
+        this.directory = directory;
+    }
+
+    synchronized void append(List<AuditEvent> events) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(events.size() * 256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (AuditEvent event : events) {
+            ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+            encode(new DataOutputStream(record), event);
+            out.writeInt(record.size());
+            record.writeTo(out);
+        }
+        if (segment == null || segment.size() >= SEGMENT_BYTES) {
+            roll();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        while (buffer.hasRemaining()) {
+            segment.write(buffer);
+        }
+        segment.force(false);
+    }
+
+    /**
+     * Closes the segment being appended to and returns every segment, oldest first. Appends after
+     * this go to a new segment, so the ones returned are safe to replay and delete.
+     */
+    synchronized List<Path> seal() throws IOException {
+        if (segment != null) {
+            segment.close();
+            segment = null;
+        }
+        return segments();
+    }
+
+    boolean isEmpty() throws IOException {
+        return segments().isEmpty();
+    }
+
+    static List<AuditEvent> read(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        List<AuditEvent> events = new ArrayList<>();
+        while (buffer.remaining() >= Integer.BYTES) {
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                break;   // torn write at the end of the segment
+            }
+            ByteBuffer record = buffer.slice(buffer.position(), length);
+            buffer.position(buffer.position() + length);
+            events.add(decode(record));
+        }
+        return events;
+    }
+
+    private void roll() throws IOException {
+        if (segment != null) {
+            segment.close();
+        }
+        PrivateFiles.createDirectories(directory);
+        if (nextNumber < 0) {
+            List<Path> existing = segments();
+            nextNumber = existing.isEmpty() ? 1 : number(existing.get(existing.size() - 1)) + 1;
+        }
+        Path file = directory.resolve(PREFIX + nextNumber++ + SUFFIX);
+        segment = FileChannel.open(file, Set.of(StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND),
+                PrivateFiles.ownerOnly(file));
+    }
+
+    private List<Path> segments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> number(file) > 0)
+                    .sorted(Comparator.comparingLong(AuditSpool::number))
+                    .toList();
+        }
+    }
+
+    private static long number(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void encode(DataOutputStream out, AuditEvent event) throws IOException {
+        out.writeLong(event.occurredAt().getEpochSecond());
+        out.writeInt(event.occurredAt().getNano());
+        writeString(out, event.actor());
+        writeString(out, event.entity());
+        out.writeLong(event.entityId());
+        out.writeByte(event.action().ordinal());
+        writeString(out, event.before());
+        writeString(out, event.after());
+    }
+
+    private static AuditEvent decode(ByteBuffer in) {
+        Instant occurredAt = Instant.ofEpochSecond(in.getLong(), in.getInt());
+        String actor = readString(in);
+        String entity = readString(in);
+        long entityId = in.getLong();
+        AuditEvent.Action action = AuditEvent.Action.values()[in.get()];
+        return new AuditEvent(occurredAt, actor, entity, entityId, action, readString(in), readString(in));
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,320 @@
+package hospital.hospital_management_system.audit;
+
+import hospital.hospital_management_system.utils.DBConnection;
+import hospital.hospital_management_system.utils.EnvLoader;
+import hospital.hospital_management_system.utils.Log;
+import hospital.hospital_management_system.utils.RingBuffer;
+import hospital.hospital_management_system.utils.UnitOfWork;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail of clinical writes (patients, appointments, prescriptions), kept off the write
+ * path. DAOs hand over the before and after image of each row they change; the event waits in a
+ * lock-free ring buffer until its transaction commits and a background writer inserts it into
+ * audit_log in batches (see V7__audit_log.sql).
+ * <p>
+ * When the database cannot take the batch, it goes to a local spool (DB__AUDIT_SPOOL_DIR, by
+ * default ~/.hospital_management_system/audit) and is replayed later. A full buffer makes writers
+ * wait for the audit writer, at most DB__AUDIT_MAX_WAIT_MILLIS (default 2000), after which they
+ * append the event to the spool themselves. On a clean shutdown everything buffered is written
+ * or spooled before the JVM exits; only a crash loses the events still in memory.
+ */
+public final class AuditTrail {
+
+    private static final Log log = Log.get(AuditTrail.class);
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int CAPACITY = Integer.parseInt(EnvLoader.get("DB__AUDIT_BUFFER", "8192"));
+    private static final long MAX_WAIT_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(Long.parseLong(EnvLoader.get("DB__AUDIT_MAX_WAIT_MILLIS", "2000")));
+    private static final long FLUSH_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long RETRY_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final long IDLE_CLOSE_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final Path SPOOL_DIRECTORY = Paths.get(EnvLoader.get("DB__AUDIT_SPOOL_DIR",
+            Paths.get(System.getProperty("user.home"), ".hospital_management_system", "audit").toString()));
+
+    private static final String INSERT = """
+            INSERT INTO audit_log (occurred_at, actor, entity, entity_id, action, before_image, after_image)
+            SELECT occurred_at, actor, entity, entity_id, action, before_image::jsonb, after_image::jsonb
+            FROM unnest(?::timestamptz[], ?::text[], ?::text[], ?::bigint[], ?::text[], ?::text[], ?::text[])
+                AS e(occurred_at, actor, entity, entity_id, action, before_image, after_image)
+            """;
+
+    // No login yet; the operating-system user is the best name there is for who made a change
+    private static final String ACTOR = System.getProperty("user.name");
+
+    private static final RingBuffer<AuditEvent> BUFFER = new RingBuffer<>(CAPACITY);
+    private static final AuditSpool SPOOL = new AuditSpool(SPOOL_DIRECTORY);
+
+    private static final LongAdder recorded = new LongAdder();
+    private static final LongAdder written = new LongAdder();
+    private static final LongAdder spooled = new LongAdder();
+    private static final LongAdder waits = new LongAdder();
+
+    private static volatile Thread writer;
+    private static volatile boolean closing;
+    private static volatile List<AuditEvent> inFlight;          // batch the writer is inserting
+    private static volatile boolean spoolPending;                // set by whoever appends to the spool
+    private static long retryAtNanos = System.nanoTime();         // writer thread only
+    private static Connection connection;                         // writer thread only, kept while busy
+    private static long lastWriteNanos;                           // writer thread only
+
+    private AuditTrail() {} // Prevent instantiation
+
+    /**
+     * Audits one changed row. Inside a UnitOfWork the event is queued when the unit commits and
+     * dropped if it rolls back.
+     */
+    public static void record(String entity, long entityId, AuditEvent.Action action, String before, String after) {
+        AuditEvent event = new AuditEvent(Instant.now(), ACTOR, entity, entityId, action, before, after);
+        UnitOfWork.afterCommit(() -> enqueue(event));
+    }
+
+    private static void enqueue(AuditEvent event) {
+        Thread current = start();
+        recorded.increment();
+        if (!closing) {
+            if (BUFFER.offer(event)) {
+                if (BUFFER.size() >= BATCH_SIZE) {
+                    LockSupport.unpark(current);
+                }
+                return;
+            }
+            // Full: the writer is behind. Give it a bounded time to make room
+            waits.increment();
+            long deadline = System.nanoTime() + MAX_WAIT_NANOS;
+            do {
+                LockSupport.unpark(current);
+                LockSupport.parkNanos(100_000);
+                if (BUFFER.offer(event)) {
+                    return;
+                }
+            } while (System.nanoTime() < deadline && !closing);
+        }
+        spool(List.of(event));
+    }
+
+    /**
+     * Starts the writer if it is not running. Called by the first audited write; also replays
+     * events spooled by an earlier run.
+     */
+    public static Thread start() {
+        Thread current = writer;
+        if (current != null) {
+            return current;
+        }
+        synchronized (AuditTrail.class) {
+            if (writer == null) {
+                Thread thread = new Thread(AuditTrail::runWriter, "audit-writer");
+                thread.setDaemon(true);
+                thread.start();
+                try {
+                    Runtime.getRuntime().addShutdownHook(new Thread(AuditTrail::shutdown, "audit-shutdown"));
+                } catch (IllegalStateException e) {
+                    closing = true;   // first audited write during shutdown: spool it
+                }
+                writer = thread;
+            }
+            return writer;
+        }
+    }
+
+    /**
+     * Writes everything still buffered and stops the writer. Runs from a shutdown hook; safe to
+     * call earlier and more than once. Events recorded afterwards go straight to the spool.
+     */
+    public static void shutdown() {
+        Thread current = writer;
+        if (current == null || closing) {
+            return;
+        }
+        closing = true;
+        LockSupport.unpark(current);
+        try {
+            current.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (current.isAlive()) {
+            // Writer stuck on the database: keep its batch and the rest of the buffer on disk.
+            // The batch may then be written twice, never lost
+            List<AuditEvent> stuck = inFlight;
+            if (stuck != null) {
+                spool(stuck);
+            }
+            List<AuditEvent> rest = new ArrayList<>();
+            synchronized (BUFFER) {
+                while (BUFFER.drainTo(rest, Integer.MAX_VALUE) > 0) {
+                    spool(rest);
+                    rest.clear();
+                }
+            }
+        }
+    }
+
+    public static long getRecordedCount() {
+        return recorded.sum();
+    }
+
+    public static long getWrittenCount() {
+        return written.sum();
+    }
+
+    public static long getSpooledCount() {
+        return spooled.sum();
+    }
+
+    // How often a write found the buffer full and had to wait
+    public static long getBackpressureCount() {
+        return waits.sum();
+    }
+
+    public static int getPendingCount() {
+        return BUFFER.size();
+    }
+
+    private static void runWriter() {
+        try {
+            spoolPending = !SPOOL.isEmpty();
+        } catch (IOException e) {
+            spoolPending = true;
+        }
+        List<AuditEvent> batch = new ArrayList<>(BATCH_SIZE);
+        while (true) {
+            boolean stopping = closing;
+            int drained;
+            synchronized (BUFFER) {   // the only other consumer is a shutdown that gave up on this thread
+                drained = BUFFER.drainTo(batch, BATCH_SIZE);
+            }
+            if (drained > 0) {
+                inFlight = batch;
+                write(batch);
+                inFlight = null;
+                batch = new ArrayList<>(BATCH_SIZE);
+                continue;
+            }
+            if (stopping) {
+                closeConnection();
+                return;   // drained after seeing the flag, so nothing recorded before it is left
+            }
+            if (spoolPending && System.nanoTime() - retryAtNanos >= 0) {
+                replaySpool();
+            }
+            if (connection != null && System.nanoTime() - lastWriteNanos > IDLE_CLOSE_NANOS) {
+                closeConnection();
+            }
+            LockSupport.parkNanos(FLUSH_NANOS);
+        }
+    }
+
+    private static void write(List<AuditEvent> batch) {
+        if (System.nanoTime() - retryAtNanos < 0) {
+            spool(batch);
+            return;
+        }
+        try {
+            if (connection == null) {
+                connection = DBConnection.getConnection();
+            }
+            insert(connection, batch);
+            written.add(batch.size());
+            lastWriteNanos = System.nanoTime();
+        } catch (SQLException e) {
+            log.warn("Audit events spooled locally, database write failed: {}", e.getMessage());
+            closeConnection();
+            retryAtNanos = System.nanoTime() + RETRY_NANOS;
+            spool(batch);
+        }
+    }
+
+    private static void closeConnection() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                // already broken
+            }
+            connection = null;
+        }
+    }
+
+    private static void spool(List<AuditEvent> events) {
+        try {
+            SPOOL.append(events);
+            spooled.add(events.size());
+            spoolPending = true;
+        } catch (IOException e) {
+            log.error("{} audit event(s) lost, could not write to {}", events.size(), SPOOL_DIRECTORY, e);
+        }
+    }
+
+    // Each segment goes in one transaction, so a failure leaves it whole for the next attempt
+    private static void replaySpool() {
+        spoolPending = false;   // before sealing: an append from now on sets it again
+        try {
+            for (Path segment : SPOOL.seal()) {
+                List<AuditEvent> events = AuditSpool.read(segment);
+                try (UnitOfWork work = UnitOfWork.begin()) {
+                    Connection conn = DBConnection.getConnection();
+                    for (int i = 0; i < events.size(); i += BATCH_SIZE) {
+                        insert(conn, events.subList(i, Math.min(events.size(), i + BATCH_SIZE)));
+                    }
+                    work.commit();
+                }
+                Files.delete(segment);
+                written.add(events.size());
+            }
+        } catch (SQLException e) {
+            spoolPending = true;
+            retryAtNanos = System.nanoTime() + RETRY_NANOS;
+        } catch (IOException e) {
+            spoolPending = true;
+            log.warn("Could not replay audit spool in {}: {}", SPOOL_DIRECTORY, e.getMessage());
+            retryAtNanos = System.nanoTime() + RETRY_NANOS;
+        }
+    }
+
+    private static void insert(Connection conn, List<AuditEvent> events) throws SQLException {
+        int size = events.size();
+        String[] occurredAt = new String[size];
+        String[] actors = new String[size];
+        String[] entities = new String[size];
+        Long[] ids = new Long[size];
+        String[] actions = new String[size];
+        String[] before = new String[size];
+        String[] after = new String[size];
+        for (int i = 0; i < size; i++) {
+            AuditEvent event = events.get(i);
+            occurredAt[i] = event.occurredAt().toString();
+            actors[i] = event.actor();
+            entities[i] = event.entity();
+            ids[i] = event.entityId();
+            actions[i] = event.action().name();
+            before[i] = event.before();
+            after[i] = event.after();
+        }
+        try (PreparedStatement ps = conn.prepareStatement(INSERT)) {
+            ps.setArray(1, conn.createArrayOf("text", occurredAt));
+            ps.setArray(2, conn.createArrayOf("text", actors));
+            ps.setArray(3, conn.createArrayOf("text", entities));
+            ps.setArray(4, conn.createArrayOf("bigint", ids));
+            ps.setArray(5, conn.createArrayOf("text", actions));
+            ps.setArray(6, conn.createArrayOf("text", before));
+            ps.setArray(7, conn.createArrayOf("text", after));
+            ps.executeUpdate();
+        }
+    }
+}
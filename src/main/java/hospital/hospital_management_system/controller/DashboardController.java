@@ -0,0 +1,154 @@
+package hospital.hospital_management_system.controller;
+
+import eu.hansolo.tilesfx.Tile;
+import eu.hansolo.tilesfx.TileBuilder;
+import eu.hansolo.tilesfx.chart.ChartData;
+import eu.hansolo.tilesfx.skins.BarChartItem;
+import hospital.hospital_management_system.dashboard.DashboardSnapshot;
+import hospital.hospital_management_system.dashboard.OperationsMetrics;
+import hospital.hospital_management_system.model.InventorySummary;
+import hospital.hospital_management_system.utils.EnvLoader;
+import javafx.application.Platform;
+import javafx.fxml.FXML;
+import javafx.scene.control.Label;
+import javafx.scene.layout.FlowPane;
+import javafx.scene.paint.Color;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Live operations dashboard. {@link OperationsMetrics} reports every change; changes are
+ * coalesced into at most DB__DASHBOARD_MAX_FPS (default 4) redraws a second, and none at all
+ * while nothing changes, so the FX thread stays idle between them.
+ */
+public class DashboardController {
+
+    private static final long FRAME_NANOS =
+            TimeUnit.SECONDS.toNanos(1) / Math.max(1, Long.parseLong(EnvLoader.get("DB__DASHBOARD_MAX_FPS", "4")));
+    private static final int LOW_STOCK_LINES = 10;
+
+    private static final Map<String, Color> STATUS_COLORS = Map.of(
+            "Scheduled", Tile.BLUE, "Completed", Tile.GREEN, "Cancelled", Tile.GRAY, "No-show", Tile.RED);
+
+    // Delays redraws until their frame is due; shared by every open dashboard
+    private static final ScheduledExecutorService FRAMES = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "dashboard-frames");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @FXML private FlowPane tilePane;
+
+    private Tile appointmentsTile;
+    private Tile queuesTile;
+    private Tile stockTile;
+    private Tile ratingTile;
+    private final Label lowStockList = new Label();
+    private final Map<String, ChartData> statusData = new HashMap<>();
+    private final Map<String, BarChartItem> queueItems = new HashMap<>();
+
+    private final AtomicBoolean framePending = new AtomicBoolean();
+    private volatile long lastFrameNanos = System.nanoTime() - FRAME_NANOS;
+    private final Runnable onChange = this::requestFrame;
+
+    @FXML
+    public void initialize() {
+        appointmentsTile = TileBuilder.create()
+                .skinType(Tile.SkinType.DONUT_CHART)
+                .title("Today's appointments")
+                .animated(false)
+                .build();
+        queuesTile = TileBuilder.create()
+                .skinType(Tile.SkinType.BAR_CHART)
+                .title("Walk-ins waiting")
+                .animated(false)
+                .build();
+        lowStockList.setTextFill(Tile.FOREGROUND);
+        stockTile = TileBuilder.create()
+                .skinType(Tile.SkinType.CUSTOM)
+                .title("Low stock")
+                .graphic(lowStockList)
+                .animated(false)
+                .build();
+        ratingTile = TileBuilder.create()
+                .skinType(Tile.SkinType.NUMBER)
+                .title("Average rating")
+                .unit("/ 5")
+                .decimals(2)
+                .animated(false)
+                .build();
+        for (Tile tile : List.of(appointmentsTile, queuesTile, stockTile, ratingTile)) {
+            tile.setPrefSize(300, 300);
+        }
+        tilePane.getChildren().setAll(appointmentsTile, queuesTile, stockTile, ratingTile);
+
+        // Listen only while the view is shown
+        tilePane.sceneProperty().addListener((observable, oldScene, scene) -> {
+            OperationsMetrics.removeListener(onChange);
+            if (scene != null) {
+                OperationsMetrics.addListener(onChange);
+                requestFrame();
+            }
+        });
+        OperationsMetrics.addListener(onChange);
+        OperationsMetrics.start();
+        requestFrame();
+    }
+
+    // Called on whichever thread made the change; only the first change of a frame schedules it
+    private void requestFrame() {
+        if (framePending.compareAndSet(false, true)) {
+            long wait = Math.max(0, lastFrameNanos + FRAME_NANOS - System.nanoTime());
+            FRAMES.schedule(() -> Platform.runLater(this::render), wait, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void render() {
+        framePending.set(false);   // before the snapshot: a change after it asks for a new frame
+        lastFrameNanos = System.nanoTime();
+        DashboardSnapshot snapshot = OperationsMetrics.snapshot();
+
+        int total = 0;
+        for (Map.Entry<String, Integer> status : snapshot.appointmentsToday().entrySet()) {
+            ChartData data = statusData.get(status.getKey());
+            if (data == null) {
+                data = new ChartData(status.getKey(), 0, STATUS_COLORS.getOrDefault(status.getKey(), Tile.ORANGE));
+                statusData.put(status.getKey(), data);
+                appointmentsTile.getChartData().add(data);
+            }
+            data.setValue(status.getValue());
+            total += status.getValue();
+        }
+        appointmentsTile.setText(total + " in total");
+
+        for (Map.Entry<String, Integer> queue : snapshot.queueLengths().entrySet()) {
+            BarChartItem item = queueItems.get(queue.getKey());
+            if (item == null) {
+                item = new BarChartItem(queue.getKey(), 0, Tile.BLUE);
+                queueItems.put(queue.getKey(), item);
+                queuesTile.addBarChartItem(item);
+            }
+            item.setValue(queue.getValue());
+        }
+
+        List<InventorySummary> low = snapshot.lowStock();
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < low.size() && i < LOW_STOCK_LINES; i++) {
+            lines.append(low.get(i).getItemName()).append(": ").append(low.get(i).getStockQuantity()).append('\n');
+        }
+        if (low.size() > LOW_STOCK_LINES) {
+            lines.append("and ").append(low.size() - LOW_STOCK_LINES).append(" more");
+        }
+        lowStockList.setText(low.isEmpty() ? "Nothing is running low" : lines.toString().strip());
+        stockTile.setText(low.size() + " item(s)");
+
+        ratingTile.setValue(snapshot.averageRating());
+        ratingTile.setDescription(snapshot.ratings() + " rating(s)");
+    }
+}
@@ -2,6 +2,7 @@ package hospital.hospital_management_system.controller;
 
 import hospital.hospital_management_system.model.Department;
 import hospital.hospital_management_system.services.DepartmentService;
+import hospital.hospital_management_system.utils.DataAccessException;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -28,7 +29,11 @@ public class DepartmentController {
         colName.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getDeptName()));
         colFloor.setCellValueFactory(data -> new javafx.beans.property.SimpleIntegerProperty(data.getValue().getLocationFloor()).asObject());
 
-        loadDepartments();
+        try {
+            loadDepartments();
+        } catch (DataAccessException e) {
+            ErrorDialogs.showIfDatabaseFailure(e);   // the screen still opens, with an empty list
+        }
 
         departmentTable.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, selected) -> {
             if (selected != null) {
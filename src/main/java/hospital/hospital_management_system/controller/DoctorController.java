@@ -2,8 +2,10 @@ package hospital.hospital_management_system.controller;
 
 import hospital.hospital_management_system.model.Department;
 import hospital.hospital_management_system.model.Doctor;
+import hospital.hospital_management_system.model.DoctorSummary;
 import hospital.hospital_management_system.services.DoctorService;
 import hospital.hospital_management_system.services.DepartmentService;
+import hospital.hospital_management_system.utils.DataAccessException;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -13,13 +15,13 @@ import java.util.List;
 
 public class DoctorController {
 
-    @FXML private TableView<Doctor> doctorTable;
-    @FXML private TableColumn<Doctor, Long> colId;
-    @FXML private TableColumn<Doctor, String> colFirstName;
-    @FXML private TableColumn<Doctor, String> colLastName;
-    @FXML private TableColumn<Doctor, String> colEmail;
-    @FXML private TableColumn<Doctor, String> colSpecialization;
-    @FXML private TableColumn<Doctor, String> colPhone;
+    @FXML private TableView<DoctorSummary> doctorTable;
+    @FXML private TableColumn<DoctorSummary, Long> colId;
+    @FXML private TableColumn<DoctorSummary, String> colFirstName;
+    @FXML private TableColumn<DoctorSummary, String> colLastName;
+    @FXML private TableColumn<DoctorSummary, String> colEmail;
+    @FXML private TableColumn<DoctorSummary, String> colSpecialization;
+    @FXML private TableColumn<DoctorSummary, String> colPhone;
 
     @FXML private TextField txtFirstName;
     @FXML private TextField txtLastName;
@@ -31,21 +33,31 @@ public class DoctorController {
 
     private final DoctorService doctorService = new DoctorService();
     private final DepartmentService departmentService = new DepartmentService();
-    private final ObservableList<Doctor> doctorList = FXCollections.observableArrayList();
+    private final ObservableList<DoctorSummary> doctorList = FXCollections.observableArrayList();
+
+    // Full record of the selected row, loaded on selection
+    private Doctor selectedDoctor;
 
     @FXML
     public void initialize() {
         colId.setCellValueFactory(data -> new javafx.beans.property.SimpleLongProperty(data.getValue().getDoctorId()).asObject());
         colFirstName.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getFirstName()));
         colLastName.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getLastName()));
-        colEmail.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getEmail()));
         colSpecialization.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getSpecialization()));
-        colPhone.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getPhone()));
+        // The list is loaded from summaries without contact details; they are shown in the form on selection
+        colEmail.setVisible(false);
+        colPhone.setVisible(false);
 
-        loadDepartments();
-        loadDoctors();
+        try {
+            loadDepartments();
+            loadDoctors();
+        } catch (DataAccessException e) {
+            ErrorDialogs.showIfDatabaseFailure(e);   // the screen still opens, with an empty list
+        }
 
-        doctorTable.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, selected) -> {
+        doctorTable.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, summary) -> {
+            selectedDoctor = summary != null ? doctorService.getDoctorById(summary.getDoctorId()) : null;
+            Doctor selected = selectedDoctor;
             if (selected != null) {
                 txtFirstName.setText(selected.getFirstName());
                 txtLastName.setText(selected.getLastName());
@@ -63,7 +75,9 @@ public class DoctorController {
     }
 
     private void loadDoctors() {
-        List<Doctor> doctors = doctorService.getAllDoctors();
+        // Bring cached full records up to date so a selection after reload reads the current row
+        doctorService.refreshCache();
+        List<DoctorSummary> doctors = doctorService.getDoctorSummaries();
         doctorList.setAll(doctors);
         doctorTable.setItems(doctorList);
     }
@@ -79,15 +93,12 @@ public class DoctorController {
 
     @FXML
     private void updateDoctor() {
-        Doctor selected = doctorTable.getSelectionModel().getSelectedItem();
+        Doctor selected = selectedDoctor;
         if (selected != null) {
-            selected.setFirstName(txtFirstName.getText());
-            selected.setLastName(txtLastName.getText());
-            selected.setEmail(txtEmail.getText());
-            selected.setSpecialization(txtSpecialization.getText());
-            selected.setPhone(txtPhone.getText());
-            selected.setDepartmentId(cbDepartment.getValue());
-            doctorService.updateDoctor(selected);
+            // A new record, so the cached one only changes once the update has been saved
+            Doctor edited = new Doctor(selected.getDoctorId(), txtFirstName.getText(), txtLastName.getText(),
+                    txtEmail.getText(), txtSpecialization.getText(), cbDepartment.getValue(), txtPhone.getText());
+            doctorService.updateDoctor(edited);
             loadDoctors();
             clearFields();
         }
@@ -95,7 +106,7 @@ public class DoctorController {
 
     @FXML
     private void deleteDoctor() {
-        Doctor selected = doctorTable.getSelectionModel().getSelectedItem();
+        DoctorSummary selected = doctorTable.getSelectionModel().getSelectedItem();
         if (selected != null) {
             doctorService.deleteDoctor(selected.getDoctorId());
             loadDoctors();
@@ -108,7 +119,9 @@ public class DoctorController {
         String specialization = txtSearch.getText();
         if (!specialization.isEmpty()) {
             List<Doctor> doctors = doctorService.findDoctorsBySpecialization(specialization);
-            doctorList.setAll(doctors);
+            doctorList.setAll(doctors.stream()
+                    .map(d -> new DoctorSummary(d.getDoctorId(), d.getFirstName(), d.getLastName(), d.getSpecialization()))
+                    .toList());
         } else {
             loadDoctors();
         }
@@ -0,0 +1,54 @@
+package hospital.hospital_management_system.controller;
+
+import hospital.hospital_management_system.utils.DataAccessException;
+import hospital.hospital_management_system.utils.Log;
+import hospital.hospital_management_system.utils.TransientDataAccessException;
+import javafx.application.Platform;
+import javafx.scene.control.Alert;
+
+/**
+ * Tells the user when a database call failed, instead of leaving a screen unchanged with no
+ * sign that nothing was saved or loaded. Shows one dialog at a time, not one per failed call.
+ */
+public final class ErrorDialogs {
+
+    private static final Log log = Log.get(ErrorDialogs.class);
+
+    private static Alert current;   // FX thread only
+
+    private ErrorDialogs() {} // Prevent instantiation
+
+    /**
+     * Shows a dialog if {@code error} was caused by a DataAccessException and returns true;
+     * returns false for any other error. Can be called from any thread.
+     */
+    public static boolean showIfDatabaseFailure(Throwable error) {
+        Throwable cause = error;
+        while (cause != null && !(cause instanceof DataAccessException)) {
+            cause = cause.getCause();
+        }
+        if (!(cause instanceof DataAccessException failure)) {
+            return false;
+        }
+        log.warn("{}", failure.getMessage());
+        if (Platform.isFxApplicationThread()) {
+            show(failure);
+        } else {
+            Platform.runLater(() -> show(failure));
+        }
+        return true;
+    }
+
+    private static void show(DataAccessException failure) {
+        if (current != null && current.isShowing()) {
+            return;
+        }
+        boolean unavailable = failure instanceof TransientDataAccessException;
+        current = new Alert(Alert.AlertType.ERROR, unavailable
+                ? "The database cannot be reached right now, so the last action did not complete. "
+                  + "Lists show the last data loaded where possible. Try again in a moment."
+                : failure.getMessage());
+        current.setHeaderText(unavailable ? "Database unavailable" : "Database error");
+        current.show();
+    }
+}
@@ -0,0 +1,142 @@
+package hospital.hospital_management_system.controller;
+
+import hospital.hospital_management_system.export.ExportFormat;
+import hospital.hospital_management_system.export.ExportTable;
+import hospital.hospital_management_system.export.TableExporter;
+import hospital.hospital_management_system.utils.Log;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.concurrent.Task;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+import javafx.scene.control.cell.CheckBoxListCell;
+import javafx.stage.FileChooser;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ExportController {
+
+    private static final Log log = Log.get(ExportController.class);
+
+    @FXML private ComboBox<ExportTable> cbTable;
+    @FXML private ComboBox<ExportFormat> cbFormat;
+    @FXML private ListView<String> lvColumns;
+    @FXML private DatePicker dpFrom;
+    @FXML private DatePicker dpTo;
+    @FXML private ProgressBar progressBar;
+    @FXML private Label lblStatus;
+    @FXML private Button btnExport;
+    @FXML private Button btnCancel;
+
+    // Column name -> checked, in table order
+    private final Map<String, BooleanProperty> selectedColumns = new LinkedHashMap<>();
+    private Task<Long> running;
+
+    @FXML
+    public void initialize() {
+        cbTable.getItems().addAll(ExportTable.values());
+        cbFormat.getItems().addAll(ExportFormat.values());
+        cbFormat.setValue(ExportFormat.CSV);
+        lvColumns.setCellFactory(CheckBoxListCell.forListView(selectedColumns::get));
+
+        cbTable.valueProperty().addListener((obs, oldTable, table) -> showColumns(table));
+        cbTable.setValue(ExportTable.PATIENTS);
+        btnCancel.setDisable(true);
+    }
+
+    private void showColumns(ExportTable table) {
+        selectedColumns.clear();
+        lvColumns.getItems().clear();
+        if (table == null) {
+            return;
+        }
+        for (ExportTable.Column column : table.getColumns()) {
+            selectedColumns.put(column.name(), new SimpleBooleanProperty(true));
+            lvColumns.getItems().add(column.name());
+        }
+        dpFrom.setDisable(!table.hasDateFilter());
+        dpTo.setDisable(!table.hasDateFilter());
+    }
+
+    @FXML
+    private void exportTable() {
+        ExportTable table = cbTable.getValue();
+        ExportFormat format = cbFormat.getValue();
+        if (table == null || format == null) {
+            lblStatus.setText("Choose a table and a format");
+            return;
+        }
+        List<String> columns = new ArrayList<>();
+        selectedColumns.forEach((name, selected) -> {
+            if (selected.get()) {
+                columns.add(name);
+            }
+        });
+        if (columns.isEmpty()) {
+            lblStatus.setText("Choose at least one column");
+            return;
+        }
+        LocalDate from = table.hasDateFilter() ? dpFrom.getValue() : null;
+        LocalDate to = table.hasDateFilter() ? dpTo.getValue() : null;
+        if (from != null && to != null && to.isBefore(from)) {
+            lblStatus.setText("Choose a valid date range");
+            return;
+        }
+
+        FileChooser chooser = new FileChooser();
+        chooser.setInitialFileName(table.name().toLowerCase() + "." + format.getExtension());
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(
+                format.name(), "*." + format.getExtension()));
+        File file = chooser.showSaveDialog(btnExport.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        Task<Long> task = new Task<>() {
+            @Override
+            protected Long call() throws Exception {
+                return TableExporter.export(table, columns, from, to, format, file.toPath(), (rows, estimate) -> {
+                    updateProgress(rows, estimate > 0 ? Math.max(estimate, rows) : -1);
+                    updateMessage(rows + " rows written");
+                });
+            }
+        };
+        progressBar.progressProperty().bind(task.progressProperty());
+        lblStatus.textProperty().bind(task.messageProperty());
+        task.setOnSucceeded(event -> finished("Exported " + task.getValue() + " rows to " + file.getName()));
+        task.setOnCancelled(event -> finished("Export cancelled"));
+        task.setOnFailed(event -> {
+            finished("Export failed: " + task.getException().getMessage());
+            log.error("Export failed", task.getException());
+        });
+
+        running = task;
+        btnExport.setDisable(true);
+        btnCancel.setDisable(false);
+        Thread exporter = new Thread(task, "table-export");
+        exporter.setDaemon(true);
+        exporter.start();
+    }
+
+    @FXML
+    private void cancelExport() {
+        if (running != null) {
+            running.cancel();
+        }
+    }
+
+    private void finished(String status) {
+        progressBar.progressProperty().unbind();
+        lblStatus.textProperty().unbind();
+        progressBar.setProgress(0);
+        lblStatus.setText(status);
+        btnExport.setDisable(false);
+        btnCancel.setDisable(true);
+        running = null;
+    }
+}
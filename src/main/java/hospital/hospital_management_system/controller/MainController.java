@@ -1,5 +1,6 @@
 package hospital.hospital_management_system.controller;
 
+import hospital.hospital_management_system.utils.Log;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -8,6 +9,8 @@ import javafx.scene.layout.BorderPane;
 import java.io.IOException;
 
 public class MainController {
+
+    private static final Log log = Log.get(MainController.class);
     
     @FXML private BorderPane mainPane;
 
@@ -51,6 +54,16 @@ public class MainController {
         loadView("ReportsView.fxml");
     }
     
+    @FXML
+    private void showExport() {
+        loadView("ExportView.fxml");
+    }
+
+    @FXML
+    private void showDashboard() {
+        loadView("DashboardView.fxml");
+    }
+
     @FXML
     private void showPrescriptionItems() {
         loadView("PrescriptionItemView.fxml");
@@ -63,14 +76,14 @@ public class MainController {
             if (mainPane != null) {
                 mainPane.setCenter(view);
             } else {
-                System.err.println("mainPane is null!");
+                log.error("mainPane is null");
             }
         } catch (IOException e) {
-            System.err.println("Error loading view: " + fxmlFile);
-            e.printStackTrace();
+            if (!ErrorDialogs.showIfDatabaseFailure(e)) {
+                log.error("Error loading view {}", fxmlFile, e);
+            }
         } catch (Exception e) {
-            System.err.println("Unexpected error: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Unexpected error loading view {}", fxmlFile, e);
         }
     }
 }
@@ -1,8 +1,9 @@
 package hospital.hospital_management_system.controller;
 
-import hospital.hospital_management_system.model.Appointment;
+import hospital.hospital_management_system.model.InventorySummary;
 import hospital.hospital_management_system.model.MedicalInventory;
 import hospital.hospital_management_system.services.MedicalInventoryService;
+import hospital.hospital_management_system.utils.DataAccessException;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -13,29 +14,39 @@ import java.util.List;
 
 public class MedicalInventoryController {
 
-    @FXML private TableView<MedicalInventory> inventoryTable;
-    @FXML private TableColumn<MedicalInventory, Long> colId;
-    @FXML private TableColumn<MedicalInventory, String> colName;
-    @FXML private TableColumn<MedicalInventory, Integer> colQuantity;
-    @FXML private TableColumn<MedicalInventory, BigDecimal> colPrice;
+    @FXML private TableView<InventorySummary> inventoryTable;
+    @FXML private TableColumn<InventorySummary, Long> colId;
+    @FXML private TableColumn<InventorySummary, String> colName;
+    @FXML private TableColumn<InventorySummary, Integer> colQuantity;
+    @FXML private TableColumn<InventorySummary, BigDecimal> colPrice;
 
     @FXML private TextField txtName;
     @FXML private TextField txtQuantity;
     @FXML private TextField txtPrice;
 
     private final MedicalInventoryService inventoryService = new MedicalInventoryService();
-    private final ObservableList<MedicalInventory> inventoryList = FXCollections.observableArrayList();
+    private final ObservableList<InventorySummary> inventoryList = FXCollections.observableArrayList();
+
+    // Full record of the selected row, loaded on selection
+    private MedicalInventory selectedItem;
 
     @FXML
     public void initialize() {
         colId.setCellValueFactory(data -> new javafx.beans.property.SimpleLongProperty(data.getValue().getItemId()).asObject());
         colName.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getItemName()));
         colQuantity.setCellValueFactory(data -> new javafx.beans.property.SimpleIntegerProperty(data.getValue().getStockQuantity()).asObject());
-        colPrice.setCellValueFactory(data -> new javafx.beans.property.SimpleObjectProperty<>(data.getValue().getUnitPrice()));
+        // The list is loaded from summaries without the price; it is shown in the form on selection
+        colPrice.setVisible(false);
 
-        loadInventory();
+        try {
+            loadInventory();
+        } catch (DataAccessException e) {
+            ErrorDialogs.showIfDatabaseFailure(e);   // the screen still opens, with an empty list
+        }
 
-        inventoryTable.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, selected) -> {
+        inventoryTable.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, summary) -> {
+            selectedItem = summary != null ? inventoryService.getInventoryItemById(summary.getItemId()) : null;
+            MedicalInventory selected = selectedItem;
             if (selected != null) {
                 txtName.setText(selected.getItemName());
                 txtQuantity.setText(String.valueOf(selected.getStockQuantity()));
@@ -45,7 +56,9 @@ public class MedicalInventoryController {
     }
 
     private void loadInventory() {
-        List<MedicalInventory> items = inventoryService.getAllInventoryItems();
+        // Stock moves with every dispense, so selections after a reload read the current row
+        inventoryService.clearCache();
+        List<InventorySummary> items = inventoryService.getInventorySummaries();
         inventoryList.setAll(items);
         inventoryTable.setItems(inventoryList);
     }
@@ -64,12 +77,12 @@ public class MedicalInventoryController {
 
     @FXML
     private void updateItem() {
-        MedicalInventory selected = inventoryTable.getSelectionModel().getSelectedItem();
+        MedicalInventory selected = selectedItem;
         if (selected != null) {
-            selected.setItemName(txtName.getText());
-            selected.setStockQuantity(Integer.parseInt(txtQuantity.getText()));
-            selected.setUnitPrice(new BigDecimal(txtPrice.getText()));
-            inventoryService.updateInventoryItem(selected);
+            // A new record, so the cached one only changes once the update has been saved
+            MedicalInventory edited = new MedicalInventory(selected.getItemId(), txtName.getText(),
+                    Integer.parseInt(txtQuantity.getText()), new BigDecimal(txtPrice.getText()));
+            inventoryService.updateInventoryItem(edited);
             loadInventory();
             clearFields();
         }
@@ -77,7 +90,7 @@ public class MedicalInventoryController {
 
     @FXML
     private void deleteItem() {
-        MedicalInventory selected = inventoryTable.getSelectionModel().getSelectedItem();
+        InventorySummary selected = inventoryTable.getSelectionModel().getSelectedItem();
         if (selected != null) {
             inventoryService.deleteInventoryItem(selected.getItemId());
             loadInventory();
@@ -1,7 +1,10 @@
 package hospital.hospital_management_system.controller;
 
+import hospital.hospital_management_system.model.DuplicateCandidate;
 import hospital.hospital_management_system.model.Patient;
+import hospital.hospital_management_system.model.PatientSummary;
 import hospital.hospital_management_system.services.PatientService;
+import hospital.hospital_management_system.utils.DataAccessException;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -13,22 +16,22 @@ import java.util.List;
 public class PatientController {
 
     @FXML
-    private TableView<Patient> patientTable;
+    private TableView<PatientSummary> patientTable;
 
     @FXML
-    private TableColumn<Patient, Long> colId;
+    private TableColumn<PatientSummary, Long> colId;
     @FXML
-    private TableColumn<Patient, String> colFirstName;
+    private TableColumn<PatientSummary, String> colFirstName;
     @FXML
-    private TableColumn<Patient, String> colLastName;
+    private TableColumn<PatientSummary, String> colLastName;
     @FXML
-    private TableColumn<Patient, LocalDate> colDob;
+    private TableColumn<PatientSummary, LocalDate> colDob;
     @FXML
-    private TableColumn<Patient, String> colGender;
+    private TableColumn<PatientSummary, String> colGender;
     @FXML
-    private TableColumn<Patient, String> colContact;
+    private TableColumn<PatientSummary, String> colContact;
     @FXML
-    private TableColumn<Patient, String> colAddress;
+    private TableColumn<PatientSummary, String> colAddress;
 
     @FXML
     private TextField txtFirstName;
@@ -46,7 +49,10 @@ public class PatientController {
     private TextField txtSearch;
 
     private final PatientService patientService = new PatientService();
-    private final ObservableList<Patient> patientList = FXCollections.observableArrayList();
+    private final ObservableList<PatientSummary> patientList = FXCollections.observableArrayList();
+
+    // Full record of the selected row, loaded on selection
+    private Patient selectedPatient;
 
     @FXML
     public void initialize() {
@@ -57,18 +63,25 @@ public class PatientController {
         colLastName.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getLastName()));
         colDob.setCellValueFactory(data -> new javafx.beans.property.SimpleObjectProperty<>(data.getValue().getDob()));
         colGender.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getGender()));
-        colContact.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getContact_number()));
-        colAddress.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getAddress()));
+        colContact.setCellValueFactory(data -> new javafx.beans.property.SimpleStringProperty(data.getValue().getContactNumber()));
+        // The list is loaded from summaries without the address; it is shown in the form on selection
+        colAddress.setVisible(false);
 
         // Gender options
         cbGender.getItems().addAll("Male", "Female", "Other");
 
         // Load data
-        loadPatients();
+        try {
+            loadPatients();
+        } catch (DataAccessException e) {
+            ErrorDialogs.showIfDatabaseFailure(e);   // the screen still opens, with an empty list
+        }
 
         // Fill form when selecting a row
         patientTable.getSelectionModel().selectedItemProperty().addListener(
-                (obs, oldVal, selected) -> {
+                (obs, oldVal, summary) -> {
+                    selectedPatient = summary != null ? patientService.getPatientById(summary.getPatientId()) : null;
+                    Patient selected = selectedPatient;
                     if (selected != null) {
                         txtFirstName.setText(selected.getFirstName());
                         txtLastName.setText(selected.getLastName());
@@ -82,7 +95,9 @@ public class PatientController {
     }
 
     private void loadPatients() {
-        List<Patient> patients = patientService.getAllPatients();
+        // Bring cached full records up to date so a selection after reload reads the current row
+        patientService.refreshCache();
+        List<PatientSummary> patients = patientService.getPatientSummaries();
         patientList.setAll(patients);
         patientTable.setItems(patientList);
     }
@@ -98,23 +113,51 @@ public class PatientController {
                 txtAddress.getText()
         );
 
+        if (!confirmNotDuplicate(patient)) {
+            return;
+        }
         patientService.addPatient(patient);
         loadPatients();
         clearFields();
     }
 
+    // Asks before registering someone who looks like an existing patient; the form is kept
+    private boolean confirmNotDuplicate(Patient patient) {
+        if (patient.getDob() == null) {
+            return true;   // addPatient rejects it anyway
+        }
+        List<DuplicateCandidate> duplicates = patientService.findPossibleDuplicates(patient);
+        if (duplicates.isEmpty()) {
+            return true;
+        }
+        StringBuilder matches = new StringBuilder();
+        for (DuplicateCandidate d : duplicates.subList(0, Math.min(5, duplicates.size()))) {
+            Patient match = d.getMatch();
+            matches.append(String.format("#%d  %s %s, born %s, %s (%.0f%% alike)%n", match.getPatientId(),
+                    match.getFirstName(), match.getLastName(), match.getDob(), match.getContact_number(), d.getScore() * 100));
+        }
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION, matches.toString(), ButtonType.YES, ButtonType.NO);
+        alert.setTitle("Possible duplicate");
+        alert.setHeaderText("This patient may already be registered. Register anyway?");
+        return alert.showAndWait().filter(ButtonType.YES::equals).isPresent();
+    }
+
     @FXML
     private void updatePatient() {
-        Patient selected = patientTable.getSelectionModel().getSelectedItem();
+        Patient selected = selectedPatient;
         if (selected != null) {
-            selected.setFirstName(txtFirstName.getText());
-            selected.setLastName(txtLastName.getText());
-            selected.setDob(dpDob.getValue());
-            selected.setGender(cbGender.getValue());
-            selected.setContact_number(txtContact.getText());
-            selected.setAddress(txtAddress.getText());
-
-            patientService.updatePatient(selected);
+            // A new record, so a failed update leaves the selection as it was loaded
+            Patient edited = new Patient(
+                    selected.getPatientId(),
+                    txtFirstName.getText(),
+                    txtLastName.getText(),
+                    dpDob.getValue(),
+                    cbGender.getValue(),
+                    txtContact.getText(),
+                    txtAddress.getText()
+            );
+
+            patientService.updatePatient(edited);
             loadPatients();
             clearFields();
         }
@@ -122,7 +165,7 @@ public class PatientController {
 
     @FXML
     private void deletePatient() {
-        Patient selected = patientTable.getSelectionModel().getSelectedItem();
+        PatientSummary selected = patientTable.getSelectionModel().getSelectedItem();
         if (selected != null) {
             patientService.deletePatient(selected.getPatientId());
             loadPatients();
@@ -134,7 +177,7 @@ public class PatientController {
     private void searchPatient() {
         String lastName = txtSearch.getText();
         if (!lastName.isEmpty()) {
-            List<Patient> patients = patientService.searchPatientByLastNameUsingStreams(lastName);
+            List<PatientSummary> patients = patientService.searchPatientSummariesByLastName(lastName);
             patientList.setAll(patients);
         } else {
             loadPatients();
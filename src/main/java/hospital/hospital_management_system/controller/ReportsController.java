@@ -0,0 +1,142 @@
+package hospital.hospital_management_system.controller;
+
+import hospital.hospital_management_system.dao.ReportDAO.Period;
+import hospital.hospital_management_system.model.AppointmentVolume;
+import hospital.hospital_management_system.model.InventoryUsage;
+import hospital.hospital_management_system.model.RatingTrend;
+import hospital.hospital_management_system.services.ReportService;
+import hospital.hospital_management_system.utils.Log;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleLongProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class ReportsController {
+
+    private static final Log log = Log.get(ReportsController.class);
+
+    @FXML private DatePicker dpFrom;
+    @FXML private DatePicker dpTo;
+    @FXML private ComboBox<String> cbGrouping;
+    @FXML private ComboBox<Period> cbPeriod;
+    @FXML private Label lblStatus;
+
+    @FXML private TableView<AppointmentVolume> volumeTable;
+    @FXML private TableColumn<AppointmentVolume, LocalDate> colDay;
+    @FXML private TableColumn<AppointmentVolume, String> colGroup;
+    @FXML private TableColumn<AppointmentVolume, Long> colTotal;
+    @FXML private TableColumn<AppointmentVolume, Long> colCompleted;
+    @FXML private TableColumn<AppointmentVolume, Long> colCancelled;
+    @FXML private TableColumn<AppointmentVolume, Long> colNoShow;
+
+    @FXML private TableView<AppointmentVolume> noShowTable;
+    @FXML private TableColumn<AppointmentVolume, String> colDoctor;
+    @FXML private TableColumn<AppointmentVolume, Double> colNoShowRate;
+
+    @FXML private TableView<RatingTrend> ratingTable;
+    @FXML private TableColumn<RatingTrend, LocalDate> colPeriod;
+    @FXML private TableColumn<RatingTrend, Long> colRatings;
+    @FXML private TableColumn<RatingTrend, Double> colAverage;
+
+    @FXML private TableView<InventoryUsage> usageTable;
+    @FXML private TableColumn<InventoryUsage, String> colItem;
+    @FXML private TableColumn<InventoryUsage, Long> colQuantity;
+    @FXML private TableColumn<InventoryUsage, Long> colPrescriptions;
+
+    private final ReportService reportService = new ReportService();
+
+    @FXML
+    public void initialize() {
+        colDay.setCellValueFactory(data -> new SimpleObjectProperty<>(data.getValue().getDay()));
+        colGroup.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getGroupName()));
+        colTotal.setCellValueFactory(data -> new SimpleLongProperty(data.getValue().getTotal()).asObject());
+        colCompleted.setCellValueFactory(data -> new SimpleLongProperty(data.getValue().getCompleted()).asObject());
+        colCancelled.setCellValueFactory(data -> new SimpleLongProperty(data.getValue().getCancelled()).asObject());
+        colNoShow.setCellValueFactory(data -> new SimpleLongProperty(data.getValue().getNoShow()).asObject());
+
+        colDoctor.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getGroupName()));
+        colNoShowRate.setCellValueFactory(data -> new SimpleDoubleProperty(data.getValue().getNoShowRate() * 100).asObject());
+
+        colPeriod.setCellValueFactory(data -> new SimpleObjectProperty<>(data.getValue().getPeriodStart()));
+        colRatings.setCellValueFactory(data -> new SimpleLongProperty(data.getValue().getRatings()).asObject());
+        colAverage.setCellValueFactory(data -> new SimpleDoubleProperty(data.getValue().getAverageRating()).asObject());
+
+        colItem.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getItemName()));
+        colQuantity.setCellValueFactory(data -> new SimpleLongProperty(data.getValue().getQuantityDispensed()).asObject());
+        colPrescriptions.setCellValueFactory(data -> new SimpleLongProperty(data.getValue().getPrescriptions()).asObject());
+
+        cbGrouping.getItems().addAll("Doctor", "Department");
+        cbGrouping.setValue("Doctor");
+        cbPeriod.getItems().addAll(Period.values());
+        cbPeriod.setValue(Period.WEEK);
+        dpTo.setValue(LocalDate.now());
+        dpFrom.setValue(LocalDate.now().minusDays(30));
+
+        load(false);
+    }
+
+    @FXML
+    private void loadReports() {
+        load(false);
+    }
+
+    @FXML
+    private void refreshReports() {
+        load(true);
+    }
+
+    private void load(boolean refreshFirst) {
+        LocalDate from = dpFrom.getValue();
+        LocalDate to = dpTo.getValue();
+        if (from == null || to == null || to.isBefore(from)) {
+            lblStatus.setText("Choose a valid date range");
+            return;
+        }
+        // The date pickers are inclusive, the queries take [from, to)
+        LocalDate toExclusive = to.plusDays(1);
+        boolean byDoctor = "Doctor".equals(cbGrouping.getValue());
+        Period period = cbPeriod.getValue();
+
+        Task<Reports> task = new Task<>() {
+            @Override
+            protected Reports call() {
+                if (refreshFirst) {
+                    reportService.refresh();
+                }
+                return new Reports(
+                        byDoctor ? reportService.getAppointmentsPerDoctorPerDay(from, toExclusive)
+                                : reportService.getAppointmentsPerDepartmentPerDay(from, toExclusive),
+                        reportService.getNoShowRatesByDoctor(from, toExclusive),
+                        reportService.getAverageRating(period, from, toExclusive),
+                        reportService.getInventoryUsage(from, toExclusive));
+            }
+        };
+        task.setOnSucceeded(event -> {
+            Reports reports = task.getValue();
+            volumeTable.setItems(FXCollections.observableArrayList(reports.volumes()));
+            noShowTable.setItems(FXCollections.observableArrayList(reports.noShows()));
+            ratingTable.setItems(FXCollections.observableArrayList(reports.ratings()));
+            usageTable.setItems(FXCollections.observableArrayList(reports.usage()));
+            lblStatus.setText("Reports for " + from + " to " + to);
+        });
+        task.setOnFailed(event -> {
+            lblStatus.setText("Could not load reports");
+            log.error("Could not load reports", task.getException());
+        });
+
+        lblStatus.setText("Loading...");
+        Thread loader = new Thread(task, "reports-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private record Reports(List<AppointmentVolume> volumes, List<AppointmentVolume> noShows,
+                           List<RatingTrend> ratings, List<InventoryUsage> usage) {}
+}
@@ -1,22 +1,40 @@
 package hospital.hospital_management_system.dao;
 
+import hospital.hospital_management_system.audit.AuditEvent;
+import hospital.hospital_management_system.audit.AuditTrail;
 import hospital.hospital_management_system.model.Appointment;
+import hospital.hospital_management_system.model.AppointmentSummary;
 import hospital.hospital_management_system.model.Doctor;
 import hospital.hospital_management_system.model.Patient;
 import hospital.hospital_management_system.utils.DBConnection;
+import hospital.hospital_management_system.utils.DataAccessException;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 public class AppointmentDAO {
 
+    // Column order is what mapRowToAppointment reads by index
+    static final String APPOINTMENT_COLUMNS = "appointment_id, patient_id, doctor_id, appointment_date, status, reason";
+
+    // Schedule lines: names are joined in so the list needs no per-row patient or doctor lookups
+    static final String SUMMARY_SELECT = """
+            SELECT a.appointment_id, a.appointment_date, a.status,
+                   a.patient_id, p.first_name || ' ' || p.last_name,
+                   a.doctor_id, d.first_name || ' ' || d.last_name
+            FROM appointments a
+            LEFT JOIN patients p ON p.patient_id = a.patient_id
+            LEFT JOIN doctors d ON d.doctor_id = a.doctor_id
+            """;
 
     public void addAppointment(Appointment appointment) {
 
         String sql = """
-            INSERT INTO appointments (patient_id, doctor_id, appointment_date, status, reason)
+            INSERT INTO appointments AS a (patient_id, doctor_id, appointment_date, status, reason)
             VALUES (?, ?, ?, ?, ?)
+            RETURNING a.appointment_id, to_jsonb(a)::text
             """;
 
         try (Connection conn = DBConnection.getConnection();
@@ -38,16 +56,21 @@ public class AppointmentDAO {
             ps.setString(4, appointment.getStatus());
             ps.setString(5, appointment.getReason());
 
-            ps.executeUpdate();
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    appointment.setAppointmentId(rs.getLong(1));
+                    AuditTrail.record("appointments", rs.getLong(1), AuditEvent.Action.INSERT, null, rs.getString(2));
+                }
+            }
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("AppointmentDAO.addAppointment", e);
         }
     }
 
     public Appointment findById(Long appointmentId) {
 
-        String sql = "SELECT * FROM appointments WHERE appointment_id = ?";
+        String sql = "SELECT " + APPOINTMENT_COLUMNS + " FROM appointments WHERE appointment_id = ?";
 
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
@@ -56,12 +79,12 @@ public class AppointmentDAO {
 
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    return mapRowToAppointment(rs);
+                    return mapRowToAppointment(rs, new RowStubs());
                 }
             }
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("AppointmentDAO.findById", e);
         }
 
         return null;
@@ -70,21 +93,22 @@ public class AppointmentDAO {
     public List<Appointment> findByPatient(Long patientId) {
 
         List<Appointment> appointments = new ArrayList<>();
-        String sql = "SELECT * FROM appointments WHERE patient_id = ?";
+        String sql = "SELECT " + APPOINTMENT_COLUMNS + " FROM appointments WHERE patient_id = ?";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setLong(1, patientId);
 
             try (ResultSet rs = ps.executeQuery()) {
+                RowStubs stubs = new RowStubs();
                 while (rs.next()) {
-                    appointments.add(mapRowToAppointment(rs));
+                    appointments.add(mapRowToAppointment(rs, stubs));
                 }
             }
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("AppointmentDAO.findByPatient", e);
         }
 
         return appointments;
@@ -93,21 +117,22 @@ public class AppointmentDAO {
     public List<Appointment> findByDoctor(Long doctorId) {
 
         List<Appointment> appointments = new ArrayList<>();
-        String sql = "SELECT * FROM appointments WHERE doctor_id = ?";
+        String sql = "SELECT " + APPOINTMENT_COLUMNS + " FROM appointments WHERE doctor_id = ?";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setLong(1, doctorId);
 
             try (ResultSet rs = ps.executeQuery()) {
+                RowStubs stubs = new RowStubs();
                 while (rs.next()) {
-                    appointments.add(mapRowToAppointment(rs));
+                    appointments.add(mapRowToAppointment(rs, stubs));
                 }
             }
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("AppointmentDAO.findByDoctor", e);
         }
 
         return appointments;
@@ -116,18 +141,72 @@ public class AppointmentDAO {
     public List<Appointment> findAll() {
 
         List<Appointment> appointments = new ArrayList<>();
-        String sql = "SELECT * FROM appointments";
+        String sql = "SELECT " + APPOINTMENT_COLUMNS + " FROM appointments";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
 
+            RowStubs stubs = new RowStubs();
             while (rs.next()) {
-                appointments.add(mapRowToAppointment(rs));
+                appointments.add(mapRowToAppointment(rs, stubs));
+            }
+
+        } catch (SQLException e) {
+            throw DataAccessException.translate("AppointmentDAO.findAll", e);
+        }
+
+        return appointments;
+    }
+
+    public List<AppointmentSummary> findSummariesBetween(LocalDateTime from, LocalDateTime to) {
+
+        List<AppointmentSummary> appointments = new ArrayList<>();
+        String sql = SUMMARY_SELECT + "WHERE a.appointment_date >= ? AND a.appointment_date < ? ORDER BY a.appointment_date";
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setTimestamp(1, Timestamp.valueOf(from));
+            ps.setTimestamp(2, Timestamp.valueOf(to));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    appointments.add(mapRowToSummary(rs));
+                }
             }
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("AppointmentDAO.findSummariesBetween", e);
+        }
+
+        return appointments;
+    }
+
+    /**
+     * Scheduled appointments in [from, to), from the primary so that one just booked is there.
+     */
+    public List<Appointment> findScheduledBetween(LocalDateTime from, LocalDateTime to) {
+
+        List<Appointment> appointments = new ArrayList<>();
+        String sql = "SELECT " + APPOINTMENT_COLUMNS + " FROM appointments"
+                + " WHERE appointment_date >= ? AND appointment_date < ? AND status = 'Scheduled'";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setTimestamp(1, Timestamp.valueOf(from));
+            ps.setTimestamp(2, Timestamp.valueOf(to));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                RowStubs stubs = new RowStubs();
+                while (rs.next()) {
+                    appointments.add(mapRowToAppointment(rs, stubs));
+                }
+            }
+
+        } catch (SQLException e) {
+            throw DataAccessException.translate("AppointmentDAO.findScheduledBetween", e);
         }
 
         return appointments;
@@ -136,9 +215,11 @@ public class AppointmentDAO {
     public void updateAppointment(Appointment appointment) {
 
         String sql = """
-            UPDATE appointments
+            UPDATE appointments a
             SET patient_id = ?, doctor_id = ?, appointment_date = ?, status = ?, reason = ?
-            WHERE appointment_id = ?
+            FROM (SELECT * FROM appointments WHERE appointment_id = ? FOR UPDATE) prev
+            WHERE a.appointment_id = prev.appointment_id
+            RETURNING to_jsonb(prev)::text, to_jsonb(a)::text
             """;
 
         try (Connection conn = DBConnection.getConnection();
@@ -161,43 +242,133 @@ public class AppointmentDAO {
             ps.setString(5, appointment.getReason());
             ps.setLong(6, appointment.getAppointmentId());
 
-            ps.executeUpdate();
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    AuditTrail.record("appointments", appointment.getAppointmentId(), AuditEvent.Action.UPDATE,
+                            rs.getString(1), rs.getString(2));
+                }
+            }
+
+        } catch (SQLException e) {
+            throw DataAccessException.translate("AppointmentDAO.updateAppointment", e);
+        }
+    }
+
+    public void updateStatus(Long appointmentId, String status) {
+
+        String sql = """
+            UPDATE appointments a SET status = ?
+            FROM (SELECT * FROM appointments WHERE appointment_id = ? FOR UPDATE) prev
+            WHERE a.appointment_id = prev.appointment_id
+            RETURNING to_jsonb(prev)::text, to_jsonb(a)::text
+            """;
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, status);
+            ps.setLong(2, appointmentId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    AuditTrail.record("appointments", appointmentId, AuditEvent.Action.UPDATE, rs.getString(1), rs.getString(2));
+                }
+            }
+
+        } catch (SQLException e) {
+            throw DataAccessException.translate("AppointmentDAO.updateStatus", e);
+        }
+    }
+
+    /**
+     * Moves an appointment to {@code appointmentDate} and returns it as it now is, or null if it
+     * does not exist.
+     */
+    public Appointment reschedule(Long appointmentId, LocalDateTime appointmentDate) {
+
+        String sql = """
+            UPDATE appointments a SET appointment_date = ?
+            FROM (SELECT * FROM appointments WHERE appointment_id = ? FOR UPDATE) prev
+            WHERE a.appointment_id = prev.appointment_id
+            RETURNING a.appointment_id, a.patient_id, a.doctor_id, a.appointment_date, a.status, a.reason,
+                      to_jsonb(prev)::text, to_jsonb(a)::text
+            """;
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setTimestamp(1, Timestamp.valueOf(appointmentDate));
+            ps.setLong(2, appointmentId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    AuditTrail.record("appointments", appointmentId, AuditEvent.Action.UPDATE, rs.getString(7), rs.getString(8));
+                    return mapRowToAppointment(rs, new RowStubs());
+                }
+            }
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("AppointmentDAO.reschedule", e);
         }
+
+        return null;
     }
 
     public void deleteAppointment(Long appointmentId) {
 
-        String sql = "DELETE FROM appointments WHERE appointment_id = ?";
+        String sql = "DELETE FROM appointments a WHERE appointment_id = ? RETURNING to_jsonb(a)::text";
 
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setLong(1, appointmentId);
-            ps.executeUpdate();
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    AuditTrail.record("appointments", appointmentId, AuditEvent.Action.DELETE, rs.getString(1), null);
+                }
+            }
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("AppointmentDAO.deleteAppointment", e);
         }
     }
 
-    private Appointment mapRowToAppointment(ResultSet rs) throws SQLException {
+    /**
+     * Maps a row selected with {@link #APPOINTMENT_COLUMNS}, reading columns by position.
+     * Patient and doctor references come from {@code stubs}, shared by all rows of the query.
+     */
+    public Appointment mapRowToAppointment(ResultSet rs, RowStubs stubs) throws SQLException {
 
-        Long patientId = rs.getLong("patient_id");
-        Patient patient = rs.wasNull() ? null : new Patient(patientId);
+        long patientId = rs.getLong(2);
+        Patient patient = rs.wasNull() ? null : stubs.patient(patientId);
 
-        Long doctorId = rs.getLong("doctor_id");
-        Doctor doctor = rs.wasNull() ? null : new Doctor(doctorId);
+        long doctorId = rs.getLong(3);
+        Doctor doctor = rs.wasNull() ? null : stubs.doctor(doctorId);
 
         return new Appointment(
-                rs.getLong("appointment_id"),
+                rs.getLong(1),
+                patient,
+                doctor,
+                rs.getTimestamp(4).toLocalDateTime(),
+                rs.getString(5),
+                rs.getString(6)
+        );
+    }
+
+    private AppointmentSummary mapRowToSummary(ResultSet rs) throws SQLException {
+
+        long patientId = rs.getLong(4);
+        Long patient = rs.wasNull() ? null : patientId;
+
+        long doctorId = rs.getLong(6);
+        Long doctor = rs.wasNull() ? null : doctorId;
+
+        return new AppointmentSummary(
+                rs.getLong(1),
+                rs.getTimestamp(2).toLocalDateTime(),
+                rs.getString(3),
                 patient,
+                rs.getString(5),
                 doctor,
-                rs.getTimestamp("appointment_date").toLocalDateTime(),
-                rs.getString("status"),
-                rs.getString("reason")
+                rs.getString(7)
         );
     }
 }
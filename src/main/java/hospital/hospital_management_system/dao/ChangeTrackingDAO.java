@@ -0,0 +1,69 @@
+package hospital.hospital_management_system.dao;
+
+import hospital.hospital_management_system.utils.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Queries for keeping a local copy of the reference tables in step with the database. Meant to
+ * run inside one UnitOfWork so every read sees the same snapshot; methods throw rather than
+ * return empty results, since an empty result would read as "nothing changed".
+ */
+public class ChangeTrackingDAO {
+
+    /**
+     * Makes the current transaction a read-only REPEATABLE READ one and returns its start time,
+     * the watermark for rows read in it. Must be the first statement of the transaction.
+     */
+    public Instant beginConsistentRead() throws SQLException {
+        Connection conn = DBConnection.getConnection();
+        try (Statement st = conn.createStatement()) {
+            st.execute("SET TRANSACTION ISOLATION LEVEL REPEATABLE READ, READ ONLY");
+        }
+        try (PreparedStatement ps = conn.prepareStatement("SELECT now()");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getObject(1, OffsetDateTime.class).toInstant();
+        }
+    }
+
+    // Ids deleted after since, from the tombstones V6 records
+    public long[] findDeletedPatientIds(Instant since) throws SQLException {
+        return findDeletedIds("patients", since);
+    }
+
+    public long[] findDeletedDoctorIds(Instant since) throws SQLException {
+        return findDeletedIds("doctors", since);
+    }
+
+    public long[] findDeletedDepartmentIds(Instant since) throws SQLException {
+        return findDeletedIds("departments", since);
+    }
+
+    private long[] findDeletedIds(String table, Instant since) throws SQLException {
+        long[] ids = new long[16];
+        int count = 0;
+        try (PreparedStatement ps = DBConnection.getConnection().prepareStatement(
+                "SELECT row_id FROM reference_tombstones WHERE table_name = ? AND deleted_at > ?")) {
+            ps.setString(1, table);
+            ps.setObject(2, OffsetDateTime.ofInstant(since, ZoneOffset.UTC));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (count == ids.length) {
+                        ids = Arrays.copyOf(ids, count * 2);
+                    }
+                    ids[count++] = rs.getLong(1);
+                }
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+}
@@ -2,16 +2,26 @@ package hospital.hospital_management_system.dao;
 
 import hospital.hospital_management_system.model.Department;
 import hospital.hospital_management_system.utils.DBConnection;
+import hospital.hospital_management_system.utils.DataAccessException;
+import hospital.hospital_management_system.utils.Log;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 
 public class DepartmentDAO {
 
+    private static final Log log = Log.get(DepartmentDAO.class);
+
+    // Column order is what mapToDepartment reads by index
+    static final String DEPARTMENT_COLUMNS = "dept_id, dept_name, location_floor";
+
     public void addDepartment(Department department) {
 
         String sql = "INSERT INTO departments (dept_name, location_floor) VALUES(?,?)";
@@ -21,17 +31,17 @@ public class DepartmentDAO {
             ps.setString(1, department.getDeptName());
             ps.setInt(2, department.getLocationFloor());
             ps.executeUpdate();
-            System.out.println("Department added successfully: " + department.getDeptName());
+            log.debug("Department added: {}", department.getDeptName());
 
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("DepartmentDAO.addDepartment", e);
         }
 
     }
     public List<Department> getAllDepartments(){
         List<Department> departments = new ArrayList<>();
-        String sql = "SELECT * FROM departments;";
+        String sql = "SELECT " + DEPARTMENT_COLUMNS + " FROM departments";
         try(Connection conn = DBConnection.getConnection();
             PreparedStatement ps = conn.prepareStatement(sql)){
             try(ResultSet rs = ps.executeQuery()) {
@@ -40,15 +50,73 @@ public class DepartmentDAO {
                 }
             }
         }catch (SQLException e){
-            e.printStackTrace();
+            throw DataAccessException.translate("DepartmentDAO.getAllDepartments", e);
         }
         return departments;
     }
+    // Departments inserted or updated after since; throws so a failed read cannot advance a watermark
+    public List<Department> findDepartmentsChangedSince(Instant since) throws SQLException {
+        List<Department> departments = new ArrayList<>();
+        String sql = "SELECT " + DEPARTMENT_COLUMNS + " FROM departments WHERE updated_at > ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setObject(1, OffsetDateTime.ofInstant(since, ZoneOffset.UTC));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    departments.add(mapToDepartment(rs));
+                }
+            }
+        }
+        return departments;
+    }
+
+    public Department getDepartmentsById(Long deptId) {
+        String sql = "SELECT " + DEPARTMENT_COLUMNS + " FROM departments WHERE dept_id = ?";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, deptId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return mapToDepartment(rs);
+                }
+            }
+        } catch (SQLException e) {
+            throw DataAccessException.translate("DepartmentDAO.getDepartmentsById", e);
+        }
+        return null;
+    }
+
+    public void updateDepartment(Department department) {
+        String sql = "UPDATE departments SET dept_name = ?, location_floor = ? WHERE dept_id = ?";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, department.getDeptName());
+            ps.setInt(2, department.getLocationFloor());
+            ps.setLong(3, department.getDeptId());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw DataAccessException.translate("DepartmentDAO.updateDepartment", e);
+        }
+    }
+
+    public void deleteDepartment(Long deptId) {
+        String sql = "DELETE FROM departments WHERE dept_id = ?";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, deptId);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw DataAccessException.translate("DepartmentDAO.deleteDepartment", e);
+        }
+    }
+
     public Department mapToDepartment(ResultSet rs)throws SQLException{
         return new Department(
-                rs.getLong("dept_id"),
-                rs.getString("dept_name"),
-                rs.getInt("location_floor")
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getInt(3)
         );
     }
 }
@@ -2,14 +2,27 @@ package hospital.hospital_management_system.dao;
 
 import hospital.hospital_management_system.model.Department;
 import hospital.hospital_management_system.model.Doctor;
+import hospital.hospital_management_system.model.DoctorSummary;
 import hospital.hospital_management_system.utils.DBConnection;
+import hospital.hospital_management_system.utils.DataAccessException;
+import hospital.hospital_management_system.utils.Log;
 
 import java.sql.*;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 
 public class DoctorDAO {
 
+    private static final Log log = Log.get(DoctorDAO.class);
+
+    // Column order is what mapRowToDoctor reads by index
+    static final String DOCTOR_COLUMNS = "doctor_id, first_name, last_name, email, specialization, dept_id, phone";
+
+    static final String DOCTOR_SUMMARY_COLUMNS = "doctor_id, first_name, last_name, specialization";
+
     public void addDoctor(Doctor doctor){
         String sql = "INSERT INTO doctors (first_name, last_name, email, specialization, phone, dept_id) VALUES(?,?,?,?,?,?)";
 
@@ -28,79 +41,101 @@ public class DoctorDAO {
             }
 
             ps.executeUpdate();
-            System.out.println("Doctor added successfully: ");
+            log.debug("Doctor added");
 
 
         }catch (SQLException e){
-            e.printStackTrace();
+            throw DataAccessException.translate("DoctorDAO.addDoctor", e);
         }
     }
     public Doctor findById (long doctorId){
-        String sql = "SELECT * FROM doctors WHERE doctor_id = ?";
+        String sql = "SELECT " + DOCTOR_COLUMNS + " FROM doctors WHERE doctor_id = ?";
         try(Connection conn = DBConnection.getConnection();
             PreparedStatement ps = conn.prepareStatement(sql)) {
                 ps.setLong(1,doctorId);
                 try(ResultSet rs = ps.executeQuery()){
             while(rs.next()){
-                return mapRowToDoctor(rs);
+                return mapRowToDoctor(rs, new RowStubs());
 
             }
                 }
 
         }catch (SQLException e){
-            e.printStackTrace();
+            throw DataAccessException.translate("DoctorDAO.findById", e);
         }
         return null;
     }
     public List<Doctor> findDoctorsBySpecialization(String specialization){
         List<Doctor> doctors = new ArrayList<>();
-        String sql = "SELECT * FROM doctors WHERE specialization ILIKE ?";
-        try(Connection conn = DBConnection.getConnection();
+        String sql = "SELECT " + DOCTOR_COLUMNS + " FROM doctors WHERE specialization ILIKE ?";
+        try(Connection conn = DBConnection.getReadConnection();
             PreparedStatement ps = conn.prepareStatement(sql)){
             ps.setString(1,"%" + specialization + "%");
             try(ResultSet rs = ps.executeQuery()){
+                RowStubs stubs = new RowStubs();
                 while (rs.next()){
-                     doctors.add(mapRowToDoctor(rs));
+                     doctors.add(mapRowToDoctor(rs, stubs));
                 }
             }
 
         }catch (SQLException e){
-            e.printStackTrace();
+            throw DataAccessException.translate("DoctorDAO.findDoctorsBySpecialization", e);
         }
         return doctors;
     }
     public List<Doctor> getAllDoctors(){
         List<Doctor> doctors = new ArrayList<>();
-        String sql = "SELECT * FROM doctors";
+        String sql = "SELECT " + DOCTOR_COLUMNS + " FROM doctors";
 
-        try(Connection conn = DBConnection.getConnection();
+        try(Connection conn = DBConnection.getReadConnection();
             PreparedStatement ps = conn.prepareStatement(sql);
             ResultSet rs = ps.executeQuery()){
 
+            RowStubs stubs = new RowStubs();
             while (rs.next()){
-                doctors.add(mapRowToDoctor(rs));
+                doctors.add(mapRowToDoctor(rs, stubs));
 
             }
 
         }catch (SQLException e ){
-            e.printStackTrace();
+            throw DataAccessException.translate("DoctorDAO.getAllDoctors", e);
+        }
+        return doctors;
+    }
+    // Doctors inserted or updated after since; throws so a failed read cannot advance a watermark
+    public List<Doctor> findDoctorsChangedSince(Instant since) throws SQLException {
+        List<Doctor> doctors = new ArrayList<>();
+        String sql = "SELECT " + DOCTOR_COLUMNS + " FROM doctors WHERE updated_at > ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setObject(1, OffsetDateTime.ofInstant(since, ZoneOffset.UTC));
+            try (ResultSet rs = ps.executeQuery()) {
+                RowStubs stubs = new RowStubs();
+                while (rs.next()) {
+                    doctors.add(mapRowToDoctor(rs, stubs));
+                }
+            }
         }
         return doctors;
     }
+
     public List<Doctor> findDoctorsByDepartment(Long deptId){
         List<Doctor> doctors = new ArrayList<>();
-        String sql = "SELECT * FROM doctors WHERE dept_id = ?";
-        try(Connection conn = DBConnection.getConnection();
+        String sql = "SELECT " + DOCTOR_COLUMNS + " FROM doctors WHERE dept_id = ?";
+        try(Connection conn = DBConnection.getReadConnection();
             PreparedStatement ps = conn.prepareStatement(sql)){
             ps.setLong(1,deptId);
 
             try(ResultSet rs = ps.executeQuery()){
+                RowStubs stubs = new RowStubs();
                 while(rs.next()){
-                    doctors.add(mapRowToDoctor(rs));
+                    doctors.add(mapRowToDoctor(rs, stubs));
                 }
             }
         }catch (SQLException e){
-            e.printStackTrace();
+            throw DataAccessException.translate("DoctorDAO.findDoctorsByDepartment", e);
         }
         return doctors;
     }
@@ -124,7 +159,7 @@ public class DoctorDAO {
 
             ps.executeUpdate();
         }catch (SQLException e){
-            e.printStackTrace();
+            throw DataAccessException.translate("DoctorDAO.updateDoctor", e);
         }
     }
 
@@ -137,22 +172,41 @@ public class DoctorDAO {
             ps.executeUpdate();
 
         }catch (SQLException e){
-            e.printStackTrace();
+            throw DataAccessException.translate("DoctorDAO.deleteDoctor", e);
+        }
+    }
+
+    public List<DoctorSummary> getDoctorSummaries(){
+        List<DoctorSummary> doctors = new ArrayList<>();
+        String sql = "SELECT " + DOCTOR_SUMMARY_COLUMNS + " FROM doctors ORDER BY last_name, first_name";
+
+        try(Connection conn = DBConnection.getReadConnection();
+            PreparedStatement ps = conn.prepareStatement(sql);
+            ResultSet rs = ps.executeQuery()){
+
+            while (rs.next()){
+                doctors.add(new DoctorSummary(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4)));
+            }
+
+        }catch (SQLException e){
+            throw DataAccessException.translate("DoctorDAO.getDoctorSummaries", e);
         }
+        return doctors;
     }
 
-    private Doctor mapRowToDoctor(ResultSet rs) throws SQLException {
+    // Maps a row selected with DOCTOR_COLUMNS, reading columns by position
+    private Doctor mapRowToDoctor(ResultSet rs, RowStubs stubs) throws SQLException {
 
-        Long deptId = rs.getLong("dept_id");
-        Department department = !rs.wasNull() ? new Department(deptId) : null;
+        long deptId = rs.getLong(6);
+        Department department = !rs.wasNull() ? stubs.department(deptId) : null;
         return new Doctor(
-                rs.getLong("doctor_id"),
-                rs.getString("first_name"),
-                rs.getString("last_name"),
-                rs.getString("email"),
-                rs.getString("specialization"),
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getString(5),
                 department,
-                rs.getString("phone")
+                rs.getString(7)
         );
     }
 
@@ -0,0 +1,118 @@
+package hospital.hospital_management_system.dao;
+
+import hospital.hospital_management_system.utils.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * EXPLAINs the filtered DAO statements and reports whether each one can use an index.
+ * Sequential scans are disabled for the session, because on a small database the planner
+ * prefers them anyway; what is checked is that an index exists for the access path.
+ * Exits with status 1 if any statement still plans a sequential scan.
+ */
+public final class IndexVerifier {
+
+    private record Check(String name, String sql, Object... params) {}
+
+    private static final List<Check> CHECKS = List.of(
+            new Check("AppointmentDAO.findByPatient",
+                    "SELECT " + AppointmentDAO.APPOINTMENT_COLUMNS + " FROM appointments WHERE patient_id = ?", 1L),
+            new Check("AppointmentDAO.findByDoctor",
+                    "SELECT " + AppointmentDAO.APPOINTMENT_COLUMNS + " FROM appointments WHERE doctor_id = ?", 1L),
+            new Check("AppointmentDAO.findSummariesBetween",
+                    AppointmentDAO.SUMMARY_SELECT
+                            + "WHERE a.appointment_date >= ? AND a.appointment_date < ? ORDER BY a.appointment_date",
+                    Timestamp.valueOf(LocalDate.now().atStartOfDay()),
+                    Timestamp.valueOf(LocalDate.now().plusDays(1).atStartOfDay())),
+            new Check("PrescriptionDAO.findByAppointmentId",
+                    "SELECT " + PrescriptionDAO.PRESCRIPTION_COLUMNS + " FROM prescriptions WHERE appointment_id = ?", 1L),
+            new Check("PrescriptionDAO.findAll",
+                    "SELECT " + PrescriptionDAO.PRESCRIPTION_COLUMNS + " FROM prescriptions ORDER BY date_issued DESC LIMIT 50"),
+            new Check("PrescriptionItemDAO.findByPrescription",
+                    "SELECT " + PrescriptionItemDAO.ITEM_COLUMNS + " FROM prescription_items WHERE prescription_id = ?", 1L),
+            new Check("PrescriptionItemDAO (inventory delete)",
+                    "SELECT 1 FROM prescription_items WHERE item_id = ?", 1L),
+            new Check("PatientFeedbackDAO.findByPatient",
+                    "SELECT " + PatientFeedbackDAO.FEEDBACK_COLUMNS + " FROM patient_feedback WHERE patient_id = ?", 1L),
+            new Check("DoctorDAO.findDoctorsByDepartment",
+                    "SELECT " + DoctorDAO.DOCTOR_COLUMNS + " FROM doctors WHERE dept_id = ?", 1L),
+            new Check("DoctorDAO.findDoctorsBySpecialization",
+                    "SELECT " + DoctorDAO.DOCTOR_COLUMNS + " FROM doctors WHERE specialization ILIKE ?", "%card%"),
+            new Check("PatientDAO.searchPatientByLastName",
+                    "SELECT " + PatientDAO.PATIENT_COLUMNS + " FROM patients WHERE last_name ILIKE ?", "%smi%"),
+            new Check("PatientDAO.searchPatientById",
+                    "SELECT " + PatientDAO.PATIENT_COLUMNS + " FROM patients WHERE patient_id = ?", 1L),
+            new Check("PatientDAO.findDuplicateCandidates", PatientDAO.DUPLICATE_CANDIDATES_SQL,
+                    java.sql.Date.valueOf("1980-03-04"), java.sql.Date.valueOf("1980-04-03"), "Smith", "John", 201, 200, 0L, 200),
+            new Check("SearchDAO.search", SearchDAO.SEARCH_SQL, "infection", true, true, 20, 0, ""),
+            new Check("TimelineDAO.findTimeline", TimelineDAO.TIMELINE.formatted(""), 1L, 1L, 1L, 21),
+            new Check("WalkInDAO.callNext", WalkInDAO.CALL_NEXT, 1L)
+    );
+
+    private IndexVerifier() {} // Prevent instantiation
+
+    /**
+     * Returns the names of the checks whose plan still contains a sequential scan.
+     */
+    public static List<String> verify(Connection conn, boolean printPlans) throws SQLException {
+        List<String> failures = new ArrayList<>();
+        try (Statement st = conn.createStatement()) {
+            st.execute("SET enable_seqscan = off");
+        }
+        try {
+            for (Check check : CHECKS) {
+                String plan = explain(conn, check);
+                boolean indexed = !plan.contains("Seq Scan");
+                System.out.println((indexed ? "OK    " : "FAIL  ") + check.name());
+                if (printPlans || !indexed) {
+                    System.out.println(plan.indent(6));
+                }
+                if (!indexed) {
+                    failures.add(check.name());
+                }
+            }
+        } finally {
+            try (Statement st = conn.createStatement()) {
+                st.execute("RESET enable_seqscan");
+            }
+        }
+        return failures;
+    }
+
+    private static String explain(Connection conn, Check check) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement ps = conn.prepareStatement("EXPLAIN " + check.sql())) {
+            for (int i = 0; i < check.params().length; i++) {
+                ps.setObject(i + 1, check.params()[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+        }
+        return plan.toString();
+    }
+
+    // Usage: IndexVerifier [--plans]
+    public static void main(String[] args) throws SQLException {
+        boolean printPlans = args.length > 0 && args[0].equals("--plans");
+        try (Connection conn = DBConnection.getConnection()) {
+            List<String> failures = verify(conn, printPlans);
+            System.out.println(failures.isEmpty()
+                    ? "All " + CHECKS.size() + " statements can use an index"
+                    : failures.size() + " of " + CHECKS.size() + " statements fall back to a sequential scan");
+            if (!failures.isEmpty()) {
+                System.exit(1);
+            }
+        }
+    }
+}
@@ -1,26 +1,42 @@
 package hospital.hospital_management_system.dao;
 
+import hospital.hospital_management_system.model.InventorySummary;
 import hospital.hospital_management_system.model.MedicalInventory;
+import hospital.hospital_management_system.model.PrescriptionItems;
 import hospital.hospital_management_system.utils.DBConnection;
+import hospital.hospital_management_system.utils.DataAccessException;
+import hospital.hospital_management_system.utils.Log;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 public class MedicalInventoryDAO {
 
+    private static final Log log = Log.get(MedicalInventoryDAO.class);
+
+    // Column order is what mapRowToInventory reads by index
+    static final String INVENTORY_COLUMNS = "item_id, item_name, stock_quantity, unit_price";
+
+    static final String INVENTORY_SUMMARY_COLUMNS = "item_id, item_name, stock_quantity";
+
     // Create
     public void addInventoryItem(MedicalInventory item) {
-        String sql = "INSERT INTO medical_inventory (item_name, stock_quantity, unit_price) VALUES (?, ?, ?)";
+        String sql = "INSERT INTO medical_inventory (item_name, stock_quantity, unit_price) VALUES (?, ?, ?) RETURNING item_id";
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, item.getItemName());
             ps.setInt(2, item.getStockQuantity());
             ps.setBigDecimal(3, item.getUnitPrice());
-            ps.executeUpdate();
-            System.out.println("Inventory item added successfully.");
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    item.setItemId(rs.getLong(1));
+                }
+            }
+            log.debug("Inventory item added");
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("MedicalInventoryDAO.addInventoryItem", e);
         }
     }
 
@@ -36,27 +52,89 @@ public class MedicalInventoryDAO {
 
             int updated = ps.executeUpdate();
             if (updated > 0) {
-                System.out.println("Inventory item updated successfully.");
+                log.debug("Inventory item updated");
             } else {
-                System.out.println("No item found with ID: " + item.getItemId());
+                log.warn("No inventory item found with ID {}", item.getItemId());
+            }
+        } catch (SQLException e) {
+            throw DataAccessException.translate("MedicalInventoryDAO.updateItem", e);
+        }
+    }
+
+    // Takes dispensed quantities out of stock in one batch. Returns false if any item has too
+    // little stock; run it in a UnitOfWork so the rows already updated roll back with it.
+    public boolean dispenseStock(List<PrescriptionItems> items) {
+        String sql = "UPDATE medical_inventory SET stock_quantity = stock_quantity - ? WHERE item_id = ? AND stock_quantity >= ?";
+
+        // Same lock order in every transaction, so concurrent dispenses cannot deadlock
+        List<PrescriptionItems> ordered = new ArrayList<>(items);
+        ordered.sort(Comparator.comparing(PrescriptionItems::getItemId));
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (PrescriptionItems item : ordered) {
+                ps.setInt(1, item.getQuantityDispensed());
+                ps.setLong(2, item.getItemId());
+                ps.setInt(3, item.getQuantityDispensed());
+                ps.addBatch();
+            }
+            for (int updated : ps.executeBatch()) {
+                if (updated == 0) {
+                    log.warn("Insufficient stock for prescription");
+                    return false;
+                }
             }
+            return true;
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("MedicalInventoryDAO.dispenseStock", e);
         }
     }
 
     // Read all
     public List<MedicalInventory> findAll() {
         List<MedicalInventory> items = new ArrayList<>();
-        String sql = "SELECT * FROM medical_inventory";
-        try (Connection conn = DBConnection.getConnection();
+        String sql = "SELECT " + INVENTORY_COLUMNS + " FROM medical_inventory";
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
                 items.add(mapRowToInventory(rs));
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("MedicalInventoryDAO.findAll", e);
+        }
+        return items;
+    }
+
+    // Read one
+    public MedicalInventory findById(long itemId) {
+        String sql = "SELECT " + INVENTORY_COLUMNS + " FROM medical_inventory WHERE item_id = ?";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, itemId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return mapRowToInventory(rs);
+                }
+            }
+        } catch (SQLException e) {
+            throw DataAccessException.translate("MedicalInventoryDAO.findById", e);
+        }
+        return null;
+    }
+
+    // Read summaries for pickers
+    public List<InventorySummary> findSummaries() {
+        List<InventorySummary> items = new ArrayList<>();
+        String sql = "SELECT " + INVENTORY_SUMMARY_COLUMNS + " FROM medical_inventory ORDER BY item_name";
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                items.add(new InventorySummary(rs.getLong(1), rs.getString(2), rs.getInt(3)));
+            }
+        } catch (SQLException e) {
+            throw DataAccessException.translate("MedicalInventoryDAO.findSummaries", e);
         }
         return items;
     }
@@ -69,22 +147,22 @@ public class MedicalInventoryDAO {
             ps.setLong(1, itemId);
             int deleted = ps.executeUpdate();
             if (deleted > 0) {
-                System.out.println("Inventory item deleted successfully.");
+                log.debug("Inventory item deleted");
             } else {
-                System.out.println("No item found with ID: " + itemId);
+                log.warn("No inventory item found with ID {}", itemId);
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("MedicalInventoryDAO.deleteInventoryItem", e);
         }
     }
 
     // Map row
     private MedicalInventory mapRowToInventory(ResultSet rs) throws SQLException {
         return new MedicalInventory(
-                rs.getLong("item_id"),
-                rs.getString("item_name"),
-                rs.getInt("stock_quantity"),
-                rs.getBigDecimal("unit_price")
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getInt(3),
+                rs.getBigDecimal(4)
         );
     }
 }
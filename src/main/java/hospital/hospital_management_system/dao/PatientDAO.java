@@ -1,21 +1,38 @@
 package hospital.hospital_management_system.dao;
 
+import hospital.hospital_management_system.audit.AuditEvent;
+import hospital.hospital_management_system.audit.AuditTrail;
 import hospital.hospital_management_system.model.Patient;
+import hospital.hospital_management_system.model.PatientSummary;
 import hospital.hospital_management_system.utils.DBConnection;
+import hospital.hospital_management_system.utils.DataAccessException;
+import hospital.hospital_management_system.utils.Log;
 
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 
 public class PatientDAO {
 
+    private static final Log log = Log.get(PatientDAO.class);
+
+    // Column order is what mapRowToPatient reads by index
+    static final String PATIENT_COLUMNS = "patient_id, first_name, last_name, dob, gender, contact_number, address";
+
+    // What the patient list shows; address stays in the database until a row is selected
+    static final String PATIENT_SUMMARY_COLUMNS = "patient_id, first_name, last_name, dob, gender, contact_number";
+
     public Patient searchPatientById(long patientId) {
 
-        String sql = "SELECT * FROM patients WHERE patient_id = ?";
+        String sql = "SELECT " + PATIENT_COLUMNS + " FROM patients WHERE patient_id = ?";
 
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
@@ -29,7 +46,7 @@ public class PatientDAO {
             }
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("PatientDAO.searchPatientById", e);
         }
 
         return null;
@@ -37,8 +54,8 @@ public class PatientDAO {
 
     public List<Patient> searchPatientByLastName(String last_name){
         List<Patient> patients = new ArrayList<>();
-        String sql = "SELECT * FROM patients WHERE last_name ILIKE ?";
-        try(Connection conn = DBConnection.getConnection();
+        String sql = "SELECT " + PATIENT_COLUMNS + " FROM patients WHERE last_name ILIKE ?";
+        try(Connection conn = DBConnection.getReadConnection();
             PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setString(1, "%" +last_name + "%");
@@ -49,24 +66,24 @@ public class PatientDAO {
                 }
             }
         }catch(SQLException e){
-            e.printStackTrace();
+            throw DataAccessException.translate("PatientDAO.searchPatientByLastName", e);
         }
         return patients;
     }
 
     public void addPatient(Patient patient)  {
         if (patient.getDob() == null) {
-            System.out.println("Error: DOB cannot be null");
+            log.warn("Patient not added: DOB cannot be null");
             return;
         }
         if (patient.getGender() == null ||
                 !(patient.getGender().equalsIgnoreCase("male") || patient.getGender().equalsIgnoreCase("female"))) {
-            System.out.println("Error: Invalid gender");
+            log.warn("Patient not added: invalid gender {}", patient.getGender());
             return;
         }
-        String sql = "INSERT INTO patients " +
+        String sql = "INSERT INTO patients AS p " +
                 "(first_name, last_name, dob, gender, contact_number, address) " +
-                "VALUES (?, ?, ?, ?, ?, ?)";
+                "VALUES (?, ?, ?, ?, ?, ?) RETURNING p.patient_id, to_jsonb(p)::text";
 
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
@@ -78,17 +95,24 @@ public class PatientDAO {
             ps.setString(5, patient.getContact_number());
             ps.setString(6, patient.getAddress());
 
-            ps.executeUpdate();
-            System.out.println("Insertion successful");
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    AuditTrail.record("patients", rs.getLong(1), AuditEvent.Action.INSERT, null, rs.getString(2));
+                }
+            }
+            log.debug("Patient added");
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("PatientDAO.addPatient", e);
         }
     }
     public void updatePatient(Patient patient) {
-        String sql = "UPDATE patients SET " +
+        // The locked subquery is the row as it was, for the audit trail, without another round trip
+        String sql = "UPDATE patients p SET " +
                 "first_name = ?, last_name = ?, dob = ?, gender = ?, contact_number = ?, address = ? " +
-                "WHERE patient_id = ?";
+                "FROM (SELECT * FROM patients WHERE patient_id = ? FOR UPDATE) prev " +
+                "WHERE p.patient_id = prev.patient_id " +
+                "RETURNING to_jsonb(prev)::text, to_jsonb(p)::text";
 
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
@@ -101,31 +125,65 @@ public class PatientDAO {
             ps.setString(6, patient.getAddress());
             ps.setLong(7, patient.getPatientId());
 
-            int rows = ps.executeUpdate();
-            System.out.println(rows + " patient(s) updated");
+            int rows = 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    AuditTrail.record("patients", patient.getPatientId(), AuditEvent.Action.UPDATE, rs.getString(1), rs.getString(2));
+                    rows++;
+                }
+            }
+            log.debug("{} patient(s) updated", rows);
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("PatientDAO.updatePatient", e);
         }
     }
 
-    public void deletePatient( long patientId){
-        String sql = "DELETE FROM patients WHERE patient_id = ?";
+    /**
+     * Deletes the patient and returns the ids of the appointments the ON DELETE CASCADE took with
+     * it, so that what is kept per appointment in memory can be let go.
+     */
+    public List<Long> deletePatient( long patientId){
+        // The outer SELECT reads the statement's snapshot, so it still sees the appointments the
+        // cascade removes when the DELETE completes
+        String sql = """
+            WITH deleted AS (
+                DELETE FROM patients p WHERE patient_id = ? RETURNING to_jsonb(p)::text AS row
+            )
+            SELECT d.row, a.appointment_id
+            FROM deleted d
+            LEFT JOIN appointments a ON a.patient_id = ?
+        """;
+        List<Long> appointmentIds = new ArrayList<>();
         try(Connection conn = DBConnection.getConnection();
             PreparedStatement ps= conn.prepareStatement(sql)){
             ps.setLong(1,patientId);
-            ps.executeUpdate();
-            System.out.println("Patient(s) deleted");
+            ps.setLong(2,patientId);
+            try (ResultSet rs = ps.executeQuery()) {
+                String row = null;
+                while (rs.next()) {
+                    row = rs.getString(1);
+                    long appointmentId = rs.getLong(2);
+                    if (!rs.wasNull()) {
+                        appointmentIds.add(appointmentId);
+                    }
+                }
+                if (row != null) {
+                    AuditTrail.record("patients", patientId, AuditEvent.Action.DELETE, row, null);
+                }
+            }
+            log.debug("Patient(s) deleted");
 
         }catch (SQLException e){
-            e.printStackTrace();
+            throw DataAccessException.translate("PatientDAO.deletePatient", e);
         }
+        return appointmentIds;
     }
     public List<Patient> getAllPatients(){
         List<Patient> patients = new ArrayList<>();
-        String sql = "SELECT * FROM patients";
+        String sql = "SELECT " + PATIENT_COLUMNS + " FROM patients";
 
-        try(Connection conn = DBConnection.getConnection();
+        try(Connection conn = DBConnection.getReadConnection();
             PreparedStatement ps = conn.prepareStatement(sql);
             ResultSet rs = ps.executeQuery()){
 
@@ -135,16 +193,37 @@ public class PatientDAO {
             }
 
         }catch (SQLException e ){
-            e.printStackTrace();
+            throw DataAccessException.translate("PatientDAO.getAllPatients", e);
+        }
+        return patients;
+    }
+    /**
+     * Patients inserted or updated after {@code since} (updated_at, see V5). Throws instead of
+     * returning an empty list: callers advance a watermark past what this returns.
+     */
+    public List<Patient> findPatientsChangedSince(Instant since) throws SQLException {
+        List<Patient> patients = new ArrayList<>();
+        String sql = "SELECT " + PATIENT_COLUMNS + " FROM patients WHERE updated_at > ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setObject(1, OffsetDateTime.ofInstant(since, ZoneOffset.UTC));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    patients.add(mapRowToPatient(rs));
+                }
+            }
         }
         return patients;
     }
+
     public List<Patient> getPatientsPaginated(int limit, int offset){
         List<Patient> patients = new ArrayList<>();
-        String sql = "SELECT * FROM patients ORDER BY patient_id LIMIT ? OFFSET ?";
+        String sql = "SELECT " + PATIENT_COLUMNS + " FROM patients ORDER BY patient_id LIMIT ? OFFSET ?";
 
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
 //            ps.setString(1,"%" + lastName + "%");
@@ -158,22 +237,148 @@ public class PatientDAO {
             }
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("PatientDAO.getPatientsPaginated", e);
+        }
+
+        return patients;
+    }
+
+    public List<PatientSummary> getPatientSummaries() {
+        List<PatientSummary> patients = new ArrayList<>();
+        String sql = "SELECT " + PATIENT_SUMMARY_COLUMNS + " FROM patients ORDER BY patient_id";
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                patients.add(mapRowToSummary(rs));
+            }
+
+        } catch (SQLException e) {
+            throw DataAccessException.translate("PatientDAO.getPatientSummaries", e);
         }
+        return patients;
+    }
+
+    public List<PatientSummary> searchPatientSummariesByLastName(String lastName) {
+        List<PatientSummary> patients = new ArrayList<>();
+        String sql = "SELECT " + PATIENT_SUMMARY_COLUMNS + " FROM patients WHERE last_name ILIKE ? ORDER BY patient_id";
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
 
+            ps.setString(1, "%" + lastName + "%");
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    patients.add(mapRowToSummary(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            throw DataAccessException.translate("PatientDAO.searchPatientSummariesByLastName", e);
+        }
         return patients;
     }
 
+    // Blocking query for duplicate detection, served by the two dob + soundex indexes (V8): one
+    // block per date of birth (as entered and with day and month swapped) and Soundex code of
+    // either name, as DuplicatePatientDetector blocks the whole table, so swapped names still
+    // meet. A block reads at most one row past the limit; one over it keeps a single row, so
+    // that it can be reported
+    static final String DUPLICATE_CANDIDATES_SQL = "WITH keys AS ("
+            + " SELECT DISTINCT d.dob, n.code FROM (VALUES (?::date), (?::date)) d(dob),"
+            + " (VALUES (patient_soundex(?)), (patient_soundex(?))) n(code) WHERE n.code <> ''),"
+            + " blocks AS (SELECT p.*, count(*) OVER (PARTITION BY k.dob, k.code) AS block_size,"
+            + " row_number() OVER (PARTITION BY k.dob, k.code) AS block_row"
+            + " FROM keys k CROSS JOIN LATERAL (SELECT " + PATIENT_COLUMNS + " FROM patients"
+            + " WHERE dob = k.dob AND (patient_soundex(last_name) = k.code OR patient_soundex(first_name) = k.code)"
+            + " LIMIT ?) p)"
+            + " SELECT DISTINCT ON (patient_id) " + PATIENT_COLUMNS + ", block_size FROM blocks"
+            + " WHERE (block_size <= ? AND patient_id <> ?) OR (block_size > ? AND block_row = 1)"
+            + " ORDER BY patient_id, block_size";
+
+    /**
+     * Patients who could be the same person as {@code patient}: born on the same date, or with
+     * day and month swapped, and with a first or last name that sounds like one of its names.
+     * Blocks of more than {@code maxBlock} patients are skipped, as in the batch job; the caller
+     * scores the rest.
+     */
+    public List<Patient> findDuplicateCandidates(Patient patient, int maxBlock) {
+        List<Patient> candidates = new ArrayList<>();
+        if (patient.getDob() == null) {
+            return candidates;
+        }
+        int skipped = 0;
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(DUPLICATE_CANDIDATES_SQL)) {
+
+            ps.setDate(1, java.sql.Date.valueOf(patient.getDob()));
+            ps.setDate(2, java.sql.Date.valueOf(swapDayAndMonth(patient.getDob())));
+            ps.setString(3, patient.getLastName());
+            ps.setString(4, patient.getFirstName());
+            ps.setInt(5, maxBlock + 1);
+            ps.setInt(6, maxBlock);
+            ps.setLong(7, patient.getPatientId());
+            ps.setInt(8, maxBlock);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (rs.getLong(8) > maxBlock) {
+                        skipped++;
+                    } else {
+                        candidates.add(mapRowToPatient(rs));
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            throw DataAccessException.translate("PatientDAO.findDuplicateCandidates", e);
+        }
+        if (skipped > 0) {
+            log.warn("{} duplicate block(s) over {} patients skipped for patient {}", skipped, maxBlock, patient.getPatientId());
+        }
+        return candidates;
+    }
+
+    /**
+     * The date with day and month exchanged, the usual slip between day-first and month-first
+     * entry, or the date itself when the day is past the 12th.
+     */
+    public static LocalDate swapDayAndMonth(LocalDate dob) {
+        if (dob.getDayOfMonth() > 12 || dob.getDayOfMonth() == dob.getMonthValue()) {
+            return dob;
+        }
+        return LocalDate.of(dob.getYear(), dob.getDayOfMonth(), dob.getMonthValue());
+    }
 
-    private Patient mapRowToPatient(ResultSet rs) throws SQLException {
+    /**
+     * Maps a row selected with {@link #PATIENT_COLUMNS}, reading columns by position.
+     */
+    public Patient mapRowToPatient(ResultSet rs) throws SQLException {
         return new Patient(
-                rs.getLong("patient_id"),
-                rs.getString("first_name"),
-                rs.getString("last_name"),
-                rs.getDate("dob").toLocalDate(),
-                rs.getString("gender"),
-                rs.getString("contact_number"),
-                rs.getString("address")
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getDate(4).toLocalDate(),
+                rs.getString(5),
+                rs.getString(6),
+                rs.getString(7)
+        );
+    }
+
+    /**
+     * Maps a row selected with {@link #PATIENT_SUMMARY_COLUMNS}.
+     */
+    public PatientSummary mapRowToSummary(ResultSet rs) throws SQLException {
+        return new PatientSummary(
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getDate(4).toLocalDate(),
+                rs.getString(5),
+                rs.getString(6)
         );
     }
 
@@ -2,7 +2,10 @@ package hospital.hospital_management_system.dao;
 
 import hospital.hospital_management_system.model.Patient;
 import hospital.hospital_management_system.model.PatientFeedback;
+import hospital.hospital_management_system.model.RatingStats;
 import hospital.hospital_management_system.utils.DBConnection;
+import hospital.hospital_management_system.utils.DataAccessException;
+import hospital.hospital_management_system.utils.Log;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -10,32 +13,45 @@ import java.util.List;
 
 public class PatientFeedbackDAO {
 
+    private static final Log log = Log.get(PatientFeedbackDAO.class);
+
+    // Column order is what mapRow reads by index
+    static final String FEEDBACK_COLUMNS = "feedback_id, patient_id, rating, comments, feedback_date";
+
     // CREATE
-    public void addFeedback(PatientFeedback feedback) {
+    public boolean addFeedback(PatientFeedback feedback) {
         String sql = """
             INSERT INTO patient_feedback (patient_id, rating, comments, feedback_date)
             VALUES (?, ?, ?, ?)
         """;
 
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             ps.setLong(1, feedback.getPatientId());
             ps.setInt(2, feedback.getRating());
             ps.setString(3, feedback.getComments());
             ps.setDate(4, Date.valueOf(feedback.getFeedbackDate()));
 
-            ps.executeUpdate();
-            System.out.println("Feedback added successfully");
+            if (ps.executeUpdate() == 0) {
+                return false;
+            }
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (keys.next()) {
+                    feedback.setFeedbackId(keys.getLong(1));
+                }
+            }
+            log.debug("Feedback added");
+            return true;
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("PatientFeedbackDAO.addFeedback", e);
         }
     }
 
     // READ by ID
     public PatientFeedback findById(Long feedbackId) {
-        String sql = "SELECT * FROM patient_feedback WHERE feedback_id = ?";
+        String sql = "SELECT " + FEEDBACK_COLUMNS + " FROM patient_feedback WHERE feedback_id = ?";
 
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
@@ -44,12 +60,12 @@ public class PatientFeedbackDAO {
 
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    return mapRow(rs);
+                    return mapRow(rs, new RowStubs());
                 }
             }
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("PatientFeedbackDAO.findById", e);
         }
         return null;
     }
@@ -57,21 +73,22 @@ public class PatientFeedbackDAO {
     // READ by Patient
     public List<PatientFeedback> findByPatient(Long patientId) {
         List<PatientFeedback> feedbackList = new ArrayList<>();
-        String sql = "SELECT * FROM patient_feedback WHERE patient_id = ?";
+        String sql = "SELECT " + FEEDBACK_COLUMNS + " FROM patient_feedback WHERE patient_id = ?";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setLong(1, patientId);
 
             try (ResultSet rs = ps.executeQuery()) {
+                RowStubs stubs = new RowStubs();
                 while (rs.next()) {
-                    feedbackList.add(mapRow(rs));
+                    feedbackList.add(mapRow(rs, stubs));
                 }
             }
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("PatientFeedbackDAO.findByPatient", e);
         }
         return feedbackList;
     }
@@ -79,49 +96,83 @@ public class PatientFeedbackDAO {
     // READ ALL
     public List<PatientFeedback> findAll() {
         List<PatientFeedback> feedbackList = new ArrayList<>();
-        String sql = "SELECT * FROM patient_feedback";
+        String sql = "SELECT " + FEEDBACK_COLUMNS + " FROM patient_feedback";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
 
+            RowStubs stubs = new RowStubs();
             while (rs.next()) {
-                feedbackList.add(mapRow(rs));
+                feedbackList.add(mapRow(rs, stubs));
             }
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("PatientFeedbackDAO.findAll", e);
         }
         return feedbackList;
     }
 
     // DELETE
-    public void deleteFeedback(Long feedbackId) {
-        String sql = "DELETE FROM patient_feedback WHERE feedback_id = ?";
+    // Returns the deleted feedback, or null if there was none, so callers can adjust
+    // aggregates without reading the row first
+    public PatientFeedback deleteFeedback(Long feedbackId) {
+        String sql = "DELETE FROM patient_feedback WHERE feedback_id = ? RETURNING " + FEEDBACK_COLUMNS;
 
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setLong(1, feedbackId);
-            ps.executeUpdate();
-            System.out.println("Feedback deleted");
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    log.debug("Feedback deleted");
+                    return mapRow(rs, new RowStubs());
+                }
+            }
+
+        } catch (SQLException e) {
+            throw DataAccessException.translate("PatientFeedbackDAO.deleteFeedback", e);
+        }
+        return null;
+    }
+
+    // Per-day rating histograms (feedback_rating_daily, kept current by triggers).
+    // Read from the primary: callers apply their own writes on top of it.
+    public List<RatingStats> findDailyRatingCounts() {
+        List<RatingStats> days = new ArrayList<>();
+        String sql = "SELECT day, rating_1, rating_2, rating_3, rating_4, rating_5 FROM feedback_rating_daily";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+
+            int[] histogram = new int[5];
+            while (rs.next()) {
+                for (int i = 0; i < histogram.length; i++) {
+                    histogram[i] = rs.getInt(i + 2);
+                }
+                days.add(new RatingStats(rs.getDate(1).toLocalDate(), histogram));
+            }
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("PatientFeedbackDAO.findDailyRatingCounts", e);
         }
+        return days;
     }
 
     // Mapper
-    private PatientFeedback mapRow(ResultSet rs) throws SQLException {
+    // Maps a row selected with FEEDBACK_COLUMNS, reading columns by position
+    private PatientFeedback mapRow(ResultSet rs, RowStubs stubs) throws SQLException {
 
-        Patient patient = new Patient(rs.getLong("patient_id"));
+        Patient patient = stubs.patient(rs.getLong(2));
 
         return new PatientFeedback(
-                rs.getLong("feedback_id"),
+                rs.getLong(1),
                 patient,
-                rs.getInt("rating"),
-                rs.getString("comments"),
-                rs.getDate("feedback_date").toLocalDate()
+                rs.getInt(3),
+                rs.getString(4),
+                rs.getDate(5).toLocalDate()
         );
     }
 }
@@ -1,7 +1,10 @@
 package hospital.hospital_management_system.dao;
 
+import hospital.hospital_management_system.audit.AuditEvent;
+import hospital.hospital_management_system.audit.AuditTrail;
 import hospital.hospital_management_system.model.Prescriptions;
 import hospital.hospital_management_system.utils.DBConnection;
+import hospital.hospital_management_system.utils.DataAccessException;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -13,12 +16,15 @@ import java.util.List;
  */
 public class PrescriptionDAO {
 
+    // Column order is what mapRowToPrescription reads by index
+    static final String PRESCRIPTION_COLUMNS = "prescription_id, appointment_id, date_issued, notes";
 
     public boolean addPrescription(Prescriptions prescription) {
 
         String sql = """
-            INSERT INTO prescriptions (appointment_id, date_issued, notes)
+            INSERT INTO prescriptions AS p (appointment_id, date_issued, notes)
             VALUES (?, ?, ?)
+            RETURNING p.prescription_id, to_jsonb(p)::text
             """;
 
         try (Connection conn = DBConnection.getConnection();
@@ -28,19 +34,25 @@ public class PrescriptionDAO {
             ps.setTimestamp(2, Timestamp.valueOf(prescription.getPrescriptionDate()));
             ps.setString(3, prescription.getNotes());
 
-            return ps.executeUpdate() > 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return false;
+                }
+                prescription.setPrescriptionId(rs.getLong(1));
+                AuditTrail.record("prescriptions", rs.getLong(1), AuditEvent.Action.INSERT, null, rs.getString(2));
+            }
+            return true;
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("PrescriptionDAO.addPrescription", e);
         }
-        return false;
     }
 
 
     // READ BY ID
     public Prescriptions findById(Long prescriptionId) {
 
-        String sql = "SELECT * FROM prescriptions WHERE prescription_id = ?";
+        String sql = "SELECT " + PRESCRIPTION_COLUMNS + " FROM prescriptions WHERE prescription_id = ?";
 
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
@@ -54,7 +66,7 @@ public class PrescriptionDAO {
             }
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("PrescriptionDAO.findById", e);
         }
         return null;
     }
@@ -65,7 +77,7 @@ public class PrescriptionDAO {
 
         List<Prescriptions> prescriptions = new ArrayList<>();
 
-        String sql = "SELECT * FROM prescriptions WHERE appointment_id = ?";
+        String sql = "SELECT " + PRESCRIPTION_COLUMNS + " FROM prescriptions WHERE appointment_id = ?";
 
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
@@ -79,7 +91,7 @@ public class PrescriptionDAO {
             }
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("PrescriptionDAO.findByAppointmentId", e);
         }
         return prescriptions;
     }
@@ -88,9 +100,9 @@ public class PrescriptionDAO {
     public List<Prescriptions> findAll() {
 
         List<Prescriptions> prescriptions = new ArrayList<>();
-        String sql = "SELECT * FROM prescriptions ORDER BY date_issued DESC";
+        String sql = "SELECT " + PRESCRIPTION_COLUMNS + " FROM prescriptions ORDER BY date_issued DESC";
 
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
 
@@ -99,7 +111,7 @@ public class PrescriptionDAO {
             }
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("PrescriptionDAO.findAll", e);
         }
         return prescriptions;
     }
@@ -109,9 +121,11 @@ public class PrescriptionDAO {
     public boolean updatePrescriptionNotes(Long prescriptionId, String notes) {
 
         String sql = """
-            UPDATE prescriptions
+            UPDATE prescriptions p
             SET notes = ?
-            WHERE prescription_id = ?
+            FROM (SELECT * FROM prescriptions WHERE prescription_id = ? FOR UPDATE) prev
+            WHERE p.prescription_id = prev.prescription_id
+            RETURNING to_jsonb(prev)::text, to_jsonb(p)::text
             """;
 
         try (Connection conn = DBConnection.getConnection();
@@ -120,39 +134,49 @@ public class PrescriptionDAO {
             ps.setString(1, notes);
             ps.setLong(2, prescriptionId);
 
-            return ps.executeUpdate() > 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return false;
+                }
+                AuditTrail.record("prescriptions", prescriptionId, AuditEvent.Action.UPDATE, rs.getString(1), rs.getString(2));
+                return true;
+            }
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("PrescriptionDAO.updatePrescriptionNotes", e);
         }
-        return false;
     }
 
     // DELETE
     public boolean deletePrescription(Long prescriptionId) {
 
-        String sql = "DELETE FROM prescriptions WHERE prescription_id = ?";
+        String sql = "DELETE FROM prescriptions p WHERE prescription_id = ? RETURNING to_jsonb(p)::text";
 
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setLong(1, prescriptionId);
-            return ps.executeUpdate() > 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return false;
+                }
+                AuditTrail.record("prescriptions", prescriptionId, AuditEvent.Action.DELETE, rs.getString(1), null);
+                return true;
+            }
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("PrescriptionDAO.deletePrescription", e);
         }
-        return false;
     }
 
     //  Mapper
     private Prescriptions mapRowToPrescription(ResultSet rs) throws SQLException {
 
         return new Prescriptions(
-                rs.getLong("prescription_id"),
-                rs.getLong("appointment_id"),
-                rs.getTimestamp("date_issued").toLocalDateTime(),
-                rs.getString("notes")
+                rs.getLong(1),
+                rs.getLong(2),
+                rs.getTimestamp(3).toLocalDateTime(),
+                rs.getString(4)
         );
     }
 }
@@ -1,9 +1,13 @@
 package hospital.hospital_management_system.dao;
 
+import hospital.hospital_management_system.audit.AuditEvent;
+import hospital.hospital_management_system.audit.AuditTrail;
 import hospital.hospital_management_system.model.MedicalInventory;
 import hospital.hospital_management_system.model.PrescriptionItems;
 import hospital.hospital_management_system.model.Prescriptions;
 import hospital.hospital_management_system.utils.DBConnection;
+import hospital.hospital_management_system.utils.DataAccessException;
+import hospital.hospital_management_system.utils.Log;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -11,12 +15,18 @@ import java.util.List;
 
 public class PrescriptionItemDAO {
 
+    private static final Log log = Log.get(PrescriptionItemDAO.class);
+
+    // Column order is what mapRow reads by index
+    static final String ITEM_COLUMNS = "prescription_id, item_id, dosage_instruction, quantity_dispensed";
+
     // CREATE
     public void addPrescriptionItem(PrescriptionItems item) {
         String sql = """
-            INSERT INTO prescription_items
+            INSERT INTO prescription_items AS i
             (prescription_id, item_id, dosage_instruction, quantity_dispensed)
             VALUES (?, ?, ?, ?)
+            RETURNING i.prescription_id, to_jsonb(i)::text
         """;
 
         try (Connection conn = DBConnection.getConnection();
@@ -30,16 +40,60 @@ public class PrescriptionItemDAO {
             if (item.getItem() != null) {
                 ps.setLong(2, item.getItemId());
             } else {
-                ps.setNull(3, Types.BIGINT);
+                ps.setNull(2, Types.BIGINT);
             }
             ps.setString(3, item.getDosageInstruction());
             ps.setInt(4, item.getQuantityDispensed());
 
-            ps.executeUpdate();
-            System.out.println("Prescription item added successfully");
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    AuditTrail.record("prescription_items", rs.getLong(1), AuditEvent.Action.INSERT, null, rs.getString(2));
+                }
+            }
+            log.debug("Prescription item added");
+
+        } catch (SQLException e) {
+            throw DataAccessException.translate("PrescriptionItemDAO.addPrescriptionItem", e);
+        }
+    }
+
+    // CREATE several in one statement; inside a UnitOfWork they commit with the prescription
+    public void addPrescriptionItems(List<PrescriptionItems> items) {
+        String sql = """
+            INSERT INTO prescription_items AS i
+            (prescription_id, item_id, dosage_instruction, quantity_dispensed)
+            SELECT * FROM unnest(?::bigint[], ?::bigint[], ?::text[], ?::int[])
+            RETURNING i.prescription_id, to_jsonb(i)::text
+        """;
+
+        Long[] prescriptionIds = new Long[items.size()];
+        Long[] itemIds = new Long[items.size()];
+        String[] dosages = new String[items.size()];
+        Integer[] quantities = new Integer[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            PrescriptionItems item = items.get(i);
+            prescriptionIds[i] = item.getPrescriptionId();
+            itemIds[i] = item.getItemId();
+            dosages[i] = item.getDosageInstruction();
+            quantities[i] = item.getQuantityDispensed();
+        }
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setArray(1, conn.createArrayOf("bigint", prescriptionIds));
+            ps.setArray(2, conn.createArrayOf("bigint", itemIds));
+            ps.setArray(3, conn.createArrayOf("text", dosages));
+            ps.setArray(4, conn.createArrayOf("int4", quantities));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    AuditTrail.record("prescription_items", rs.getLong(1), AuditEvent.Action.INSERT, null, rs.getString(2));
+                }
+            }
+            log.debug("{} prescription item(s) added", items.size());
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("PrescriptionItemDAO.addPrescriptionItems", e);
         }
     }
 
@@ -47,10 +101,7 @@ public class PrescriptionItemDAO {
     public List<PrescriptionItems> findByPrescription(Long prescriptionId) {
         List<PrescriptionItems> items = new ArrayList<>();
 
-        String sql = """
-            SELECT * FROM prescription_items
-            WHERE prescription_id = ?
-        """;
+        String sql = "SELECT " + ITEM_COLUMNS + " FROM prescription_items WHERE prescription_id = ?";
 
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
@@ -58,13 +109,14 @@ public class PrescriptionItemDAO {
             ps.setLong(1, prescriptionId);
 
             try (ResultSet rs = ps.executeQuery()) {
+                RowStubs stubs = new RowStubs();
                 while (rs.next()) {
-                    items.add(mapRow(rs));
+                    items.add(mapRow(rs, stubs));
                 }
             }
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("PrescriptionItemDAO.findByPrescription", e);
         }
         return items;
     }
@@ -72,8 +124,9 @@ public class PrescriptionItemDAO {
     // DELETE (important when editing prescriptions)
     public void deleteItem(Long prescriptionId, Long itemId) {
         String sql = """
-            DELETE FROM prescription_items
+            DELETE FROM prescription_items i
             WHERE prescription_id = ? AND item_id = ?
+            RETURNING to_jsonb(i)::text
         """;
 
         try (Connection conn = DBConnection.getConnection();
@@ -81,29 +134,31 @@ public class PrescriptionItemDAO {
 
             ps.setLong(1, prescriptionId);
             ps.setLong(2, itemId);
-            ps.executeUpdate();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    AuditTrail.record("prescription_items", prescriptionId, AuditEvent.Action.DELETE, rs.getString(1), null);
+                }
+            }
 
-            System.out.println("Prescription item deleted");
+            log.debug("Prescription item deleted");
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw DataAccessException.translate("PrescriptionItemDAO.deleteItem", e);
         }
     }
 
     // Mapper
-    private PrescriptionItems mapRow(ResultSet rs) throws SQLException {
-
-        Prescriptions prescription = new Prescriptions();
-        prescription.setPrescriptionId(rs.getLong("prescription_id"));
+    // Maps a row selected with ITEM_COLUMNS, reading columns by position
+    private PrescriptionItems mapRow(ResultSet rs, RowStubs stubs) throws SQLException {
 
-        MedicalInventory item = new MedicalInventory();
-        item.setItemId(rs.getLong("item_id"));
+        Prescriptions prescription = stubs.prescription(rs.getLong(1));
+        MedicalInventory item = stubs.item(rs.getLong(2));
 
         return new PrescriptionItems(
                 prescription,
                 item,
-                rs.getString("dosage_instruction"),
-                rs.getInt("quantity_dispensed")
+                rs.getString(3),
+                rs.getInt(4)
         );
     }
 }
@@ -0,0 +1,199 @@
+package hospital.hospital_management_system.dao;
+
+import hospital.hospital_management_system.model.AppointmentVolume;
+import hospital.hospital_management_system.model.InventoryUsage;
+import hospital.hospital_management_system.model.RatingTrend;
+import hospital.hospital_management_system.utils.DBConnection;
+import hospital.hospital_management_system.utils.DataAccessException;
+import hospital.hospital_management_system.utils.UnitOfWork;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the per-day report summary tables (see V3__reporting_summaries.sql) and brings them up
+ * to date. Report queries go to a read replica when one is configured.
+ */
+public class ReportDAO {
+
+    public enum Grouping { DOCTOR, DEPARTMENT }
+
+    public enum Period { WEEK, MONTH }
+
+    private static final String REFRESH_APPOINTMENTS = """
+            INSERT INTO report_appointments_daily (day, doctor_id, total, completed, cancelled, no_show)
+            SELECT d.day, COALESCE(a.doctor_id, 0), count(*),
+                   count(*) FILTER (WHERE a.status = 'Completed'),
+                   count(*) FILTER (WHERE a.status = 'Cancelled'),
+                   count(*) FILTER (WHERE a.status = 'No-show')
+            FROM unnest(?::date[]) AS d(day)
+            JOIN appointments a ON a.appointment_date >= d.day AND a.appointment_date < d.day + 1
+            GROUP BY d.day, COALESCE(a.doctor_id, 0)
+            """;
+
+    private static final String REFRESH_INVENTORY = """
+            INSERT INTO report_inventory_daily (day, item_id, quantity, prescriptions)
+            SELECT d.day, i.item_id, sum(i.quantity_dispensed), count(DISTINCT i.prescription_id)
+            FROM unnest(?::date[]) AS d(day)
+            JOIN prescriptions p ON p.date_issued >= d.day AND p.date_issued < d.day + 1
+            JOIN prescription_items i ON i.prescription_id = p.prescription_id
+            GROUP BY d.day, i.item_id
+            """;
+
+    /**
+     * Recomputes the days that writes have marked dirty since the last refresh, in one
+     * transaction. Returns how many report days changed. Ratings are read from
+     * feedback_rating_daily, which triggers keep exact (V4), so their days are only counted.
+     */
+    public int refresh() {
+        try (UnitOfWork work = UnitOfWork.begin()) {
+            Connection conn = DBConnection.getConnection();
+            int days = refresh(conn, "appointments", "report_appointments_daily", REFRESH_APPOINTMENTS)
+                    + claimDirtyDays(conn, "feedback").size()
+                    + refresh(conn, "inventory", "report_inventory_daily", REFRESH_INVENTORY);
+            work.commit();
+            return days;
+        } catch (SQLException e) {
+            throw DataAccessException.translate("ReportDAO.refresh", e);
+        }
+    }
+
+    private int refresh(Connection conn, String report, String table, String recompute) throws SQLException {
+        List<Date> days = claimDirtyDays(conn, report);
+        if (days.isEmpty()) {
+            return 0;
+        }
+
+        Array dayArray = conn.createArrayOf("date", days.toArray());
+        try (PreparedStatement ps = conn.prepareStatement("DELETE FROM " + table + " WHERE day = ANY(?::date[])")) {
+            ps.setArray(1, dayArray);
+            ps.executeUpdate();
+        }
+        try (PreparedStatement ps = conn.prepareStatement(recompute)) {
+            ps.setArray(1, dayArray);
+            ps.executeUpdate();
+        }
+        return days.size();
+    }
+
+    private static List<Date> claimDirtyDays(Connection conn, String report) throws SQLException {
+        // Claiming the dirty rows locks them, so a concurrent write to the same day waits and
+        // then marks it dirty again for the next refresh. A write that marked the day first holds
+        // the row lock until it commits (V12), so the claim waits and the recompute sees its rows
+        List<Date> days = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement("DELETE FROM report_dirty_days WHERE report = ? RETURNING day")) {
+            ps.setString(1, report);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    days.add(rs.getDate(1));
+                }
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Appointment counts per doctor or department over [from, to), per day or as one total.
+     */
+    public List<AppointmentVolume> findAppointmentVolume(Grouping grouping, boolean perDay, LocalDate from, LocalDate to) {
+        String groupId = grouping == Grouping.DOCTOR ? "r.doctor_id" : "COALESCE(doc.dept_id, 0)";
+        String groupName = grouping == Grouping.DOCTOR
+                ? "COALESCE(doc.first_name || ' ' || doc.last_name, 'Unassigned')"
+                : "COALESCE(dep.dept_name, 'No department')";
+        String day = perDay ? "r.day" : "NULL::date";
+
+        String sql = "SELECT " + day + ", " + groupId + ", " + groupName + ","
+                + " sum(r.total), sum(r.completed), sum(r.cancelled), sum(r.no_show)"
+                + " FROM report_appointments_daily r"
+                + " LEFT JOIN doctors doc ON doc.doctor_id = r.doctor_id"
+                + " LEFT JOIN departments dep ON dep.dept_id = doc.dept_id"
+                + " WHERE r.day >= ? AND r.day < ?"
+                + " GROUP BY 1, 2, 3 ORDER BY 1, 3";
+
+        List<AppointmentVolume> volumes = new ArrayList<>();
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setDate(1, Date.valueOf(from));
+            ps.setDate(2, Date.valueOf(to));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Date rowDay = rs.getDate(1);
+                    volumes.add(new AppointmentVolume(
+                            rowDay != null ? rowDay.toLocalDate() : null,
+                            rs.getLong(2),
+                            rs.getString(3),
+                            rs.getLong(4),
+                            rs.getLong(5),
+                            rs.getLong(6),
+                            rs.getLong(7)
+                    ));
+                }
+            }
+
+        } catch (SQLException e) {
+            throw DataAccessException.translate("ReportDAO.findAppointmentVolume", e);
+        }
+        return volumes;
+    }
+
+    public List<RatingTrend> findRatingTrend(Period period, LocalDate from, LocalDate to) {
+        String unit = period == Period.WEEK ? "week" : "month";
+        String ratings = "sum(rating_1 + rating_2 + rating_3 + rating_4 + rating_5)";
+        String sql = "SELECT date_trunc('" + unit + "', day)::date, " + ratings + ","
+                + " sum(rating_1 + 2 * rating_2 + 3 * rating_3 + 4 * rating_4 + 5 * rating_5)::float8 / " + ratings
+                + " FROM feedback_rating_daily WHERE day >= ? AND day < ? GROUP BY 1"
+                // a day whose feedback was all deleted keeps a row of zeros
+                + " HAVING " + ratings + " > 0 ORDER BY 1";
+
+        List<RatingTrend> trend = new ArrayList<>();
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setDate(1, Date.valueOf(from));
+            ps.setDate(2, Date.valueOf(to));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    trend.add(new RatingTrend(rs.getDate(1).toLocalDate(), rs.getLong(2), rs.getDouble(3)));
+                }
+            }
+
+        } catch (SQLException e) {
+            throw DataAccessException.translate("ReportDAO.findRatingTrend", e);
+        }
+        return trend;
+    }
+
+    public List<InventoryUsage> findInventoryUsage(LocalDate from, LocalDate to) {
+        String sql = """
+                SELECT r.item_id, COALESCE(m.item_name, 'Deleted item'), sum(r.quantity), sum(r.prescriptions)
+                FROM report_inventory_daily r
+                LEFT JOIN medical_inventory m ON m.item_id = r.item_id
+                WHERE r.day >= ? AND r.day < ?
+                GROUP BY 1, 2
+                ORDER BY 3 DESC
+                """;
+
+        List<InventoryUsage> usage = new ArrayList<>();
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setDate(1, Date.valueOf(from));
+            ps.setDate(2, Date.valueOf(to));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    usage.add(new InventoryUsage(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getLong(4)));
+                }
+            }
+
+        } catch (SQLException e) {
+            throw DataAccessException.translate("ReportDAO.findInventoryUsage", e);
+        }
+        return usage;
+    }
+}
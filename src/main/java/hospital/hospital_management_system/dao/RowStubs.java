@@ -0,0 +1,91 @@
+package hospital.hospital_management_system.dao;
+
+import hospital.hospital_management_system.model.Department;
+import hospital.hospital_management_system.model.Doctor;
+import hospital.hospital_management_system.model.MedicalInventory;
+import hospital.hospital_management_system.model.Patient;
+import hospital.hospital_management_system.model.Prescriptions;
+
+import java.util.function.LongFunction;
+
+/**
+ * Id-only reference objects (a Patient that only knows its id, etc.) shared across the rows
+ * of one result set. Rows of findByPatient all point at the same Patient instance instead of
+ * one copy per row, and a doctor seen on many rows of findAll is created once or a few times.
+ * Create one per query; not thread-safe.
+ */
+public final class RowStubs {
+
+    private Table<Patient> patients;
+    private Table<Doctor> doctors;
+    private Table<Department> departments;
+    private Table<Prescriptions> prescriptions;
+    private Table<MedicalInventory> items;
+
+    public Patient patient(long patientId) {
+        if (patients == null) patients = new Table<>(Patient::new);
+        return patients.get(patientId);
+    }
+
+    public Doctor doctor(long doctorId) {
+        if (doctors == null) doctors = new Table<>(Doctor::new);
+        return doctors.get(doctorId);
+    }
+
+    public Department department(long deptId) {
+        if (departments == null) departments = new Table<>(Department::new);
+        return departments.get(deptId);
+    }
+
+    public Prescriptions prescription(long prescriptionId) {
+        if (prescriptions == null) {
+            prescriptions = new Table<>(id -> {
+                Prescriptions prescription = new Prescriptions();
+                prescription.setPrescriptionId(id);
+                return prescription;
+            });
+        }
+        return prescriptions.get(prescriptionId);
+    }
+
+    public MedicalInventory item(long itemId) {
+        if (items == null) {
+            items = new Table<>(id -> {
+                MedicalInventory item = new MedicalInventory();
+                item.setItemId(id);
+                return item;
+            });
+        }
+        return items.get(itemId);
+    }
+
+    /**
+     * Direct-mapped cache keyed by id: a colliding id simply replaces the slot. Memory is fixed
+     * per query however many rows there are, and lookups never box the id.
+     */
+    private static final class Table<T> {
+        private static final int SLOTS = 256;
+
+        private final LongFunction<T> factory;
+        private final long[] keys = new long[SLOTS];
+        private final Object[] values = new Object[SLOTS];
+
+        Table(LongFunction<T> factory) {
+            this.factory = factory;
+        }
+
+        @SuppressWarnings("unchecked")
+        T get(long id) {
+            long h = id * 0x9E3779B97F4A7C15L;
+            int slot = (int) (h >>> 56); // top 8 bits: 0..255
+            Object value = values[slot];
+            if (value != null && keys[slot] == id) {
+                return (T) value;
+            }
+            T created = factory.apply(id);
+            keys[slot] = id;
+            values[slot] = created;
+            return created;
+        }
+    }
+}
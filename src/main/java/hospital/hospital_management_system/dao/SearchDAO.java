@@ -0,0 +1,109 @@
+package hospital.hospital_management_system.dao;
+
+import hospital.hospital_management_system.model.SearchHit;
+import hospital.hospital_management_system.model.SearchResults;
+import hospital.hospital_management_system.utils.DBConnection;
+import hospital.hospital_management_system.utils.DataAccessException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class SearchDAO {
+
+    // The to_tsvector expressions are those of the V10 indexes, word for word; written any other
+    // way the planner cannot use them and scans both tables
+    static final String PRESCRIPTION_MATCH = "to_tsvector('english', coalesce(p.notes, ''))";
+    static final String FEEDBACK_MATCH = "to_tsvector('english', coalesce(f.comments, ''))";
+
+    private static final String HEADLINE_OPTIONS = "StartSel=" + SearchHit.MATCH_START + ", StopSel=" + SearchHit.MATCH_END
+            + ", MaxFragments=2, MaxWords=25, MinWords=8, FragmentDelimiter=\" … \"";
+
+    // Both sources are ranked the same way (ts_rank scaled down for long texts, so a short comment
+    // is not outranked by a long note for using more words), merged, counted and cut to a page.
+    // Only the page's rows get a headline and a patient name, which are the costly parts. The
+    // count always makes a row, so a page past the end still reports the total, on a row with
+    // no hit
+    static final String SEARCH_SQL = """
+            WITH q AS (SELECT websearch_to_tsquery('english', ?) AS query),
+            hits AS (
+                SELECT 'PRESCRIPTION' AS source, p.prescription_id AS id, p.appointment_id, NULL::bigint AS patient_id,
+                       p.date_issued::date AS day, ts_rank(%1$s, q.query, 1) AS rank, p.notes AS body
+                FROM prescriptions p, q
+                WHERE ? AND %1$s @@ q.query
+                UNION ALL
+                SELECT 'FEEDBACK', f.feedback_id, NULL, f.patient_id,
+                       f.feedback_date, ts_rank(%2$s, q.query, 1), f.comments
+                FROM patient_feedback f, q
+                WHERE ? AND %2$s @@ q.query
+            ),
+            counted AS (SELECT count(*) AS total FROM hits),
+            page AS (
+                SELECT hits.*
+                FROM hits
+                ORDER BY rank DESC, day DESC, source, id
+                LIMIT ? OFFSET ?
+            )
+            SELECT page.source, page.id, coalesce(page.patient_id, a.patient_id), pt.first_name, pt.last_name,
+                   page.day, page.rank, ts_headline('english', page.body, q.query, ?), counted.total
+            FROM counted
+            CROSS JOIN q
+            LEFT JOIN page ON true
+            LEFT JOIN appointments a ON a.appointment_id = page.appointment_id
+            LEFT JOIN patients pt ON pt.patient_id = coalesce(page.patient_id, a.patient_id)
+            ORDER BY page.rank DESC, page.day DESC, page.source, page.id
+            """.formatted(PRESCRIPTION_MATCH, FEEDBACK_MATCH);
+
+    /**
+     * Prescription notes and feedback comments from {@code sources} that match {@code query},
+     * best first. The query is read as a web search box would: words are all required,
+     * "quoted phrases" must appear as written, {@code or} offers alternatives and a leading
+     * {@code -} excludes a word. Words are matched by their English stem, so "infections"
+     * also finds "infected".
+     */
+    public SearchResults search(String query, Set<SearchHit.Source> sources, int limit, int offset) {
+
+        List<SearchHit> hits = new ArrayList<>();
+        long total = 0;
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(SEARCH_SQL)) {
+
+            ps.setString(1, query);
+            ps.setBoolean(2, sources.contains(SearchHit.Source.PRESCRIPTION));
+            ps.setBoolean(3, sources.contains(SearchHit.Source.FEEDBACK));
+            ps.setInt(4, limit);
+            ps.setInt(5, offset);
+            ps.setString(6, HEADLINE_OPTIONS);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    total = rs.getLong(9);
+                    String source = rs.getString(1);
+                    if (source == null) {
+                        continue;   // no hits on this page
+                    }
+                    Long patientId = rs.getObject(3, Long.class);
+                    String firstName = rs.getString(4);
+                    hits.add(new SearchHit(
+                            SearchHit.Source.valueOf(source),
+                            rs.getLong(2),
+                            patientId,
+                            firstName != null ? firstName + " " + rs.getString(5) : null,
+                            rs.getDate(6).toLocalDate(),
+                            rs.getDouble(7),
+                            rs.getString(8)));
+                }
+            }
+
+        } catch (SQLException e) {
+            throw DataAccessException.translate("SearchDAO.search", e);
+        }
+
+        return new SearchResults(hits, total, limit > 0 ? offset / limit : 0, limit);
+    }
+}
@@ -0,0 +1,152 @@
+package hospital.hospital_management_system.dao;
+
+import hospital.hospital_management_system.model.Appointment;
+import hospital.hospital_management_system.model.Doctor;
+import hospital.hospital_management_system.model.MedicalInventory;
+import hospital.hospital_management_system.model.Patient;
+import hospital.hospital_management_system.model.PatientFeedback;
+import hospital.hospital_management_system.model.PrescriptionItems;
+import hospital.hospital_management_system.model.Prescriptions;
+import hospital.hospital_management_system.model.TimelineEntry;
+import hospital.hospital_management_system.utils.DBConnection;
+import hospital.hospital_management_system.utils.DataAccessException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TimelineDAO {
+
+    // A patient's appointments, prescriptions and feedback merged newest first, each branch
+    // reading its patient or appointment index. kind is TimelineEntry.Kind's ordinal, and a
+    // feedback's time is the last microsecond of its day, as in TimelineEntry.of(PatientFeedback).
+    // %s is empty for the first page and the keyset condition after that
+    static final String TIMELINE = """
+            SELECT kind, id, at, appointment_id, doctor_id, first_name, last_name, status, body, rating
+            FROM (
+                SELECT 0 AS kind, a.appointment_id AS id, a.appointment_date AS at, a.appointment_id,
+                       a.doctor_id, d.first_name, d.last_name, a.status, a.reason AS body, NULL::int AS rating
+                FROM appointments a
+                LEFT JOIN doctors d ON d.doctor_id = a.doctor_id
+                WHERE a.patient_id = ?
+                UNION ALL
+                SELECT 1, p.prescription_id, p.date_issued, p.appointment_id, NULL, NULL, NULL, NULL, p.notes, NULL
+                FROM prescriptions p
+                JOIN appointments a ON a.appointment_id = p.appointment_id
+                WHERE a.patient_id = ?
+                UNION ALL
+                SELECT 2, f.feedback_id, (f.feedback_date + 1) - interval '1 microsecond', NULL, NULL, NULL, NULL,
+                       NULL, f.comments, f.rating
+                FROM patient_feedback f
+                WHERE f.patient_id = ?
+            ) t
+            %s
+            ORDER BY at DESC, kind DESC, id DESC
+            LIMIT ?
+            """;
+
+    private static final String AFTER = "WHERE (at, kind, id) < (?, ?, ?)";
+
+    private static final String ITEMS = """
+            SELECT i.prescription_id, i.item_id, i.dosage_instruction, i.quantity_dispensed, m.item_name
+            FROM prescription_items i
+            JOIN medical_inventory m ON m.item_id = i.item_id
+            WHERE i.prescription_id = ANY (?)
+            ORDER BY i.prescription_id, m.item_name
+            """;
+
+    /**
+     * Up to {@code limit} entries of a patient's timeline that come after {@code after}, or from
+     * the newest if it is null. Takes two statements on one connection, one for the entries and
+     * one for the items of all their prescriptions.
+     */
+    public List<TimelineEntry> findTimeline(long patientId, TimelineEntry after, int limit) {
+
+        List<TimelineEntry> entries = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getReadConnection()) {
+
+            Map<Long, Prescriptions> prescriptions = new HashMap<>();
+            Map<Long, List<PrescriptionItems>> items = new HashMap<>();
+            RowStubs stubs = new RowStubs();
+            Patient patient = stubs.patient(patientId);
+
+            try (PreparedStatement ps = conn.prepareStatement(TIMELINE.formatted(after != null ? AFTER : ""))) {
+                int i = 1;
+                ps.setLong(i++, patientId);
+                ps.setLong(i++, patientId);
+                ps.setLong(i++, patientId);
+                if (after != null) {
+                    ps.setTimestamp(i++, Timestamp.valueOf(after.getAt()));
+                    ps.setInt(i++, after.getKind().ordinal());
+                    ps.setLong(i++, after.getId());
+                }
+                ps.setInt(i, limit);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        entries.add(mapRow(rs, patient, stubs, prescriptions, items));
+                    }
+                }
+            }
+
+            if (!prescriptions.isEmpty()) {
+                try (PreparedStatement ps = conn.prepareStatement(ITEMS)) {
+                    ps.setArray(1, conn.createArrayOf("bigint", prescriptions.keySet().toArray()));
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            MedicalInventory item = stubs.item(rs.getLong(2));
+                            item.setItemName(rs.getString(5));
+                            long prescriptionId = rs.getLong(1);
+                            items.get(prescriptionId).add(new PrescriptionItems(
+                                    prescriptions.get(prescriptionId), item, rs.getString(3), rs.getInt(4)));
+                        }
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            throw DataAccessException.translate("TimelineDAO.findTimeline", e);
+        }
+
+        return entries;
+    }
+
+    // The items list of a prescription is filled in by the second statement
+    private TimelineEntry mapRow(ResultSet rs, Patient patient, RowStubs stubs, Map<Long, Prescriptions> prescriptions,
+                                 Map<Long, List<PrescriptionItems>> items) throws SQLException {
+
+        long id = rs.getLong(2);
+        Timestamp at = rs.getTimestamp(3);
+
+        switch (TimelineEntry.Kind.values()[rs.getInt(1)]) {
+            case APPOINTMENT -> {
+                long doctorId = rs.getLong(5);
+                Doctor doctor = null;
+                if (!rs.wasNull()) {
+                    doctor = stubs.doctor(doctorId);
+                    doctor.setFirstName(rs.getString(6));
+                    doctor.setLastName(rs.getString(7));
+                }
+                return TimelineEntry.of(new Appointment(id, patient, doctor, at.toLocalDateTime(), rs.getString(8), rs.getString(9)));
+            }
+            case PRESCRIPTION -> {
+                Prescriptions prescription = new Prescriptions(id, rs.getLong(4), at.toLocalDateTime(), rs.getString(9));
+                prescriptions.put(id, prescription);
+                List<PrescriptionItems> prescribed = new ArrayList<>();
+                items.put(id, prescribed);
+                return TimelineEntry.of(prescription, prescribed);
+            }
+            default -> {
+                return TimelineEntry.of(new PatientFeedback(id, patient, rs.getInt(10), rs.getString(9),
+                        at.toLocalDateTime().toLocalDate()));
+            }
+        }
+    }
+}
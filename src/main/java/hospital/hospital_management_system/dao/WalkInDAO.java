@@ -0,0 +1,208 @@
+package hospital.hospital_management_system.dao;
+
+import hospital.hospital_management_system.model.ServiceTime;
+import hospital.hospital_management_system.model.WalkIn;
+import hospital.hospital_management_system.utils.DBConnection;
+import hospital.hospital_management_system.utils.DataAccessException;
+
+import java.sql.*;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * walk_ins is the walk-in queue shared by all front desks. Every change is one statement that
+ * only succeeds from the state it expects, so stations racing for the same walk-in cannot both
+ * win. Times come from the database clock, which keeps arrival order right across workstations.
+ */
+public class WalkInDAO {
+
+    static final String WALK_IN_COLUMNS =
+            "walk_in_id, dept_id, patient_id, patient_name, triage, arrived_at, status, called_at, finished_at";
+
+    // The first waiting row of the department in walk_ins_waiting_idx order. SKIP LOCKED passes
+    // over a row another station is calling right now instead of waiting for it
+    static final String CALL_NEXT = """
+            UPDATE walk_ins SET status = 'Called', called_at = clock_timestamp()
+            WHERE status = 'Waiting' AND walk_in_id = (
+                SELECT walk_in_id FROM walk_ins
+                WHERE dept_id = ? AND status = 'Waiting'
+                ORDER BY walk_in_priority(triage), arrived_at, walk_in_id
+                LIMIT 1
+                FOR UPDATE SKIP LOCKED)
+            RETURNING\s""" + WALK_IN_COLUMNS;
+
+    // Per department: the gap between a doctor's consecutive completed appointments on one day,
+    // where under two hours (longer is a break, not a patient), and how many doctors a day see
+    // patients. Reads the covering date index
+    private static final String SERVICE_TIMES = """
+            WITH done AS (
+                SELECT d.dept_id, a.doctor_id, a.appointment_date,
+                       a.appointment_date - lag(a.appointment_date) OVER (
+                           PARTITION BY a.doctor_id, a.appointment_date::date ORDER BY a.appointment_date) AS gap
+                FROM appointments a
+                JOIN doctors d ON d.doctor_id = a.doctor_id
+                WHERE a.appointment_date >= ? AND a.appointment_date < ?
+                  AND a.status = 'Completed' AND d.dept_id IS NOT NULL
+            )
+            SELECT dept_id,
+                   avg(extract(epoch FROM gap)) FILTER (WHERE gap > interval '0' AND gap <= interval '2 hours'),
+                   count(DISTINCT doctor_id || ' ' || appointment_date::date)::float8
+                       / count(DISTINCT appointment_date::date),
+                   count(*) FILTER (WHERE gap > interval '0' AND gap <= interval '2 hours')
+            FROM done
+            GROUP BY dept_id
+            """;
+
+    /**
+     * Puts a patient at the back of their triage level in a department's queue.
+     */
+    public WalkIn enqueue(long deptId, Long patientId, String patientName, WalkIn.Triage triage) {
+
+        String sql = "INSERT INTO walk_ins (walk_in_id, dept_id, patient_id, patient_name, triage, arrived_at, status)"
+                + " VALUES (?, ?, ?, ?, ?, clock_timestamp(), 'Waiting') RETURNING " + WALK_IN_COLUMNS;
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setObject(1, UUID.randomUUID());
+            ps.setLong(2, deptId);
+            ps.setObject(3, patientId, Types.BIGINT);
+            ps.setString(4, patientName);
+            ps.setString(5, triage.name());
+
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return mapRow(rs);
+            }
+
+        } catch (SQLException e) {
+            throw DataAccessException.translate("WalkInDAO.enqueue", e);
+        }
+    }
+
+    /**
+     * Marks the first patient waiting in a department as called and returns them; null when
+     * nobody is waiting.
+     */
+    public WalkIn callNext(long deptId) {
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(CALL_NEXT)) {
+
+            ps.setLong(1, deptId);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapRow(rs) : null;
+            }
+
+        } catch (SQLException e) {
+            throw DataAccessException.translate("WalkInDAO.callNext", e);
+        }
+    }
+
+    /**
+     * Moves a walk-in to {@code status} (Completed or Left) if it is still in one of
+     * {@code from}, and returns it as it is now; null if it was not.
+     */
+    public WalkIn finish(UUID walkInId, WalkIn.Status status, WalkIn.Status... from) {
+
+        String[] fromNames = new String[from.length];
+        for (int i = 0; i < from.length; i++) {
+            fromNames[i] = from[i].name();
+        }
+        String sql = "UPDATE walk_ins SET status = ?, finished_at = clock_timestamp()"
+                + " WHERE walk_in_id = ? AND status = ANY (?) RETURNING " + WALK_IN_COLUMNS;
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setString(1, status.name());
+            ps.setObject(2, walkInId);
+            ps.setArray(3, conn.createArrayOf("text", fromNames));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapRow(rs) : null;
+            }
+
+        } catch (SQLException e) {
+            throw DataAccessException.translate("WalkInDAO.finish", e);
+        }
+    }
+
+    /**
+     * Walk-ins still waiting or being seen, in arrival order. Reads the primary: a replica a
+     * moment behind would show patients already called.
+     */
+    public List<WalkIn> findOpen() {
+
+        List<WalkIn> walkIns = new ArrayList<>();
+        String sql = "SELECT " + WALK_IN_COLUMNS + " FROM walk_ins WHERE status IN ('Waiting', 'Called') ORDER BY arrived_at";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                walkIns.add(mapRow(rs));
+            }
+
+        } catch (SQLException e) {
+            throw DataAccessException.translate("WalkInDAO.findOpen", e);
+        }
+
+        return walkIns;
+    }
+
+    /**
+     * How fast each department saw patients between {@code from} and {@code to}, from its
+     * completed appointments. Departments without any are left out.
+     */
+    public List<ServiceTime> findServiceTimes(LocalDateTime from, LocalDateTime to) {
+
+        List<ServiceTime> times = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(SERVICE_TIMES)) {
+
+            ps.setTimestamp(1, Timestamp.valueOf(from));
+            ps.setTimestamp(2, Timestamp.valueOf(to));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    times.add(new ServiceTime(rs.getLong(1), rs.getDouble(2), rs.getDouble(3), rs.getLong(4)));
+                }
+            }
+
+        } catch (SQLException e) {
+            throw DataAccessException.translate("WalkInDAO.findServiceTimes", e);
+        }
+
+        return times;
+    }
+
+    // Maps a row selected with WALK_IN_COLUMNS, reading columns by position
+    private WalkIn mapRow(ResultSet rs) throws SQLException {
+
+        long patientId = rs.getLong(3);
+        Long patient = rs.wasNull() ? null : patientId;
+
+        return new WalkIn(
+                rs.getObject(1, UUID.class),
+                rs.getLong(2),
+                patient,
+                rs.getString(4),
+                WalkIn.Triage.valueOf(rs.getString(5)),
+                instant(rs.getObject(6, OffsetDateTime.class)),
+                WalkIn.Status.valueOf(rs.getString(7)),
+                instant(rs.getObject(8, OffsetDateTime.class)),
+                instant(rs.getObject(9, OffsetDateTime.class)));
+    }
+
+    private static Instant instant(OffsetDateTime time) {
+        return time != null ? time.toInstant() : null;
+    }
+}
@@ -0,0 +1,13 @@
+package hospital.hospital_management_system.dashboard;
+
+import hospital.hospital_management_system.model.InventorySummary;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What the operations dashboard shows at one moment. {@code lowStock} is sorted by quantity,
+ * lowest first; {@code averageRating} is 0 when there are no ratings.
+ */
+public record DashboardSnapshot(Map<String, Integer> appointmentsToday, Map<String, Integer> queueLengths,
+                                List<InventorySummary> lowStock, double averageRating, long ratings) {}
@@ -0,0 +1,290 @@
+package hospital.hospital_management_system.dashboard;
+
+import hospital.hospital_management_system.dao.AppointmentDAO;
+import hospital.hospital_management_system.dao.DepartmentDAO;
+import hospital.hospital_management_system.dao.MedicalInventoryDAO;
+import hospital.hospital_management_system.dao.PatientFeedbackDAO;
+import hospital.hospital_management_system.model.AppointmentSummary;
+import hospital.hospital_management_system.model.Department;
+import hospital.hospital_management_system.model.InventorySummary;
+import hospital.hospital_management_system.model.PrescriptionItems;
+import hospital.hospital_management_system.model.RatingStats;
+import hospital.hospital_management_system.utils.DataAccessException;
+import hospital.hospital_management_system.utils.EnvLoader;
+import hospital.hospital_management_system.utils.Log;
+import hospital.hospital_management_system.utils.Resilience;
+import hospital.hospital_management_system.utils.UnitOfWork;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Live figures for the operations dashboard, kept current by the services as their writes
+ * commit: today's appointments by status, walk-in queue lengths, stock levels and feedback
+ * ratings. Listeners hear about every change; reading a {@link #snapshot()} costs no query.
+ * <p>
+ * The figures that live in the database are read once when the dashboard first opens and then
+ * only changed by events. They are read again every DB__DASHBOARD_RESEED_MINUTES (default 15),
+ * which also picks up other workstations' writes, and at midnight for the new day. Walk-in
+ * queue lengths come from {@code WalkInQueueService}, which reads them from walk_ins anyway.
+ */
+public final class OperationsMetrics {
+
+    private static final Log log = Log.get(OperationsMetrics.class);
+
+    private static final int LOW_STOCK = Integer.parseInt(EnvLoader.get("DB__LOW_STOCK_THRESHOLD", "20"));
+    private static final long RESEED_MINUTES = Long.parseLong(EnvLoader.get("DB__DASHBOARD_RESEED_MINUTES", "15"));
+
+    // In the order the dashboard shows them; any other status is counted under its own name
+    private static final List<String> STATUSES = List.of("Scheduled", "Completed", "Cancelled", "No-show");
+
+    // Guarded by LOCK; writes are rare and each holds it for a map update or two
+    private static final Object LOCK = new Object();
+    private static boolean seeded;
+    private static LocalDate today;
+    private static final Map<Long, String> todaysAppointments = new HashMap<>();   // id -> status
+    private static final Map<String, Integer> byStatus = new HashMap<>();
+    private static final Map<Long, String> departmentNames = new HashMap<>();
+    private static final Map<Long, InventorySummary> stock = new HashMap<>();
+    private static final int[] ratingCounts = new int[5];
+
+    // Kept apart from LOCK so that walk-in desks never wait on each other here
+    private static final Map<Long, AtomicInteger> queueLengths = new ConcurrentHashMap<>();   // dept id -> waiting
+
+    private static final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    private static final AppointmentDAO appointmentDAO = new AppointmentDAO();
+    private static final DepartmentDAO departmentDAO = new DepartmentDAO();
+    private static final MedicalInventoryDAO inventoryDAO = new MedicalInventoryDAO();
+    private static final PatientFeedbackDAO feedbackDAO = new PatientFeedbackDAO();
+    private static ScheduledExecutorService scheduler;
+
+    private OperationsMetrics() {} // Prevent instantiation
+
+    /**
+     * Reads the figures kept in the database in the background and keeps them fresh. Safe to
+     * call more than once.
+     */
+    public static synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "operations-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(OperationsMetrics::seed, 0, RESEED_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * {@code listener} runs after every change, on the thread that made it; it should only
+     * note that something changed.
+     */
+    public static void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    public static DashboardSnapshot snapshot() {
+        synchronized (LOCK) {
+            if (seeded && !LocalDate.now().equals(today)) {
+                reseedSoon();
+            }
+            Map<String, Integer> appointments = new LinkedHashMap<>();
+            for (String status : STATUSES) {
+                appointments.put(status, byStatus.getOrDefault(status, 0));
+            }
+            byStatus.forEach(appointments::putIfAbsent);
+
+            // Every department, so the chart keeps its shape as queues empty
+            Map<String, Integer> queues = new LinkedHashMap<>();
+            Stream.concat(departmentNames.keySet().stream(), queueLengths.keySet().stream())
+                    .distinct()
+                    .sorted()
+                    .forEach(id -> {
+                        AtomicInteger waiting = queueLengths.get(id);
+                        queues.put(departmentNames.getOrDefault(id, "Department " + id), waiting != null ? waiting.get() : 0);
+                    });
+
+            List<InventorySummary> low = new ArrayList<>();
+            for (InventorySummary item : stock.values()) {
+                if (item.getStockQuantity() < LOW_STOCK) {
+                    low.add(item);
+                }
+            }
+            low.sort(Comparator.comparingInt(InventorySummary::getStockQuantity)
+                    .thenComparing(InventorySummary::getItemName, Comparator.nullsFirst(Comparator.<String>naturalOrder())));
+
+            long count = 0, sum = 0;
+            for (int rating = 1; rating <= 5; rating++) {
+                count += ratingCounts[rating - 1];
+                sum += (long) rating * ratingCounts[rating - 1];
+            }
+            return new DashboardSnapshot(appointments, queues, low, count > 0 ? (double) sum / count : 0, count);
+        }
+    }
+
+    /**
+     * An appointment was booked or moved, or its status changed. {@code date} may be null when
+     * only the status is known.
+     */
+    public static void appointment(long appointmentId, LocalDateTime date, String status) {
+        publish(() -> {
+            if (date == null) {
+                String previous = todaysAppointments.get(appointmentId);
+                if (previous != null) {
+                    count(previous, -1);
+                    todaysAppointments.put(appointmentId, status);
+                    count(status, 1);
+                }
+            } else {
+                appointmentRemoved(appointmentId);
+                if (date.toLocalDate().equals(today)) {
+                    todaysAppointments.put(appointmentId, status);
+                    count(status, 1);
+                }
+            }
+        });
+    }
+
+    public static void appointmentDeleted(long appointmentId) {
+        publish(() -> appointmentRemoved(appointmentId));
+    }
+
+    /**
+     * How many patients are waiting in a department's walk-in queue now.
+     */
+    public static void queueLength(long deptId, int waiting) {
+        AtomicInteger length = queueLengths.computeIfAbsent(deptId, id -> new AtomicInteger());
+        if (length.getAndSet(waiting) != waiting) {
+            changed();
+        }
+    }
+
+    public static void stockChanged(long itemId, String itemName, int quantity) {
+        publish(() -> stock.put(itemId, new InventorySummary(itemId, itemName, quantity)));
+    }
+
+    public static void stockRemoved(long itemId) {
+        publish(() -> stock.remove(itemId));
+    }
+
+    public static void stockDispensed(List<PrescriptionItems> items) {
+        publish(() -> {
+            for (PrescriptionItems item : items) {
+                InventorySummary current = stock.get(item.getItemId());
+                if (current != null) {
+                    stock.put(current.getItemId(), new InventorySummary(current.getItemId(), current.getItemName(),
+                            current.getStockQuantity() - item.getQuantityDispensed()));
+                }
+            }
+        });
+    }
+
+    /**
+     * A rating from 1 to 5 was given ({@code delta} 1) or its feedback deleted (-1).
+     */
+    public static void ratingChanged(int rating, int delta) {
+        if (rating >= 1 && rating <= 5) {
+            publish(() -> ratingCounts[rating - 1] += delta);
+        }
+    }
+
+    // Changes are dropped until the seed has run: it will include them
+    private static void publish(Runnable change) {
+        UnitOfWork.afterCommit(() -> {
+            synchronized (LOCK) {
+                if (!seeded) {
+                    return;
+                }
+                change.run();
+            }
+            changed();
+        });
+    }
+
+    private static void changed() {
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    private static void appointmentRemoved(long appointmentId) {
+        String previous = todaysAppointments.remove(appointmentId);
+        if (previous != null) {
+            count(previous, -1);
+        }
+    }
+
+    private static void count(String status, int delta) {
+        byStatus.merge(status, delta, (a, b) -> a + b == 0 ? null : a + b);
+    }
+
+    private static void reseedSoon() {
+        ScheduledExecutorService current = scheduler;
+        if (current != null) {
+            seeded = false;   // until then the old day's figures are not updated any further
+            current.execute(OperationsMetrics::seed);
+        }
+    }
+
+    private static void seed() {
+        LocalDate day = LocalDate.now();
+        List<AppointmentSummary> appointments;
+        List<Department> departments;
+        List<InventorySummary> items;
+        List<RatingStats> ratings;
+        try {
+            appointments = Resilience.retry(() -> appointmentDAO.findSummariesBetween(day.atStartOfDay(), day.plusDays(1).atStartOfDay()));
+            departments = Resilience.retry(departmentDAO::getAllDepartments);
+            items = Resilience.retry(inventoryDAO::findSummaries);
+            ratings = Resilience.retry(feedbackDAO::findDailyRatingCounts);
+        } catch (DataAccessException e) {
+            log.warn("Could not load dashboard figures, keeping the current ones: {}", e.getMessage());
+            return;
+        }
+        synchronized (LOCK) {
+            today = day;
+            todaysAppointments.clear();
+            byStatus.clear();
+            for (AppointmentSummary appointment : appointments) {
+                todaysAppointments.put(appointment.getAppointmentId(), appointment.getStatus());
+                count(appointment.getStatus(), 1);
+            }
+            departmentNames.clear();
+            for (Department department : departments) {
+                departmentNames.put(department.getDeptId(), department.getDeptName());
+            }
+            stock.clear();
+            for (InventorySummary item : items) {
+                stock.put(item.getItemId(), item);
+            }
+            Arrays.fill(ratingCounts, 0);
+            for (RatingStats stats : ratings) {
+                for (int rating = 1; rating <= 5; rating++) {
+                    ratingCounts[rating - 1] += stats.getCount(rating);
+                }
+            }
+            seeded = true;
+        }
+        changed();
+    }
+}
@@ -0,0 +1,249 @@
+package hospital.hospital_management_system.db;
+
+import hospital.hospital_management_system.utils.DBConnection;
+import hospital.hospital_management_system.utils.EnvLoader;
+import hospital.hospital_management_system.utils.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Brings the database schema up to date from the versioned scripts next to this class
+ * (V1__baseline.sql, V2__...). Applied versions are recorded in schema_version with a checksum.
+ * <p>
+ * Meant to run once per deploy through {@link #main(String[])}, as a database user allowed to
+ * run DDL. The app only runs it at startup with DB__MIGRATE=true, for development; otherwise it
+ * just warns about {@link #pending pending} versions. Client workstations then need neither DDL
+ * rights nor to wait for the migration lock or an index build before their first screen.
+ */
+public final class MigrationRunner {
+
+    private static final Log log = Log.get(MigrationRunner.class);
+
+    // In version order. A script whose first line is SqlScript.NO_TRANSACTION runs statement by statement
+    // in autocommit, which CREATE INDEX CONCURRENTLY requires. A failed concurrent build leaves
+    // an INVALID index behind, which IF NOT EXISTS would then keep for good; such an index is
+    // dropped and built again when the script is retried.
+    private static final String[] MIGRATIONS = {
+            "V1__baseline.sql",
+            "V2__access_path_indexes.sql",
+            "V3__reporting_summaries.sql",
+            "V4__feedback_rating_histogram.sql",
+            "V5__reference_data_change_tracking.sql",
+            "V6__reference_data_tombstones.sql",
+            "V7__audit_log.sql",
+            "V8__patient_duplicate_blocking.sql",
+            "V9__walk_in_queue.sql",
+            "V10__full_text_search.sql",
+            "V11__shared_walk_in_queue.sql",
+            "V12__report_dirty_day_locks.sql",
+            "V13__merge_feedback_summaries.sql",
+    };
+
+    // Session advisory lock so two instances starting together do not apply the same version twice
+    private static final long LOCK_KEY = 0x484D535F4D494752L;
+
+    private MigrationRunner() {} // Prevent instantiation
+
+    // CREATE [UNIQUE] INDEX CONCURRENTLY IF NOT EXISTS <name>
+    private static final Pattern CONCURRENT_INDEX = Pattern.compile(
+            "(?is)^CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+CONCURRENTLY\\s+IF\\s+NOT\\s+EXISTS\\s+(\\w+)\\s");
+
+    public static boolean enabled() {
+        return Boolean.parseBoolean(EnvLoader.get("DB__MIGRATE", "false"));
+    }
+
+    /**
+     * Names of the scripts not applied yet, in version order. Only reads schema_version.
+     */
+    public static List<String> pending() throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            Set<Integer> applied = Set.of();
+            try (ResultSet rs = conn.getMetaData().getTables(null, null, "schema_version", null)) {
+                if (rs.next()) {
+                    applied = appliedVersions(conn).keySet();
+                }
+            }
+            List<String> pending = new ArrayList<>();
+            for (String name : MIGRATIONS) {
+                if (!applied.contains(Integer.parseInt(name.substring(1, name.indexOf("__"))))) {
+                    pending.add(name);
+                }
+            }
+            return pending;
+        }
+    }
+
+    /**
+     * Applies every pending migration and returns how many were applied.
+     */
+    public static int migrate() throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            return migrate(conn);
+        }
+    }
+
+    public static int migrate(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("SELECT pg_advisory_lock(" + LOCK_KEY + ")");
+        }
+        try {
+            createHistoryTable(conn);
+            Map<Integer, Long> applied = appliedVersions(conn);
+
+            int count = 0;
+            for (String name : MIGRATIONS) {
+                Migration migration = Migration.load(name);
+                Long checksum = applied.get(migration.version);
+                if (checksum == null) {
+                    apply(conn, migration);
+                    count++;
+                } else if (checksum != migration.checksum) {
+                    log.warn("{} changed after it was applied (checksum mismatch)", name);
+                }
+            }
+            return count;
+        } finally {
+            try (Statement st = conn.createStatement()) {
+                st.execute("SELECT pg_advisory_unlock(" + LOCK_KEY + ")");
+            }
+        }
+    }
+
+    private static void createHistoryTable(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version      INT PRIMARY KEY,
+                    description  VARCHAR(200) NOT NULL,
+                    checksum     BIGINT NOT NULL,
+                    installed_at TIMESTAMP NOT NULL DEFAULT now(),
+                    execution_ms BIGINT NOT NULL
+                )
+                """);
+        }
+    }
+
+    private static Map<Integer, Long> appliedVersions(Connection conn) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement("SELECT version, checksum FROM schema_version");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        return applied;
+    }
+
+    private static void apply(Connection conn, Migration migration) throws SQLException {
+        long start = System.nanoTime();
+        boolean transactional = migration.transactional;
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(!transactional);
+
+        try (Statement st = conn.createStatement()) {
+            for (String statement : migration.statements) {
+                if (!transactional) {
+                    dropInvalidIndex(conn, statement);
+                }
+                st.execute(statement);
+            }
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)")) {
+                ps.setInt(1, migration.version);
+                ps.setString(2, migration.description);
+                ps.setLong(3, migration.checksum);
+                ps.setLong(4, (System.nanoTime() - start) / 1_000_000);
+                ps.executeUpdate();
+            }
+            if (transactional) {
+                conn.commit();
+            }
+        } catch (SQLException e) {
+            if (transactional) {
+                conn.rollback();
+            }
+            throw new SQLException("Migration " + migration.name + " failed"
+                    + (transactional ? "" : "; statements before the failure were kept"), e);
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        log.info("Applied migration {} in {} ms", migration.name, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // The index a CREATE INDEX CONCURRENTLY IF NOT EXISTS statement makes, if an earlier failed
+    // attempt left it INVALID: not used by queries, yet still maintained on every write
+    private static void dropInvalidIndex(Connection conn, String statement) throws SQLException {
+        Matcher index = CONCURRENT_INDEX.matcher(statement);
+        if (!index.find()) {
+            return;
+        }
+        String name = index.group(1);
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT 1 FROM pg_index WHERE indexrelid = to_regclass(?) AND NOT indisvalid")) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return;
+                }
+            }
+        }
+        log.warn("Index {} was left invalid by an earlier attempt; rebuilding it", name);
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+        }
+    }
+
+    private static final class Migration {
+        final String name;
+        final int version;
+        final String description;
+        final long checksum;
+        final boolean transactional;
+        final List<String> statements;
+
+        private Migration(String name, String script) {
+            int separator = name.indexOf("__");
+            this.name = name;
+            this.version = Integer.parseInt(name.substring(1, separator));
+            this.description = name.substring(separator + 2, name.length() - ".sql".length()).replace('_', ' ');
+            this.transactional = SqlScript.runsInTransaction(script);
+            this.statements = SqlScript.split(script);
+
+            CRC32 crc = new CRC32();
+            crc.update(script.getBytes(StandardCharsets.UTF_8));
+            this.checksum = crc.getValue();
+        }
+
+        static Migration load(String name) {
+            try (InputStream in = MigrationRunner.class.getResourceAsStream(name)) {
+                if (in == null) {
+                    throw new IllegalStateException("Migration script not found: " + name);
+                }
+                return new Migration(name, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws SQLException {
+        int applied = migrate();
+        System.out.println(applied == 0 ? "Schema is up to date" : applied + " migration(s) applied");
+    }
+}
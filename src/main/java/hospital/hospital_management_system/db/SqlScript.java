@@ -0,0 +1,97 @@
+package hospital.hospital_management_system.db;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a migration script into statements on top-level semicolons. Quoted strings,
+ * identifiers, comments and $tag$ dollar-quoted bodies are skipped, so functions survive intact.
+ */
+final class SqlScript {
+
+    // First line of a script that must run statement by statement in autocommit
+    static final String NO_TRANSACTION = "-- hms:no-transaction";
+
+    private SqlScript() {} // Prevent instantiation
+
+    static boolean runsInTransaction(String script) {
+        return !script.startsWith(NO_TRANSACTION);
+    }
+
+    static List<String> split(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int i = 0;
+        int length = script.length();
+
+        while (i < length) {
+            char c = script.charAt(i);
+            int end;
+
+            if (c == '-' && i + 1 < length && script.charAt(i + 1) == '-') {
+                end = script.indexOf('\n', i);
+                i = end < 0 ? length : end; // comments are dropped
+                continue;
+            } else if (c == '/' && i + 1 < length && script.charAt(i + 1) == '*') {
+                end = script.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+                continue;
+            } else if (c == '\'' || c == '"') {
+                end = closingQuote(script, i, c);
+            } else if (c == '$' && dollarQuoteEnd(script, i) > 0) {
+                end = dollarQuoteEnd(script, i);
+            } else if (c == ';') {
+                add(statements, current);
+                current.setLength(0);
+                i++;
+                continue;
+            } else {
+                current.append(c);
+                i++;
+                continue;
+            }
+
+            current.append(script, i, end);
+            i = end;
+        }
+        add(statements, current);
+        return statements;
+    }
+
+    // Index just past the closing quote; a doubled quote is an escaped one
+    private static int closingQuote(String script, int start, char quote) {
+        int i = start + 1;
+        while (i < script.length()) {
+            if (script.charAt(i) == quote) {
+                if (i + 1 < script.length() && script.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return script.length();
+    }
+
+    // Index just past the closing $tag$, or -1 if the $ at start does not open a dollar quote
+    private static int dollarQuoteEnd(String script, int start) {
+        int i = start + 1;
+        while (i < script.length() && (Character.isLetterOrDigit(script.charAt(i)) || script.charAt(i) == '_')) {
+            i++;
+        }
+        if (i >= script.length() || script.charAt(i) != '$' || (i > start + 1 && Character.isDigit(script.charAt(start + 1)))) {
+            return -1; // $1 parameters and stray dollars
+        }
+        String tag = script.substring(start, i + 1);
+        int close = script.indexOf(tag, i + 1);
+        return close < 0 ? script.length() : close + tag.length();
+    }
+
+    private static void add(List<String> statements, StringBuilder current) {
+        String statement = current.toString().strip();
+        if (!statement.isEmpty()) {
+            statements.add(statement);
+        }
+    }
+}
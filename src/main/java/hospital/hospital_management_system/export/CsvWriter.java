@@ -0,0 +1,129 @@
+package hospital.hospital_management_system.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * RFC 4180 CSV in UTF-8: a header line of column labels, fields quoted only when they contain
+ * a comma, quote or line break, CRLF line endings. NULL is written as an empty field. A field
+ * that a spreadsheet would run as a formula (starting with = @ + - tab or CR, other than a plain
+ * number) is prefixed with ', so opening an export cannot execute what a user typed into a record.
+ * Reports that are not a table export write their rows as strings.
+ */
+public final class CsvWriter implements RowWriter {
+
+    private final Writer out;
+    private final int columnCount;
+
+    CsvWriter(FileChannel channel, List<ExportTable.Column> columns) throws IOException {
+        this(channel, columns.stream().map(ExportTable.Column::label).toArray(String[]::new));
+    }
+
+    public CsvWriter(FileChannel channel, String... labels) throws IOException {
+        this.out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), 1 << 16);
+        this.columnCount = labels.length;
+        writeRow(labels);
+    }
+
+    @Override
+    public void writeRow(ResultSet rs) throws IOException, SQLException {
+        for (int i = 1; i <= columnCount; i++) {
+            if (i > 1) {
+                out.write(',');
+            }
+            String value = rs.getString(i);
+            if (value != null) {
+                writeField(value);
+            }
+        }
+        out.write("\r\n");
+    }
+
+    /**
+     * Writes one line of fields; null is an empty field.
+     */
+    public void writeRow(String... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            if (values[i] != null) {
+                writeField(values[i]);
+            }
+        }
+        out.write("\r\n");
+    }
+
+    private void writeField(String value) throws IOException {
+        boolean quoted = needsQuotes(value);
+        if (quoted) {
+            out.write('"');
+        }
+        if (startsLikeFormula(value)) {
+            out.write('\'');
+        }
+        if (!quoted) {
+            out.write(value);
+            return;
+        }
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                out.write(value, start, i + 1 - start);
+                out.write('"');
+                start = i + 1;
+            }
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsLikeFormula(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        char c = value.charAt(0);
+        return c == '=' || c == '@' || c == '\t' || c == '\r'
+                || ((c == '+' || c == '-') && !isSignedNumber(value));
+    }
+
+    // +250788123456 or -12.50: a spreadsheet reads these as numbers, so they are left alone
+    private static boolean isSignedNumber(String value) {
+        boolean digits = false;
+        boolean point = false;
+        for (int i = 1; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                return false;
+            }
+        }
+        return digits;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // flush only: closing the writer would close the channel, which belongs to the caller
+        out.flush();
+    }
+}
@@ -0,0 +1,24 @@
+package hospital.hospital_management_system.export;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+public enum ExportFormat {
+    CSV("csv"),
+    XLSX("xlsx");
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    RowWriter open(FileChannel channel, String sheetName, List<ExportTable.Column> columns) throws IOException {
+        return this == CSV ? new CsvWriter(channel, columns) : new XlsxWriter(channel, sheetName, columns);
+    }
+}
@@ -0,0 +1,83 @@
+package hospital.hospital_management_system.export;
+
+import java.util.List;
+
+/**
+ * The tables that can be exported, their columns, and the date column a range filter applies to
+ * (null when the table has none).
+ */
+public enum ExportTable {
+
+    PATIENTS("Patients", "patients", "patients p", "p.patient_id", "p.dob",
+            new Column("patient_id", "Patient ID", "p.patient_id", CellType.NUMBER),
+            new Column("first_name", "First name", "p.first_name", CellType.TEXT),
+            new Column("last_name", "Last name", "p.last_name", CellType.TEXT),
+            new Column("dob", "Date of birth", "p.dob", CellType.DATE),
+            new Column("gender", "Gender", "p.gender", CellType.TEXT),
+            new Column("contact_number", "Contact number", "p.contact_number", CellType.TEXT),
+            new Column("address", "Address", "p.address", CellType.TEXT)),
+
+    APPOINTMENTS("Appointments", "appointments",
+            "appointments a LEFT JOIN patients p ON p.patient_id = a.patient_id"
+                    + " LEFT JOIN doctors d ON d.doctor_id = a.doctor_id",
+            "a.appointment_id", "a.appointment_date",
+            new Column("appointment_id", "Appointment ID", "a.appointment_id", CellType.NUMBER),
+            new Column("appointment_date", "Date", "a.appointment_date", CellType.TIMESTAMP),
+            new Column("status", "Status", "a.status", CellType.TEXT),
+            new Column("patient_id", "Patient ID", "a.patient_id", CellType.NUMBER),
+            new Column("patient_name", "Patient", "p.first_name || ' ' || p.last_name", CellType.TEXT),
+            new Column("doctor_id", "Doctor ID", "a.doctor_id", CellType.NUMBER),
+            new Column("doctor_name", "Doctor", "d.first_name || ' ' || d.last_name", CellType.TEXT),
+            new Column("reason", "Reason", "a.reason", CellType.TEXT)),
+
+    INVENTORY("Inventory", "medical_inventory", "medical_inventory m", "m.item_id", null,
+            new Column("item_id", "Item ID", "m.item_id", CellType.NUMBER),
+            new Column("item_name", "Item", "m.item_name", CellType.TEXT),
+            new Column("stock_quantity", "Stock", "m.stock_quantity", CellType.NUMBER),
+            new Column("unit_price", "Unit price", "m.unit_price", CellType.NUMBER));
+
+    public enum CellType { TEXT, NUMBER, DATE, TIMESTAMP }
+
+    /**
+     * {@code expression} is SQL over the table's FROM clause; {@code name} is what callers select by.
+     */
+    public record Column(String name, String label, String expression, CellType type) {}
+
+    private final String displayName;
+    final String table;        // for the row estimate
+    final String from;
+    final String orderBy;
+    final String dateColumn;
+    private final List<Column> columns;
+
+    ExportTable(String displayName, String table, String from, String orderBy, String dateColumn, Column... columns) {
+        this.displayName = displayName;
+        this.table = table;
+        this.from = from;
+        this.orderBy = orderBy;
+        this.dateColumn = dateColumn;
+        this.columns = List.of(columns);
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    public boolean hasDateFilter() {
+        return dateColumn != null;
+    }
+
+    public Column column(String name) {
+        for (Column column : columns) {
+            if (column.name().equals(name)) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException(displayName + " has no column " + name);
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
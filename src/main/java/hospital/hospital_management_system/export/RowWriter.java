@@ -0,0 +1,15 @@
+package hospital.hospital_management_system.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Writes the current row of a result set whose columns are the export's columns, in order.
+ * close() finishes the file; it does not close the channel.
+ */
+interface RowWriter extends Closeable {
+
+    void writeRow(ResultSet rs) throws IOException, SQLException;
+}
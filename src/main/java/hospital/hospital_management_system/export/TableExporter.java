@@ -0,0 +1,149 @@
+package hospital.hospital_management_system.export;
+
+import hospital.hospital_management_system.utils.Bulkhead;
+import hospital.hospital_management_system.utils.DBConnection;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Exports a table to CSV or XLSX in constant memory: rows come from a server-side cursor
+ * {@value #FETCH_SIZE} at a time and go straight to the file, never into a list. The file is
+ * written next to the target and moved into place only when complete, so a failed or
+ * cancelled export leaves nothing half-written. Interrupting the exporting thread (as
+ * Task.cancel() does) stops it at the next batch.
+ */
+public final class TableExporter {
+
+    /**
+     * Called every {@value #PROGRESS_INTERVAL} rows and once at the end. estimatedTotal is
+     * the planner's row estimate for an unfiltered export, or -1 when unknown.
+     */
+    @FunctionalInterface
+    public interface Progress {
+        void update(long rowsWritten, long estimatedTotal);
+    }
+
+    private static final int FETCH_SIZE = 2_000;
+    private static final int PROGRESS_INTERVAL = 10_000;
+
+    private TableExporter() {} // Prevent instantiation
+
+    /**
+     * Exports {@code columnNames} (all columns when empty) of {@code table}, optionally limited
+     * to rows whose date column falls in [from, to] (inclusive days; either end may be null),
+     * and returns the number of rows written.
+     */
+    public static long export(ExportTable table, List<String> columnNames, LocalDate from, LocalDate to,
+                              ExportFormat format, Path target, Progress progress) throws IOException, SQLException {
+        List<ExportTable.Column> columns = new ArrayList<>();
+        if (columnNames == null || columnNames.isEmpty()) {
+            columns.addAll(table.getColumns());
+        } else {
+            for (String name : columnNames) {
+                columns.add(table.column(name));
+            }
+        }
+        if ((from != null || to != null) && !table.hasDateFilter()) {
+            throw new IllegalArgumentException(table + " cannot be filtered by date");
+        }
+
+        StringJoiner select = new StringJoiner(", ", "SELECT ", " FROM " + table.from);
+        for (ExportTable.Column column : columns) {
+            select.add(column.expression());
+        }
+        StringBuilder sql = new StringBuilder(select.toString());
+        List<Date> parameters = new ArrayList<>();
+        if (from != null) {
+            sql.append(parameters.isEmpty() ? " WHERE " : " AND ").append(table.dateColumn).append(" >= ?");
+            parameters.add(Date.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(parameters.isEmpty() ? " WHERE " : " AND ").append(table.dateColumn).append(" < ?");
+            parameters.add(Date.valueOf(to.plusDays(1)));
+        }
+        sql.append(" ORDER BY ").append(table.orderBy);
+
+        Path absolute = target.toAbsolutePath();
+        Path partial = null;
+        boolean done = false;
+        // Shares the reporting bulkhead: an export is a long scan like a report
+        Bulkhead.Permit permit = Bulkhead.REPORTING.enter();
+        try (permit; Connection conn = DBConnection.getReadConnection()) {
+            partial = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".part");
+            long estimate = parameters.isEmpty() ? estimateRows(conn, table.table) : -1;
+
+            // pgjdbc only uses a cursor (and honours the fetch size) inside a transaction
+            boolean autoCommit = conn.getAutoCommit();
+            if (autoCommit) {
+                conn.setAutoCommit(false);
+            }
+            long rows = 0;
+            try (PreparedStatement ps = conn.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(FETCH_SIZE);
+                for (int i = 0; i < parameters.size(); i++) {
+                    ps.setDate(i + 1, parameters.get(i));
+                }
+
+                try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                     ResultSet rs = ps.executeQuery()) {
+                    RowWriter writer = format.open(channel, table.toString(), columns);
+                    while (rs.next()) {
+                        writer.writeRow(rs);
+                        if (++rows % PROGRESS_INTERVAL == 0) {
+                            if (Thread.currentThread().isInterrupted()) {
+                                throw new InterruptedIOException("Export cancelled after " + rows + " rows");
+                            }
+                            if (progress != null) {
+                                progress.update(rows, estimate);
+                            }
+                        }
+                    }
+                    writer.close();
+                    channel.force(false);
+                }
+            } finally {
+                if (autoCommit) {
+                    conn.rollback();    // read-only; ends the transaction holding the cursor
+                    conn.setAutoCommit(true);
+                }
+            }
+
+            Files.move(partial, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            done = true;
+            if (progress != null) {
+                progress.update(rows, estimate);
+            }
+            return rows;
+        } finally {
+            if (!done && partial != null) {
+                Files.deleteIfExists(partial);
+            }
+        }
+    }
+
+    private static long estimateRows(Connection conn, String table) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT reltuples::bigint FROM pg_class WHERE oid = ?::regclass")) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                // -1 for a table that has never been analyzed
+                return rs.next() ? Math.max(-1, rs.getLong(1)) : -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package hospital.hospital_management_system.export;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Minimal SpreadsheetML (.xlsx) written as it goes: each row is appended to the open sheet
+ * entry of the zip, so memory does not grow with the row count. Text is stored inline rather
+ * than in a shared-strings table, which would have to be held until the end. Dates and
+ * timestamps are real Excel dates. A sheet holds at most {@value #MAX_ROWS} rows including its
+ * header, after which the rows continue on a new sheet. The workbook parts that list the
+ * sheets are written last, once their number is known.
+ */
+final class XlsxWriter implements RowWriter {
+
+    private static final int MAX_ROWS = 1_048_576;
+    private static final long EXCEL_EPOCH_OFFSET = 25_569;   // 1970-01-01 as an Excel day number
+    private static final String MAIN_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String REL_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    // cellXfs indexes in styles.xml
+    private static final int STYLE_DATE = 1;
+    private static final int STYLE_TIMESTAMP = 2;
+    private static final int STYLE_HEADER = 3;
+
+    private final ZipOutputStream zip;
+    private final Writer xml;
+    private final String sheetName;
+    private final List<ExportTable.Column> columns;
+    private final ExportTable.CellType[] types;
+    private final int maxRows;
+    private int sheets;
+    private int rowsInSheet;
+
+    XlsxWriter(FileChannel channel, String sheetName, List<ExportTable.Column> columns) throws IOException {
+        this(channel, sheetName, columns, MAX_ROWS);
+    }
+
+    XlsxWriter(FileChannel channel, String sheetName, List<ExportTable.Column> columns, int maxRows) throws IOException {
+        this.maxRows = maxRows;
+        this.zip = new ZipOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+        // Deflate dominates the cost of a large export; the fastest level still shrinks XML ~10x
+        zip.setLevel(Deflater.BEST_SPEED);
+        this.xml = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 1 << 16);
+        this.sheetName = sheetName;
+        this.columns = columns;
+        this.types = new ExportTable.CellType[columns.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = columns.get(i).type();
+        }
+        startSheet();
+    }
+
+    @Override
+    public void writeRow(ResultSet rs) throws IOException, SQLException {
+        if (rowsInSheet == maxRows) {
+            endSheet();
+            startSheet();
+        }
+        xml.write("<row>");
+        for (int i = 0; i < types.length; i++) {
+            writeCell(rs, i + 1, types[i]);
+        }
+        xml.write("</row>\n");
+        rowsInSheet++;
+    }
+
+    private void writeCell(ResultSet rs, int index, ExportTable.CellType type) throws IOException, SQLException {
+        switch (type) {
+            case NUMBER -> {
+                String value = rs.getString(index);
+                if (value == null) {
+                    xml.write("<c/>");
+                } else {
+                    xml.write("<c><v>");
+                    xml.write(value);
+                    xml.write("</v></c>");
+                }
+            }
+            case DATE -> {
+                LocalDate value = rs.getObject(index, LocalDate.class);
+                if (value == null) {
+                    xml.write("<c/>");
+                } else {
+                    writeNumberCell(STYLE_DATE, Long.toString(value.toEpochDay() + EXCEL_EPOCH_OFFSET));
+                }
+            }
+            case TIMESTAMP -> {
+                LocalDateTime value = rs.getObject(index, LocalDateTime.class);
+                if (value == null) {
+                    xml.write("<c/>");
+                } else {
+                    double serial = value.toLocalDate().toEpochDay() + EXCEL_EPOCH_OFFSET
+                            + value.toLocalTime().toSecondOfDay() / 86_400.0;
+                    writeNumberCell(STYLE_TIMESTAMP, Double.toString(serial));
+                }
+            }
+            default -> {
+                String value = rs.getString(index);
+                if (value == null) {
+                    xml.write("<c/>");
+                } else {
+                    writeTextCell(value, 0);
+                }
+            }
+        }
+    }
+
+    private void writeNumberCell(int style, String value) throws IOException {
+        xml.write("<c s=\"");
+        xml.write(Integer.toString(style));
+        xml.write("\"><v>");
+        xml.write(value);
+        xml.write("</v></c>");
+    }
+
+    private void writeTextCell(String value, int style) throws IOException {
+        xml.write(style == 0 ? "<c t=\"inlineStr\"><is><t" : "<c s=\"" + style + "\" t=\"inlineStr\"><is><t");
+        if (!value.isEmpty() && (Character.isWhitespace(value.charAt(0))
+                || Character.isWhitespace(value.charAt(value.length() - 1)))) {
+            xml.write(" xml:space=\"preserve\"");
+        }
+        xml.write('>');
+        writeEscaped(value);
+        xml.write("</t></is></c>");
+    }
+
+    private void writeEscaped(String value) throws IOException {
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement;
+            if (c == '&') {
+                replacement = "&amp;";
+            } else if (c == '<') {
+                replacement = "&lt;";
+            } else if (c == '>') {
+                replacement = "&gt;";
+            } else if (c < 0x20 && c != '\t' && c != '\n' && c != '\r') {
+                replacement = "";   // not allowed in XML 1.0 at all
+            } else {
+                continue;
+            }
+            xml.write(value, start, i - start);
+            xml.write(replacement);
+            start = i + 1;
+        }
+        xml.write(value, start, value.length() - start);
+    }
+
+    private void startSheet() throws IOException {
+        sheets++;
+        rowsInSheet = 0;
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + sheets + ".xml"));
+        xml.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+        xml.write("<worksheet xmlns=\"" + MAIN_NS + "\"><sheetViews><sheetView workbookViewId=\"0\">"
+                + "<pane ySplit=\"1\" topLeftCell=\"A2\" activePane=\"bottomLeft\" state=\"frozen\"/>"
+                + "</sheetView></sheetViews><sheetData>\n<row>");
+        for (ExportTable.Column column : columns) {
+            writeTextCell(column.label(), STYLE_HEADER);
+        }
+        xml.write("</row>\n");
+        rowsInSheet++;
+    }
+
+    private void endSheet() throws IOException {
+        xml.write("</sheetData></worksheet>");
+        xml.flush();
+        zip.closeEntry();
+    }
+
+    @Override
+    public void close() throws IOException {
+        endSheet();
+
+        StringBuilder sheetList = new StringBuilder();
+        StringBuilder sheetRels = new StringBuilder();
+        StringBuilder sheetTypes = new StringBuilder();
+        for (int i = 1; i <= sheets; i++) {
+            String name = i == 1 ? sheetName : sheetName + " (" + i + ")";
+            sheetList.append("<sheet name=\"").append(name).append("\" sheetId=\"").append(i)
+                    .append("\" r:id=\"rId").append(i).append("\"/>");
+            sheetRels.append("<Relationship Id=\"rId").append(i)
+                    .append("\" Type=\"" + REL_NS + "/worksheet\" Target=\"worksheets/sheet").append(i).append(".xml\"/>");
+            sheetTypes.append("<Override PartName=\"/xl/worksheets/sheet").append(i)
+                    .append(".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+        }
+
+        writeEntry("[Content_Types].xml",
+                "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+                + "<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>"
+                + sheetTypes
+                + "</Types>");
+        writeEntry("_rels/.rels",
+                "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                + "<Relationship Id=\"rId1\" Type=\"" + REL_NS + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                + "</Relationships>");
+        writeEntry("xl/workbook.xml",
+                "<workbook xmlns=\"" + MAIN_NS + "\" xmlns:r=\"" + REL_NS + "\"><sheets>" + sheetList + "</sheets></workbook>");
+        writeEntry("xl/_rels/workbook.xml.rels",
+                "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                + sheetRels
+                + "<Relationship Id=\"rId" + (sheets + 1) + "\" Type=\"" + REL_NS + "/styles\" Target=\"styles.xml\"/>"
+                + "</Relationships>");
+        writeEntry("xl/styles.xml",
+                "<styleSheet xmlns=\"" + MAIN_NS + "\">"
+                + "<fonts count=\"2\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font>"
+                + "<font><b/><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>"
+                + "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill>"
+                + "<fill><patternFill patternType=\"gray125\"/></fill></fills>"
+                + "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>"
+                + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+                + "<cellXfs count=\"4\">"
+                + "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+                + "<xf numFmtId=\"14\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>"
+                + "<xf numFmtId=\"22\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>"
+                + "<xf numFmtId=\"0\" fontId=\"1\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyFont=\"1\"/>"
+                + "</cellXfs>"
+                + "<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>"
+                + "</styleSheet>");
+
+        // finish, not close: closing would close the channel, which belongs to the caller
+        zip.finish();
+        zip.flush();
+    }
+
+    private void writeEntry(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        xml.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+        xml.write(content);
+        xml.flush();
+        zip.closeEntry();
+    }
+}
@@ -0,0 +1,88 @@
+package hospital.hospital_management_system.launcher;
+
+import hospital.hospital_management_system.MainApp;
+import hospital.hospital_management_system.utils.StartupMetrics;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Launches the app in fresh JVMs and reports time-to-first-interactive-frame.
+ * Usage: StartupBenchmark [runs] [extra JVM options...], e.g. -XX:SharedArchiveFile=target/app-cds.jsa
+ */
+public class StartupBenchmark {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        List<String> jvmOptions = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            jvmOptions.add(args[i]);
+        }
+
+        List<Long> samples = new ArrayList<>();
+        for (int run = 1; run <= runs; run++) {
+            long millis = launchOnce(jvmOptions);
+            if (millis < 0) {
+                System.err.println("Run " + run + " did not report a first frame");
+                continue;
+            }
+            samples.add(millis);
+            System.out.println("Run " + run + ": " + millis + " ms");
+        }
+
+        if (samples.isEmpty()) {
+            System.err.println("No successful runs");
+            return;
+        }
+        Collections.sort(samples);
+        System.out.println(StartupMetrics.FIRST_FRAME_LABEL + " over " + samples.size() + " runs: "
+                + "min=" + samples.get(0) + " ms, "
+                + "median=" + samples.get(samples.size() / 2) + " ms, "
+                + "max=" + samples.get(samples.size() - 1) + " ms");
+    }
+
+    private static long launchOnce(List<String> jvmOptions) throws IOException, InterruptedException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(jvmOptions);
+        command.add("-Dhms.startup.exitAfterFirstFrame=true");
+
+        Module module = MainApp.class.getModule();
+        if (module.isNamed()) {
+            // Inside a jlink image the module is linked in and there is no module path
+            String modulePath = System.getProperty("jdk.module.path");
+            if (modulePath != null) {
+                command.add("--module-path");
+                command.add(modulePath);
+            }
+            command.add("--module");
+            command.add(module.getName() + "/" + MainApp.class.getName());
+        } else {
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(Launcher.class.getName());
+        }
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long result = -1;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            String prefix = StartupMetrics.FIRST_FRAME_LABEL + " = ";
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.startsWith(prefix)) {
+                    result = Long.parseLong(line.substring(prefix.length()));
+                }
+            }
+        }
+        process.waitFor();
+        return result;
+    }
+}
@@ -0,0 +1,40 @@
+package hospital.hospital_management_system.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * One schedule line: the appointment with patient and doctor names joined in, without the reason text.
+ */
+public class AppointmentSummary {
+    private final long appointmentId;
+    private final LocalDateTime appointmentDate;
+    private final String status;
+    private final Long patientId;
+    private final String patientName;
+    private final Long doctorId;
+    private final String doctorName;
+
+    public AppointmentSummary(long appointmentId, LocalDateTime appointmentDate, String status,
+                              Long patientId, String patientName, Long doctorId, String doctorName) {
+        this.appointmentId = appointmentId;
+        this.appointmentDate = appointmentDate;
+        this.status = status;
+        this.patientId = patientId;
+        this.patientName = patientName;
+        this.doctorId = doctorId;
+        this.doctorName = doctorName;
+    }
+
+    public long getAppointmentId() {return appointmentId;}
+    public LocalDateTime getAppointmentDate() {return appointmentDate;}
+    public String getStatus() {return status;}
+    public Long getPatientId() {return patientId;}
+    public String getPatientName() {return patientName;}
+    public Long getDoctorId() {return doctorId;}
+    public String getDoctorName() {return doctorName;}
+
+    @Override
+    public String toString() {
+        return appointmentDate + " " + patientName + " / " + doctorName + " [" + status + "]";
+    }
+}
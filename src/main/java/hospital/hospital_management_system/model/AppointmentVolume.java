@@ -0,0 +1,43 @@
+package hospital.hospital_management_system.model;
+
+import java.time.LocalDate;
+
+/**
+ * Appointment counts for one doctor or department, per day or (day == null) over a whole period.
+ */
+public class AppointmentVolume {
+    private final LocalDate day;
+    private final long groupId;
+    private final String groupName;
+    private final long total;
+    private final long completed;
+    private final long cancelled;
+    private final long noShow;
+
+    public AppointmentVolume(LocalDate day, long groupId, String groupName,
+                             long total, long completed, long cancelled, long noShow) {
+        this.day = day;
+        this.groupId = groupId;
+        this.groupName = groupName;
+        this.total = total;
+        this.completed = completed;
+        this.cancelled = cancelled;
+        this.noShow = noShow;
+    }
+
+    public LocalDate getDay() {return day;}
+    public long getGroupId() {return groupId;}
+    public String getGroupName() {return groupName;}
+    public long getTotal() {return total;}
+    public long getCompleted() {return completed;}
+    public long getCancelled() {return cancelled;}
+    public long getNoShow() {return noShow;}
+
+    /**
+     * No-shows as a share of the appointments that were due (completed or no-show).
+     */
+    public double getNoShowRate() {
+        long due = completed + noShow;
+        return due == 0 ? 0.0 : (double) noShow / due;
+    }
+}
@@ -0,0 +1,28 @@
+package hospital.hospital_management_system.model;
+
+/**
+ * Id, name and specialization, enough for doctor pickers and lists.
+ */
+public class DoctorSummary {
+    private final long doctorId;
+    private final String firstName;
+    private final String lastName;
+    private final String specialization;
+
+    public DoctorSummary(long doctorId, String firstName, String lastName, String specialization) {
+        this.doctorId = doctorId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.specialization = specialization;
+    }
+
+    public long getDoctorId() {return doctorId;}
+    public String getFirstName() {return firstName;}
+    public String getLastName() {return lastName;}
+    public String getSpecialization() {return specialization;}
+
+    @Override
+    public String toString() {
+        return "Dr. " + lastName + " (" + specialization + ")";
+    }
+}
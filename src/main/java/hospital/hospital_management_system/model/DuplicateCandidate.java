@@ -0,0 +1,21 @@
+package hospital.hospital_management_system.model;
+
+/**
+ * Two patient records that probably belong to the same person, with how alike they are from
+ * 0 to 1. In the merge-candidate report {@code patient} is the later registration.
+ */
+public class DuplicateCandidate {
+    private final Patient patient;
+    private final Patient match;
+    private final double score;
+
+    public DuplicateCandidate(Patient patient, Patient match, double score) {
+        this.patient = patient;
+        this.match = match;
+        this.score = score;
+    }
+
+    public Patient getPatient() {return patient;}
+    public Patient getMatch() {return match;}
+    public double getScore() {return score;}
+}
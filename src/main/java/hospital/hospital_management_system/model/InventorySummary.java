@@ -0,0 +1,25 @@
+package hospital.hospital_management_system.model;
+
+/**
+ * Item id, name and stock level, for dispensing pickers. Price is loaded with the full item.
+ */
+public class InventorySummary {
+    private final long itemId;
+    private final String itemName;
+    private final int stockQuantity;
+
+    public InventorySummary(long itemId, String itemName, int stockQuantity) {
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.stockQuantity = stockQuantity;
+    }
+
+    public long getItemId() {return itemId;}
+    public String getItemName() {return itemName;}
+    public int getStockQuantity() {return stockQuantity;}
+
+    @Override
+    public String toString() {
+        return itemName + " (" + stockQuantity + " in stock)";
+    }
+}
@@ -0,0 +1,23 @@
+package hospital.hospital_management_system.model;
+
+/**
+ * How much of one item was dispensed over a period.
+ */
+public class InventoryUsage {
+    private final long itemId;
+    private final String itemName;
+    private final long quantityDispensed;
+    private final long prescriptions;
+
+    public InventoryUsage(long itemId, String itemName, long quantityDispensed, long prescriptions) {
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.quantityDispensed = quantityDispensed;
+        this.prescriptions = prescriptions;
+    }
+
+    public long getItemId() {return itemId;}
+    public String getItemName() {return itemName;}
+    public long getQuantityDispensed() {return quantityDispensed;}
+    public long getPrescriptions() {return prescriptions;}
+}
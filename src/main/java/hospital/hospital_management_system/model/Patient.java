@@ -46,7 +46,7 @@ public class Patient {
         this.address = address;
     }
 
-    public Patient(Long patientId) {
+    public Patient(long patientId) {
         this.patient_id = patientId;
     }
 
@@ -0,0 +1,37 @@
+package hospital.hospital_management_system.model;
+
+import java.time.LocalDate;
+
+/**
+ * The columns the patient list shows. Address is left out; load the full {@link Patient} on selection.
+ */
+public class PatientSummary {
+    private final long patientId;
+    private final String firstName;
+    private final String lastName;
+    private final LocalDate dob;
+    private final String gender;
+    private final String contactNumber;
+
+    public PatientSummary(long patientId, String firstName, String lastName, LocalDate dob,
+                          String gender, String contactNumber) {
+        this.patientId = patientId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.dob = dob;
+        this.gender = gender;
+        this.contactNumber = contactNumber;
+    }
+
+    public long getPatientId() {return patientId;}
+    public String getFirstName() {return firstName;}
+    public String getLastName() {return lastName;}
+    public LocalDate getDob() {return dob;}
+    public String getGender() {return gender;}
+    public String getContactNumber() {return contactNumber;}
+
+    @Override
+    public String toString() {
+        return firstName + " " + lastName;
+    }
+}
@@ -0,0 +1,55 @@
+package hospital.hospital_management_system.model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Feedback ratings received in the day, week or month starting at periodStart:
+ * how many of each rating from 1 to 5, and the count, sum and average derived from them.
+ */
+public class RatingStats {
+    private final LocalDate periodStart;
+    private final int[] histogram;   // histogram[r - 1] = number of ratings of r
+
+    public RatingStats(LocalDate periodStart, int[] histogram) {
+        this.periodStart = periodStart;
+        this.histogram = histogram.clone();
+    }
+
+    public LocalDate getPeriodStart() {return periodStart;}
+
+    public int getCount(int rating) {
+        return histogram[rating - 1];
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int n : histogram) {
+            count += n;
+        }
+        return count;
+    }
+
+    public long getSum() {
+        long sum = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            sum += (long) (i + 1) * histogram[i];
+        }
+        return sum;
+    }
+
+    public double getAverage() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) getSum() / count;
+    }
+
+    @Override
+    public String toString() {
+        return "RatingStats{" +
+                "periodStart=" + periodStart +
+                ", count=" + getCount() +
+                ", average=" + getAverage() +
+                ", histogram=" + Arrays.toString(histogram) +
+                '}';
+    }
+}
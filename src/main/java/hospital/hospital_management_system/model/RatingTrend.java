@@ -0,0 +1,22 @@
+package hospital.hospital_management_system.model;
+
+import java.time.LocalDate;
+
+/**
+ * Average feedback rating for the week or month starting at periodStart.
+ */
+public class RatingTrend {
+    private final LocalDate periodStart;
+    private final long ratings;
+    private final double averageRating;
+
+    public RatingTrend(LocalDate periodStart, long ratings, double averageRating) {
+        this.periodStart = periodStart;
+        this.ratings = ratings;
+        this.averageRating = averageRating;
+    }
+
+    public LocalDate getPeriodStart() {return periodStart;}
+    public long getRatings() {return ratings;}
+    public double getAverageRating() {return averageRating;}
+}
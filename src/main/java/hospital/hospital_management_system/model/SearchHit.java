@@ -0,0 +1,42 @@
+package hospital.hospital_management_system.model;
+
+import java.time.LocalDate;
+
+/**
+ * A prescription note or feedback comment that matched a full-text search. {@code headline}
+ * holds the best-matching fragments of the text, with each matched word wrapped in
+ * {@link #MATCH_START} and {@link #MATCH_END}.
+ */
+public class SearchHit {
+
+    public enum Source {PRESCRIPTION, FEEDBACK}
+
+    public static final String MATCH_START = "«";
+    public static final String MATCH_END = "»";
+
+    private final Source source;
+    private final long id;
+    private final Long patientId;
+    private final String patientName;
+    private final LocalDate date;
+    private final double rank;
+    private final String headline;
+
+    public SearchHit(Source source, long id, Long patientId, String patientName, LocalDate date, double rank, String headline) {
+        this.source = source;
+        this.id = id;
+        this.patientId = patientId;
+        this.patientName = patientName;
+        this.date = date;
+        this.rank = rank;
+        this.headline = headline;
+    }
+
+    public Source getSource() {return source;}
+    public long getId() {return id;}
+    public Long getPatientId() {return patientId;}
+    public String getPatientName() {return patientName;}
+    public LocalDate getDate() {return date;}
+    public double getRank() {return rank;}
+    public String getHeadline() {return headline;}
+}
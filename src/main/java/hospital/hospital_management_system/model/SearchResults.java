@@ -0,0 +1,27 @@
+package hospital.hospital_management_system.model;
+
+import java.util.List;
+
+/**
+ * One page of full-text search hits, best first, and how many hits there are in all. A page
+ * past the last one is empty but still reports the total.
+ */
+public class SearchResults {
+    private final List<SearchHit> hits;
+    private final long total;
+    private final int page;
+    private final int pageSize;
+
+    public SearchResults(List<SearchHit> hits, long total, int page, int pageSize) {
+        this.hits = hits;
+        this.total = total;
+        this.page = page;
+        this.pageSize = pageSize;
+    }
+
+    public List<SearchHit> getHits() {return hits;}
+    public long getTotal() {return total;}
+    public int getPage() {return page;}
+    public int getPageSize() {return pageSize;}
+    public int getPageCount() {return (int) ((total + pageSize - 1) / pageSize);}
+}
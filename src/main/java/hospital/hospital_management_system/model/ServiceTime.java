@@ -0,0 +1,24 @@
+package hospital.hospital_management_system.model;
+
+/**
+ * How fast a department sees patients: the average time between a doctor's consecutive
+ * completed appointments on one day, and how many doctors complete appointments on a day.
+ */
+public class ServiceTime {
+    private final long deptId;
+    private final double averageSeconds;
+    private final double doctorsPerDay;
+    private final long samples;
+
+    public ServiceTime(long deptId, double averageSeconds, double doctorsPerDay, long samples) {
+        this.deptId = deptId;
+        this.averageSeconds = averageSeconds;
+        this.doctorsPerDay = doctorsPerDay;
+        this.samples = samples;
+    }
+
+    public long getDeptId() {return deptId;}
+    public double getAverageSeconds() {return averageSeconds;}
+    public double getDoctorsPerDay() {return doctorsPerDay;}
+    public long getSamples() {return samples;}
+}
@@ -0,0 +1,71 @@
+package hospital.hospital_management_system.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One event of a patient's history: an appointment, a prescription with its items, or a
+ * feedback. Exactly one of {@link #getAppointment()}, {@link #getPrescription()} and
+ * {@link #getFeedback()} is set, as {@link #getKind()} says.
+ * <p>
+ * Timelines run newest first, ordered by {@link #getAt()}, then kind, then id. Feedback has a
+ * date but no time, so it is placed at the last instant of its day, after that day's visits.
+ */
+public class TimelineEntry {
+
+    // Declared in timeline order for one instant: a prescription follows its appointment
+    public enum Kind {APPOINTMENT, PRESCRIPTION, FEEDBACK}
+
+    private final Kind kind;
+    private final long id;
+    private final LocalDateTime at;
+    private final Appointment appointment;
+    private final Prescriptions prescription;
+    private final List<PrescriptionItems> items;
+    private final PatientFeedback feedback;
+
+    private TimelineEntry(Kind kind, long id, LocalDateTime at, Appointment appointment,
+                          Prescriptions prescription, List<PrescriptionItems> items, PatientFeedback feedback) {
+        this.kind = kind;
+        this.id = id;
+        this.at = at;
+        this.appointment = appointment;
+        this.prescription = prescription;
+        this.items = items;
+        this.feedback = feedback;
+    }
+
+    public static TimelineEntry of(Appointment appointment) {
+        return new TimelineEntry(Kind.APPOINTMENT, appointment.getAppointmentId(), appointment.getAppointmentDate(),
+                appointment, null, List.of(), null);
+    }
+
+    public static TimelineEntry of(Prescriptions prescription, List<PrescriptionItems> items) {
+        return new TimelineEntry(Kind.PRESCRIPTION, prescription.getPrescriptionId(), prescription.getPrescriptionDate(),
+                null, prescription, items, null);
+    }
+
+    public static TimelineEntry of(PatientFeedback feedback) {
+        return new TimelineEntry(Kind.FEEDBACK, feedback.getFeedbackId(),
+                feedback.getFeedbackDate().plusDays(1).atStartOfDay().minusNanos(1000), null, null, List.of(), feedback);
+    }
+
+    public Kind getKind() {return kind;}
+    public long getId() {return id;}
+    public LocalDateTime getAt() {return at;}
+    public Appointment getAppointment() {return appointment;}
+    public Prescriptions getPrescription() {return prescription;}
+    public List<PrescriptionItems> getItems() {return items;}
+    public PatientFeedback getFeedback() {return feedback;}
+
+    /**
+     * True if this entry comes after {@code other} in a timeline, that is, is older.
+     */
+    public boolean isAfter(TimelineEntry other) {
+        int byTime = at.compareTo(other.at);
+        if (byTime != 0) {
+            return byTime < 0;
+        }
+        return kind != other.kind ? kind.compareTo(other.kind) < 0 : id < other.id;
+    }
+}
@@ -0,0 +1,21 @@
+package hospital.hospital_management_system.model;
+
+import java.util.List;
+
+/**
+ * A run of a patient's timeline, newest first. Pass {@link #getNextCursor()} back to read the
+ * entries that follow; it is null after the last page.
+ */
+public class TimelinePage {
+    private final List<TimelineEntry> entries;
+    private final boolean hasMore;
+
+    public TimelinePage(List<TimelineEntry> entries, boolean hasMore) {
+        this.entries = entries;
+        this.hasMore = hasMore;
+    }
+
+    public List<TimelineEntry> getEntries() {return entries;}
+    public boolean hasMore() {return hasMore;}
+    public TimelineEntry getNextCursor() {return hasMore ? entries.get(entries.size() - 1) : null;}
+}
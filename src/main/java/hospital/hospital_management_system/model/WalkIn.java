@@ -0,0 +1,54 @@
+package hospital.hospital_management_system.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A patient waiting in, or called from, a department's walk-in queue, as last read from
+ * walk_ins. Queue order is triage level first, then arrival, then id.
+ */
+public class WalkIn {
+
+    /** Most urgent first. */
+    public enum Triage { EMERGENCY, URGENT, STANDARD, NON_URGENT }
+
+    public enum Status { Waiting, Called, Completed, Left }
+
+    private final UUID walkInId;
+    private final long deptId;
+    private final Long patientId;
+    private final String patientName;
+    private final Triage triage;
+    private final Instant arrivedAt;
+    private final Status status;
+    private final Instant calledAt;
+    private final Instant finishedAt;
+
+    public WalkIn(UUID walkInId, long deptId, Long patientId, String patientName, Triage triage,
+                  Instant arrivedAt, Status status, Instant calledAt, Instant finishedAt) {
+        this.walkInId = walkInId;
+        this.deptId = deptId;
+        this.patientId = patientId;
+        this.patientName = patientName;
+        this.triage = triage;
+        this.arrivedAt = arrivedAt;
+        this.status = status;
+        this.calledAt = calledAt;
+        this.finishedAt = finishedAt;
+    }
+
+    public UUID getWalkInId() {return walkInId;}
+    public long getDeptId() {return deptId;}
+    public Long getPatientId() {return patientId;}
+    public String getPatientName() {return patientName;}
+    public Triage getTriage() {return triage;}
+    public Instant getArrivedAt() {return arrivedAt;}
+    public Status getStatus() {return status;}
+    public Instant getCalledAt() {return calledAt;}
+    public Instant getFinishedAt() {return finishedAt;}
+
+    @Override
+    public String toString() {
+        return (patientName != null ? patientName : "Patient " + patientId) + " [" + triage + "]";
+    }
+}
@@ -0,0 +1,40 @@
+package hospital.hospital_management_system.reminders;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+/**
+ * Stand-in for a real messaging channel: appends one tab-separated line per reminder (sent at,
+ * appointment, patient, doctor, appointment time, lead in minutes) to a local file.
+ */
+public final class FileReminderSink implements ReminderSink {
+
+    private final Path file;
+
+    public FileReminderSink(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public void send(Reminder reminder) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            out.write(Instant.now() + "\t" + reminder.appointmentId() + "\t" + orEmpty(reminder.patientId())
+                    + "\t" + orEmpty(reminder.doctorId()) + "\t" + reminder.appointmentDate()
+                    + "\t" + reminder.lead().toMinutes());
+            out.newLine();
+        }
+    }
+
+    private static String orEmpty(Long id) {
+        return id != null ? id.toString() : "";
+    }
+}
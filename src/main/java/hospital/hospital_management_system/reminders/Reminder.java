@@ -0,0 +1,12 @@
+package hospital.hospital_management_system.reminders;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * A reminder that is due: the appointment it is for and how long before it this reminder is
+ * meant to go out (24 h, 1 h, ...). Patient and doctor are null when the appointment has none.
+ */
+public record Reminder(long appointmentId, Long patientId, Long doctorId, LocalDateTime appointmentDate,
+                       Duration lead) {
+}
@@ -0,0 +1,345 @@
+package hospital.hospital_management_system.reminders;
+
+import hospital.hospital_management_system.dao.AppointmentDAO;
+import hospital.hospital_management_system.model.Appointment;
+import hospital.hospital_management_system.utils.DataAccessException;
+import hospital.hospital_management_system.utils.EnvLoader;
+import hospital.hospital_management_system.utils.Log;
+import hospital.hospital_management_system.utils.UnitOfWork;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends appointment reminders DB__REMINDER_LEADS_MINUTES before each scheduled appointment
+ * (default 1440,60: a day and an hour ahead). Off unless DB__REMINDERS=true, so that only the
+ * one workstation meant to send them does.
+ * <p>
+ * Upcoming appointments wait in a {@link TimingWheel} with one-second ticks, one entry per
+ * appointment, re-armed for the next lead after each reminder; adding, moving and cancelling
+ * are O(1) and a tick only touches what is due. {@code AppointmentService} reports creates,
+ * reschedules and cancellations as they commit. Appointments changed on other workstations are
+ * picked up by reloading the next day or so every DB__REMINDER_SYNC_MINUTES (default 5).
+ * <p>
+ * A reminder more than DB__REMINDER_GRACE_MINUTES (default 15) late, e.g. after the machine
+ * slept, is skipped rather than sent out of time. Due reminders go to the {@link ReminderSink}
+ * set with {@link #setSink}; until a real channel is plugged in, DB__REMINDER_SINK selects a
+ * stand-in: {@code console} (the log, default) or {@code file} (DB__REMINDER_FILE).
+ */
+public final class ReminderScheduler {
+
+    private static final Log log = Log.get(ReminderScheduler.class);
+
+    private static final boolean ENABLED = Boolean.parseBoolean(EnvLoader.get("DB__REMINDERS", "false"));
+    private static final long[] LEADS = leadSeconds(EnvLoader.get("DB__REMINDER_LEADS_MINUTES", "1440,60"));
+    private static final long GRACE_SECONDS =
+            TimeUnit.MINUTES.toSeconds(Long.parseLong(EnvLoader.get("DB__REMINDER_GRACE_MINUTES", "15")));
+    private static final long SYNC_SECONDS =
+            TimeUnit.MINUTES.toSeconds(Long.parseLong(EnvLoader.get("DB__REMINDER_SYNC_MINUTES", "5")));
+    private static final Path FILE = Paths.get(EnvLoader.get("DB__REMINDER_FILE",
+            Paths.get(System.getProperty("user.home"), ".hospital_management_system", "reminders.log").toString()));
+
+    // How far ahead the first load reads; later appointments arrive through the periodic sync
+    private static final Duration LOAD_AHEAD = Duration.ofDays(365);
+
+    private static final String SCHEDULED = "Scheduled";
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    // The wheel and the map are guarded by the wheel's monitor. The map also keeps appointments
+    // whose reminders have all gone out, until they start
+    private static final TimingWheel<Pending> WHEEL = new TimingWheel<>(nowSeconds());
+    private static final Map<Long, Pending> pending = new HashMap<>();
+    private static long syncRound;
+    private static boolean loaded;   // reminder thread only
+
+    private static final AppointmentDAO appointmentDAO = new AppointmentDAO();
+
+    private static final LongAdder sent = new LongAdder();
+    private static final LongAdder failed = new LongAdder();
+    private static final LongAdder skipped = new LongAdder();
+
+    private static volatile ReminderSink sink = defaultSink();
+    private static volatile boolean running;
+    private static ScheduledExecutorService scheduler;
+
+    /**
+     * An appointment in the wheel, waiting for the reminder LEADS[lead] before it.
+     */
+    private static final class Pending extends TimingWheel.Entry {
+        final long appointmentId;
+        Long patientId;
+        Long doctorId;
+        long appointmentAt;   // epoch second
+        int lead;
+        long round;           // sync round in which it was last confirmed or changed
+
+        Pending(long appointmentId) {
+            this.appointmentId = appointmentId;
+        }
+    }
+
+    private ReminderScheduler() {} // Prevent instantiation
+
+    public static boolean enabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Loads the upcoming appointments and starts ticking, both on a background thread. Does
+     * nothing unless DB__REMINDERS=true; safe to call more than once.
+     */
+    public static synchronized void start() {
+        if (!ENABLED || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "appointment-reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        scheduler.scheduleWithFixedDelay(ReminderScheduler::sync, 0, SYNC_SECONDS, TimeUnit.SECONDS);
+        scheduler.scheduleAtFixedRate(ReminderScheduler::tick, 1000 - System.currentTimeMillis() % 1000, 1000,
+                TimeUnit.MILLISECONDS);
+        log.info("Appointment reminders on, {} before each appointment", Arrays.toString(leadMinutes()));
+    }
+
+    /**
+     * Stops sending and forgets every pending reminder.
+     */
+    public static synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        running = false;
+        scheduler.shutdownNow();
+        scheduler = null;
+        synchronized (WHEEL) {
+            for (Pending p : pending.values()) {
+                WHEEL.cancel(p);
+            }
+            pending.clear();
+        }
+    }
+
+    public static void setSink(ReminderSink reminderSink) {
+        sink = reminderSink;
+    }
+
+    /**
+     * An appointment was created or moved (or its status changed): (re)arms its reminders, or
+     * drops them when it is no longer scheduled. Inside a UnitOfWork this happens on commit.
+     */
+    public static void scheduled(Appointment appointment) {
+        if (running && appointment.getAppointmentId() != null) {
+            UnitOfWork.afterCommit(() -> {
+                synchronized (WHEEL) {
+                    arm(appointment, syncRound);
+                }
+            });
+        }
+    }
+
+    /**
+     * An appointment was cancelled, completed, marked as a no-show or deleted.
+     */
+    public static void cancelled(long appointmentId) {
+        if (running) {
+            UnitOfWork.afterCommit(() -> {
+                synchronized (WHEEL) {
+                    drop(appointmentId);
+                }
+            });
+        }
+    }
+
+    public static int getPendingCount() {
+        synchronized (WHEEL) {
+            return WHEEL.size();
+        }
+    }
+
+    public static long getSentCount() {
+        return sent.sum();
+    }
+
+    public static long getFailedCount() {
+        return failed.sum();
+    }
+
+    // Reminders not sent because they were more than the grace period late
+    public static long getSkippedCount() {
+        return skipped.sum();
+    }
+
+    private static void arm(Appointment appointment, long round) {
+        long id = appointment.getAppointmentId();
+        if (!SCHEDULED.equals(appointment.getStatus())) {
+            drop(id);
+            return;
+        }
+        long at = appointment.getAppointmentDate().atZone(ZONE).toEpochSecond();
+        Pending p = pending.get(id);
+        if (p != null) {
+            p.patientId = appointment.getPatientId();
+            p.doctorId = appointment.getDoctorId();
+            p.round = round;
+            if (p.appointmentAt == at) {
+                return;   // same time: keep the reminders already sent as sent
+            }
+        }
+        int lead = firstLead(LEADS, at, WHEEL.currentTick(), GRACE_SECONDS);
+        if (lead == LEADS.length) {
+            drop(id);
+            return;
+        }
+        if (p == null) {
+            p = new Pending(id);
+            p.patientId = appointment.getPatientId();
+            p.doctorId = appointment.getDoctorId();
+            p.round = round;
+            pending.put(id, p);
+        }
+        p.appointmentAt = at;
+        p.lead = lead;
+        WHEEL.add(p, at - LEADS[lead]);
+    }
+
+    /**
+     * The index of the first reminder still to send for an appointment at {@code at} (epoch
+     * seconds) as of {@code now}, or {@code leads.length} if there is none: the next one not yet
+     * due, or the last one already due if it is at most {@code graceSeconds} late.
+     */
+    static int firstLead(long[] leads, long at, long now, long graceSeconds) {
+        int lead = 0;
+        while (lead < leads.length && at - leads[lead] <= now) {
+            lead++;
+        }
+        if (lead > 0 && at > now && now - (at - leads[lead - 1]) <= graceSeconds) {
+            lead--;
+        }
+        return lead;
+    }
+
+    private static void drop(long appointmentId) {
+        Pending p = pending.remove(appointmentId);
+        if (p != null) {
+            WHEEL.cancel(p);
+        }
+    }
+
+    private static void tick() {
+        long now = nowSeconds();
+        List<Reminder> due = new ArrayList<>();
+        synchronized (WHEEL) {
+            WHEEL.advanceTo(now, p -> {
+                long dueAt = p.appointmentAt - LEADS[p.lead];
+                if (now - dueAt <= GRACE_SECONDS && p.appointmentAt > now) {
+                    due.add(new Reminder(p.appointmentId, p.patientId, p.doctorId,
+                            LocalDateTime.ofInstant(Instant.ofEpochSecond(p.appointmentAt), ZONE),
+                            Duration.ofSeconds(LEADS[p.lead])));
+                } else {
+                    skipped.increment();
+                }
+                // After the last reminder it stays in the map, out of the wheel, so that the
+                // next sync finds it done instead of arming it again
+                if (++p.lead < LEADS.length) {
+                    WHEEL.add(p, p.appointmentAt - LEADS[p.lead]);
+                }
+            });
+        }
+        ReminderSink current = sink;
+        for (Reminder reminder : due) {
+            try {
+                current.send(reminder);
+                sent.increment();
+            } catch (Exception e) {
+                failed.increment();
+                log.warn("Reminder for appointment {} not sent: {}", reminder.appointmentId(), e.toString());
+            }
+        }
+    }
+
+    // Loads every upcoming appointment the first time, then the window whose reminders could
+    // come due before the sync after next, and makes the wheel match it
+    private static void sync() {
+        LocalDateTime from = LocalDateTime.now();
+        LocalDateTime to = loaded ? from.plusSeconds(LEADS[0] + 2 * SYNC_SECONDS) : from.plus(LOAD_AHEAD);
+        long round;
+        synchronized (WHEEL) {
+            round = ++syncRound;
+        }
+        List<Appointment> appointments;
+        try {
+            appointments = appointmentDAO.findScheduledBetween(from, to);
+        } catch (DataAccessException e) {
+            log.warn("Could not load appointments for reminders, keeping the ones already known: {}", e.getMessage());
+            return;
+        }
+        long fromSecond = from.atZone(ZONE).toEpochSecond();
+        long toSecond = to.atZone(ZONE).toEpochSecond();
+        synchronized (WHEEL) {
+            Set<Long> ids = new HashSet<>(appointments.size() * 2);
+            for (Appointment appointment : appointments) {
+                ids.add(appointment.getAppointmentId());
+                arm(appointment, round);
+            }
+            // Past appointments go; so do ones gone from the window and not armed here since the
+            // query started: they were changed elsewhere
+            for (Iterator<Pending> it = pending.values().iterator(); it.hasNext(); ) {
+                Pending p = it.next();
+                if (p.appointmentAt < fromSecond || p.appointmentAt < toSecond && p.round < round
+                        && !ids.contains(p.appointmentId)) {
+                    WHEEL.cancel(p);
+                    it.remove();
+                }
+            }
+        }
+        if (!loaded) {
+            loaded = true;
+            log.info("{} appointment reminder(s) pending", getPendingCount());
+        }
+    }
+
+    private static ReminderSink defaultSink() {
+        if (EnvLoader.get("DB__REMINDER_SINK", "console").equalsIgnoreCase("file")) {
+            return new FileReminderSink(FILE);
+        }
+        return reminder -> log.info("Reminder due: {}", reminder);
+    }
+
+    private static long nowSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    // Longest first
+    static long[] leadSeconds(String minutes) {
+        return Arrays.stream(minutes.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .mapToLong(s -> TimeUnit.MINUTES.toSeconds(Long.parseLong(s)))
+                .map(s -> -s).sorted().map(s -> -s)
+                .distinct()
+                .toArray();
+    }
+
+    private static long[] leadMinutes() {
+        return Arrays.stream(LEADS).map(TimeUnit.SECONDS::toMinutes).toArray();
+    }
+}
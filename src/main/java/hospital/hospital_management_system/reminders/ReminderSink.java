@@ -0,0 +1,12 @@
+package hospital.hospital_management_system.reminders;
+
+/**
+ * Where due reminders go: SMS, e-mail, a message queue. Called on the reminder thread one
+ * reminder at a time, so a slow sink delays later reminders but never loses them; an exception
+ * is logged and the reminder is not retried.
+ */
+@FunctionalInterface
+public interface ReminderSink {
+
+    void send(Reminder reminder) throws Exception;
+}
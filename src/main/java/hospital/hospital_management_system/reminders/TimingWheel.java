@@ -0,0 +1,143 @@
+package hospital.hospital_management_system.reminders;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: four wheels of 64 slots, where a slot of wheel n spans 64^n ticks,
+ * so with one-second ticks the wheels reach about 194 days. An entry sits in the wheel its
+ * deadline falls in and moves down a wheel each time the wheel below completes a turn; later
+ * deadlines wait in the furthest slot and are placed again from there. Slots are intrusive
+ * doubly linked lists, so adding and cancelling are O(1) and advancing one tick costs only what
+ * is due or moves down. Not thread-safe.
+ */
+final class TimingWheel<E extends TimingWheel.Entry> {
+
+    /**
+     * Something that can be scheduled. One instance is in the wheel at most once.
+     */
+    static class Entry {
+        private long deadline;
+        private Entry prev;
+        private Entry next;
+        private int slot = -1;
+
+        final long deadline() {
+            return deadline;
+        }
+
+        final boolean isScheduled() {
+            return slot >= 0;
+        }
+    }
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long RANGE = 1L << (BITS * LEVELS);
+
+    private final Entry[] slots = new Entry[LEVELS * SLOTS];
+    private long tick;
+    private int size;
+
+    TimingWheel(long startTick) {
+        this.tick = startTick;
+    }
+
+    long currentTick() {
+        return tick;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Schedules {@code entry} for {@code deadline}, or for the next tick if that has passed.
+     * An entry already in the wheel is moved.
+     */
+    void add(E entry, long deadline) {
+        Entry node = entry;
+        if (node.isScheduled()) {
+            unlink(node);
+            size--;
+        }
+        node.deadline = Math.max(deadline, tick + 1);
+        place(node);
+        size++;
+    }
+
+    /**
+     * Takes {@code entry} out of the wheel; false if it was not in it.
+     */
+    boolean cancel(E entry) {
+        if (!entry.isScheduled()) {
+            return false;
+        }
+        unlink(entry);
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the wheel forward to {@code target}, handing every entry that comes due to
+     * {@code expired} in deadline order. The entry is out of the wheel by then and may be added
+     * again.
+     */
+    @SuppressWarnings("unchecked")
+    void advanceTo(long target, Consumer<? super E> expired) {
+        while (tick < target) {
+            tick++;
+            // Bring the next turn of each wheel down once the wheel below it has come round
+            for (int level = 1; level < LEVELS && (tick & ((1L << (BITS * level)) - 1)) == 0; level++) {
+                int index = level * SLOTS + (int) ((tick >>> (BITS * level)) & MASK);
+                Entry entry;
+                while ((entry = slots[index]) != null) {
+                    unlink(entry);
+                    place(entry);
+                }
+            }
+            // Taken one at a time from the head, so that the callback may cancel or move any
+            // other entry, including one still waiting in this slot
+            int index = (int) (tick & MASK);
+            Entry entry;
+            while ((entry = slots[index]) != null) {
+                unlink(entry);
+                size--;
+                expired.accept((E) entry);
+            }
+        }
+    }
+
+    private void place(Entry entry) {
+        long delta = entry.deadline - tick;
+        long at = delta < RANGE ? entry.deadline : tick + RANGE - 1;
+        int level = 0;
+        while (level < LEVELS - 1 && Math.max(delta, 0) >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+        int index = delta <= 0
+                ? (int) (tick & MASK)
+                : level * SLOTS + (int) ((at >>> (BITS * level)) & MASK);
+        entry.slot = index;
+        entry.prev = null;
+        entry.next = slots[index];
+        if (entry.next != null) {
+            entry.next.prev = entry;
+        }
+        slots[index] = entry;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            slots[entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = entry.next = null;
+        entry.slot = -1;
+    }
+}
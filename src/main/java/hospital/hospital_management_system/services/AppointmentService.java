@@ -1,8 +1,14 @@
 package hospital.hospital_management_system.services;
 
 import hospital.hospital_management_system.dao.AppointmentDAO;
+import hospital.hospital_management_system.dashboard.OperationsMetrics;
 import hospital.hospital_management_system.model.Appointment;
+import hospital.hospital_management_system.model.AppointmentSummary;
+import hospital.hospital_management_system.reminders.ReminderScheduler;
+import hospital.hospital_management_system.utils.Resilience;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public class AppointmentService {
@@ -22,11 +28,40 @@ public class AppointmentService {
             throw new IllegalArgumentException("Appointment date is required");
         }
 
-        appointmentDAO.add(appointment);
+        appointmentDAO.addAppointment(appointment);
+        ReminderScheduler.scheduled(appointment);
+        DoctorAssignmentService.changed(appointment);
+        TimelineService.patientChanged(appointment.getPatientId());
+        if (appointment.getAppointmentId() != null) {
+            OperationsMetrics.appointment(appointment.getAppointmentId(), appointment.getAppointmentDate(), appointment.getStatus());
+        }
     }
 
     public List<Appointment> getAll() {
-        return appointmentDAO.findAll();
+        return Resilience.retry(appointmentDAO::findAll);
+    }
+
+    public List<AppointmentSummary> getScheduleForDay(LocalDate day) {
+        if (day == null) {
+            throw new IllegalArgumentException("Day cannot be null");
+        }
+        return Resilience.retry(() -> appointmentDAO.findSummariesBetween(day.atStartOfDay(), day.plusDays(1).atStartOfDay()));
+    }
+
+    public void reschedule(Long appointmentId, LocalDateTime appointmentDate) {
+        if (appointmentId == null) {
+            throw new IllegalArgumentException("Appointment ID cannot be null");
+        }
+        if (appointmentDate == null) {
+            throw new IllegalArgumentException("Appointment date is required");
+        }
+        Appointment appointment = appointmentDAO.reschedule(appointmentId, appointmentDate);
+        if (appointment != null) {
+            ReminderScheduler.scheduled(appointment);
+            DoctorAssignmentService.changed(appointment);
+            TimelineService.patientChanged(appointment.getPatientId());
+            OperationsMetrics.appointment(appointmentId, appointment.getAppointmentDate(), appointment.getStatus());
+        }
     }
 
     public void cancel(Long appointmentId) {
@@ -34,6 +69,10 @@ public class AppointmentService {
             throw new IllegalArgumentException("Appointment ID cannot be null");
         }
         appointmentDAO.updateStatus(appointmentId, "Cancelled");
+        ReminderScheduler.cancelled(appointmentId);
+        DoctorAssignmentService.released(appointmentId);
+        TimelineService.appointmentChanged(appointmentId);
+        OperationsMetrics.appointment(appointmentId, null, "Cancelled");
     }
 
     public void complete(Long appointmentId) {
@@ -41,12 +80,31 @@ public class AppointmentService {
             throw new IllegalArgumentException("Appointment ID cannot be null");
         }
         appointmentDAO.updateStatus(appointmentId, "Completed");
+        ReminderScheduler.cancelled(appointmentId);
+        DoctorAssignmentService.released(appointmentId);
+        TimelineService.appointmentChanged(appointmentId);
+        OperationsMetrics.appointment(appointmentId, null, "Completed");
+    }
+
+    public void markNoShow(Long appointmentId) {
+        if (appointmentId == null) {
+            throw new IllegalArgumentException("Appointment ID cannot be null");
+        }
+        appointmentDAO.updateStatus(appointmentId, "No-show");
+        ReminderScheduler.cancelled(appointmentId);
+        DoctorAssignmentService.released(appointmentId);
+        TimelineService.appointmentChanged(appointmentId);
+        OperationsMetrics.appointment(appointmentId, null, "No-show");
     }
 
     public void delete(Long appointmentId) {
         if (appointmentId == null) {
             throw new IllegalArgumentException("Appointment ID cannot be null");
         }
-        appointmentDAO.delete(appointmentId);
+        appointmentDAO.deleteAppointment(appointmentId);
+        ReminderScheduler.cancelled(appointmentId);
+        DoctorAssignmentService.released(appointmentId);
+        TimelineService.appointmentChanged(appointmentId);
+        OperationsMetrics.appointmentDeleted(appointmentId);
     }
 }
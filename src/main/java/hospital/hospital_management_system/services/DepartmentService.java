@@ -2,15 +2,22 @@ package hospital.hospital_management_system.services;
 
 import hospital.hospital_management_system.dao.DepartmentDAO;
 import hospital.hospital_management_system.model.Department;
+import hospital.hospital_management_system.utils.Log;
+import hospital.hospital_management_system.utils.Resilience;
+import hospital.hospital_management_system.utils.TransientDataAccessException;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public class DepartmentService {
+    private static final Log log = Log.get(DepartmentService.class);
     private DepartmentDAO departmentDAO = new DepartmentDAO();
-    private Map<Long, Department> departmentCache = new HashMap<>();
+    // Shared by every instance so the startup snapshot (ReferenceDataSync) warms all screens
+    private static final Map<Long, Department> departmentCache = new ConcurrentHashMap<>();
 
     public void addDepartment(Department department) {
         departmentDAO.addDepartment(department);
@@ -25,22 +32,44 @@ public class DepartmentService {
     }
 
     public Department getDepartmentsById(Long id) {
+        if (id == null) {
+            return null;
+        }
         if (departmentCache.containsKey(id)) {
             return departmentCache.get(id);
         }
-        Department dept = departmentDAO.getDepartmentsById(id);
+        Department dept = Resilience.retry(() -> departmentDAO.getDepartmentsById(id));
         if (dept != null) departmentCache.put(dept.getDeptId(), dept);
         return dept;
     }
 
     public List<Department> getAllDepartments() {
-        List<Department> departments = departmentDAO.getAllDepartments();
+        // Served from the cache once it holds every row, after merging what changed since
+        if (ReferenceDataSync.syncForRead()) {
+            return cachedDepartments();
+        }
+        List<Department> departments;
+        try {
+            departments = Resilience.retry(departmentDAO::getAllDepartments);
+        } catch (TransientDataAccessException e) {
+            if (departmentCache.isEmpty()) {
+                throw e;
+            }
+            log.warn("Database unavailable, listing cached departments: {}", e.getMessage());
+            return cachedDepartments();
+        }
         for (Department dept : departments) {
             departmentCache.put(dept.getDeptId(), dept);
         }
         return departments;
     }
 
+    private static List<Department> cachedDepartments() {
+        List<Department> departments = new ArrayList<>(departmentCache.values());
+        departments.sort(Comparator.comparing(Department::getDeptId));
+        return departments;
+    }
+
     public void updateDepartment(Department dept) {
         departmentDAO.updateDepartment(dept);
         departmentCache.put(dept.getDeptId(), dept);
@@ -52,4 +81,8 @@ public class DepartmentService {
     public  void clearCache(){
         departmentCache.clear();
     }
+
+    static Map<Long, Department> cache() {
+        return departmentCache;
+    }
 }
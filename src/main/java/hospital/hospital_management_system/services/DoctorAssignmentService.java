@@ -0,0 +1,279 @@
+package hospital.hospital_management_system.services;
+
+import hospital.hospital_management_system.dao.AppointmentDAO;
+import hospital.hospital_management_system.model.Appointment;
+import hospital.hospital_management_system.model.Doctor;
+import hospital.hospital_management_system.utils.DataAccessException;
+import hospital.hospital_management_system.utils.EnvLoader;
+import hospital.hospital_management_system.utils.Log;
+import hospital.hospital_management_system.utils.Resilience;
+import hospital.hospital_management_system.utils.UnitOfWork;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks the doctor for a new appointment: of the doctors in a specialization or department who
+ * have nothing booked in the requested slot, the one with the fewest appointments on those days,
+ * then the fewest upcoming overall.
+ * <p>
+ * Picks are answered from per-doctor counters kept in memory: loaded once from the scheduled
+ * appointments of the next DB__DOCTOR_LOAD_DAYS (default 365), then kept current by
+ * {@link AppointmentService} reporting each booking, move and cancellation as it commits.
+ * Bookings made on other workstations are picked up by reloading every
+ * DB__DOCTOR_LOAD_REFRESH_MINUTES (default 10).
+ */
+public final class DoctorAssignmentService {
+
+    private static final Log log = Log.get(DoctorAssignmentService.class);
+
+    private static final long LOAD_DAYS = Long.parseLong(EnvLoader.get("DB__DOCTOR_LOAD_DAYS", "365"));
+    private static final long REFRESH_MINUTES = Long.parseLong(EnvLoader.get("DB__DOCTOR_LOAD_REFRESH_MINUTES", "10"));
+
+    private static final String SCHEDULED = "Scheduled";
+
+    /**
+     * Scheduled appointments of one doctor: how many start at each time and on each day.
+     */
+    private static final class DoctorLoad {
+        final TreeMap<LocalDateTime, Integer> starts = new TreeMap<>();
+        final Map<LocalDate, Integer> perDay = new HashMap<>();
+        int upcoming;
+
+        void add(LocalDateTime at, int delta) {
+            starts.merge(at, delta, (a, b) -> a + b == 0 ? null : a + b);
+            perDay.merge(at.toLocalDate(), delta, (a, b) -> a + b == 0 ? null : a + b);
+            upcoming += delta;
+        }
+
+        int onDays(LocalDate first, LocalDate last) {
+            int count = 0;
+            for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+                count += perDay.getOrDefault(day, 0);
+            }
+            return count;
+        }
+    }
+
+    private record Booking(long doctorId, LocalDateTime at) {}
+
+    // The state below is guarded by LOCK; a pick holds it for a few microseconds. Reloads
+    // take RELOAD first, one at a time
+    private static final Object LOCK = new Object();
+    private static final Object RELOAD = new Object();
+    private static volatile Map<Long, DoctorLoad> loads;   // null until loaded
+    private static Map<Long, Booking> bookings;
+    private static List<Appointment> changedWhileLoading;  // non-null while a reload runs
+
+    private static final AppointmentDAO appointmentDAO = new AppointmentDAO();
+    private static ScheduledExecutorService scheduler;
+
+    private final DoctorService doctorService;
+
+    public DoctorAssignmentService() {
+        this(new DoctorService());
+    }
+
+    public DoctorAssignmentService(DoctorService doctorService) {
+        this.doctorService = doctorService;
+    }
+
+    /**
+     * Loads the counters and keeps reloading them in the background. Picks before the first
+     * load completes load them on the spot; safe to call more than once.
+     */
+    public static synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "doctor-load");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                reload();
+            } catch (DataAccessException e) {
+                log.warn("Could not reload doctor workloads, keeping the current counts: {}", e.getMessage());
+            }
+        }, 0, REFRESH_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * The least-loaded doctor whose specialization matches (as in
+     * {@link DoctorService#findDoctorsBySpecialization}) and who is free from {@code from} to
+     * {@code to}; null if none is.
+     */
+    public Doctor assignBySpecialization(String specialization, LocalDateTime from, LocalDateTime to) {
+        if (specialization == null || specialization.isBlank()) {
+            throw new IllegalArgumentException("Specialization is required");
+        }
+        return leastLoaded(doctorService.findDoctorsBySpecialization(specialization), from, to);
+    }
+
+    /**
+     * The least-loaded doctor of a department who is free from {@code from} to {@code to}; null
+     * if none is.
+     */
+    public Doctor assignByDepartment(Long deptId, LocalDateTime from, LocalDateTime to) {
+        if (deptId == null) {
+            throw new IllegalArgumentException("Department ID cannot be null");
+        }
+        return leastLoaded(doctorService.findDoctorsByDepartment(deptId), from, to);
+    }
+
+    /**
+     * Scheduled appointments of a doctor from {@code from} to {@code to}, counted by whole days.
+     */
+    public static int getLoad(long doctorId, LocalDateTime from, LocalDateTime to) {
+        ensureLoaded();
+        synchronized (LOCK) {
+            DoctorLoad load = loads.get(doctorId);
+            return load != null ? load.onDays(from.toLocalDate(), lastDay(from, to)) : 0;
+        }
+    }
+
+    private static Doctor leastLoaded(List<Doctor> doctors, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !to.isAfter(from)) {
+            throw new IllegalArgumentException("A time window with its end after its start is required");
+        }
+        LocalDate firstDay = from.toLocalDate();
+        LocalDate lastDay = lastDay(from, to);
+        Doctor best = null;
+        int bestDays = 0, bestUpcoming = 0;
+        ensureLoaded();
+        synchronized (LOCK) {
+            for (Doctor doctor : doctors) {
+                DoctorLoad load = loads.get(doctor.getDoctorId());
+                int days = 0, upcoming = 0;
+                if (load != null) {
+                    if (!load.starts.subMap(from, to).isEmpty()) {
+                        continue;   // already booked in the slot
+                    }
+                    days = load.onDays(firstDay, lastDay);
+                    upcoming = load.upcoming;
+                }
+                if (best == null || days < bestDays || days == bestDays && (upcoming < bestUpcoming
+                        || upcoming == bestUpcoming && doctor.getDoctorId() < best.getDoctorId())) {
+                    best = doctor;
+                    bestDays = days;
+                    bestUpcoming = upcoming;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * An appointment was booked or moved, or its status changed. Inside a UnitOfWork the
+     * counters change when it commits.
+     */
+    static void changed(Appointment appointment) {
+        if (appointment.getAppointmentId() != null) {
+            UnitOfWork.afterCommit(() -> {
+                synchronized (LOCK) {
+                    apply(appointment);
+                    if (changedWhileLoading != null) {
+                        changedWhileLoading.add(appointment);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * An appointment was cancelled, completed, marked as a no-show or deleted.
+     */
+    static void released(long appointmentId) {
+        Appointment gone = new Appointment();
+        gone.setAppointmentId(appointmentId);
+        changed(gone);
+    }
+
+    // Keyed by appointment, so applying the same change twice, or to counters loaded after it
+    // committed, changes nothing
+    private static void apply(Appointment appointment) {
+        if (loads == null) {
+            return;   // the first load will see it
+        }
+        long id = appointment.getAppointmentId();
+        Booking previous = bookings.remove(id);
+        if (previous != null) {
+            loads.get(previous.doctorId()).add(previous.at(), -1);
+        }
+        if (SCHEDULED.equals(appointment.getStatus()) && appointment.getDoctorId() != null
+                && appointment.getAppointmentDate() != null) {
+            Booking booking = new Booking(appointment.getDoctorId(), appointment.getAppointmentDate());
+            bookings.put(id, booking);
+            loads.computeIfAbsent(booking.doctorId(), d -> new DoctorLoad()).add(booking.at(), 1);
+        }
+    }
+
+    private static void ensureLoaded() {
+        if (loads == null) {
+            synchronized (RELOAD) {
+                if (loads == null) {
+                    reload();
+                }
+            }
+        }
+    }
+
+    // Counts from the start of today. Changes committed while the query runs may be missing
+    // from its result, so they are applied again on top of it
+    private static void reload() {
+        synchronized (RELOAD) {
+            synchronized (LOCK) {
+                changedWhileLoading = new ArrayList<>();
+            }
+            try {
+                load();
+            } finally {
+                synchronized (LOCK) {
+                    changedWhileLoading = null;
+                }
+            }
+        }
+    }
+
+    private static void load() {
+        LocalDateTime from = LocalDate.now().atStartOfDay();
+        List<Appointment> scheduled =
+                Resilience.retry(() -> appointmentDAO.findScheduledBetween(from, from.plusDays(LOAD_DAYS)));
+        Map<Long, DoctorLoad> newLoads = new HashMap<>();
+        Map<Long, Booking> newBookings = new HashMap<>(scheduled.size() * 2);
+        for (Appointment appointment : scheduled) {
+            if (appointment.getDoctorId() != null) {
+                Booking booking = new Booking(appointment.getDoctorId(), appointment.getAppointmentDate());
+                newBookings.put(appointment.getAppointmentId(), booking);
+                newLoads.computeIfAbsent(booking.doctorId(), d -> new DoctorLoad()).add(booking.at(), 1);
+            }
+        }
+        synchronized (LOCK) {
+            boolean first = loads == null;
+            loads = newLoads;
+            bookings = newBookings;
+            for (Appointment appointment : changedWhileLoading) {
+                apply(appointment);
+            }
+            if (first) {
+                log.info("Workloads of {} doctor(s) loaded from {} scheduled appointment(s)", loads.size(), bookings.size());
+            }
+        }
+    }
+
+    // The window ends just before 'to', so one ending at midnight does not count the next day
+    private static LocalDate lastDay(LocalDateTime from, LocalDateTime to) {
+        LocalDate last = to.minusNanos(1).toLocalDate();
+        return last.isBefore(from.toLocalDate()) ? from.toLocalDate() : last;
+    }
+}
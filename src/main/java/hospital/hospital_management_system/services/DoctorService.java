@@ -3,17 +3,31 @@ package hospital.hospital_management_system.services;
 import hospital.hospital_management_system.dao.DepartmentDAO;
 import hospital.hospital_management_system.dao.DoctorDAO;
 import hospital.hospital_management_system.model.Doctor;
+import hospital.hospital_management_system.model.DoctorSummary;
+import hospital.hospital_management_system.utils.Log;
+import hospital.hospital_management_system.utils.Resilience;
+import hospital.hospital_management_system.utils.TransientDataAccessException;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DoctorService {
-    private DoctorDAO doctorDAO = new DoctorDAO();
-    private final Map<Long, Doctor> doctorCache = new HashMap<>();
+    private static final Log log = Log.get(DoctorService.class);
+    private final DoctorDAO doctorDAO;
+    // Shared by every instance so the startup snapshot (ReferenceDataSync) warms all screens
+    private static final Map<Long, Doctor> doctorCache = new ConcurrentHashMap<>();
     private DepartmentDAO departmentDAO = new DepartmentDAO();
 
+    public DoctorService() {
+        this(new DoctorDAO());
+    }
+
+    public DoctorService(DoctorDAO doctorDAO) {
+        this.doctorDAO = doctorDAO;
+    }
+
     public void addDoctor(Doctor doctor){
         doctorDAO.addDoctor(doctor);
-        clearCache();
     }
 
     public void updateDoctor(Doctor doctor){
@@ -21,24 +35,90 @@ public class DoctorService {
         doctorCache.put(doctor.getDoctorId(),doctor);
     }
 
+    public Doctor getDoctorById(Long doctorId) {
+        if (doctorId == null) {
+            return null;
+        }
+        Doctor cached = doctorCache.get(doctorId);
+        if (cached != null) {
+            return cached;
+        }
+        Doctor doctor = Resilience.retry(() -> doctorDAO.findById(doctorId));
+        if (doctor != null) {
+            doctorCache.put(doctor.getDoctorId(), doctor);
+        }
+        return doctor;
+    }
+
     public List<Doctor> findDoctorsBySpecialization(String specialization){
-        List<Doctor> doctors = doctorDAO.findDoctorsBySpecialization(specialization);
+        List<Doctor> doctors = Resilience.retry(() -> doctorDAO.findDoctorsBySpecialization(specialization));
         for(Doctor d: doctors){
             doctorCache.put(d.getDoctorId(),d);
         }
      return  doctors;
     }
+
+    public List<Doctor> findDoctorsByDepartment(Long deptId) {
+        List<Doctor> doctors = Resilience.retry(() -> doctorDAO.findDoctorsByDepartment(deptId));
+        for (Doctor d : doctors) {
+            doctorCache.put(d.getDoctorId(), d);
+        }
+        return doctors;
+    }
     public List<Doctor> getAllDoctors(){
-        List<Doctor> doctors = doctorDAO.getAllDoctors();
+        // Served from the cache once it holds every row, after merging what changed since
+        if (ReferenceDataSync.syncForRead()) {
+            return sortDoctorsById(doctorCache.values());
+        }
+        List<Doctor> doctors;
+        try {
+            doctors = Resilience.retry(doctorDAO::getAllDoctors);
+        } catch (TransientDataAccessException e) {
+            if (doctorCache.isEmpty()) {
+                throw e;
+            }
+            log.warn("Database unavailable, listing cached doctors: {}", e.getMessage());
+            return sortDoctorsById(doctorCache.values());
+        }
         for (Doctor d: doctors){
             doctorCache.put(d.getDoctorId(),d);
         }
         return doctors;
 
     }
+    public List<DoctorSummary> getDoctorSummaries(){
+        try {
+            return Resilience.retry(doctorDAO::getDoctorSummaries);
+        } catch (TransientDataAccessException e) {
+            if (doctorCache.isEmpty()) {
+                throw e;
+            }
+            // Same order as the query: last name, then first name
+            log.warn("Database unavailable, listing cached doctors: {}", e.getMessage());
+            List<DoctorSummary> summaries = new ArrayList<>();
+            for (Doctor d : doctorCache.values()) {
+                summaries.add(new DoctorSummary(d.getDoctorId(), d.getFirstName(), d.getLastName(), d.getSpecialization()));
+            }
+            summaries.sort(Comparator.comparing(DoctorSummary::getLastName, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                    .thenComparing(DoctorSummary::getFirstName, Comparator.nullsFirst(Comparator.<String>naturalOrder())));
+            return summaries;
+        }
+    }
+    /**
+     * Picks up doctors changed or deleted elsewhere since the last sync; cheap enough to call
+     * on every list reload. Keeps the cached records if the database cannot be reached.
+     */
+    public void refreshCache() {
+        ReferenceDataSync.syncChangesIfIdle();
+    }
+
     public void clearCache() {
         doctorCache.clear();
     }
+
+    static Map<Long, Doctor> cache() {
+        return doctorCache;
+    }
     
     public void deleteDoctor(Long doctorId) {
         doctorDAO.deleteDoctor(doctorId);
@@ -64,7 +144,7 @@ public class DoctorService {
     /**
      * Sort doctors by ID (lowest to highest)
      */
-    public List<Doctor> sortDoctorsById(List<Doctor> doctors) {
+    public List<Doctor> sortDoctorsById(Collection<Doctor> doctors) {
         List<Doctor> sortedList = new ArrayList<>(doctors);
         
         Collections.sort(sortedList, new Comparator<Doctor>() {
@@ -0,0 +1,224 @@
+package hospital.hospital_management_system.services;
+
+import hospital.hospital_management_system.dao.PatientDAO;
+import hospital.hospital_management_system.export.CsvWriter;
+import hospital.hospital_management_system.model.DuplicateCandidate;
+import hospital.hospital_management_system.model.Patient;
+import hospital.hospital_management_system.utils.EnvLoader;
+import hospital.hospital_management_system.utils.Log;
+import hospital.hospital_management_system.utils.NameSimilarity;
+import hospital.hospital_management_system.utils.Resilience;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Finds patients registered more than once. Records are only compared within a block: the same
+ * date of birth (or with day and month swapped) and a first or last name with the same Soundex
+ * code, in either position, so swapped names and a misspelling of one name still meet. Within a
+ * block a pair is scored from the Jaro-Winkler similarity of the names, the date of birth, gender
+ * and phone number, and reported from DB__DUPLICATE_THRESHOLD (default 0.9) up.
+ * <p>
+ * {@link #findDuplicates(Patient)} checks one registration through the blocking indexes (V8);
+ * {@link #findAllDuplicates()} blocks the whole table in memory and scores the blocks in
+ * parallel, for the merge-candidate report written by {@link #main(String[])}. Blocks larger
+ * than DB__DUPLICATE_MAX_BLOCK (default 200) are skipped: a key that common says nothing about
+ * who is the same person.
+ */
+public class DuplicatePatientDetector {
+
+    private static final Log log = Log.get(DuplicatePatientDetector.class);
+
+    private static final double THRESHOLD = Double.parseDouble(EnvLoader.get("DB__DUPLICATE_THRESHOLD", "0.9"));
+    private static final int MAX_BLOCK = Integer.parseInt(EnvLoader.get("DB__DUPLICATE_MAX_BLOCK", "200"));
+
+    // Weights of the name, date of birth and gender agreement; they add up to 1
+    private static final double NAME_WEIGHT = 0.7, DOB_WEIGHT = 0.25, GENDER_WEIGHT = 0.05;
+
+    private static final Comparator<DuplicateCandidate> BY_SCORE =
+            Comparator.comparingDouble(DuplicateCandidate::getScore).reversed()
+                    .thenComparingLong(c -> c.getMatch().getPatientId())
+                    .thenComparingLong(c -> c.getPatient().getPatientId());
+
+    private final PatientDAO patientDAO;
+
+    public DuplicatePatientDetector() {
+        this(new PatientDAO());
+    }
+
+    public DuplicatePatientDetector(PatientDAO patientDAO) {
+        this.patientDAO = patientDAO;
+    }
+
+    /**
+     * Existing patients that are probably the same person as {@code patient}, best match first.
+     * One indexed query, so it can run on every registration.
+     */
+    public List<DuplicateCandidate> findDuplicates(Patient patient) {
+        List<Patient> candidates = Resilience.retry(() -> patientDAO.findDuplicateCandidates(patient, MAX_BLOCK));
+        List<DuplicateCandidate> duplicates = new ArrayList<>();
+        for (Patient candidate : candidates) {
+            double score = score(patient, candidate);
+            if (score >= THRESHOLD) {
+                duplicates.add(new DuplicateCandidate(patient, candidate, score));
+            }
+        }
+        duplicates.sort(BY_SCORE);
+        return duplicates;
+    }
+
+    /**
+     * Every pair of patients above the threshold, best first; the later registration of each
+     * pair is {@link DuplicateCandidate#getPatient()}.
+     */
+    public List<DuplicateCandidate> findAllDuplicates() {
+        return findDuplicates(Resilience.retry(patientDAO::getAllPatients));
+    }
+
+    static List<DuplicateCandidate> findDuplicates(List<Patient> patients) {
+        long start = System.nanoTime();
+        Map<String, List<Patient>> blocks = patients.parallelStream()
+                .filter(p -> p.getDob() != null)
+                .flatMap(p -> blockKeys(p, false).stream().map(key -> Map.entry(key, p)))
+                .collect(Collectors.groupingByConcurrent(Map.Entry::getKey,
+                        Collectors.mapping(Map.Entry::getValue, Collectors.toList())));
+
+        // Blocking is symmetric, so each pair is scored from its later registration only
+        Queue<DuplicateCandidate> found = new ConcurrentLinkedQueue<>();
+        Set<String> oversized = ConcurrentHashMap.newKeySet();
+        LongAdder comparisons = new LongAdder();
+        patients.parallelStream().filter(p -> p.getDob() != null).forEach(patient -> {
+            Set<Long> compared = new HashSet<>();
+            for (String key : blockKeys(patient, true)) {
+                List<Patient> block = blocks.get(key);
+                if (block == null) {
+                    continue;
+                }
+                if (block.size() > MAX_BLOCK) {
+                    oversized.add(key);
+                    continue;
+                }
+                for (Patient earlier : block) {
+                    if (earlier.getPatientId() >= patient.getPatientId() || !compared.add(earlier.getPatientId())) {
+                        continue;
+                    }
+                    double score = score(patient, earlier);
+                    if (score >= THRESHOLD) {
+                        found.add(new DuplicateCandidate(patient, earlier, score));
+                    }
+                }
+            }
+            comparisons.add(compared.size());
+        });
+
+        List<DuplicateCandidate> duplicates = new ArrayList<>(found);
+        duplicates.sort(BY_SCORE);
+        log.info("{} duplicate candidate(s) among {} patients in {} ms",
+                duplicates.size(), patients.size(), (System.nanoTime() - start) / 1_000_000);
+        log.debug("{} pairs compared", comparisons.sum());
+        if (!oversized.isEmpty()) {
+            log.warn("{} block(s) over {} patients skipped, e.g. {}", oversized.size(), MAX_BLOCK, oversized.iterator().next());
+        }
+        return duplicates;
+    }
+
+    // A patient is filed under its date of birth with the code of each name; probing also tries
+    // the date with day and month swapped. The same blocks PatientDAO.findDuplicateCandidates reads
+    private static Set<String> blockKeys(Patient patient, boolean probe) {
+        LocalDate dob = patient.getDob();
+        LocalDate[] dates = probe ? new LocalDate[]{dob, PatientDAO.swapDayAndMonth(dob)} : new LocalDate[]{dob};
+        Set<String> keys = new HashSet<>(4);
+        for (LocalDate date : dates) {
+            for (String name : new String[]{patient.getLastName(), patient.getFirstName()}) {
+                String code = NameSimilarity.soundex(name);
+                if (!code.isEmpty()) {
+                    keys.add(blockKey(date, code));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static String blockKey(LocalDate dob, String soundex) {
+        return dob + "|" + soundex;
+    }
+
+    /**
+     * How alike two patient records are, from 0 to 1. Names count in whichever order matches
+     * better. A different phone number counts for nothing, since people change numbers; the same
+     * one closes half of the remaining gap.
+     */
+    public static double score(Patient a, Patient b) {
+        double direct = (NameSimilarity.jaroWinkler(a.getFirstName(), b.getFirstName())
+                + NameSimilarity.jaroWinkler(a.getLastName(), b.getLastName())) / 2;
+        double swapped = (NameSimilarity.jaroWinkler(a.getFirstName(), b.getLastName())
+                + NameSimilarity.jaroWinkler(a.getLastName(), b.getFirstName())) / 2;
+
+        double dob = 0;
+        if (a.getDob() != null && b.getDob() != null) {
+            dob = a.getDob().equals(b.getDob()) ? 1.0 : PatientDAO.swapDayAndMonth(a.getDob()).equals(b.getDob()) ? 0.8 : 0.0;
+        }
+        double gender = a.getGender() != null && a.getGender().equalsIgnoreCase(b.getGender()) ? 1.0 : 0.0;
+
+        double score = NAME_WEIGHT * Math.max(direct, swapped) + DOB_WEIGHT * dob + GENDER_WEIGHT * gender;
+        if (samePhone(a.getContact_number(), b.getContact_number())) {
+            score += (1 - score) / 2;
+        }
+        return score;
+    }
+
+    // Compares the last nine digits, so 0788123456 and +250 788 123 456 are the same number
+    private static boolean samePhone(String a, String b) {
+        String x = lastDigits(a);
+        return x.length() >= 7 && x.equals(lastDigits(b));
+    }
+
+    private static String lastDigits(String phone) {
+        if (phone == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder();
+        for (int i = phone.length() - 1; i >= 0 && digits.length() < 9; i--) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    // Usage: DuplicatePatientDetector [report.csv]   (default merge-candidates.csv)
+    public static void main(String[] args) throws IOException {
+        Path out = Paths.get(args.length > 0 ? args[0] : "merge-candidates.csv");
+        List<DuplicateCandidate> duplicates = new DuplicatePatientDetector().findAllDuplicates();
+        try (FileChannel channel = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             CsvWriter csv = new CsvWriter(channel, "score", "patient_id", "first_name", "last_name", "dob",
+                     "match_id", "match_first_name", "match_last_name", "match_dob")) {
+            for (DuplicateCandidate d : duplicates) {
+                Patient p = d.getPatient();
+                Patient m = d.getMatch();
+                csv.writeRow(String.format(Locale.ROOT, "%.3f", d.getScore()),
+                        Long.toString(p.getPatientId()), p.getFirstName(), p.getLastName(), p.getDob().toString(),
+                        Long.toString(m.getPatientId()), m.getFirstName(), m.getLastName(), m.getDob().toString());
+            }
+        }
+        System.out.println(duplicates.size() + " merge candidate(s) written to " + out);
+    }
+}
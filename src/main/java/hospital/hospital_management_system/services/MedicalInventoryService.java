@@ -1,7 +1,10 @@
 package hospital.hospital_management_system.services;
 
 import hospital.hospital_management_system.dao.MedicalInventoryDAO;
+import hospital.hospital_management_system.dashboard.OperationsMetrics;
+import hospital.hospital_management_system.model.InventorySummary;
 import hospital.hospital_management_system.model.MedicalInventory;
+import hospital.hospital_management_system.utils.Resilience;
 
 import java.util.HashMap;
 import java.util.List;
@@ -15,27 +18,46 @@ public class MedicalInventoryService {
         inventoryDAO.addInventoryItem(item);
         if (item.getItemId() != null) {
             inventoryCache.put(item.getItemId(), item);
+            OperationsMetrics.stockChanged(item.getItemId(), item.getItemName(), item.getStockQuantity());
         }
     }
 
     public void updateInventoryItem(MedicalInventory item) {
         inventoryDAO.updateItem(item);
         inventoryCache.put(item.getItemId(), item);
+        OperationsMetrics.stockChanged(item.getItemId(), item.getItemName(), item.getStockQuantity());
     }
 
     public void deleteInventoryItem(Long itemId) {
         inventoryDAO.deleteInventoryItem(itemId);
         inventoryCache.remove(itemId);
+        OperationsMetrics.stockRemoved(itemId);
     }
 
     public List<MedicalInventory> getAllInventoryItems() {
-        List<MedicalInventory> items = inventoryDAO.findAll();
+        List<MedicalInventory> items = Resilience.retry(inventoryDAO::findAll);
         for (MedicalInventory item : items) {
             inventoryCache.put(item.getItemId(), item);
         }
         return items;
     }
 
+    public MedicalInventory getInventoryItemById(long itemId) {
+        MedicalInventory cached = inventoryCache.get(itemId);
+        if (cached != null) {
+            return cached;
+        }
+        MedicalInventory item = Resilience.retry(() -> inventoryDAO.findById(itemId));
+        if (item != null) {
+            inventoryCache.put(itemId, item);
+        }
+        return item;
+    }
+
+    public List<InventorySummary> getInventorySummaries() {
+        return Resilience.retry(inventoryDAO::findSummaries);
+    }
+
     public void clearCache() {
         inventoryCache.clear();
     }
@@ -0,0 +1,196 @@
+package hospital.hospital_management_system.services;
+
+import hospital.hospital_management_system.dao.PatientFeedbackDAO;
+import hospital.hospital_management_system.dashboard.OperationsMetrics;
+import hospital.hospital_management_system.dao.ReportDAO.Period;
+import hospital.hospital_management_system.model.PatientFeedback;
+import hospital.hospital_management_system.model.RatingStats;
+import hospital.hospital_management_system.utils.EnvLoader;
+import hospital.hospital_management_system.utils.Log;
+import hospital.hospital_management_system.utils.RatingAggregator;
+import hospital.hospital_management_system.utils.Resilience;
+import hospital.hospital_management_system.utils.TransientDataAccessException;
+import hospital.hospital_management_system.utils.UnitOfWork;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feedback plus satisfaction figures per day, week and month read from an in-memory
+ * {@link RatingAggregator} shared by all instances. It is loaded from feedback_rating_daily
+ * (one row per day, maintained by triggers, so it survives restarts without rescanning
+ * patient_feedback), updated on each add and delete made here, and reloaded every
+ * DB__FEEDBACK_STATS_RELOAD_SECONDS to pick up other workstations' writes.
+ */
+public class PatientFeedbackService {
+
+    private static final Log log = Log.get(PatientFeedbackService.class);
+
+    private static final long RELOAD_NANOS =
+            TimeUnit.SECONDS.toNanos(Long.parseLong(EnvLoader.get("DB__FEEDBACK_STATS_RELOAD_SECONDS", "60")));
+
+    // Guards the fields below; held only to update or swap the counts, never across database I/O.
+    // A reload builds a new aggregator from the database and swaps it in only if no write here
+    // overlapped its read, since such a write may or may not be in what was read
+    private static final Object LOCK = new Object();
+    private static volatile RatingAggregator ratings;   // null until first loaded
+    private static long loadedAtNanos;
+    private static boolean stale;         // reload on the next read
+    private static long writeVersion;     // bumped as each write starts and ends
+    private static int writesInFlight;
+
+    private final PatientFeedbackDAO feedbackDAO;
+
+    public PatientFeedbackService() {
+        this(new PatientFeedbackDAO());
+    }
+
+    public PatientFeedbackService(PatientFeedbackDAO feedbackDAO) {
+        this.feedbackDAO = feedbackDAO;
+    }
+
+    public boolean addFeedback(PatientFeedback feedback) {
+        writeStarted();
+        boolean added = false;
+        try {
+            added = feedbackDAO.addFeedback(feedback);
+            return added;
+        } finally {
+            writeFinished(added ? feedback : null, 1);
+        }
+    }
+
+    public boolean deleteFeedback(Long feedbackId) {
+        writeStarted();
+        PatientFeedback deleted = null;
+        try {
+            deleted = feedbackDAO.deleteFeedback(feedbackId);
+            return deleted != null;
+        } finally {
+            writeFinished(deleted, -1);
+        }
+    }
+
+    public PatientFeedback getFeedbackById(Long feedbackId) {
+        return Resilience.retry(() -> feedbackDAO.findById(feedbackId));
+    }
+
+    public List<PatientFeedback> getFeedbackByPatient(Long patientId) {
+        return Resilience.retry(() -> feedbackDAO.findByPatient(patientId));
+    }
+
+    public List<PatientFeedback> getAllFeedback() {
+        return Resilience.retry(feedbackDAO::findAll);
+    }
+
+    public RatingStats getDailyRatings(LocalDate day) {
+        return current().getDay(day);
+    }
+
+    /**
+     * Ratings for the Monday-to-Sunday week containing {@code day}.
+     */
+    public RatingStats getWeeklyRatings(LocalDate day) {
+        return current().getWeek(day);
+    }
+
+    public RatingStats getMonthlyRatings(YearMonth month) {
+        return current().getMonth(month);
+    }
+
+    /**
+     * Weeks or months overlapping [from, to) that received ratings, oldest first.
+     */
+    public List<RatingStats> getRatingTrend(Period period, LocalDate from, LocalDate to) {
+        return current().getTrend(period == Period.MONTH, from, to);
+    }
+
+    /**
+     * Replaces the in-memory counts with the persisted ones.
+     */
+    public void reloadRatings() {
+        long version;
+        synchronized (LOCK) {
+            version = writeVersion;
+        }
+        List<RatingStats> days = Resilience.retry(feedbackDAO::findDailyRatingCounts);
+        RatingAggregator loaded = new RatingAggregator();
+        for (RatingStats day : days) {
+            for (int rating = 1; rating <= 5; rating++) {
+                int count = day.getCount(rating);
+                if (count != 0) {
+                    loaded.add(day.getPeriodStart(), rating, count);
+                }
+            }
+        }
+        synchronized (LOCK) {
+            boolean raced = writeVersion != version || writesInFlight > 0;
+            if (!raced || ratings == null) {
+                ratings = loaded;
+            }
+            // After a race the counts kept were updated write by write; check them on the next read
+            stale = raced;
+            loadedAtNanos = System.nanoTime();
+        }
+    }
+
+    private RatingAggregator current() {
+        boolean due;
+        synchronized (LOCK) {
+            due = ratings == null || stale || System.nanoTime() - loadedAtNanos >= RELOAD_NANOS;
+        }
+        if (due) {
+            try {
+                reloadRatings();
+            } catch (TransientDataAccessException e) {
+                if (ratings == null) {
+                    throw e;
+                }
+                // Database down: keep answering from the counts already held
+                log.warn("Rating reload failed, serving the previous counts: {}", e.getMessage());
+            }
+        }
+        return ratings;
+    }
+
+    private static void writeStarted() {
+        synchronized (LOCK) {
+            writeVersion++;
+            writesInFlight++;
+        }
+    }
+
+    // Ends a write begun with writeStarted; feedback is what was added or deleted, or null
+    private static void writeFinished(PatientFeedback feedback, int delta) {
+        boolean inTransaction = UnitOfWork.isActive();
+        synchronized (LOCK) {
+            writeVersion++;
+            writesInFlight--;
+            if (feedback != null) {
+                if (inTransaction) {
+                    // The enclosing transaction may still roll back; take the committed counts next read
+                    stale = true;
+                } else if (ratings != null) {
+                    ratings.add(feedback.getFeedbackDate(), feedback.getRating(), delta);
+                }
+            }
+        }
+        if (feedback == null) {
+            return;
+        }
+        if (inTransaction) {
+            // A reload between this write and the commit would not have seen it
+            UnitOfWork.afterCommit(PatientFeedbackService::markStale);
+        }
+        OperationsMetrics.ratingChanged(feedback.getRating(), delta);
+        TimelineService.patientChanged(feedback.getPatientId());
+    }
+
+    private static void markStale() {
+        synchronized (LOCK) {
+            stale = true;
+        }
+    }
+}
@@ -1,60 +1,208 @@
 package hospital.hospital_management_system.services;
 
 import hospital.hospital_management_system.dao.PatientDAO;
+import hospital.hospital_management_system.dashboard.OperationsMetrics;
+import hospital.hospital_management_system.model.DuplicateCandidate;
 import hospital.hospital_management_system.model.Patient;
+import hospital.hospital_management_system.model.PatientSummary;
+import hospital.hospital_management_system.reminders.ReminderScheduler;
+import hospital.hospital_management_system.utils.EnvLoader;
+import hospital.hospital_management_system.utils.Log;
+import hospital.hospital_management_system.utils.Resilience;
+import hospital.hospital_management_system.utils.TransientDataAccessException;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.function.LongPredicate;
 
 public class PatientService {
 
-    private final PatientDAO patientDAO = new PatientDAO();
-    private final Map<Long, Patient> patientCache = new HashMap<>();
+    private static final Log log = Log.get(PatientService.class);
+
+    private static final int CACHE_PATIENTS = Integer.parseInt(EnvLoader.get("DB__PATIENT_CACHE_SIZE", "1000"));
+
+    private final PatientDAO patientDAO;
+    private final DuplicatePatientDetector duplicateDetector;
+    // The DB__PATIENT_CACHE_SIZE (default 1000) patients looked up most recently, shared by every
+    // instance; the rest are decoded from the snapshot (ReferenceDataSync) when looked up.
+    // Callers only ever get copies: a record edited in a form must not change the cache unless
+    // the update is saved. Guarded by itself
+    private static final Map<Long, Patient> patientCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Patient> eldest) {
+            return size() > CACHE_PATIENTS;
+        }
+    };
+
+    public PatientService() {
+        this(new PatientDAO());
+    }
+
+    public PatientService(PatientDAO patientDAO) {
+        this.patientDAO = patientDAO;
+        this.duplicateDetector = new DuplicatePatientDetector(patientDAO);
+    }
 
     public List<Patient> searchPatientByLastName(String lastName) {
-        List<Patient> patients = patientDAO.searchPatientByLastName(lastName);
+        List<Patient> patients = Resilience.retry(() -> patientDAO.searchPatientByLastName(lastName));
         for (Patient p : patients) {
-            patientCache.put(p.getPatientId(), p);
+            cache(p);
         }
         return patients;
     }
 
     public Patient getPatientById(long patientId) {
-        if (patientCache.containsKey(patientId)) {
-            return patientCache.get(patientId);
+        Patient cached;
+        synchronized (patientCache) {
+            cached = patientCache.get(patientId);
+        }
+        if (cached != null) {
+            return copyOf(cached);
+        }
+        Patient patient = ReferenceDataSync.snapshotPatient(patientId);
+        if (patient == null) {
+            patient = Resilience.retry(() -> patientDAO.searchPatientById(patientId));
         }
-        Patient patient = patientDAO.searchPatientById(patientId);
         if (patient != null) {
-            patientCache.put(patientId, patient);
+            cache(patient);
         }
         return patient;
     }
 
+    /**
+     * Existing patients that are probably the same person as one about to be registered (or
+     * edited), best match first. Empty when there is nothing to warn about.
+     */
+    public List<DuplicateCandidate> findPossibleDuplicates(Patient patient) {
+        return duplicateDetector.findDuplicates(patient);
+    }
+
     public void addPatient(Patient patient) {
         patientDAO.addPatient(patient);
-        clearCache(); // DB generates ID → reload later
+        // The DB generates the ID; the row reaches the cache on its first lookup or the next sync
     }
 
     public void updatePatient(Patient patient) {
         patientDAO.updatePatient(patient);
-        patientCache.put(patient.getPatientId(), patient);
+        cache(patient);
     }
 
     public void deletePatient(long patientId) {
-        patientDAO.deletePatient(patientId);
-        patientCache.remove(patientId);
+        List<Long> appointments = patientDAO.deletePatient(patientId);
+        uncache(patientId);
+        ReferenceDataSync.forgetPatient(patientId);
+        TimelineService.patientChanged(patientId);
+        // Its appointments were deleted with it
+        for (long appointmentId : appointments) {
+            ReminderScheduler.cancelled(appointmentId);
+            DoctorAssignmentService.released(appointmentId);
+            OperationsMetrics.appointmentDeleted(appointmentId);
+        }
     }
 
     public List<Patient> getAllPatients() {
-        List<Patient> patients = patientDAO.getAllPatients();
+        List<Patient> patients = Resilience.retry(patientDAO::getAllPatients);
         for (Patient p : patients) {
-            patientCache.put(p.getPatientId(), p);
+            cache(p);
         }
         return patients;
     }
 
+    // Summaries are not cached; the full record is fetched through getPatientById on selection
+    public List<PatientSummary> getPatientSummaries() {
+        try {
+            return Resilience.retry(patientDAO::getPatientSummaries);
+        } catch (TransientDataAccessException e) {
+            return knownSummaries(null, e);
+        }
+    }
+
+    public List<PatientSummary> searchPatientSummariesByLastName(String lastName) {
+        try {
+            return Resilience.retry(() -> patientDAO.searchPatientSummariesByLastName(lastName));
+        } catch (TransientDataAccessException e) {
+            return knownSummaries(lastName, e);
+        }
+    }
+
+    // While the database is down, lists what the cache and the snapshot hold, matching the
+    // last name the way the query does (case-insensitive substring)
+    private static List<PatientSummary> knownSummaries(String lastName, TransientDataAccessException e) {
+        String needle = lastName != null ? lastName.toLowerCase(Locale.ROOT) : null;
+        List<PatientSummary> summaries = new ArrayList<>();
+        for (Patient p : ReferenceDataSync.knownPatients()) {
+            if (needle == null || (p.getLastName() != null && p.getLastName().toLowerCase(Locale.ROOT).contains(needle))) {
+                summaries.add(new PatientSummary(p.getPatientId(), p.getFirstName(), p.getLastName(), p.getDob(),
+                        p.getGender(), p.getContact_number()));
+            }
+        }
+        if (summaries.isEmpty() && needle == null) {
+            throw e;
+        }
+        log.warn("Database unavailable, listing {} patient(s) from the local copy: {}", summaries.size(), e.getMessage());
+        return summaries;
+    }
+
+    /**
+     * Picks up patients changed or deleted elsewhere since the last sync; cheap enough to call
+     * on every list reload. Keeps the cached records if the database cannot be reached.
+     */
+    public void refreshCache() {
+        ReferenceDataSync.syncChangesIfIdle();
+    }
+
     public void clearCache() {
-        patientCache.clear();
+        synchronized (patientCache) {
+            patientCache.clear();
+        }
+    }
+
+    private static void cache(Patient patient) {
+        Patient copy = copyOf(patient);
+        synchronized (patientCache) {
+            patientCache.put(copy.getPatientId(), copy);
+        }
+    }
+
+    // Replaces the cached record with one read by a sync; patients not cached stay out
+    static void refreshCached(Patient patient) {
+        synchronized (patientCache) {
+            patientCache.replace(patient.getPatientId(), patient);
+        }
+    }
+
+    static boolean uncache(long patientId) {
+        synchronized (patientCache) {
+            return patientCache.remove(patientId) != null;
+        }
+    }
+
+    // Drops the cached patients whose ids stillExists rejects; returns how many
+    static int uncacheUnless(LongPredicate stillExists) {
+        int removed = 0;
+        synchronized (patientCache) {
+            for (Iterator<Long> it = patientCache.keySet().iterator(); it.hasNext(); ) {
+                if (!stillExists.test(it.next())) {
+                    it.remove();
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    static List<Patient> cachedPatients() {
+        synchronized (patientCache) {
+            return new ArrayList<>(patientCache.values());
+        }
+    }
+
+    private static Patient copyOf(Patient p) {
+        return new Patient(p.getPatientId(), p.getFirstName(), p.getLastName(), p.getDob(), p.getGender(),
+                p.getContact_number(), p.getAddress());
     }
 }
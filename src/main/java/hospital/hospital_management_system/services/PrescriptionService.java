@@ -0,0 +1,67 @@
+package hospital.hospital_management_system.services;
+
+import hospital.hospital_management_system.dao.MedicalInventoryDAO;
+import hospital.hospital_management_system.dashboard.OperationsMetrics;
+import hospital.hospital_management_system.dao.PrescriptionDAO;
+import hospital.hospital_management_system.dao.PrescriptionItemDAO;
+import hospital.hospital_management_system.model.PrescriptionItems;
+import hospital.hospital_management_system.model.Prescriptions;
+import hospital.hospital_management_system.utils.DataAccessException;
+import hospital.hospital_management_system.utils.Resilience;
+import hospital.hospital_management_system.utils.UnitOfWork;
+
+import java.sql.SQLException;
+import java.util.List;
+
+public class PrescriptionService {
+
+    private final PrescriptionDAO prescriptionDAO = new PrescriptionDAO();
+    private final PrescriptionItemDAO prescriptionItemDAO = new PrescriptionItemDAO();
+    private final MedicalInventoryDAO inventoryDAO = new MedicalInventoryDAO();
+
+    /**
+     * Writes the prescription, its items and the stock changes in one transaction: either all
+     * of it is committed or none of it. Returns false if nothing was saved because an item is
+     * short of stock; a database failure throws a DataAccessException.
+     */
+    public boolean createPrescription(Prescriptions prescription, List<PrescriptionItems> items) {
+        if (prescription == null || prescription.getAppointmentId() == null) {
+            throw new IllegalArgumentException("Prescription must belong to an appointment");
+        }
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Prescription needs at least one item");
+        }
+
+        try (UnitOfWork work = UnitOfWork.begin()) {
+            if (!prescriptionDAO.addPrescription(prescription)) {
+                return false;
+            }
+            for (PrescriptionItems item : items) {
+                item.setPrescription(prescription);
+            }
+            prescriptionItemDAO.addPrescriptionItems(items);
+            if (!inventoryDAO.dispenseStock(items)) {
+                prescription.setPrescriptionId(null); // the generated id is rolled back too
+                return false;
+            }
+            OperationsMetrics.stockDispensed(items);   // on commit
+            TimelineService.appointmentChanged(prescription.getAppointmentId());
+            work.commit();
+            return true;
+        } catch (SQLException e) {
+            prescription.setPrescriptionId(null);
+            throw DataAccessException.translate("PrescriptionService.createPrescription", e);
+        } catch (DataAccessException e) {
+            prescription.setPrescriptionId(null);
+            throw e;
+        }
+    }
+
+    public Prescriptions getPrescriptionById(Long prescriptionId) {
+        return Resilience.retry(() -> prescriptionDAO.findById(prescriptionId));
+    }
+
+    public List<PrescriptionItems> getItems(Long prescriptionId) {
+        return Resilience.retry(() -> prescriptionItemDAO.findByPrescription(prescriptionId));
+    }
+}
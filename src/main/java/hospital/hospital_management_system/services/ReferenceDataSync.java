@@ -0,0 +1,431 @@
+package hospital.hospital_management_system.services;
+
+import hospital.hospital_management_system.dao.ChangeTrackingDAO;
+import hospital.hospital_management_system.dao.DepartmentDAO;
+import hospital.hospital_management_system.dao.DoctorDAO;
+import hospital.hospital_management_system.dao.PatientDAO;
+import hospital.hospital_management_system.model.Department;
+import hospital.hospital_management_system.model.Doctor;
+import hospital.hospital_management_system.model.Patient;
+import hospital.hospital_management_system.utils.DBConnection;
+import hospital.hospital_management_system.utils.EnvLoader;
+import hospital.hospital_management_system.utils.Log;
+import hospital.hospital_management_system.utils.PrivateFiles;
+import hospital.hospital_management_system.utils.UnitOfWork;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongPredicate;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Keeps a complete copy of the departments, doctors and patients in the database, and keeps it
+ * on disk ({@link SnapshotFile}) so the next start has it in milliseconds, even when the
+ * database is slow or down. Departments and doctors are held in the caches of their services;
+ * patients stay in the snapshot and only those looked up are cached by PatientService.
+ * <p>
+ * At startup {@link #warmUp()} opens the newest snapshot: departments and doctors go into the
+ * caches, patients are decoded from the mapped file on first lookup. {@link #start()} then syncs
+ * in the background every DB__SNAPSHOT_SECONDS (default 300, 0 disables both): rows whose
+ * updated_at is past the watermark are merged into the copy (patients are held until the next
+ * snapshot is written), rows with a tombstone past it are dropped, and a new snapshot is written
+ * if anything changed. The first sync without a
+ * snapshot, or one whose watermark is older than the tombstones are kept, loads everything.
+ * DepartmentService and DoctorService serve their lists from the caches through
+ * {@link #syncForRead()}. Snapshots are kept in DB__SNAPSHOT_DIR, by default
+ * ~/.hospital_management_system; each one is a new file, since a file that is still mapped
+ * cannot be replaced on Windows.
+ */
+public final class ReferenceDataSync {
+
+    private static final Log log = Log.get(ReferenceDataSync.class);
+
+    private static final long INTERVAL_SECONDS = Long.parseLong(EnvLoader.get("DB__SNAPSHOT_SECONDS", "300"));
+    private static final Path DIRECTORY = Paths.get(EnvLoader.get("DB__SNAPSHOT_DIR",
+            Paths.get(System.getProperty("user.home"), ".hospital_management_system").toString()));
+    private static final String PREFIX = "reference-data-";
+    private static final String SUFFIX = ".snapshot";
+
+    // A row committed by a transaction that began before the last sync carries an updated_at
+    // older than the watermark; re-reading this far back picks it up
+    private static final Duration OVERLAP = Duration.ofMinutes(1);
+
+    // V6 prunes tombstones after 30 days; past this a delete may have gone unrecorded
+    private static final Duration TOMBSTONE_RETENTION = Duration.ofDays(29);
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+    private static final ChangeTrackingDAO changeDAO = new ChangeTrackingDAO();
+    private static final DepartmentDAO departmentDAO = new DepartmentDAO();
+    private static final DoctorDAO doctorDAO = new DoctorDAO();
+    private static final PatientDAO patientDAO = new PatientDAO();
+
+    private static volatile SnapshotFile snapshot;
+    // Patients read by a sync since the snapshot was written; written to the next one and dropped
+    private static final Map<Long, Patient> unsavedPatients = new ConcurrentHashMap<>();
+    private static volatile Instant watermark; // null until the caches and snapshot hold a complete copy
+    private static boolean unsaved;        // changed since the snapshot was last written
+    private static ScheduledExecutorService scheduler;
+
+    private ReferenceDataSync() {} // Prevent instantiation
+
+    public static boolean enabled() {
+        return INTERVAL_SECONDS > 0;
+    }
+
+    /**
+     * Opens the newest usable snapshot and fills the department and doctor caches from it.
+     * Returns how many records it holds (0 when there is none).
+     */
+    public static int warmUp() {
+        if (!enabled()) {
+            return 0;
+        }
+        LOCK.lock();
+        try {
+            for (Path file : snapshotFiles()) {
+                SnapshotFile opened = SnapshotFile.open(file, DBConnection.databaseKey());
+                if (opened == null) {
+                    continue;
+                }
+                Map<Long, Department> departments = DepartmentService.cache();
+                for (Department department : opened.departments()) {
+                    departments.put(department.getDeptId(), department);
+                }
+                Map<Long, Doctor> doctors = DoctorService.cache();
+                for (Doctor doctor : opened.doctors()) {
+                    doctors.put(doctor.getDoctorId(), doctor);
+                }
+                snapshot = opened;
+                watermark = opened.watermark();
+                return opened.departments().size() + opened.doctors().size() + opened.patientCount();
+            }
+        } catch (IOException e) {
+            log.warn("Could not read reference data snapshot in {}: {}", DIRECTORY, e.getMessage());
+        } finally {
+            LOCK.unlock();
+        }
+        return 0;
+    }
+
+    /**
+     * The patient as of the last sync, or null. PatientService caches what this returns.
+     */
+    static Patient snapshotPatient(long patientId) {
+        Patient unsaved = unsavedPatients.get(patientId);
+        if (unsaved != null) {
+            return unsaved;
+        }
+        SnapshotFile current = snapshot;
+        return current != null ? current.patient(patientId) : null;
+    }
+
+    /**
+     * Every patient held in memory or in the snapshot, in id order, for listing patients while
+     * the database cannot be reached. Decodes the whole snapshot, so only for that case.
+     */
+    static List<Patient> knownPatients() {
+        Map<Long, Patient> known = new HashMap<>(unsavedPatients);
+        for (Patient patient : PatientService.cachedPatients()) {
+            known.put(patient.getPatientId(), patient);
+        }
+        SnapshotFile current = snapshot;
+        long[] ids = current != null ? current.patientIds() : new long[0];
+        List<Patient> patients = new ArrayList<>(ids.length + known.size());
+        for (long id : ids) {
+            Patient patient = known.remove(id);
+            if (patient == null) {
+                patient = current.patient(id);
+            }
+            if (patient != null) {
+                patients.add(patient);
+            }
+        }
+        patients.addAll(known.values());
+        patients.sort(Comparator.comparingLong(Patient::getPatientId));
+        return patients;
+    }
+
+    /**
+     * Syncs now and then every DB__SNAPSHOT_SECONDS on a background thread.
+     */
+    public static synchronized void start() {
+        if (!enabled() || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "reference-data-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            if (sync() >= 0) {
+                saveIfChanged();
+            }
+        }, 0, INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Merges rows changed or deleted since the watermark into the caches. Returns the number of
+     * rows added, updated or removed, or -1 if the database could not be read (the caches are
+     * kept).
+     */
+    public static int sync() {
+        LOCK.lock();
+        try {
+            return syncLocked();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * As {@link #sync()}, but returns -1 straight away if a sync is already running (e.g. the
+     * initial full load) rather than making the caller wait for it, or if syncing is disabled.
+     */
+    public static int syncChangesIfIdle() {
+        if (!enabled() || !LOCK.tryLock()) {
+            return -1;
+        }
+        try {
+            return syncLocked();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Brings the caches up to date before a list is served from them. Returns false if they do
+     * not hold a complete copy yet, in which case the caller reads the table itself. If the
+     * database cannot be reached the caches are served as they are.
+     */
+    static boolean syncForRead() {
+        if (watermark == null) {
+            return false;
+        }
+        try {
+            // a sync already running finishes in milliseconds; the full load never gets here
+            if (LOCK.tryLock(1, TimeUnit.SECONDS)) {
+                try {
+                    syncLocked();
+                } finally {
+                    LOCK.unlock();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return true;
+    }
+
+    /**
+     * Drops a patient deleted through this application from the snapshot, so lookups stop
+     * finding it before the next sync.
+     */
+    static void forgetPatient(long patientId) {
+        unsavedPatients.remove(patientId);
+        SnapshotFile current = snapshot;
+        if (current != null) {
+            current.removePatient(patientId);
+        }
+    }
+
+    private static int syncLocked() {
+        boolean full = watermark == null || watermark.isBefore(Instant.now().minus(TOMBSTONE_RETENTION));
+        Instant since = full ? Instant.EPOCH : watermark.minus(OVERLAP);
+        Instant readAt;
+        List<Department> changedDepartments;
+        List<Doctor> changedDoctors;
+        List<Patient> changedPatients;
+        long[] deletedDepartments = null;
+        long[] deletedDoctors = null;
+        long[] deletedPatients = null;
+        // One REPEATABLE READ transaction: every query sees the database as of readAt
+        try (UnitOfWork work = UnitOfWork.begin()) {
+            readAt = changeDAO.beginConsistentRead();
+            changedDepartments = departmentDAO.findDepartmentsChangedSince(since);
+            changedDoctors = doctorDAO.findDoctorsChangedSince(since);
+            changedPatients = patientDAO.findPatientsChangedSince(since);
+            if (!full) {
+                deletedDepartments = changeDAO.findDeletedDepartmentIds(since);
+                deletedDoctors = changeDAO.findDeletedDoctorIds(since);
+                deletedPatients = changeDAO.findDeletedPatientIds(since);
+            }
+            work.commit();
+        } catch (SQLException e) {
+            log.warn("Reference data sync failed: {}", e.getMessage());
+            return -1;
+        }
+
+        Map<Long, Department> departments = DepartmentService.cache();
+        Map<Long, Doctor> doctors = DoctorService.cache();
+        SnapshotFile current = snapshot;
+        int changes = 0;
+        // Deletes first: an id deleted and then inserted again comes back with the changed rows
+        if (full) {
+            changes += removeMissing(departments, sortedIds(changedDepartments, Department::getDeptId))
+                    + removeMissing(doctors, sortedIds(changedDoctors, Doctor::getDoctorId));
+            long[] patientIds = sortedIds(changedPatients, Patient::getPatientId);
+            LongPredicate stillExists = id -> Arrays.binarySearch(patientIds, id) >= 0;
+            changes += PatientService.uncacheUnless(stillExists);
+            unsavedPatients.clear();
+            if (current != null) {
+                changes += current.removePatientsUnless(stillExists);
+            }
+        } else {
+            changes += remove(departments, deletedDepartments) + remove(doctors, deletedDoctors);
+            for (long id : deletedPatients) {
+                boolean removed = PatientService.uncache(id);
+                if (unsavedPatients.remove(id) != null) {
+                    removed = true;
+                }
+                if (current != null && current.removePatient(id)) {
+                    removed = true;
+                }
+                if (removed) {
+                    changes++;
+                }
+            }
+        }
+
+        for (Department department : changedDepartments) {
+            departments.put(department.getDeptId(), department);
+        }
+        if (!changedDepartments.isEmpty()) {
+            // doctors of a renamed department still point at the old object
+            for (Doctor doctor : doctors.values()) {
+                doctors.put(doctor.getDoctorId(), withDepartment(doctor, departments));
+            }
+        }
+        for (Doctor doctor : changedDoctors) {
+            doctors.put(doctor.getDoctorId(), withDepartment(doctor, departments));
+        }
+        for (Patient patient : changedPatients) {
+            unsavedPatients.put(patient.getPatientId(), patient);
+            PatientService.refreshCached(patient);
+        }
+        changes += changedDepartments.size() + changedDoctors.size() + changedPatients.size();
+
+        watermark = readAt;
+        unsaved |= changes > 0;
+        return changes;
+    }
+
+    // Rows come with an id-only department; point them at the cached one instead
+    private static Doctor withDepartment(Doctor doctor, Map<Long, Department> departments) {
+        Department department = doctor.getDepartment();
+        Department cached = department != null ? departments.get(department.getDeptId()) : null;
+        if (cached == null || cached == department) {
+            return doctor;
+        }
+        return new Doctor(doctor.getDoctorId(), doctor.getFirstName(), doctor.getLastName(), doctor.getEmail(),
+                doctor.getSpecialization(), cached, doctor.getPhone());
+    }
+
+    private static <T> long[] sortedIds(List<T> rows, ToLongFunction<T> id) {
+        long[] ids = new long[rows.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = id.applyAsLong(rows.get(i));
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    private static int removeMissing(Map<Long, ?> cache, long[] sortedIds) {
+        int removed = 0;
+        for (Iterator<Long> it = cache.keySet().iterator(); it.hasNext(); ) {
+            if (Arrays.binarySearch(sortedIds, it.next()) < 0) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private static int remove(Map<Long, ?> cache, long[] ids) {
+        int removed = 0;
+        for (long id : ids) {
+            if (cache.remove(id) != null) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Writes a new snapshot if the caches changed since the last one, switches to it and deletes
+     * older snapshots.
+     */
+    public static void saveIfChanged() {
+        LOCK.lock();
+        try {
+            if (watermark == null || (!unsaved && snapshot != null)) {
+                return;
+            }
+            PrivateFiles.createDirectories(DIRECTORY);
+            Path file = DIRECTORY.resolve(PREFIX + System.currentTimeMillis() + SUFFIX);
+            SnapshotFile.write(file, DBConnection.databaseKey(), watermark, DepartmentService.cache().values(),
+                    DoctorService.cache().values(), unsavedPatients, snapshot);
+            SnapshotFile written = SnapshotFile.open(file, DBConnection.databaseKey());
+            if (written != null) {
+                snapshot = written;
+                unsavedPatients.clear();
+            }
+            unsaved = false;
+            for (Path old : snapshotFiles()) {
+                if (!old.equals(file)) {
+                    try {
+                        Files.deleteIfExists(old);
+                    } catch (IOException e) {
+                        // still mapped (Windows); deleted after a later save or restart
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not write reference data snapshot in {}: {}", DIRECTORY, e.getMessage());
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    // Snapshot files, newest first
+    private static List<Path> snapshotFiles() throws IOException {
+        if (!Files.isDirectory(DIRECTORY)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(DIRECTORY)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted(Comparator.comparingLong(ReferenceDataSync::takenAt).reversed())
+                    .toList();
+        }
+    }
+
+    private static long takenAt(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package hospital.hospital_management_system.services;
+
+import hospital.hospital_management_system.dao.ReportDAO.Grouping;
+import hospital.hospital_management_system.dao.ReportDAO.Period;
+import hospital.hospital_management_system.dao.ReportDAO;
+import hospital.hospital_management_system.model.AppointmentVolume;
+import hospital.hospital_management_system.model.InventoryUsage;
+import hospital.hospital_management_system.model.RatingTrend;
+import hospital.hospital_management_system.utils.Bulkhead;
+import hospital.hospital_management_system.utils.EnvLoader;
+import hospital.hospital_management_system.utils.Log;
+import hospital.hospital_management_system.utils.Resilience;
+import hospital.hospital_management_system.utils.TransientDataAccessException;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Report results, cached in memory and shared by every instance. The summary tables are
+ * refreshed at most every DB__REPORT_REFRESH_SECONDS, lazily on the next read; a refresh that
+ * recomputes anything drops the cached results, and a result read before that is not cached.
+ * Safe to call from background threads.
+ * <p>
+ * Report queries run in the {@link Bulkhead#REPORTING} bulkhead so that several people
+ * running reports cannot slow down registration and appointments. While the database is
+ * down, results already cached are served.
+ */
+public class ReportService {
+
+    private static final Log log = Log.get(ReportService.class);
+
+    private static final long REFRESH_NANOS =
+            TimeUnit.SECONDS.toNanos(Long.parseLong(EnvLoader.get("DB__REPORT_REFRESH_SECONDS", "60")));
+
+    // Guarded by REFRESH_LOCK, held while the summary tables are refreshed
+    private static final Object REFRESH_LOCK = new Object();
+    private static long lastRefreshNanos;
+    private static boolean refreshed;
+
+    // Guarded by itself
+    private static final Map<String, List<?>> reportCache = new HashMap<>();
+    private static long invalidations;   // a result read before the latest one is not cached
+
+    private final ReportDAO reportDAO;
+
+    public ReportService() {
+        this(new ReportDAO());
+    }
+
+    public ReportService(ReportDAO reportDAO) {
+        this.reportDAO = reportDAO;
+    }
+
+    public List<AppointmentVolume> getAppointmentsPerDoctorPerDay(LocalDate from, LocalDate to) {
+        return cached("doctor-day:" + from + ":" + to,
+                () -> reportDAO.findAppointmentVolume(Grouping.DOCTOR, true, from, to));
+    }
+
+    public List<AppointmentVolume> getAppointmentsPerDepartmentPerDay(LocalDate from, LocalDate to) {
+        return cached("department-day:" + from + ":" + to,
+                () -> reportDAO.findAppointmentVolume(Grouping.DEPARTMENT, true, from, to));
+    }
+
+    /**
+     * One row per doctor over the whole period; see {@link AppointmentVolume#getNoShowRate()}.
+     */
+    public List<AppointmentVolume> getNoShowRatesByDoctor(LocalDate from, LocalDate to) {
+        return cached("no-show:" + from + ":" + to,
+                () -> reportDAO.findAppointmentVolume(Grouping.DOCTOR, false, from, to));
+    }
+
+    public List<RatingTrend> getAverageRating(Period period, LocalDate from, LocalDate to) {
+        return cached("rating:" + period + ":" + from + ":" + to,
+                () -> reportDAO.findRatingTrend(period, from, to));
+    }
+
+    public List<InventoryUsage> getInventoryUsage(LocalDate from, LocalDate to) {
+        return cached("inventory:" + from + ":" + to,
+                () -> reportDAO.findInventoryUsage(from, to));
+    }
+
+    /**
+     * Brings the summary tables up to date now instead of waiting for the refresh interval.
+     */
+    public void refresh() {
+        synchronized (REFRESH_LOCK) {
+            int days = Bulkhead.REPORTING.run(() -> Resilience.retry(reportDAO::refresh));
+            lastRefreshNanos = System.nanoTime();
+            refreshed = true;
+            if (days != 0) {
+                clearCache();
+            }
+        }
+    }
+
+    private void refreshIfDue() {
+        synchronized (REFRESH_LOCK) {
+            if (!refreshed || System.nanoTime() - lastRefreshNanos >= REFRESH_NANOS) {
+                try {
+                    refresh();
+                } catch (TransientDataAccessException e) {
+                    synchronized (reportCache) {
+                        if (reportCache.isEmpty()) {
+                            throw e;
+                        }
+                    }
+                    log.warn("Report refresh failed, serving cached results: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> cached(String key, Supplier<List<T>> query) {
+        refreshIfDue();
+        List<?> result;
+        long stamp;
+        synchronized (reportCache) {
+            result = reportCache.get(key);
+            stamp = invalidations;
+        }
+        if (result == null) {
+            // The query runs unlocked, so reports can be read in parallel up to the bulkhead limit
+            result = List.copyOf(Bulkhead.REPORTING.run(() -> Resilience.retry(query)));
+            synchronized (reportCache) {
+                if (invalidations == stamp) {
+                    reportCache.putIfAbsent(key, result);
+                }
+            }
+        }
+        return (List<T>) result;
+    }
+
+    public void clearCache() {
+        synchronized (reportCache) {
+            invalidations++;
+            reportCache.clear();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package hospital.hospital_management_system.services;
+
+import hospital.hospital_management_system.dao.SearchDAO;
+import hospital.hospital_management_system.model.SearchHit;
+import hospital.hospital_management_system.model.SearchResults;
+import hospital.hospital_management_system.utils.Resilience;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Full-text search over prescription notes and feedback comments, ranked and a page at a time;
+ * see {@link SearchDAO#search} for the query syntax. Backed by the GIN indexes of the V10
+ * migration, so a search costs about the same however many notes there are.
+ */
+public class SearchService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_QUERY_LENGTH = 500;
+
+    private final SearchDAO searchDAO;
+
+    public SearchService() {
+        this(new SearchDAO());
+    }
+
+    public SearchService(SearchDAO searchDAO) {
+        this.searchDAO = searchDAO;
+    }
+
+    public SearchResults search(String query, int page) {
+        return search(query, EnumSet.allOf(SearchHit.Source.class), page, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Page {@code page} (from 0) of the hits in {@code sources}. A blank query, or one made only
+     * of words too common to index such as "the", finds nothing.
+     */
+    public SearchResults search(String query, Set<SearchHit.Source> sources, int page, int pageSize) {
+        if (page < 0 || page > Integer.MAX_VALUE / MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page is out of range");
+        }
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (query == null || query.isBlank() || sources == null || sources.isEmpty()) {
+            return new SearchResults(List.of(), 0, page, pageSize);
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search text cannot be longer than " + MAX_QUERY_LENGTH + " characters");
+        }
+        String text = query.strip();
+        return Resilience.retry(() -> searchDAO.search(text, sources, pageSize, page * pageSize));
+    }
+}
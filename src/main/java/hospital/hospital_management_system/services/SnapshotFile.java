@@ -0,0 +1,365 @@
+package hospital.hospital_management_system.services;
+
+import hospital.hospital_management_system.model.Department;
+import hospital.hospital_management_system.model.Doctor;
+import hospital.hospital_management_system.model.Patient;
+import hospital.hospital_management_system.utils.PrivateFiles;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongPredicate;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of departments, doctors and patients:
+ *
+ * <pre>
+ * int magic, int format, long crc32 of the rest
+ * long watermark (epoch micros), string database key
+ * int count, departments: long id, string name, int floor
+ * int count, doctors:     long id, string first, last, email, specialization, long deptId (0 = none), string phone
+ * int count, patients:    long id, string first, last, long dob (epoch day, MIN_VALUE = none), string gender, contact, address
+ * </pre>
+ *
+ * Strings are an int byte length (-1 for null) and UTF-8. The file stays memory-mapped while
+ * in use. Departments and doctors are decoded when it is opened; patients are only indexed
+ * (id to offset) and decoded one at a time when looked up, so opening a snapshot of any size
+ * is one pass over the mapping without creating patient objects.
+ */
+final class SnapshotFile {
+
+    private static final int MAGIC = 0x484D5353;   // "HMSS"
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 16;    // magic, format, crc
+    private static final int REMOVED = -1;
+
+    private final MappedByteBuffer buffer;
+    private final Instant watermark;
+    private final List<Department> departments;
+    private final List<Doctor> doctors;
+
+    // Open-addressing index of patient id -> record offset; REMOVED once deleted in the database
+    private final long[] patientIds;
+    private final int[] patientOffsets;
+
+    private SnapshotFile(MappedByteBuffer buffer, Instant watermark, List<Department> departments,
+                         List<Doctor> doctors, int patientCount) {
+        this.buffer = buffer;
+        this.watermark = watermark;
+        this.departments = departments;
+        this.doctors = doctors;
+        int capacity = Integer.highestOneBit(Math.max(16, patientCount * 2 - 1)) << 1;
+        this.patientIds = new long[capacity];
+        this.patientOffsets = new int[capacity];
+    }
+
+    /**
+     * The snapshot at {@code file} if it is intact and was taken from {@code databaseKey};
+     * null otherwise.
+     */
+    static SnapshotFile open(Path file, String databaseKey) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            // the mapping outlives the channel
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT) {
+            return null;
+        }
+        long crc = buffer.getLong();
+        CRC32 actual = new CRC32();
+        actual.update(buffer.slice());
+        if (actual.getValue() != crc) {
+            return null;   // torn or corrupted write
+        }
+
+        try {
+            long micros = buffer.getLong();
+            Instant watermark = Instant.EPOCH.plusNanos(micros * 1_000);
+            if (!databaseKey.equals(readString(buffer))) {
+                return null;
+            }
+
+            int count = buffer.getInt();
+            List<Department> departments = new ArrayList<>(count);
+            Map<Long, Department> departmentsById = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                Department department = new Department(buffer.getLong(), readString(buffer), buffer.getInt());
+                departments.add(department);
+                departmentsById.put(department.getDeptId(), department);
+            }
+
+            count = buffer.getInt();
+            List<Doctor> doctors = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long id = buffer.getLong();
+                String firstName = readString(buffer);
+                String lastName = readString(buffer);
+                String email = readString(buffer);
+                String specialization = readString(buffer);
+                long deptId = buffer.getLong();
+                Department department = deptId == 0 ? null : departmentsById.getOrDefault(deptId, new Department(deptId));
+                doctors.add(new Doctor(id, firstName, lastName, email, specialization, department, readString(buffer)));
+            }
+
+            count = buffer.getInt();
+            SnapshotFile snapshot = new SnapshotFile(buffer, watermark, departments, doctors, count);
+            for (int i = 0; i < count; i++) {
+                int offset = buffer.position();
+                snapshot.index(buffer.getLong(), offset);
+                skipString(buffer);
+                skipString(buffer);
+                buffer.position(buffer.position() + Long.BYTES);
+                skipString(buffer);
+                skipString(buffer);
+                skipString(buffer);
+            }
+            return snapshot;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return null;   // intact checksum but not a layout this version understands
+        }
+    }
+
+    Instant watermark() {
+        return watermark;
+    }
+
+    List<Department> departments() {
+        return departments;
+    }
+
+    List<Doctor> doctors() {
+        return doctors;
+    }
+
+    int patientCount() {
+        int count = 0;
+        for (int offset : patientOffsets) {
+            if (offset > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Decodes the patient with this id, or returns null if the snapshot does not have it.
+     * Reads use absolute positions, so lookups from several threads do not interfere.
+     */
+    Patient patient(long patientId) {
+        int offset;
+        synchronized (this) {
+            int slot = slot(patientId);
+            offset = patientOffsets[slot];
+            if (offset <= 0) {
+                return null;
+            }
+        }
+        int[] position = {offset + Long.BYTES};
+        String firstName = readString(buffer, position);
+        String lastName = readString(buffer, position);
+        long dob = buffer.getLong(position[0]);
+        position[0] += Long.BYTES;
+        return new Patient(patientId, firstName, lastName,
+                dob == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(dob),
+                readString(buffer, position), readString(buffer, position), readString(buffer, position));
+    }
+
+    // Returns whether the snapshot held the patient
+    synchronized boolean removePatient(long patientId) {
+        int slot = slot(patientId);
+        if (patientOffsets[slot] > 0) {
+            patientOffsets[slot] = REMOVED;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Forgets patients deleted from the database whose ids {@code stillExists} rejects;
+     * returns how many.
+     */
+    synchronized int removePatientsUnless(LongPredicate stillExists) {
+        int removed = 0;
+        for (int i = 0; i < patientIds.length; i++) {
+            if (patientOffsets[i] > 0 && !stillExists.test(patientIds[i])) {
+                patientOffsets[i] = REMOVED;
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    long[] patientIds() {
+        return idsExcept(new long[0]);
+    }
+
+    // Ids of the patients this snapshot has that are not in sortedExcluded
+    private synchronized long[] idsExcept(long[] sortedExcluded) {
+        long[] ids = new long[patientIds.length];
+        int count = 0;
+        for (int i = 0; i < patientIds.length; i++) {
+            if (patientOffsets[i] > 0 && Arrays.binarySearch(sortedExcluded, patientIds[i]) < 0) {
+                ids[count++] = patientIds[i];
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    private void index(long patientId, int offset) {
+        int slot = slot(patientId);
+        patientIds[slot] = patientId;
+        patientOffsets[slot] = offset;
+    }
+
+    // The slot holding patientId, or the empty slot where it would go. Offsets are never 0
+    // (the header comes first), so 0 marks an empty slot.
+    private int slot(long patientId) {
+        int mask = patientIds.length - 1;
+        int slot = (int) ((patientId * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+        while (patientOffsets[slot] != 0 && patientIds[slot] != patientId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Writes a snapshot to {@code file} (through a temporary file, so a reader never sees a
+     * partial one), readable by its owner only. Patients are {@code changed} plus those of
+     * {@code previous} not in it.
+     */
+    static void write(Path file, String databaseKey, Instant watermark, Collection<Department> departments,
+                      Collection<Doctor> doctors, Map<Long, Patient> changed, SnapshotFile previous) throws IOException {
+        Path partial = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".part",
+                PrivateFiles.ownerOnly(file));
+        try {
+            try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+                channel.position(HEADER_BYTES);
+                CRC32 crc = new CRC32();
+                // not closed: that would close the channel before the header is written
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                        new CheckedOutputStream(Channels.newOutputStream(channel), crc), 1 << 16));
+
+                out.writeLong(watermark.getEpochSecond() * 1_000_000 + watermark.getNano() / 1_000);
+                writeString(out, databaseKey);
+
+                out.writeInt(departments.size());
+                for (Department department : departments) {
+                    out.writeLong(department.getDeptId());
+                    writeString(out, department.getDeptName());
+                    out.writeInt(department.getLocationFloor());
+                }
+
+                out.writeInt(doctors.size());
+                for (Doctor doctor : doctors) {
+                    out.writeLong(doctor.getDoctorId());
+                    writeString(out, doctor.getFirstName());
+                    writeString(out, doctor.getLastName());
+                    writeString(out, doctor.getEmail());
+                    writeString(out, doctor.getSpecialization());
+                    Department department = doctor.getDepartment();
+                    out.writeLong(department != null && department.getDeptId() != null ? department.getDeptId() : 0);
+                    writeString(out, doctor.getPhone());
+                }
+
+                // The changed records first, so one changed while this runs is not written twice
+                List<Patient> patients = new ArrayList<>(changed.values());
+                long[] changedIds = new long[patients.size()];
+                for (int i = 0; i < changedIds.length; i++) {
+                    changedIds[i] = patients.get(i).getPatientId();
+                }
+                Arrays.sort(changedIds);
+                long[] fromPrevious = previous != null ? previous.idsExcept(changedIds) : new long[0];
+
+                out.writeInt(patients.size() + fromPrevious.length);
+                for (Patient patient : patients) {
+                    writePatient(out, patient);
+                }
+                for (long patientId : fromPrevious) {
+                    // callers hold the sync lock, so none of these can be removed meanwhile
+                    writePatient(out, previous.patient(patientId));
+                }
+                out.flush();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(FORMAT).putLong(crc.getValue()).flip();
+                channel.write(header, 0);
+                channel.force(false);
+            }
+            Files.move(partial, file);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    private static void writePatient(DataOutputStream out, Patient patient) throws IOException {
+        out.writeLong(patient.getPatientId());
+        writeString(out, patient.getFirstName());
+        writeString(out, patient.getLastName());
+        out.writeLong(patient.getDob() != null ? patient.getDob().toEpochDay() : Long.MIN_VALUE);
+        writeString(out, patient.getGender());
+        writeString(out, patient.getContact_number());
+        writeString(out, patient.getAddress());
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Absolute read at position[0], which is advanced past the string
+    private static String readString(ByteBuffer buffer, int[] position) {
+        int length = buffer.getInt(position[0]);
+        position[0] += Integer.BYTES;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(position[0], bytes);
+        position[0] += length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length > 0) {
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
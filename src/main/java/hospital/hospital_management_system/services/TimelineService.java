@@ -0,0 +1,173 @@
+package hospital.hospital_management_system.services;
+
+import hospital.hospital_management_system.dao.TimelineDAO;
+import hospital.hospital_management_system.model.TimelineEntry;
+import hospital.hospital_management_system.model.TimelinePage;
+import hospital.hospital_management_system.utils.EnvLoader;
+import hospital.hospital_management_system.utils.Resilience;
+import hospital.hospital_management_system.utils.UnitOfWork;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A patient's appointments, prescriptions (with their items) and feedback as one timeline,
+ * newest first, read a page at a time: see {@link TimelineDAO#findTimeline}.
+ * <p>
+ * Histories of up to DB__TIMELINE_CACHE_MAX_ENTRIES (default 500) entries are read whole on
+ * the first page and cached for the DB__TIMELINE_CACHE_PATIENTS (default 200) patients viewed
+ * most recently, so paging through them costs no query. The services drop a patient's timeline
+ * when a write that changes it commits; writes made on other workstations show once the cached
+ * copy is DB__TIMELINE_CACHE_SECONDS (default 60) old. Longer histories are read page by page.
+ */
+public class TimelineService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private static final int CACHE_PATIENTS = Integer.parseInt(EnvLoader.get("DB__TIMELINE_CACHE_PATIENTS", "200"));
+    private static final int CACHE_MAX_ENTRIES = Integer.parseInt(EnvLoader.get("DB__TIMELINE_CACHE_MAX_ENTRIES", "500"));
+    private static final long CACHE_NANOS =
+            TimeUnit.SECONDS.toNanos(Long.parseLong(EnvLoader.get("DB__TIMELINE_CACHE_SECONDS", "60")));
+
+    private record Cached(List<TimelineEntry> entries, long loadedAtNanos) {}
+
+    // Guarded by LOCK. appointmentPatients holds every appointment of the cached timelines,
+    // which is how a change known only by its appointment finds the timeline to drop
+    private static final Object LOCK = new Object();
+    private static final Map<Long, Cached> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Cached> eldest) {
+            if (size() > CACHE_PATIENTS) {
+                forgetAppointments(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+    private static final Map<Long, Long> appointmentPatients = new HashMap<>();
+    private static long invalidations;   // a timeline read before the latest one is not cached
+
+    private final TimelineDAO timelineDAO;
+
+    public TimelineService() {
+        this(new TimelineDAO());
+    }
+
+    public TimelineService(TimelineDAO timelineDAO) {
+        this.timelineDAO = timelineDAO;
+    }
+
+    public TimelinePage getTimeline(long patientId) {
+        return getTimeline(patientId, null, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Up to {@code pageSize} entries that come after {@code after}, the
+     * {@link TimelinePage#getNextCursor() cursor} of the previous page, or the newest entries if
+     * it is null.
+     */
+    public TimelinePage getTimeline(long patientId, TimelineEntry after, int pageSize) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        Cached cached;
+        long stamp;
+        synchronized (LOCK) {
+            cached = cache.get(patientId);
+            if (cached != null && System.nanoTime() - cached.loadedAtNanos() >= CACHE_NANOS) {
+                forgetAppointments(cache.remove(patientId));
+                cached = null;
+            }
+            stamp = invalidations;
+        }
+        if (cached != null) {
+            return page(cached.entries(), after, pageSize);
+        }
+
+        if (after != null) {
+            return page(Resilience.retry(() -> timelineDAO.findTimeline(patientId, after, pageSize + 1)), null, pageSize);
+        }
+        List<TimelineEntry> entries = Resilience.retry(() -> timelineDAO.findTimeline(patientId, null, CACHE_MAX_ENTRIES + 1));
+        if (entries.size() <= CACHE_MAX_ENTRIES) {
+            synchronized (LOCK) {
+                if (invalidations == stamp) {
+                    Cached loaded = new Cached(List.copyOf(entries), System.nanoTime());
+                    forgetAppointments(cache.put(patientId, loaded));
+                    for (TimelineEntry entry : loaded.entries()) {
+                        if (entry.getKind() == TimelineEntry.Kind.APPOINTMENT) {
+                            appointmentPatients.put(entry.getId(), patientId);
+                        }
+                    }
+                }
+            }
+        }
+        return page(entries, null, pageSize);
+    }
+
+    /**
+     * The timeline of a patient changed: an appointment or feedback was added, moved or
+     * removed, or the patient was deleted. Inside a UnitOfWork it is dropped when it commits.
+     */
+    static void patientChanged(Long patientId) {
+        if (patientId != null) {
+            UnitOfWork.afterCommit(() -> {
+                synchronized (LOCK) {
+                    invalidations++;
+                    forgetAppointments(cache.remove(patientId));
+                }
+            });
+        }
+    }
+
+    /**
+     * An appointment, or a prescription written for it, changed.
+     */
+    static void appointmentChanged(Long appointmentId) {
+        if (appointmentId != null) {
+            UnitOfWork.afterCommit(() -> {
+                synchronized (LOCK) {
+                    invalidations++;
+                    Long patientId = appointmentPatients.get(appointmentId);
+                    if (patientId != null) {
+                        forgetAppointments(cache.remove(patientId));
+                    }
+                }
+            });
+        }
+    }
+
+    public static void clearCache() {
+        synchronized (LOCK) {
+            invalidations++;
+            cache.clear();
+            appointmentPatients.clear();
+        }
+    }
+
+    private static void forgetAppointments(Cached cached) {
+        if (cached != null) {
+            for (TimelineEntry entry : cached.entries()) {
+                if (entry.getKind() == TimelineEntry.Kind.APPOINTMENT) {
+                    appointmentPatients.remove(entry.getId());
+                }
+            }
+        }
+    }
+
+    // The entries after 'after' in a newest-first list, at most pageSize of them
+    private static TimelinePage page(List<TimelineEntry> entries, TimelineEntry after, int pageSize) {
+        int start = 0;
+        if (after != null) {
+            while (start < entries.size() && !entries.get(start).isAfter(after)) {
+                start++;
+            }
+        }
+        int end = Math.min(entries.size(), start + pageSize);
+        return new TimelinePage(List.copyOf(entries.subList(start, end)), end < entries.size());
+    }
+}
@@ -0,0 +1,277 @@
+package hospital.hospital_management_system.services;
+
+import hospital.hospital_management_system.dao.WalkInDAO;
+import hospital.hospital_management_system.dashboard.OperationsMetrics;
+import hospital.hospital_management_system.model.ServiceTime;
+import hospital.hospital_management_system.model.WalkIn;
+import hospital.hospital_management_system.utils.DataAccessException;
+import hospital.hospital_management_system.utils.EnvLoader;
+import hospital.hospital_management_system.utils.Log;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Walk-in queues, one per department, ordered by triage level and then by arrival, shared by
+ * every front-desk station through the walk_ins table (V9, V11). Queuing, calling and finishing
+ * a patient are each one statement against it (see {@link WalkInDAO}), so two stations calling
+ * at once always get different patients, whichever workstation they run on. While the database
+ * is down those calls throw.
+ * <p>
+ * What the screens show (queues, called patients, waits) is read from a copy of the open
+ * walk-ins held here. It is reloaded every DB__WALK_IN_REFRESH_MILLIS (default 1000), which
+ * brings in the other stations' changes, and this station's own changes show at once.
+ * <p>
+ * Waits are estimated from the department's history: the average gap between a doctor's
+ * consecutive completed appointments over the last DB__WALK_IN_HISTORY_DAYS (default 90),
+ * shared among the doctors the department usually has on a day. A department without history
+ * counts DB__WALK_IN_DEFAULT_MINUTES (default 15) per patient.
+ */
+public final class WalkInQueueService {
+
+    private static final Log log = Log.get(WalkInQueueService.class);
+
+    private static final long HISTORY_DAYS = Long.parseLong(EnvLoader.get("DB__WALK_IN_HISTORY_DAYS", "90"));
+    private static final double DEFAULT_SECONDS =
+            TimeUnit.MINUTES.toSeconds(Long.parseLong(EnvLoader.get("DB__WALK_IN_DEFAULT_MINUTES", "15")));
+    private static final long REFRESH_MILLIS = Long.parseLong(EnvLoader.get("DB__WALK_IN_REFRESH_MILLIS", "1000"));
+    private static final long ESTIMATE_REFRESH_MINUTES = 60;
+
+    // Most urgent first, then first come, as WalkInDAO.callNext takes them. The id is compared
+    // as text, which orders like PostgreSQL's uuid
+    private static final Comparator<WalkIn> QUEUE_ORDER = Comparator.comparing(WalkIn::getTriage)
+            .thenComparing(WalkIn::getArrivedAt)
+            .thenComparing(walkIn -> walkIn.getWalkInId().toString());
+
+    /**
+     * The open walk-ins as last read, patched with this station's changes until the next read
+     * replaces it.
+     */
+    private record OpenWalkIns(Map<Long, NavigableSet<WalkIn>> waiting, Map<UUID, WalkIn> open) {
+        OpenWalkIns() {
+            this(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+
+        NavigableSet<WalkIn> queue(long deptId) {
+            return waiting.computeIfAbsent(deptId, id -> new ConcurrentSkipListSet<>(QUEUE_ORDER));
+        }
+
+        void put(WalkIn walkIn) {
+            WalkIn previous = open.remove(walkIn.getWalkInId());
+            if (previous != null) {
+                queue(previous.getDeptId()).remove(previous);
+            }
+            if (walkIn.getStatus() == WalkIn.Status.Waiting || walkIn.getStatus() == WalkIn.Status.Called) {
+                open.put(walkIn.getWalkInId(), walkIn);
+            }
+            if (walkIn.getStatus() == WalkIn.Status.Waiting) {
+                queue(walkIn.getDeptId()).add(walkIn);
+            }
+        }
+    }
+
+    // Swapped and patched under LOCK. localChanges are this station's changes since the last
+    // read started, which that read may have missed
+    private static final Object LOCK = new Object();
+    private static volatile OpenWalkIns current = new OpenWalkIns();
+    private static final List<WalkIn> localChanges = new ArrayList<>();
+    private static final Set<Long> reportedDepartments = new HashSet<>();
+
+    private static final WalkInDAO walkInDAO = new WalkInDAO();
+
+    private static volatile Map<Long, ServiceTime> serviceTimes = Map.of();
+    private static ScheduledExecutorService scheduler;
+
+    private WalkInQueueService() {} // Prevent instantiation
+
+    /**
+     * Starts reading the open walk-ins in the background. Called at startup and by the first
+     * walk-in; safe to call more than once.
+     */
+    public static synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "walk-in-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(WalkInQueueService::refresh, 0, REFRESH_MILLIS, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(WalkInQueueService::refreshEstimates, 0, ESTIMATE_REFRESH_MINUTES,
+                TimeUnit.MINUTES);
+    }
+
+    /**
+     * Puts a patient in a department's queue. {@code patientId} may be null for someone not
+     * registered yet, who is then known by {@code patientName}.
+     */
+    public static WalkIn enqueue(long deptId, Long patientId, String patientName, WalkIn.Triage triage) {
+        if (patientId == null && (patientName == null || patientName.isBlank())) {
+            throw new IllegalArgumentException("A walk-in needs a patient or a name");
+        }
+        if (triage == null) {
+            throw new IllegalArgumentException("Triage level is required");
+        }
+        start();
+        return changed(walkInDAO.enqueue(deptId, patientId, patientName, triage));
+    }
+
+    /**
+     * Takes the first patient off a department's queue and marks them called; null when nobody
+     * is waiting. Stations calling at once always get different patients.
+     */
+    public static WalkIn callNext(long deptId) {
+        start();
+        WalkIn next = walkInDAO.callNext(deptId);
+        return next != null ? changed(next) : null;
+    }
+
+    /**
+     * The called patient has been seen. False if the walk-in is not called or already finished.
+     */
+    public static boolean complete(UUID walkInId) {
+        start();
+        WalkIn done = walkInDAO.finish(walkInId, WalkIn.Status.Completed, WalkIn.Status.Called);
+        return done != null && changed(done) != null;
+    }
+
+    /**
+     * The patient left without being seen, before or after being called. False if the walk-in
+     * has already finished.
+     */
+    public static boolean leave(UUID walkInId) {
+        start();
+        WalkIn left = walkInDAO.finish(walkInId, WalkIn.Status.Left, WalkIn.Status.Waiting, WalkIn.Status.Called);
+        return left != null && changed(left) != null;
+    }
+
+    /**
+     * Who is waiting in a department, in the order they will be called.
+     */
+    public static List<WalkIn> getQueue(long deptId) {
+        NavigableSet<WalkIn> queue = current.waiting().get(deptId);
+        return queue != null ? new ArrayList<>(queue) : List.of();
+    }
+
+    /**
+     * Walk-ins called in a department and not finished yet.
+     */
+    public static List<WalkIn> getCalled(long deptId) {
+        List<WalkIn> called = new ArrayList<>();
+        for (WalkIn walkIn : current.open().values()) {
+            if (walkIn.getDeptId() == deptId && walkIn.getStatus() == WalkIn.Status.Called) {
+                called.add(walkIn);
+            }
+        }
+        called.sort(Comparator.comparing(WalkIn::getCalledAt));
+        return called;
+    }
+
+    /**
+     * How long a patient arriving now with {@code triage} can expect to wait.
+     */
+    public static Duration estimateWait(long deptId, WalkIn.Triage triage) {
+        NavigableSet<WalkIn> queue = current.waiting().get(deptId);
+        int ahead = 0;
+        if (queue != null) {
+            for (WalkIn waiting : queue) {
+                if (waiting.getTriage().compareTo(triage) > 0) {
+                    break;
+                }
+                ahead++;
+            }
+        }
+        return waitFor(deptId, ahead);
+    }
+
+    /**
+     * How much longer a waiting walk-in can expect to wait; zero once called.
+     */
+    public static Duration estimateWait(WalkIn walkIn) {
+        NavigableSet<WalkIn> queue = current.waiting().get(walkIn.getDeptId());
+        if (walkIn.getStatus() != WalkIn.Status.Waiting || queue == null) {
+            return Duration.ZERO;
+        }
+        return waitFor(walkIn.getDeptId(), queue.headSet(walkIn, false).size());
+    }
+
+    private static Duration waitFor(long deptId, int ahead) {
+        ServiceTime time = serviceTimes.get(deptId);
+        double seconds = time != null && time.getSamples() > 0 ? time.getAverageSeconds() : DEFAULT_SECONDS;
+        double doctors = time != null ? Math.max(1.0, time.getDoctorsPerDay()) : 1.0;
+        return Duration.ofSeconds(Math.round(ahead * seconds / doctors));
+    }
+
+    // A change this station made, shown before the next read brings it in anyway
+    private static WalkIn changed(WalkIn walkIn) {
+        synchronized (LOCK) {
+            localChanges.add(walkIn);
+            current.put(walkIn);
+            reportLengths(current);
+        }
+        return walkIn;
+    }
+
+    private static void refresh() {
+        synchronized (LOCK) {
+            localChanges.clear();   // written before the read starts, so it sees them
+        }
+        List<WalkIn> walkIns;
+        try {
+            walkIns = walkInDAO.findOpen();
+        } catch (DataAccessException e) {
+            log.debug("Could not read the walk-in queues, showing the last read: {}", e.getMessage());
+            return;
+        }
+        OpenWalkIns read = new OpenWalkIns();
+        for (WalkIn walkIn : walkIns) {
+            read.put(walkIn);
+        }
+        synchronized (LOCK) {
+            for (WalkIn walkIn : localChanges) {
+                read.put(walkIn);
+            }
+            current = read;
+            reportLengths(read);
+        }
+    }
+
+    // Under LOCK
+    private static void reportLengths(OpenWalkIns walkIns) {
+        Set<Long> departments = new HashSet<>(reportedDepartments);
+        departments.addAll(walkIns.waiting().keySet());
+        for (long deptId : departments) {
+            NavigableSet<WalkIn> queue = walkIns.waiting().get(deptId);
+            OperationsMetrics.queueLength(deptId, queue != null ? queue.size() : 0);
+        }
+        reportedDepartments.addAll(departments);
+    }
+
+    private static void refreshEstimates() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            Map<Long, ServiceTime> times = new HashMap<>();
+            for (ServiceTime time : walkInDAO.findServiceTimes(now.minusDays(HISTORY_DAYS), now)) {
+                times.put(time.getDeptId(), time);
+            }
+            serviceTimes = times;
+        } catch (DataAccessException e) {
+            log.warn("Could not load walk-in wait estimates, keeping the previous ones: {}", e.getMessage());
+        }
+    }
+}
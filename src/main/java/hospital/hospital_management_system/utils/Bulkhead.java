@@ -0,0 +1,80 @@
+package hospital.hospital_management_system.utils;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caps how many queries of one kind run at once, so a burst of them cannot take all of the
+ * database's connections and CPU from the rest of the app:
+ *
+ * <pre>
+ * List&lt;Row&gt; rows = Bulkhead.REPORTING.run(() -&gt; reportDAO.findRows(...));
+ * </pre>
+ *
+ * or, for work that throws checked exceptions:
+ *
+ * <pre>
+ * Bulkhead.Permit permit = Bulkhead.REPORTING.enter();
+ * try (permit) {
+ *     ... run the export ...
+ * }
+ * </pre>
+ *
+ * A caller that cannot get a permit within the wait time gets a TransientDataAccessException.
+ */
+public final class Bulkhead {
+
+    /**
+     * Reports and exports: DB__REPORTING_CONCURRENCY at a time (default 2), waiting up to
+     * DB__REPORTING_WAIT_SECONDS (default 30) for a turn.
+     */
+    public static final Bulkhead REPORTING = new Bulkhead("Reporting",
+            Integer.parseInt(EnvLoader.get("DB__REPORTING_CONCURRENCY", "2")),
+            Long.parseLong(EnvLoader.get("DB__REPORTING_WAIT_SECONDS", "30")));
+
+    @FunctionalInterface
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final String name;
+    private final int limit;
+    private final long waitSeconds;
+    private final Semaphore permits;
+
+    private Bulkhead(String name, int limit, long waitSeconds) {
+        this.name = name;
+        this.limit = limit;
+        this.waitSeconds = waitSeconds;
+        this.permits = new Semaphore(limit, true);
+    }
+
+    public Permit enter() {
+        try {
+            if (!permits.tryAcquire(waitSeconds, TimeUnit.SECONDS)) {
+                throw new TransientDataAccessException(name + " is busy: " + limit
+                        + " queries already running; try again shortly", null);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransientDataAccessException(name + " interrupted while waiting for a turn", e);
+        }
+        return permits::release;
+    }
+
+    /**
+     * Runs {@code work} once a permit is free and returns its result.
+     */
+    public <T> T run(Supplier<T> work) {
+        Permit permit = enter();
+        try (permit) {
+            return work.get();
+        }
+    }
+
+    public int getRunningCount() {
+        return limit - permits.availablePermits();
+    }
+}
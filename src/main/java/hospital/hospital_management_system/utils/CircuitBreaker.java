@@ -0,0 +1,88 @@
+package hospital.hospital_management_system.utils;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stops connecting to the primary after DB__CIRCUIT_FAILURES consecutive failures that mean
+ * the database is unreachable (see {@link DataAccessException#isUnavailable}). While open,
+ * {@link DBConnection} fails at once with an {@link OpenException} instead of waiting for
+ * each connection attempt to time out. After DB__CIRCUIT_OPEN_SECONDS one caller is let
+ * through as a probe: if it connects the circuit closes, otherwise it stays open for another
+ * period.
+ */
+final class CircuitBreaker {
+
+    private static final Log log = Log.get(CircuitBreaker.class);
+
+    private static final int FAILURE_THRESHOLD = Integer.parseInt(EnvLoader.get("DB__CIRCUIT_FAILURES", "3"));
+    private static final long OPEN_NANOS =
+            TimeUnit.SECONDS.toNanos(Long.parseLong(EnvLoader.get("DB__CIRCUIT_OPEN_SECONDS", "10")));
+
+    private static final AtomicInteger failures = new AtomicInteger();
+    private static final AtomicBoolean probing = new AtomicBoolean();
+    private static volatile boolean open;
+    private static volatile long openedAtNanos;
+
+    private CircuitBreaker() {} // Prevent instantiation
+
+    static boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Throws while the circuit is open, except for the one probe let through per period.
+     */
+    static void beforeConnect() throws OpenException {
+        if (!open) {
+            return;
+        }
+        long waited = System.nanoTime() - openedAtNanos;
+        if (waited < OPEN_NANOS || !probing.compareAndSet(false, true)) {
+            throw new OpenException(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(OPEN_NANOS - waited + 999_999_999)));
+        }
+    }
+
+    static void connected() {
+        if (open) {
+            open = false;
+            log.info("Database reachable again, circuit closed");
+        }
+        probing.set(false);
+        if (failures.get() != 0) {
+            failures.set(0);
+        }
+    }
+
+    static void failed(SQLException e) {
+        String state = e.getSQLState();
+        if (e instanceof OpenException || state == null || !DataAccessException.isUnavailable(state)) {
+            probing.set(false);
+            return;
+        }
+        if (open) {
+            openedAtNanos = System.nanoTime();   // failed probe: another full period
+        } else if (failures.incrementAndGet() >= FAILURE_THRESHOLD) {
+            openedAtNanos = System.nanoTime();
+            open = true;
+            log.warn("Database unreachable after {} failures, circuit open for {} s: {}",
+                    FAILURE_THRESHOLD, TimeUnit.NANOSECONDS.toSeconds(OPEN_NANOS), e.getMessage());
+        }
+        probing.set(false);
+    }
+
+    /**
+     * The connection attempt that was not made because the circuit is open.
+     */
+    static final class OpenException extends SQLTransientConnectionException {
+
+        private static final long serialVersionUID = 1L;
+
+        OpenException(long retryInSeconds) {
+            super("Database unavailable; next attempt in " + retryInSeconds + " s", "08001");
+        }
+    }
+}
@@ -8,14 +8,59 @@ public final class DBConnection {
 
     private static final String DB_HOST = EnvLoader.get("DB__HOST", "localhost");
     private static final String DB_PORT = EnvLoader.get("DB__PORT", "5432");
-    private static final String DB_NAME = EnvLoader.get("DB__NAME", "hospital_db");
-    private static final String DB_USER = EnvLoader.get("DB__USER", "postgres");
-    private static final String DB_PASSWORD = EnvLoader.get("DB__PASSWORD", "SHEMA");
+    static final String DB_NAME = EnvLoader.get("DB__NAME", "hospital_db");
+    static final String DB_USER = EnvLoader.get("DB__USER", "postgres");
+    static final String DB_PASSWORD = EnvLoader.get("DB__PASSWORD", "SHEMA");
 
     private DBConnection() {} // Prevent instantiation
 
+    /**
+     * Returns the connection of the {@link UnitOfWork} open on this thread, or else opens a
+     * connection whose prepared statements are timed and counted by {@link QueryMetrics}.
+     */
     public static Connection getConnection() throws SQLException {
+        Connection bound = UnitOfWork.currentConnection();
+        if (bound != null) {
+            return bound;
+        }
+        return open();
+    }
+
+    /**
+     * For read-only queries that can tolerate replication lag (lists, searches, reports).
+     * Goes to a replica when DB__REPLICAS is set and one is healthy, otherwise to the primary.
+     * Inside a {@link UnitOfWork} it returns the unit's connection like getConnection().
+     */
+    public static Connection getReadConnection() throws SQLException {
+        Connection bound = UnitOfWork.currentConnection();
+        if (bound != null) {
+            return bound;
+        }
+        Connection replica = ReplicaRouter.open();
+        return replica != null ? replica : open();
+    }
+
+    /**
+     * host:port/name of the primary, to tell apart local data kept for different databases.
+     */
+    public static String databaseKey() {
+        return DB_HOST + ":" + DB_PORT + "/" + DB_NAME;
+    }
+
+    // Fails fast while the database is known to be down; see CircuitBreaker
+    static Connection open() throws SQLException {
+        CircuitBreaker.beforeConnect();
         String url = String.format("jdbc:postgresql://%s:%s/%s", DB_HOST, DB_PORT, DB_NAME);
-        return DriverManager.getConnection(url, DB_USER, DB_PASSWORD);
+        long start = System.nanoTime();
+        Connection conn;
+        try {
+            conn = DriverManager.getConnection(url, DB_USER, DB_PASSWORD);
+        } catch (SQLException e) {
+            CircuitBreaker.failed(e);
+            throw e;
+        }
+        CircuitBreaker.connected();
+        QueryMetrics.recordConnectionAcquire(System.nanoTime() - start);
+        return InstrumentedConnection.wrap(conn);
     }
 }
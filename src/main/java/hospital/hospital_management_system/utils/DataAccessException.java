@@ -0,0 +1,63 @@
+package hospital.hospital_management_system.utils;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+
+/**
+ * A database call that failed, thrown by the DAOs in place of the SQLException. Failures that
+ * may go away on their own (lost connection, failover, deadlock) are a
+ * {@link TransientDataAccessException}; anything else (constraint violation, bad SQL) is this
+ * class and will fail again if retried.
+ */
+public class DataAccessException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DataAccessException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    /**
+     * Wraps {@code e}, thrown by {@code operation}, in the matching exception type.
+     */
+    public static DataAccessException translate(String operation, SQLException e) {
+        String message = operation + " failed: " + e.getMessage();
+        if (e instanceof CircuitBreaker.OpenException) {
+            return new DatabaseUnavailableException(message, e);
+        }
+        if (isTransient(e)) {
+            return new TransientDataAccessException(message, e);
+        }
+        return new DataAccessException(message, e);
+    }
+
+    /**
+     * SQLSTATE of the underlying SQLException, or null.
+     */
+    public String getSqlState() {
+        return getCause() instanceof SQLException e ? e.getSQLState() : null;
+    }
+
+    static boolean isTransient(SQLException e) {
+        if (e instanceof SQLTransientException || e instanceof SQLRecoverableException) {
+            return true;
+        }
+        String state = e.getSQLState();
+        if (state == null) {
+            return false;
+        }
+        return isUnavailable(state)
+                || state.equals("40001")    // serialization_failure
+                || state.equals("40P01")    // deadlock_detected
+                || state.equals("55P03");   // lock_not_available
+    }
+
+    // The database itself is gone or refusing work, as opposed to this one transaction failing
+    static boolean isUnavailable(String state) {
+        return state.startsWith("08")       // connection exceptions
+                || state.startsWith("53")   // insufficient resources, e.g. too_many_connections
+                || state.startsWith("57P")  // admin/crash shutdown, cannot_connect_now
+                || state.equals("25006");   // read_only_sql_transaction: connected to a demoted primary
+    }
+}
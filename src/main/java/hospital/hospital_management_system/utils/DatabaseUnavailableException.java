@@ -0,0 +1,14 @@
+package hospital.hospital_management_system.utils;
+
+/**
+ * Thrown without contacting the database while the circuit breaker is open, i.e. after
+ * repeated connection failures. Services with a local copy of the data serve that instead.
+ */
+public class DatabaseUnavailableException extends TransientDataAccessException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DatabaseUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
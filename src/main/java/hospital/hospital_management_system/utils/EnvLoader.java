@@ -32,7 +32,12 @@ public class EnvLoader {
         }
     }
     
+    // A JVM system property with the same key wins over the .env file (used by tools and load tests)
     public static String get(String key, String defaultValue) {
+        String override = System.getProperty(key);
+        if (override != null) {
+            return override;
+        }
         return envVars.getOrDefault(key, defaultValue);
     }
 }
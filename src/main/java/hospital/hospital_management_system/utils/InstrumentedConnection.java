@@ -0,0 +1,197 @@
+package hospital.hospital_management_system.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Wraps a JDBC connection so every prepared statement reports its timing and row count to
+ * {@link QueryMetrics}. DAOs are unchanged: they keep calling DBConnection.getConnection().
+ * Connections, statements and result sets all go through dynamic proxies; a result set's only
+ * addition is counting the rows read, reported when it is closed.
+ */
+final class InstrumentedConnection implements InvocationHandler {
+
+    // A data-modifying statement inside a WITH query, e.g. WITH deleted AS (DELETE ... RETURNING ...)
+    private static final Pattern MODIFYING_KEYWORD = Pattern.compile("\\b(INSERT|UPDATE|DELETE|MERGE)\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    private final Connection target;
+    private boolean wrote;   // since the last commit or rollback
+
+    private InstrumentedConnection(Connection target) {
+        this.target = target;
+    }
+
+    static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(InstrumentedConnection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new InstrumentedConnection(connection));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        Object result = invokeTarget(target, method, args);
+        String name = method.getName();
+        if (result instanceof PreparedStatement ps && name.equals("prepareStatement")) {
+            return StatementHandler.wrap(ps, (String) args[0], this);
+        }
+        if (name.equals("commit") && wrote) {
+            // the write is only visible to other connections (and replicas) from now on
+            wrote = false;
+            ReplicaRouter.recordWrite();
+        } else if (name.equals("rollback") && args == null) {
+            wrote = false;
+        }
+        return result;
+    }
+
+    private void wrote() {
+        wrote = true;
+        ReplicaRouter.recordWrite();
+    }
+
+    /**
+     * Whether the statement may change rows: INSERT, UPDATE, DELETE or MERGE, or a WITH query
+     * that has one among its parts. A WITH query that only locks rows (FOR UPDATE) counts too,
+     * which at worst keeps reads on the primary a little longer.
+     */
+    static boolean modifies(String sql) {
+        String head = sql.stripLeading();
+        if (head.regionMatches(true, 0, "WITH", 0, 4)) {
+            return MODIFYING_KEYWORD.matcher(head).find();
+        }
+        return head.regionMatches(true, 0, "INSERT", 0, 6)
+                || head.regionMatches(true, 0, "UPDATE", 0, 6)
+                || head.regionMatches(true, 0, "DELETE", 0, 6)
+                || head.regionMatches(true, 0, "MERGE", 0, 5);
+    }
+
+    static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final PreparedStatement target;
+        private final InstrumentedConnection connection;
+        private final StatementStats stats;
+        private final boolean modifies;   // see InstrumentedConnection.modifies; may return rows
+        private final List<String> parameterTypes = new ArrayList<>();
+
+        private StatementHandler(PreparedStatement target, InstrumentedConnection connection, StatementStats stats,
+                                 boolean modifies) {
+            this.target = target;
+            this.connection = connection;
+            this.stats = stats;
+            this.modifies = modifies;
+        }
+
+        static PreparedStatement wrap(PreparedStatement ps, String sql, InstrumentedConnection connection) {
+            return (PreparedStatement) Proxy.newProxyInstance(InstrumentedConnection.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new StatementHandler(ps, connection, QueryMetrics.forSql(sql), modifies(sql)));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                rememberParameterType(index, name.substring(3));
+                return invokeTarget(target, method, args);
+            }
+            if (name.equals("clearParameters")) {
+                parameterTypes.clear();
+            }
+            if (!name.startsWith("execute") || (args != null && args.length > 0)) {
+                return invokeTarget(target, method, args);
+            }
+
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invokeTarget(target, method, args);
+            } catch (Throwable e) {
+                stats.recordError();
+                if (e instanceof SQLException sqlException) {
+                    CircuitBreaker.failed(sqlException);   // e.g. the connection dropped mid-query
+                }
+                throw e;
+            } finally {
+                long nanos = System.nanoTime() - start;
+                stats.recordExecution(nanos);
+                if (QueryMetrics.isSlow(nanos)) {
+                    QueryMetrics.logSlowQuery(stats, nanos, parameterTypes);
+                }
+            }
+
+            if (result instanceof ResultSet rs) {
+                if (modifies) {
+                    connection.wrote();
+                }
+                return ResultSetHandler.wrap(rs, stats);
+            } else if (result instanceof Integer updated) {
+                stats.recordRows(updated);
+                if (updated > 0) {
+                    connection.wrote();
+                }
+            } else if (result instanceof int[] batch) {
+                for (int count : batch) {
+                    stats.recordRows(Math.max(0, count));
+                }
+                connection.wrote();
+            }
+            return result;
+        }
+
+        private void rememberParameterType(int index, String type) {
+            while (parameterTypes.size() < index) {
+                parameterTypes.add("?");
+            }
+            parameterTypes.set(index - 1, type);
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet target;
+        private final StatementStats stats;
+        private long rows;
+        private boolean closed;
+
+        private ResultSetHandler(ResultSet target, StatementStats stats) {
+            this.target = target;
+            this.stats = stats;
+        }
+
+        static ResultSet wrap(ResultSet rs, StatementStats stats) {
+            return (ResultSet) Proxy.newProxyInstance(InstrumentedConnection.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, new ResultSetHandler(rs, stats));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close") && !closed) {
+                closed = true;
+                stats.recordRows(rows);
+            }
+            Object result = invokeTarget(target, method, args);
+            if (name.equals("next") && (Boolean) result) {
+                rows++;
+            }
+            return result;
+        }
+    }
+}
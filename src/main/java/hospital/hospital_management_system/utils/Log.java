@@ -0,0 +1,364 @@
+package hospital.hospital_management_system.utils;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import javax.management.ObjectName;
+
+/**
+ * Leveled logging for the DAO and service layers, written by a background thread so a caller
+ * never waits on the console. One per class:
+ *
+ * <pre>
+ * private static final Log log = Log.get(PatientDAO.class);
+ * log.error("addPatient failed", e);
+ * log.debug("{} patient(s) updated", rows);
+ * </pre>
+ *
+ * Messages take up to three {} arguments; a trailing Throwable that no {} uses is printed with
+ * its stack trace. A call below the logger's level returns after one volatile read and allocates
+ * nothing (pass primitives through the long overloads to avoid boxing). Formatting happens on the
+ * writer thread.
+ * <p>
+ * Levels come from DB__LOG_LEVEL (default INFO) and DB__LOG_LEVELS, e.g.
+ * "hospital.hospital_management_system.dao=DEBUG,hospital.hospital_management_system.audit=WARN"
+ * (the longest matching package or class prefix wins), and can be changed while the app runs over
+ * JMX (hospital.hospital_management_system:type=Logging). Each message text is limited to
+ * DB__LOG_RATE_PER_SECOND (default 20) per logger; the rest are counted and reported with the
+ * next one that gets through. A full buffer drops messages rather than block the caller.
+ */
+public final class Log {
+
+    public enum Level { ERROR, WARN, INFO, DEBUG, TRACE }
+
+    private static final int CAPACITY = Integer.parseInt(EnvLoader.get("DB__LOG_BUFFER", "4096"));
+    private static final int RATE_PER_SECOND = Integer.parseInt(EnvLoader.get("DB__LOG_RATE_PER_SECOND", "20"));
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private static final ConcurrentMap<String, Log> loggers = new ConcurrentHashMap<>();
+    private static final Map<String, Level> levels = new TreeMap<>();   // guarded by Log.class
+    private static volatile Level defaultLevel = parseLevel(EnvLoader.get("DB__LOG_LEVEL", "INFO"), Level.INFO);
+
+    private static final RingBuffer<Entry> BUFFER = new RingBuffer<>(CAPACITY);
+    private static final LongAdder dropped = new LongAdder();
+    private static final LongAdder suppressed = new LongAdder();
+    // Accepted but not yet printed: in the buffer or in the writer's current batch
+    private static final LongAdder unwritten = new LongAdder();
+    private static volatile Thread writer;
+
+    static {
+        for (String setting : EnvLoader.get("DB__LOG_LEVELS", "").split(",")) {
+            int separator = setting.indexOf('=');
+            if (separator > 0) {
+                Level level = parseLevel(setting.substring(separator + 1), null);
+                if (level != null) {
+                    levels.put(setting.substring(0, separator).strip(), level);
+                }
+            }
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Jmx(),
+                    new ObjectName("hospital.hospital_management_system:type=Logging"));
+        } catch (Exception e) {
+            System.err.println("Logging not registered with JMX: " + e.getMessage());
+        }
+    }
+
+    private final String name;
+    private final String shortName;
+    private final ConcurrentMap<String, RateLimit> limits = new ConcurrentHashMap<>();
+    private volatile int threshold;   // ordinal of the most detailed level written
+
+    private Log(String name) {
+        this.name = name;
+        this.shortName = name.substring(name.lastIndexOf('.') + 1);
+        this.threshold = levelFor(name).ordinal();
+    }
+
+    public static Log get(Class<?> type) {
+        return get(type.getName());
+    }
+
+    public static Log get(String name) {
+        Log log = loggers.get(name);
+        if (log == null) {
+            synchronized (Log.class) {   // so a level set meanwhile is not missed
+                log = loggers.computeIfAbsent(name, Log::new);
+            }
+        }
+        return log;
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.ordinal() <= threshold;
+    }
+
+    public boolean isDebugEnabled() {
+        return Level.DEBUG.ordinal() <= threshold;
+    }
+
+    public void error(String message) { log(Level.ERROR, message, null, null, null); }
+    public void error(String message, Throwable error) { log(Level.ERROR, message, error, null, null); }
+    public void error(String format, Object a) { log(Level.ERROR, format, a, null, null); }
+    public void error(String format, Object a, Object b) { log(Level.ERROR, format, a, b, null); }
+    public void error(String format, Object a, Object b, Object c) { log(Level.ERROR, format, a, b, c); }
+
+    public void warn(String message) { log(Level.WARN, message, null, null, null); }
+    public void warn(String message, Throwable error) { log(Level.WARN, message, error, null, null); }
+    public void warn(String format, Object a) { log(Level.WARN, format, a, null, null); }
+    public void warn(String format, Object a, Object b) { log(Level.WARN, format, a, b, null); }
+    public void warn(String format, Object a, Object b, Object c) { log(Level.WARN, format, a, b, c); }
+
+    public void info(String message) { log(Level.INFO, message, null, null, null); }
+    public void info(String format, Object a) { log(Level.INFO, format, a, null, null); }
+    public void info(String format, long a) { if (isEnabled(Level.INFO)) log(Level.INFO, format, a, null, null); }
+    public void info(String format, Object a, Object b) { log(Level.INFO, format, a, b, null); }
+    public void info(String format, Object a, Object b, Object c) { log(Level.INFO, format, a, b, c); }
+
+    public void debug(String message) { log(Level.DEBUG, message, null, null, null); }
+    public void debug(String format, Object a) { log(Level.DEBUG, format, a, null, null); }
+    public void debug(String format, long a) { if (isEnabled(Level.DEBUG)) log(Level.DEBUG, format, a, null, null); }
+    public void debug(String format, Object a, Object b) { log(Level.DEBUG, format, a, b, null); }
+    public void debug(String format, Object a, Object b, Object c) { log(Level.DEBUG, format, a, b, c); }
+
+    private void log(Level level, String format, Object a, Object b, Object c) {
+        if (level.ordinal() > threshold) {
+            return;
+        }
+        RateLimit limit = limits.get(format);
+        if (limit == null) {
+            limit = limits.computeIfAbsent(format, key -> new RateLimit());
+        }
+        int skipped = limit.acquire(System.nanoTime());
+        if (skipped < 0) {
+            suppressed.increment();
+            return;
+        }
+        unwritten.increment();
+        if (!BUFFER.offer(new Entry(System.currentTimeMillis(), level, this, Thread.currentThread().getName(),
+                format, a, b, c, skipped))) {
+            unwritten.decrement();
+            dropped.increment();
+            return;
+        }
+        Thread current = writer;
+        if (current == null) {
+            start();
+        } else if (level == Level.ERROR) {
+            LockSupport.unpark(current);   // errors show up straight away
+        }
+    }
+
+    /**
+     * Writes everything logged so far; returns once it has all been printed or after a second.
+     */
+    public static void flush() {
+        Thread current = writer;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (current != null && unwritten.sum() > 0 && System.nanoTime() < deadline) {
+            LockSupport.unpark(current);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    public static synchronized void setLevel(String prefix, Level level) {
+        if (level == null) {
+            levels.remove(prefix);
+        } else {
+            levels.put(prefix, level);
+        }
+        for (Log log : loggers.values()) {
+            log.threshold = levelFor(log.name).ordinal();
+        }
+    }
+
+    public static synchronized void setDefaultLevel(Level level) {
+        defaultLevel = level;
+        for (Log log : loggers.values()) {
+            log.threshold = levelFor(log.name).ordinal();
+        }
+    }
+
+    public static long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public static long getSuppressedCount() {
+        return suppressed.sum();
+    }
+
+    private static synchronized Level levelFor(String name) {
+        Level level = defaultLevel;
+        int matched = -1;
+        for (Map.Entry<String, Level> setting : levels.entrySet()) {
+            String prefix = setting.getKey();
+            boolean matches = name.equals(prefix)
+                    || (name.startsWith(prefix) && name.charAt(prefix.length()) == '.');
+            if (matches && prefix.length() > matched) {
+                level = setting.getValue();
+                matched = prefix.length();
+            }
+        }
+        return level;
+    }
+
+    private static Level parseLevel(String value, Level fallback) {
+        try {
+            return Level.valueOf(value.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+
+    private static synchronized void start() {
+        if (writer != null) {
+            return;
+        }
+        Thread thread = new Thread(Log::runWriter, "log-writer");
+        thread.setDaemon(true);
+        thread.start();
+        try {
+            Runtime.getRuntime().addShutdownHook(new Thread(Log::flush, "log-flush"));
+        } catch (IllegalStateException e) {
+            // already shutting down; the daemon writer gets what it gets
+        }
+        writer = thread;
+    }
+
+    private static void runWriter() {
+        List<Entry> batch = new ArrayList<>(256);
+        StringBuilder out = new StringBuilder(8192);
+        StringBuilder err = new StringBuilder(8192);
+        long reportedDrops = 0;
+        while (true) {
+            int count = BUFFER.drainTo(batch, 256);
+            if (count == 0) {
+                LockSupport.parkNanos(IDLE_NANOS);
+                continue;
+            }
+            for (Entry entry : batch) {
+                entry.appendTo(entry.level.compareTo(Level.WARN) <= 0 ? err : out);
+            }
+            batch.clear();
+            long drops = dropped.sum();
+            if (drops != reportedDrops) {
+                err.append(Instant.now()).append(" WARN  Log: ").append(drops - reportedDrops)
+                        .append(" message(s) dropped, log buffer full").append(System.lineSeparator());
+                reportedDrops = drops;
+            }
+            print(System.out, out);
+            print(System.err, err);
+            unwritten.add(-count);
+        }
+    }
+
+    private static void print(PrintStream stream, StringBuilder text) {
+        if (text.length() > 0) {
+            stream.print(text);
+            stream.flush();
+            text.setLength(0);
+        }
+    }
+
+    // At most RATE_PER_SECOND messages per second for one message text of one logger
+    private static final class RateLimit {
+        private long windowStart = System.nanoTime();
+        private int count;
+        private int skipped;
+
+        // -1 to suppress, else how many were suppressed since the last one that got through
+        synchronized int acquire(long now) {
+            if (now - windowStart >= TimeUnit.SECONDS.toNanos(1)) {
+                windowStart = now;
+                count = 0;
+            }
+            if (count >= RATE_PER_SECOND) {
+                skipped++;
+                return -1;
+            }
+            count++;
+            int result = skipped;
+            skipped = 0;
+            return result;
+        }
+    }
+
+    private record Entry(long millis, Level level, Log log, String thread, String format,
+                         Object a, Object b, Object c, int skipped) {
+
+        void appendTo(StringBuilder line) {
+            line.append(Instant.ofEpochMilli(millis)).append(' ')
+                    .append(String.format("%-5s", level)).append(' ')
+                    .append(log.shortName).append(" [").append(thread).append("]: ");
+            Object[] args = {a, b, c};
+            int used = 0;
+            int from = 0;
+            int at;
+            while (used < args.length && (at = format.indexOf("{}", from)) >= 0) {
+                line.append(format, from, at).append(args[used++]);
+                from = at + 2;
+            }
+            line.append(format, from, format.length());
+            if (skipped > 0) {
+                line.append(" (").append(skipped).append(" similar suppressed)");
+            }
+            line.append(System.lineSeparator());
+            for (int i = used; i < args.length; i++) {
+                if (args[i] instanceof Throwable error) {
+                    StringWriter trace = new StringWriter();
+                    error.printStackTrace(new PrintWriter(trace));
+                    line.append(trace);
+                }
+            }
+        }
+    }
+
+    private static final class Jmx implements LogMXBean {
+        @Override
+        public String getDefaultLevel() {
+            return defaultLevel.name();
+        }
+
+        @Override
+        public void setDefaultLevel(String level) {
+            Log.setDefaultLevel(Level.valueOf(level.strip().toUpperCase(Locale.ROOT)));
+        }
+
+        @Override
+        public Map<String, String> getLevels() {
+            Map<String, String> result = new TreeMap<>();
+            synchronized (Log.class) {
+                levels.forEach((prefix, level) -> result.put(prefix, level.name()));
+            }
+            return result;
+        }
+
+        @Override
+        public void setLevel(String prefix, String level) {
+            Log.setLevel(prefix, level == null || level.isBlank() ? null
+                    : Level.valueOf(level.strip().toUpperCase(Locale.ROOT)));
+        }
+
+        @Override
+        public long getDroppedCount() {
+            return dropped.sum();
+        }
+
+        @Override
+        public long getSuppressedCount() {
+            return suppressed.sum();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package hospital.hospital_management_system.utils;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link Log}, registered as hospital.hospital_management_system:type=Logging.
+ * Levels are ERROR, WARN, INFO, DEBUG or TRACE; setLevel with an empty level removes the override.
+ */
+public interface LogMXBean {
+
+    String getDefaultLevel();
+
+    void setDefaultLevel(String level);
+
+    Map<String, String> getLevels();
+
+    void setLevel(String prefix, String level);
+
+    long getDroppedCount();
+
+    long getSuppressedCount();
+}
@@ -0,0 +1,111 @@
+package hospital.hospital_management_system.utils;
+
+/**
+ * Phonetic codes and string similarity for matching people's names. Names are compared on their
+ * letters only, case-insensitively, so "O'Neil" and "oneil" are the same name.
+ */
+public final class NameSimilarity {
+
+    // Soundex digit for A..Z; '0' for vowels (they separate equal codes), '9' for H and W (they do not)
+    private static final String CODES = "01230129022455012623019202";
+
+    private NameSimilarity() {} // Prevent instantiation
+
+    /**
+     * American Soundex, e.g. "Robert" and "Rupert" are both R163. Returns "" for a name without
+     * letters. Must give the same result as patient_soundex in V8__patient_duplicate_blocking.sql,
+     * which the blocking index is built on.
+     */
+    public static String soundex(String name) {
+        String letters = letters(name);
+        if (letters.isEmpty()) {
+            return "";
+        }
+        char[] code = {letters.charAt(0), '0', '0', '0'};
+        char previous = CODES.charAt(letters.charAt(0) - 'A');
+        if (previous == '9') {
+            previous = '0';
+        }
+        int length = 1;
+        for (int i = 1; i < letters.length() && length < 4; i++) {
+            char digit = CODES.charAt(letters.charAt(i) - 'A');
+            if (digit == '9') {
+                continue;
+            }
+            if (digit != '0' && digit != previous) {
+                code[length++] = digit;
+            }
+            previous = digit;
+        }
+        return new String(code);
+    }
+
+    /**
+     * Jaro-Winkler similarity of the letters of two names: 1.0 for the same name, 0.0 when they
+     * have nothing in common. Typing slips such as a dropped or doubled letter stay above 0.9.
+     */
+    public static double jaroWinkler(String a, String b) {
+        String s = letters(a);
+        String t = letters(b);
+        if (s.isEmpty() || t.isEmpty()) {
+            return s.equals(t) ? 1.0 : 0.0;
+        }
+        if (s.equals(t)) {
+            return 1.0;
+        }
+        int window = Math.max(0, Math.max(s.length(), t.length()) / 2 - 1);
+        boolean[] sMatched = new boolean[s.length()];
+        boolean[] tMatched = new boolean[t.length()];
+        int matches = 0;
+        for (int i = 0; i < s.length(); i++) {
+            int from = Math.max(0, i - window);
+            int to = Math.min(t.length(), i + window + 1);
+            for (int j = from; j < to; j++) {
+                if (!tMatched[j] && s.charAt(i) == t.charAt(j)) {
+                    sMatched[i] = true;
+                    tMatched[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0.0;
+        }
+        int transpositions = 0;
+        for (int i = 0, j = 0; i < s.length(); i++) {
+            if (sMatched[i]) {
+                while (!tMatched[j]) {
+                    j++;
+                }
+                if (s.charAt(i) != t.charAt(j)) {
+                    transpositions++;
+                }
+                j++;
+            }
+        }
+        double m = matches;
+        double jaro = (m / s.length() + m / t.length() + (m - transpositions / 2.0) / m) / 3.0;
+
+        int prefix = 0;
+        while (prefix < 4 && prefix < s.length() && prefix < t.length() && s.charAt(prefix) == t.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * 0.1 * (1.0 - jaro);
+    }
+
+    // Upper-case A-Z only, the same letters patient_soundex keeps
+    private static String letters(String name) {
+        if (name == null) {
+            return "";
+        }
+        StringBuilder letters = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = Character.toUpperCase(name.charAt(i));
+            if (c >= 'A' && c <= 'Z') {
+                letters.append(c);
+            }
+        }
+        return letters.toString();
+    }
+}
@@ -0,0 +1,40 @@
+package hospital.hospital_management_system.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+
+/**
+ * Creates files and directories only their owner can read, for local copies of patient data
+ * (snapshots, the audit spool). Where the file system has no POSIX permissions (Windows) they
+ * get the defaults of the directory they are created in.
+ */
+public final class PrivateFiles {
+
+    private PrivateFiles() {} // Prevent instantiation
+
+    /**
+     * Attributes that create a file as rw-------, for Files.createFile, createTempFile or
+     * FileChannel.open.
+     */
+    public static FileAttribute<?>[] ownerOnly(Path file) {
+        return permissions(file, "rw-------");
+    }
+
+    /**
+     * Creates the directory and any missing parents as rwx------; ones that exist are left as
+     * they are.
+     */
+    public static Path createDirectories(Path directory) throws IOException {
+        return Files.createDirectories(directory, permissions(directory, "rwx------"));
+    }
+
+    private static FileAttribute<?>[] permissions(Path path, String permissions) {
+        if (!path.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return new FileAttribute<?>[0];
+        }
+        return new FileAttribute<?>[] {PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(permissions))};
+    }
+}
@@ -0,0 +1,176 @@
+package hospital.hospital_management_system.utils;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import javax.management.ObjectName;
+
+/**
+ * Per-statement timings, row counts and connection-acquire times for every DAO call,
+ * collected by {@link InstrumentedConnection}. Statements slower than DB__SLOW_QUERY_MS
+ * (default 200) are appended to the slow-query log (DB__SLOW_QUERY_LOG) with parameter
+ * values redacted, since they can hold patient data.
+ * <p>
+ * Statements are grouped by their SQL with whitespace collapsed and literals replaced by ?.
+ * At most DB__QUERY_METRICS_MAX_STATEMENTS (default 500) are tracked separately, since some
+ * SQL is built per call (the export picks its columns); any beyond that share one entry.
+ */
+public final class QueryMetrics {
+
+    private static final Log log = Log.get(QueryMetrics.class);
+
+    private static final int MAX_STATEMENTS = Integer.parseInt(EnvLoader.get("DB__QUERY_METRICS_MAX_STATEMENTS", "500"));
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Normalised SQL -> stats
+    private static final ConcurrentMap<String, StatementStats> statements = new ConcurrentHashMap<>();
+    // SQL as the DAO wrote it -> stats, so the usual lookup skips normalising
+    private static final ConcurrentMap<String, StatementStats> bySql = new ConcurrentHashMap<>();
+    private static final StatementStats otherStatements = new StatementStats("<other statements>");
+    private static final AtomicBoolean overflowLogged = new AtomicBoolean();
+    private static final StatementStats connectionAcquire = new StatementStats("<connection acquire>");
+    private static final Path SLOW_QUERY_LOG = Path.of(EnvLoader.get("DB__SLOW_QUERY_LOG", "logs/slow-queries.log"));
+
+    private static volatile long slowQueryThresholdNanos =
+            TimeUnit.MILLISECONDS.toNanos(Long.parseLong(EnvLoader.get("DB__SLOW_QUERY_MS", "200")));
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Jmx(),
+                    new ObjectName("hospital.hospital_management_system:type=QueryMetrics"));
+        } catch (Exception e) {
+            log.warn("Query metrics not registered with JMX: {}", e.getMessage());
+        }
+    }
+
+    private QueryMetrics() {} // Prevent instantiation
+
+    /**
+     * Stats for a statement, shared by every statement with the same {@link #normalize normalised} SQL.
+     */
+    static StatementStats forSql(String sql) {
+        StatementStats stats = bySql.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        String key = normalize(sql);
+        stats = statements.get(key);
+        if (stats == null) {
+            if (statements.size() >= MAX_STATEMENTS) {
+                if (overflowLogged.compareAndSet(false, true)) {
+                    log.warn("More than {} distinct statements; further ones are counted as <other statements>", MAX_STATEMENTS);
+                }
+                return otherStatements;
+            }
+            stats = statements.computeIfAbsent(key, StatementStats::new);
+        }
+        if (bySql.size() < MAX_STATEMENTS) {
+            bySql.putIfAbsent(sql, stats);
+        }
+        return stats;
+    }
+
+    static String normalize(String sql) {
+        String text = STRING_LITERAL.matcher(sql).replaceAll("?");
+        text = NUMBER_LITERAL.matcher(text).replaceAll("?");
+        return WHITESPACE.matcher(text.strip()).replaceAll(" ");
+    }
+
+    static void recordConnectionAcquire(long nanos) {
+        connectionAcquire.recordExecution(nanos);
+    }
+
+    static boolean isSlow(long nanos) {
+        return nanos >= slowQueryThresholdNanos;
+    }
+
+    /**
+     * @param parameterTypes bound parameter types by index; the values themselves are never logged
+     */
+    static void logSlowQuery(StatementStats stats, long nanos, List<String> parameterTypes) {
+        StringBuilder line = new StringBuilder()
+                .append(Instant.now()).append(' ')
+                .append(TimeUnit.NANOSECONDS.toMillis(nanos)).append(" ms ")
+                .append("sql=\"").append(stats.getSql()).append("\" params=[");
+        for (int i = 0; i < parameterTypes.size(); i++) {
+            if (i > 0) line.append(", ");
+            line.append(i + 1).append(':').append(parameterTypes.get(i)).append("=<redacted>");
+        }
+        line.append(']').append(System.lineSeparator());
+
+        synchronized (QueryMetrics.class) {
+            try {
+                if (SLOW_QUERY_LOG.getParent() != null) {
+                    Files.createDirectories(SLOW_QUERY_LOG.getParent());
+                }
+                Files.writeString(SLOW_QUERY_LOG, line, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                log.warn("Could not write slow-query log: {}", e.getMessage());
+            }
+        }
+    }
+
+    public static List<StatementSnapshot> snapshot() {
+        List<StatementSnapshot> result = new ArrayList<>();
+        for (StatementStats stats : statements.values()) {
+            result.add(new StatementSnapshot(stats));
+        }
+        if (otherStatements.getExecutions() > 0) {
+            result.add(new StatementSnapshot(otherStatements));
+        }
+        result.sort(Comparator.comparingDouble(s -> -s.getMeanMillis() * s.getExecutions()));
+        return result;
+    }
+
+    public static StatementSnapshot connectionAcquireSnapshot() {
+        return new StatementSnapshot(connectionAcquire);
+    }
+
+    public static void reset() {
+        statements.values().forEach(StatementStats::reset);
+        otherStatements.reset();
+        connectionAcquire.reset();
+    }
+
+    private static final class Jmx implements QueryMetricsMXBean {
+        @Override
+        public List<StatementSnapshot> getStatements() {
+            return snapshot();
+        }
+
+        @Override
+        public StatementSnapshot getConnectionAcquire() {
+            return connectionAcquireSnapshot();
+        }
+
+        @Override
+        public long getSlowQueryThresholdMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(slowQueryThresholdNanos);
+        }
+
+        @Override
+        public void setSlowQueryThresholdMillis(long millis) {
+            slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+
+        @Override
+        public void reset() {
+            QueryMetrics.reset();
+        }
+    }
+}
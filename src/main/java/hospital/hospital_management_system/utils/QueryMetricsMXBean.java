@@ -0,0 +1,20 @@
+package hospital.hospital_management_system.utils;
+
+import java.util.List;
+
+/**
+ * JMX view of {@link QueryMetrics}, registered as hospital.hospital_management_system:type=QueryMetrics.
+ * Browse it with JConsole or VisualVM while the app runs.
+ */
+public interface QueryMetricsMXBean {
+
+    List<StatementSnapshot> getStatements();
+
+    StatementSnapshot getConnectionAcquire();
+
+    long getSlowQueryThresholdMillis();
+
+    void setSlowQueryThresholdMillis(long millis);
+
+    void reset();
+}
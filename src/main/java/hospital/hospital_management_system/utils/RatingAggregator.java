@@ -0,0 +1,132 @@
+package hospital.hospital_management_system.utils;
+
+import hospital.hospital_management_system.model.RatingStats;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rating histograms per day, ISO week and month, kept in flat int arrays: five counters per
+ * period, indexed by the period's offset from the earliest one seen. Adding or removing a
+ * rating touches three counters and reading a period is five array loads, however much
+ * feedback there is. Count, sum and average come from the histogram.
+ */
+public final class RatingAggregator {
+
+    private static final int RATINGS = 5;
+
+    private final Buckets days = new Buckets();
+    private final Buckets weeks = new Buckets();
+    private final Buckets months = new Buckets();
+
+    /**
+     * Adds {@code delta} ratings of {@code rating} (1 to 5) given on {@code day};
+     * a negative delta removes them.
+     */
+    public synchronized void add(LocalDate day, int rating, int delta) {
+        if (rating < 1 || rating > RATINGS) {
+            throw new IllegalArgumentException("Rating must be between 1 and 5: " + rating);
+        }
+        days.add(dayKey(day), rating, delta);
+        weeks.add(weekKey(day), rating, delta);
+        months.add(monthKey(YearMonth.from(day)), rating, delta);
+    }
+
+    public synchronized RatingStats getDay(LocalDate day) {
+        return new RatingStats(day, days.histogram(dayKey(day)));
+    }
+
+    /**
+     * The Monday-to-Sunday week containing {@code day}.
+     */
+    public synchronized RatingStats getWeek(LocalDate day) {
+        return new RatingStats(day.with(DayOfWeek.MONDAY), weeks.histogram(weekKey(day)));
+    }
+
+    public synchronized RatingStats getMonth(YearMonth month) {
+        return new RatingStats(month.atDay(1), months.histogram(monthKey(month)));
+    }
+
+    /**
+     * Every week (or month) overlapping [from, to) that has ratings, oldest first.
+     */
+    public synchronized List<RatingStats> getTrend(boolean monthly, LocalDate from, LocalDate to) {
+        List<RatingStats> trend = new ArrayList<>();
+        LocalDate start = monthly ? from.withDayOfMonth(1) : from.with(DayOfWeek.MONDAY);
+        for (LocalDate period = start; period.isBefore(to); period = monthly ? period.plusMonths(1) : period.plusWeeks(1)) {
+            RatingStats stats = monthly ? getMonth(YearMonth.from(period)) : getWeek(period);
+            if (stats.getCount() > 0) {
+                trend.add(stats);
+            }
+        }
+        return trend;
+    }
+
+    public synchronized void clear() {
+        days.clear();
+        weeks.clear();
+        months.clear();
+    }
+
+    private static int dayKey(LocalDate day) {
+        return Math.toIntExact(day.toEpochDay());
+    }
+
+    // 1970-01-01 was a Thursday; shifting by three days puts week boundaries on Mondays
+    private static int weekKey(LocalDate day) {
+        return Math.toIntExact(Math.floorDiv(day.toEpochDay() + 3, 7));
+    }
+
+    private static int monthKey(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    // Counters for a contiguous run of periods; grows in either direction by doubling
+    private static final class Buckets {
+        private int first;
+        private int[] counts;
+
+        void add(int key, int rating, int delta) {
+            ensure(key);
+            counts[(key - first) * RATINGS + rating - 1] += delta;
+        }
+
+        int[] histogram(int key) {
+            int[] histogram = new int[RATINGS];
+            if (counts != null && key >= first && key < first + counts.length / RATINGS) {
+                System.arraycopy(counts, (key - first) * RATINGS, histogram, 0, RATINGS);
+            }
+            return histogram;
+        }
+
+        void clear() {
+            counts = null;
+        }
+
+        private void ensure(int key) {
+            if (counts == null) {
+                first = key;
+                counts = new int[16 * RATINGS];
+                return;
+            }
+            int size = counts.length / RATINGS;
+            if (key >= first && key < first + size) {
+                return;
+            }
+            int newFirst = Math.min(first, key);
+            int needed = Math.max(first + size, key + 1) - newFirst;
+            int newSize = Math.max(size * 2, needed);
+            if (key < first) {
+                // keep the room on the side that is growing
+                newFirst = first + size - newSize;
+            }
+            int[] grown = new int[newSize * RATINGS];
+            System.arraycopy(counts, 0, grown, (first - newFirst) * RATINGS, counts.length);
+            counts = grown;
+            first = newFirst;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package hospital.hospital_management_system.utils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks a read-only replica for {@link DBConnection#getReadConnection()}.
+ *
+ * DB__REPLICAS lists replicas as host:port pairs separated by commas; they use the primary's
+ * database name and credentials. Replicas are used round-robin, skipping any that failed their
+ * last health check (unreachable, or replaying more than DB__REPLICA_MAX_LAG_MS behind).
+ * After this app instance commits a write, the first read asks the primary for its WAL position
+ * (pg_current_wal_lsn) and reads go only to replicas that have replayed past it, so a screen
+ * reloading right after a save sees the save; while none has, they go to the primary.
+ */
+final class ReplicaRouter {
+
+    private static final Log log = Log.get(ReplicaRouter.class);
+
+    private static final long MAX_LAG_MILLIS = Long.parseLong(EnvLoader.get("DB__REPLICA_MAX_LAG_MS", "5000"));
+    private static final long CHECK_SECONDS = Long.parseLong(EnvLoader.get("DB__REPLICA_CHECK_SECONDS", "5"));
+
+    // Not a standby (e.g. promoted): nothing written by this app is known to be on it
+    private static final long UNKNOWN = Long.MIN_VALUE;
+
+    // Lag is 0 on a primary or a caught-up replica, otherwise how far replay is behind.
+    // The replay position is null on a server that is not a standby
+    private static final String HEALTH_QUERY = """
+            SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END,
+                   CASE WHEN pg_is_in_recovery() THEN pg_last_wal_replay_lsn()::text END
+            """;
+    private static final String REPLAY_QUERY = "SELECT CASE WHEN pg_is_in_recovery() THEN pg_last_wal_replay_lsn()::text END";
+
+    private static final List<Replica> replicas = parse(EnvLoader.get("DB__REPLICAS", ""));
+    private static final AtomicInteger next = new AtomicInteger();
+    private static volatile boolean written;           // committed a write since writeLsn was read
+    private static volatile long writeLsn = UNKNOWN;   // primary WAL position after this app's last write
+
+    static {
+        if (!replicas.isEmpty()) {
+            ScheduledExecutorService checker = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "replica-health-check");
+                thread.setDaemon(true);
+                return thread;
+            });
+            checker.scheduleWithFixedDelay(ReplicaRouter::checkAll, 0, CHECK_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private ReplicaRouter() {} // Prevent instantiation
+
+    /**
+     * A write was made, or one made in a transaction was committed.
+     */
+    static void recordWrite() {
+        written = true;
+    }
+
+    /**
+     * A connection to a healthy replica that has every write of this app, or null when the read
+     * should go to the primary.
+     */
+    static Connection open() {
+        if (replicas.isEmpty()) {
+            return null;
+        }
+        long wanted;
+        try {
+            wanted = writeLsn();
+        } catch (SQLException e) {
+            return null;   // the primary will report the problem to the read itself
+        }
+        for (Replica replica : candidates(replicas, next.getAndIncrement(), wanted)) {
+            try {
+                Connection conn = replica.open(wanted);
+                if (conn != null) {
+                    return conn;
+                }
+            } catch (SQLException e) {
+                replica.markDown(e.getMessage()); // the next health check brings it back
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The healthy replicas in round-robin order from {@code start}, those known to have
+     * replayed past {@code wanted} first; the others are only worth asking once opened.
+     */
+    static List<Replica> candidates(List<Replica> replicas, int start, long wanted) {
+        int count = replicas.size();
+        List<Replica> caughtUp = new ArrayList<>(count);
+        List<Replica> behind = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, count));
+            if (!replica.healthy) continue;
+            (replica.replayedLsn >= wanted ? caughtUp : behind).add(replica);
+        }
+        caughtUp.addAll(behind);
+        return caughtUp;
+    }
+
+    // The primary's WAL position after the last committed write, read again after each new one.
+    // A write committed while this runs sets written again, so the next read catches it
+    private static long writeLsn() throws SQLException {
+        if (written) {
+            written = false;
+            try (Connection conn = DBConnection.open();
+                 Statement st = conn.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT pg_current_wal_lsn()::text")) {
+                rs.next();
+                writeLsn = Math.max(writeLsn, parseLsn(rs.getString(1)));
+            } catch (SQLException e) {
+                written = true;
+                throw e;
+            }
+        }
+        return writeLsn;
+    }
+
+    /**
+     * A pg_lsn such as 16/B374D848 as a number that orders like it; null is {@link #UNKNOWN}.
+     */
+    static long parseLsn(String lsn) {
+        if (lsn == null) {
+            return UNKNOWN;
+        }
+        int slash = lsn.indexOf('/');
+        return Long.parseLong(lsn.substring(0, slash), 16) << 32 | Long.parseLong(lsn.substring(slash + 1), 16);
+    }
+
+    private static void checkAll() {
+        for (Replica replica : replicas) {
+            try (Connection conn = DriverManager.getConnection(replica.url, DBConnection.DB_USER, DBConnection.DB_PASSWORD);
+                 Statement st = conn.createStatement();
+                 ResultSet rs = st.executeQuery(HEALTH_QUERY)) {
+                rs.next();
+                long lagMillis = rs.getLong(1);
+                replica.replayedLsn = parseLsn(rs.getString(2));
+                if (lagMillis > MAX_LAG_MILLIS) {
+                    replica.markDown("replication lag " + lagMillis + " ms");
+                } else {
+                    replica.markUp();
+                }
+            } catch (SQLException e) {
+                replica.markDown(e.getMessage());
+            }
+        }
+    }
+
+    private static List<Replica> parse(String value) {
+        List<Replica> parsed = new ArrayList<>();
+        for (String hostPort : value.split(",")) {
+            if (!hostPort.isBlank()) {
+                parsed.add(new Replica(String.format("jdbc:postgresql://%s/%s", hostPort.trim(), DBConnection.DB_NAME)));
+            }
+        }
+        return parsed;
+    }
+
+    static final class Replica {
+        final String url;
+        volatile boolean healthy = true;
+        volatile long replayedLsn = UNKNOWN;   // as of the last health check or read
+
+        Replica(String url) {
+            this.url = url;
+        }
+
+        // A connection, or null if the replica has not replayed past wanted yet
+        Connection open(long wanted) throws SQLException {
+            long start = System.nanoTime();
+            Connection conn = DriverManager.getConnection(url, DBConnection.DB_USER, DBConnection.DB_PASSWORD);
+            QueryMetrics.recordConnectionAcquire(System.nanoTime() - start);
+            if (replayedLsn < wanted) {
+                try (Statement st = conn.createStatement();
+                     ResultSet rs = st.executeQuery(REPLAY_QUERY)) {
+                    rs.next();
+                    replayedLsn = parseLsn(rs.getString(1));
+                } catch (SQLException e) {
+                    conn.close();
+                    throw e;
+                }
+                if (replayedLsn < wanted) {
+                    conn.close();
+                    return null;
+                }
+            }
+            conn.setReadOnly(true);
+            return InstrumentedConnection.wrap(conn);
+        }
+
+        void markDown(String reason) {
+            if (healthy) {
+                log.warn("Replica {} taken out of rotation: {}", url, reason);
+            }
+            healthy = false;
+        }
+
+        void markUp() {
+            if (!healthy) {
+                log.info("Replica {} back in rotation", url);
+            }
+            healthy = true;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package hospital.hospital_management_system.utils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Retries for idempotent reads. A read failing with a {@link TransientDataAccessException} is
+ * tried up to DB__RETRY_ATTEMPTS times in all (default 3), sleeping a random time up to
+ * DB__RETRY_BACKOFF_MILLIS (default 100) doubled per attempt, capped at 2 s, so workstations
+ * that lost the database together do not come back together. Nothing is retried inside a
+ * {@link UnitOfWork} (the transaction is already aborted) or while the circuit breaker is open.
+ */
+public final class Resilience {
+
+    private static final int ATTEMPTS = Integer.parseInt(EnvLoader.get("DB__RETRY_ATTEMPTS", "3"));
+    private static final long BACKOFF_MILLIS = Long.parseLong(EnvLoader.get("DB__RETRY_BACKOFF_MILLIS", "100"));
+    private static final long MAX_BACKOFF_MILLIS = 2000;
+
+    private Resilience() {} // Prevent instantiation
+
+    public static <T> T retry(Supplier<T> read) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return read.get();
+            } catch (TransientDataAccessException e) {
+                if (attempt >= ATTEMPTS || e instanceof DatabaseUnavailableException || UnitOfWork.isActive()) {
+                    throw e;
+                }
+                long ceiling = Math.min(MAX_BACKOFF_MILLIS, BACKOFF_MILLIS << (attempt - 1));
+                try {
+                    TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * False while the circuit breaker is open, i.e. calls fail without trying the database.
+     */
+    public static boolean isDatabaseAvailable() {
+        return !CircuitBreaker.isOpen();
+    }
+}
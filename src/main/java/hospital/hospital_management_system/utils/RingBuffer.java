@@ -0,0 +1,79 @@
+package hospital.hospital_management_system.utils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer (the audit and log writers).
+ * Each slot carries a sequence number: a producer claims a position with one CAS on the tail and
+ * publishes its element by advancing the slot's sequence; the consumer frees the slot the same
+ * way. Producers never wait on each other or on the consumer; offer() fails when the buffer is
+ * full.
+ */
+public final class RingBuffer<E> {
+
+    private final int mask;
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();   // written by the consumer only
+
+    public RingBuffer(int minCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, minCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.elements = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public int capacity() {
+        return elements.length;
+    }
+
+    public boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int slot = (int) position & mask;
+            long sequence = sequences.get(slot);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements[slot] = element;
+                    sequences.set(slot, position + 1);   // volatile write publishes the element
+                    return true;
+                }
+            } else if (sequence < position) {
+                return false;   // the consumer has not freed this slot yet: full
+            }
+            // else another producer claimed the position first; retry with the new tail
+        }
+    }
+
+    /**
+     * Moves up to {@code max} elements into {@code into}, oldest first. Consumer thread only.
+     */
+    @SuppressWarnings("unchecked")
+    public int drainTo(List<? super E> into, int max) {
+        long position = head.get();
+        int drained = 0;
+        while (drained < max) {
+            int slot = (int) position & mask;
+            if (sequences.get(slot) != position + 1) {
+                break;   // empty, or claimed but not published yet
+            }
+            into.add((E) elements[slot]);
+            elements[slot] = null;
+            sequences.set(slot, position + elements.length);
+            position++;
+            drained++;
+        }
+        head.lazySet(position);
+        return drained;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+}
@@ -0,0 +1,56 @@
+package hospital.hospital_management_system.utils;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records how long the boot sequence takes, measured from JVM process start.
+ * The final "time-to-first-interactive-frame" line is what the startup benchmark parses.
+ */
+public final class StartupMetrics {
+
+    public static final String FIRST_FRAME_LABEL = "time-to-first-interactive-frame";
+
+    private static final Log log = Log.get(StartupMetrics.class);
+
+    private static final long JVM_START_MILLIS = ProcessHandle.current().info().startInstant()
+            .map(Instant::toEpochMilli)
+            .orElse(System.currentTimeMillis());
+
+    private static final Map<String, Long> phases = new LinkedHashMap<>();
+    private static boolean firstFrameRecorded;
+
+    private StartupMetrics() {} // Prevent instantiation
+
+    public static synchronized void mark(String phase) {
+        phases.put(phase, sinceJvmStart());
+    }
+
+    /**
+     * Records the first frame and logs the phase report. Only the first call counts.
+     */
+    public static synchronized void firstFrame() {
+        if (firstFrameRecorded) return;
+        firstFrameRecorded = true;
+        phases.put(FIRST_FRAME_LABEL, sinceJvmStart());
+
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, Long> entry : phases.entrySet()) {
+            report.append(System.lineSeparator())
+                    .append("  ").append(entry.getKey()).append(" = ").append(entry.getValue());
+        }
+        log.info("Startup phases (ms since JVM start):{}", report);
+    }
+
+    public static long sinceJvmStart() {
+        return System.currentTimeMillis() - JVM_START_MILLIS;
+    }
+
+    /**
+     * Set by the CDS training run and the startup benchmark so the app exits once it is interactive.
+     */
+    public static boolean exitAfterFirstFrame() {
+        return Boolean.getBoolean("hms.startup.exitAfterFirstFrame");
+    }
+}
@@ -0,0 +1,36 @@
+package hospital.hospital_management_system.utils;
+
+/**
+ * Point-in-time view of one statement's stats, shaped for JMX (exposed as CompositeData).
+ */
+public class StatementSnapshot {
+
+    private final String sql;
+    private final long executions;
+    private final long errors;
+    private final long rows;
+    private final double meanMillis;
+    private final double p50Millis;
+    private final double p99Millis;
+    private final double maxMillis;
+
+    StatementSnapshot(StatementStats stats) {
+        this.sql = stats.getSql();
+        this.executions = stats.getExecutions();
+        this.errors = stats.getErrors();
+        this.rows = stats.getRows();
+        this.meanMillis = stats.getMeanMillis();
+        this.p50Millis = stats.percentileMillis(0.50);
+        this.p99Millis = stats.percentileMillis(0.99);
+        this.maxMillis = stats.getMaxMillis();
+    }
+
+    public String getSql() { return sql; }
+    public long getExecutions() { return executions; }
+    public long getErrors() { return errors; }
+    public long getRows() { return rows; }
+    public double getMeanMillis() { return meanMillis; }
+    public double getP50Millis() { return p50Millis; }
+    public double getP99Millis() { return p99Millis; }
+    public double getMaxMillis() { return maxMillis; }
+}
@@ -0,0 +1,90 @@
+package hospital.hospital_management_system.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and a latency histogram for one SQL statement. Safe to update from many threads.
+ * The histogram uses power-of-two microsecond buckets, so percentiles are accurate to within 2x.
+ */
+public final class StatementStats {
+
+    private static final int BUCKETS = 40;
+
+    private final String sql;
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    StatementStats(String sql) {
+        this.sql = sql;
+    }
+
+    void recordExecution(long nanos) {
+        executions.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        long micros = Math.max(1, nanos / 1_000);
+        int bucket = Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+        buckets.incrementAndGet(bucket);
+    }
+
+    void recordError() {
+        errors.increment();
+    }
+
+    void recordRows(long count) {
+        rows.add(count);
+    }
+
+    public String getSql() { return sql; }
+    public long getExecutions() { return executions.sum(); }
+    public long getErrors() { return errors.sum(); }
+    public long getRows() { return rows.sum(); }
+
+    public double getMeanMillis() {
+        long count = executions.sum();
+        return count == 0 ? 0 : totalNanos.sum() / 1e6 / count;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / 1e6;
+    }
+
+    /**
+     * @return upper bound of the bucket holding the given quantile (0..1), in milliseconds
+     */
+    public double percentileMillis(double quantile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(getMaxMillis(), (2L << i) / 1_000.0);
+            }
+        }
+        return getMaxMillis();
+    }
+
+    void reset() {
+        executions.reset();
+        errors.reset();
+        rows.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package hospital.hospital_management_system.utils;
+
+/**
+ * A database failure that may succeed if tried again later. Reads are retried through
+ * {@link Resilience#retry}; writes are not, since the first attempt may have committed.
+ */
+public class TransientDataAccessException extends DataAccessException {
+
+    private static final long serialVersionUID = 1L;
+
+    public TransientDataAccessException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,220 @@
+package hospital.hospital_management_system.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One connection and one transaction shared by every DAO call made in its scope:
+ *
+ * <pre>
+ * try (UnitOfWork work = UnitOfWork.begin()) {
+ *     prescriptionDAO.addPrescription(prescription);
+ *     prescriptionItemDAO.addPrescriptionItems(items);
+ *     work.commit();
+ * }
+ * </pre>
+ *
+ * While it is open, DBConnection.getConnection() on the same thread returns the shared
+ * connection, and the DAOs closing it is a no-op. Closing without commit() rolls back.
+ * A statement that fails in the scope marks the unit rollback-only even when the DAO swallowed
+ * the exception; commit() then throws and close() rolls back.
+ * The scope is a ThreadLocal, which virtual threads carry per thread like platform threads.
+ * begin() inside an open unit joins it; only the outermost unit commits.
+ * {@link #afterCommit(Runnable)} defers work (e.g. audit events) until that commit succeeds.
+ */
+public final class UnitOfWork implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface Work<T> {
+        T run() throws SQLException;
+    }
+
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    private final UnitOfWork outer;       // null for the unit that owns the transaction
+    private final Connection physical;
+    private final Connection shared;
+    private boolean rollbackOnly;
+    private List<Runnable> afterCommit;   // owner only
+    private boolean committed;
+    private boolean closed;
+
+    private UnitOfWork(Connection physical) {
+        this.outer = null;
+        this.physical = physical;
+        this.shared = (Connection) Proxy.newProxyInstance(UnitOfWork.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new SharedConnection());
+    }
+
+    private UnitOfWork(UnitOfWork outer) {
+        this.outer = outer;
+        this.physical = outer.physical;
+        this.shared = outer.shared;
+    }
+
+    public static UnitOfWork begin() throws SQLException {
+        UnitOfWork current = CURRENT.get();
+        if (current != null) {
+            return new UnitOfWork(current);
+        }
+        Connection physical = DBConnection.open();
+        try {
+            physical.setAutoCommit(false);
+        } catch (SQLException e) {
+            physical.close();
+            throw e;
+        }
+        UnitOfWork work = new UnitOfWork(physical);
+        CURRENT.set(work);
+        return work;
+    }
+
+    /**
+     * Runs {@code work} in a unit of work and commits if it returns normally.
+     */
+    public static <T> T inTransaction(Work<T> work) throws SQLException {
+        try (UnitOfWork unit = begin()) {
+            T result = work.run();
+            unit.commit();
+            return result;
+        }
+    }
+
+    /**
+     * Whether the current thread is inside a unit of work, i.e. its writes are not committed yet.
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Runs {@code action} once the current thread's unit of work has committed, or straight away
+     * outside one. Dropped if the unit rolls back.
+     */
+    public static void afterCommit(Runnable action) {
+        UnitOfWork current = CURRENT.get();
+        if (current == null) {
+            action.run();
+            return;
+        }
+        UnitOfWork owner = current.owner();
+        if (owner.afterCommit == null) {
+            owner.afterCommit = new ArrayList<>();
+        }
+        owner.afterCommit.add(action);
+    }
+
+    // The connection DAOs should use on this thread, or null outside a unit of work
+    static Connection currentConnection() {
+        UnitOfWork current = CURRENT.get();
+        return current != null ? current.shared : null;
+    }
+
+    public void setRollbackOnly() {
+        owner().rollbackOnly = true;
+    }
+
+    public boolean isRollbackOnly() {
+        return owner().rollbackOnly;
+    }
+
+    public void commit() throws SQLException {
+        if (closed || committed) {
+            throw new IllegalStateException("Unit of work already finished");
+        }
+        if (owner().rollbackOnly) {
+            throw new SQLException("Unit of work is rollback-only; nothing was committed");
+        }
+        committed = true;
+        if (outer == null) {
+            physical.commit();
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (closed) return;
+        closed = true;
+        if (outer != null) {
+            if (!committed) {
+                outer.owner().rollbackOnly = true;
+            }
+            return;
+        }
+
+        CURRENT.remove();
+        try {
+            if (!committed) {
+                physical.rollback();
+            }
+        } finally {
+            physical.close();
+        }
+        if (committed && afterCommit != null) {
+            for (Runnable action : afterCommit) {
+                action.run();
+            }
+        }
+    }
+
+    private UnitOfWork owner() {
+        return outer == null ? this : outer.owner();
+    }
+
+    /**
+     * The connection handed to DAOs: close() does nothing, transaction control stays with the
+     * unit, and a failing statement marks the unit rollback-only.
+     */
+    private final class SharedConnection implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "commit", "rollback", "setAutoCommit":
+                    throw new SQLException(method.getName() + " is managed by the unit of work");
+                default:
+                    break;
+            }
+            Object result = InstrumentedConnection.invokeTarget(physical, method, args);
+            if (result instanceof Statement statement) {
+                Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                        : statement instanceof PreparedStatement ? PreparedStatement.class
+                        : Statement.class;
+                return Proxy.newProxyInstance(UnitOfWork.class.getClassLoader(),
+                        new Class<?>[]{type}, new FailureTracking(statement));
+            }
+            return result;
+        }
+    }
+
+    private final class FailureTracking implements InvocationHandler {
+        private final Statement target;
+
+        private FailureTracking(Statement target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            try {
+                return InstrumentedConnection.invokeTarget(target, method, args);
+            } catch (SQLException e) {
+                if (method.getName().startsWith("execute")) {
+                    owner().rollbackOnly = true;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -1,15 +1,20 @@
 module hospital.hospital_management_system {
     requires javafx.controls;
     requires javafx.fxml;
-    requires javafx.web;
+    requires static javafx.web;   // not used yet, keep it out of the boot layer and the jlink image
 
     requires java.sql;      // needed for JDBC
     requires java.base;     // usually implicit
+    requires java.management;   // query metrics are published over JMX
 
     exports hospital.hospital_management_system;
     exports hospital.hospital_management_system.model;
     exports hospital.hospital_management_system.dao;
     exports hospital.hospital_management_system.utils;
+    exports hospital.hospital_management_system.db;
+    exports hospital.hospital_management_system.export;
+    exports hospital.hospital_management_system.audit;
+    exports hospital.hospital_management_system.reminders;
 
 
     requires org.controlsfx.controls;
@@ -18,7 +23,7 @@ module hospital.hospital_management_system {
     requires org.kordamp.ikonli.javafx;
     requires org.kordamp.bootstrapfx.core;
     requires eu.hansolo.tilesfx;
-    requires com.almasb.fxgl.all;
+    requires static com.almasb.fxgl.all;   // same: only resolved when something actually needs it
     requires org.postgresql.jdbc;
 //    requires hospital.hospital_management_system;
 
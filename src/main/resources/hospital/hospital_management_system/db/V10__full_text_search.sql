@@ -0,0 +1,9 @@
+-- hms:no-transaction
+-- Full-text search over prescription notes and feedback comments (SearchDAO). Expression
+-- indexes rather than tsvector columns: nothing to keep in step on write, and the rows the
+-- audit trail copies stay as they were. SearchDAO must use the same expressions, word for word,
+-- for the planner to use them.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS prescriptions_notes_fts_idx
+    ON prescriptions USING GIN (to_tsvector('english', coalesce(notes, '')));
+CREATE INDEX CONCURRENTLY IF NOT EXISTS patient_feedback_comments_fts_idx
+    ON patient_feedback USING GIN (to_tsvector('english', coalesce(comments, '')));
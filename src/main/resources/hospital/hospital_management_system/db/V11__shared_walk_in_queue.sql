@@ -0,0 +1,13 @@
+-- walk_ins becomes the queue itself, shared by every front desk: WalkInDAO.callNext takes the
+-- next waiting row with FOR UPDATE SKIP LOCKED, so two stations never call the same patient.
+
+-- Triage order, most urgent first, as in WalkIn.Triage
+CREATE OR REPLACE FUNCTION walk_in_priority(triage text) RETURNS int
+    LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE
+AS $$
+    SELECT CASE triage WHEN 'EMERGENCY' THEN 0 WHEN 'URGENT' THEN 1 WHEN 'STANDARD' THEN 2 ELSE 3 END
+$$;
+
+-- The head of a department's queue, in WalkInDAO.callNext order
+CREATE INDEX IF NOT EXISTS walk_ins_waiting_idx
+    ON walk_ins (dept_id, walk_in_priority(triage), arrived_at, walk_in_id) WHERE status = 'Waiting';
@@ -0,0 +1,72 @@
+-- Marking a day dirty must lock its report_dirty_days row even when the row is already there.
+-- With ON CONFLICT DO NOTHING a writer could skip an existing row, a concurrent ReportDAO.refresh
+-- then claimed the day and recomputed it without the writer's uncommitted rows, and once the
+-- writer committed nothing marked the day again. Updating the row on conflict takes its lock,
+-- so the refresh's DELETE waits for the writer and sees its rows when it recomputes.
+
+CREATE OR REPLACE FUNCTION report_mark_appointments() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO report_dirty_days (report, day)
+        SELECT DISTINCT 'appointments', appointment_date::date FROM new_rows
+        ON CONFLICT (report, day) DO UPDATE SET day = EXCLUDED.day;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        INSERT INTO report_dirty_days (report, day)
+        SELECT DISTINCT 'appointments', appointment_date::date FROM old_rows
+        ON CONFLICT (report, day) DO UPDATE SET day = EXCLUDED.day;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION report_mark_feedback() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO report_dirty_days (report, day)
+        SELECT DISTINCT 'feedback', feedback_date FROM new_rows
+        ON CONFLICT (report, day) DO UPDATE SET day = EXCLUDED.day;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        INSERT INTO report_dirty_days (report, day)
+        SELECT DISTINCT 'feedback', feedback_date FROM old_rows
+        ON CONFLICT (report, day) DO UPDATE SET day = EXCLUDED.day;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION report_mark_prescriptions() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO report_dirty_days (report, day)
+        SELECT DISTINCT 'inventory', date_issued::date FROM new_rows
+        ON CONFLICT (report, day) DO UPDATE SET day = EXCLUDED.day;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        INSERT INTO report_dirty_days (report, day)
+        SELECT DISTINCT 'inventory', date_issued::date FROM old_rows
+        ON CONFLICT (report, day) DO UPDATE SET day = EXCLUDED.day;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION report_mark_prescription_items() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO report_dirty_days (report, day)
+        SELECT DISTINCT 'inventory', p.date_issued::date
+        FROM new_rows n JOIN prescriptions p ON p.prescription_id = n.prescription_id
+        ON CONFLICT (report, day) DO UPDATE SET day = EXCLUDED.day;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        -- on a cascade from prescriptions the parent is gone; its own trigger marked the day
+        INSERT INTO report_dirty_days (report, day)
+        SELECT DISTINCT 'inventory', p.date_issued::date
+        FROM old_rows o JOIN prescriptions p ON p.prescription_id = o.prescription_id
+        ON CONFLICT (report, day) DO UPDATE SET day = EXCLUDED.day;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
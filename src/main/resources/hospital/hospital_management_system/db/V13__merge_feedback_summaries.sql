@@ -0,0 +1,58 @@
+-- V3's report_feedback_daily (ratings and their sum per day, recomputed on refresh) and V4's
+-- feedback_rating_daily (the per-day histogram, kept exact by triggers) summarised the same
+-- rows twice on every feedback write. The rating report now reads the histogram, so the V3
+-- table and its triggers go. Feedback days are still marked dirty, now by the V4 triggers, so
+-- a refresh tells ReportService to drop its cached results; there is nothing to recompute.
+
+DROP TRIGGER IF EXISTS patient_feedback_report_insert ON patient_feedback;
+DROP TRIGGER IF EXISTS patient_feedback_report_update ON patient_feedback;
+DROP TRIGGER IF EXISTS patient_feedback_report_delete ON patient_feedback;
+DROP TRIGGER IF EXISTS patient_feedback_report_truncate ON patient_feedback;
+DROP FUNCTION IF EXISTS report_mark_feedback();
+DROP TABLE IF EXISTS report_feedback_daily;
+
+CREATE OR REPLACE FUNCTION feedback_rating_add(days DATE[], ratings INT[], deltas INT[]) RETURNS void AS $$
+BEGIN
+    INSERT INTO feedback_rating_daily AS f (day, rating_1, rating_2, rating_3, rating_4, rating_5)
+    SELECT c.day,
+           COALESCE(sum(c.delta) FILTER (WHERE c.rating = 1), 0),
+           COALESCE(sum(c.delta) FILTER (WHERE c.rating = 2), 0),
+           COALESCE(sum(c.delta) FILTER (WHERE c.rating = 3), 0),
+           COALESCE(sum(c.delta) FILTER (WHERE c.rating = 4), 0),
+           COALESCE(sum(c.delta) FILTER (WHERE c.rating = 5), 0)
+    FROM unnest(days, ratings, deltas) AS c(day, rating, delta)
+    GROUP BY c.day
+    ORDER BY c.day
+    ON CONFLICT (day) DO UPDATE SET
+        rating_1 = f.rating_1 + EXCLUDED.rating_1,
+        rating_2 = f.rating_2 + EXCLUDED.rating_2,
+        rating_3 = f.rating_3 + EXCLUDED.rating_3,
+        rating_4 = f.rating_4 + EXCLUDED.rating_4,
+        rating_5 = f.rating_5 + EXCLUDED.rating_5;
+
+    INSERT INTO report_dirty_days (report, day)
+    SELECT DISTINCT 'feedback', d FROM unnest(days) AS d
+    ORDER BY 2
+    ON CONFLICT DO NOTHING;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION report_truncated() RETURNS trigger AS $$
+BEGIN
+    IF TG_ARGV[0] = 'appointments' THEN
+        TRUNCATE report_appointments_daily;
+    ELSE
+        TRUNCATE report_inventory_daily;
+    END IF;
+    DELETE FROM report_dirty_days WHERE report = TG_ARGV[0];
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION feedback_rating_truncated() RETURNS trigger AS $$
+BEGIN
+    TRUNCATE feedback_rating_daily;
+    DELETE FROM report_dirty_days WHERE report = 'feedback';
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,65 @@
+-- Baseline: the tables the DAOs expect. IF NOT EXISTS lets it adopt a database created by hand.
+CREATE TABLE IF NOT EXISTS departments (
+    dept_id        BIGSERIAL PRIMARY KEY,
+    dept_name      VARCHAR(100) NOT NULL,
+    location_floor INT
+);
+
+CREATE TABLE IF NOT EXISTS doctors (
+    doctor_id      BIGSERIAL PRIMARY KEY,
+    first_name     VARCHAR(100) NOT NULL,
+    last_name      VARCHAR(100) NOT NULL,
+    email          VARCHAR(150),
+    specialization VARCHAR(100),
+    phone          VARCHAR(30),
+    dept_id        BIGINT REFERENCES departments (dept_id) ON DELETE SET NULL
+);
+
+CREATE TABLE IF NOT EXISTS patients (
+    patient_id     BIGSERIAL PRIMARY KEY,
+    first_name     VARCHAR(100) NOT NULL,
+    last_name      VARCHAR(100) NOT NULL,
+    dob            DATE NOT NULL,
+    gender         VARCHAR(10),
+    contact_number VARCHAR(30),
+    address        TEXT
+);
+
+CREATE TABLE IF NOT EXISTS appointments (
+    appointment_id   BIGSERIAL PRIMARY KEY,
+    patient_id       BIGINT REFERENCES patients (patient_id) ON DELETE CASCADE,
+    doctor_id        BIGINT REFERENCES doctors (doctor_id) ON DELETE SET NULL,
+    appointment_date TIMESTAMP NOT NULL,
+    status           VARCHAR(20) NOT NULL DEFAULT 'Scheduled',
+    reason           TEXT
+);
+
+CREATE TABLE IF NOT EXISTS prescriptions (
+    prescription_id BIGSERIAL PRIMARY KEY,
+    appointment_id  BIGINT NOT NULL REFERENCES appointments (appointment_id) ON DELETE CASCADE,
+    date_issued     TIMESTAMP NOT NULL DEFAULT now(),
+    notes           TEXT
+);
+
+CREATE TABLE IF NOT EXISTS medical_inventory (
+    item_id        BIGSERIAL PRIMARY KEY,
+    item_name      VARCHAR(150) NOT NULL,
+    stock_quantity INT NOT NULL DEFAULT 0,
+    unit_price     NUMERIC(10, 2)
+);
+
+CREATE TABLE IF NOT EXISTS prescription_items (
+    prescription_id    BIGINT NOT NULL REFERENCES prescriptions (prescription_id) ON DELETE CASCADE,
+    item_id            BIGINT NOT NULL REFERENCES medical_inventory (item_id),
+    dosage_instruction TEXT,
+    quantity_dispensed INT NOT NULL CHECK (quantity_dispensed > 0),
+    PRIMARY KEY (prescription_id, item_id)
+);
+
+CREATE TABLE IF NOT EXISTS patient_feedback (
+    feedback_id   BIGSERIAL PRIMARY KEY,
+    patient_id    BIGINT REFERENCES patients (patient_id) ON DELETE CASCADE,
+    rating        INT NOT NULL CHECK (rating BETWEEN 1 AND 5),
+    comments      TEXT,
+    feedback_date DATE NOT NULL DEFAULT CURRENT_DATE
+);
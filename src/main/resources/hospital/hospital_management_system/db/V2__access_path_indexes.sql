@@ -0,0 +1,39 @@
+-- hms:no-transaction
+-- Indexes for the DAO access paths. Built CONCURRENTLY so a live database keeps taking writes,
+-- which is why this script cannot run inside a transaction. If a build fails, drop the INVALID
+-- index it leaves behind before re-running.
+
+-- findByPatient / findByDoctor, ordered by date for the patient and doctor schedules
+CREATE INDEX CONCURRENTLY IF NOT EXISTS appointments_patient_date_idx
+    ON appointments (patient_id, appointment_date);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS appointments_doctor_date_idx
+    ON appointments (doctor_id, appointment_date);
+
+-- Day schedule (findSummariesBetween): covering, so the range scan never visits the heap
+CREATE INDEX CONCURRENTLY IF NOT EXISTS appointments_date_covering_idx
+    ON appointments (appointment_date) INCLUDE (appointment_id, patient_id, doctor_id, status);
+
+-- findByAppointment, and the ON DELETE CASCADE from appointments
+CREATE INDEX CONCURRENTLY IF NOT EXISTS prescriptions_appointment_idx
+    ON prescriptions (appointment_id);
+-- findAll lists the newest prescriptions first
+CREATE INDEX CONCURRENTLY IF NOT EXISTS prescriptions_date_issued_idx
+    ON prescriptions (date_issued DESC);
+
+-- prescription_items (prescription_id, ...) is served by the primary key; item_id needs its own
+-- index for deletes from medical_inventory
+CREATE INDEX CONCURRENTLY IF NOT EXISTS prescription_items_item_idx
+    ON prescription_items (item_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS patient_feedback_patient_date_idx
+    ON patient_feedback (patient_id, feedback_date);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS doctors_dept_idx
+    ON doctors (dept_id);
+
+-- ILIKE '%term%' searches on last name and specialization
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS patients_last_name_trgm_idx
+    ON patients USING gin (last_name gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS doctors_specialization_trgm_idx
+    ON doctors USING gin (specialization gin_trgm_ops);
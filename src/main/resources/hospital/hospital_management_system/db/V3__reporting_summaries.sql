@@ -0,0 +1,173 @@
+-- Per-day summary tables behind the Reports view, kept current incrementally: statement-level
+-- triggers record which days a write touched in report_dirty_days, and ReportDAO.refresh()
+-- recomputes only those days. Reports then read a few hundred summary rows instead of
+-- scanning appointments, feedback and prescriptions.
+
+CREATE TABLE IF NOT EXISTS report_dirty_days (
+    report VARCHAR(20) NOT NULL,   -- appointments | feedback | inventory
+    day    DATE NOT NULL,
+    PRIMARY KEY (report, day)
+);
+
+-- doctor_id 0 collects appointments without a doctor; departments are joined in at query time
+-- so moving a doctor to another department needs no recomputation
+CREATE TABLE IF NOT EXISTS report_appointments_daily (
+    day       DATE NOT NULL,
+    doctor_id BIGINT NOT NULL,
+    total     INT NOT NULL,
+    completed INT NOT NULL,
+    cancelled INT NOT NULL,
+    no_show   INT NOT NULL,
+    PRIMARY KEY (day, doctor_id)
+);
+
+CREATE TABLE IF NOT EXISTS report_feedback_daily (
+    day        DATE PRIMARY KEY,
+    ratings    INT NOT NULL,
+    rating_sum INT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS report_inventory_daily (
+    day           DATE NOT NULL,
+    item_id       BIGINT NOT NULL,
+    quantity      BIGINT NOT NULL,
+    prescriptions INT NOT NULL,
+    PRIMARY KEY (day, item_id)
+);
+
+-- Transition tables cannot be shared between events, hence one trigger per event below.
+-- plpgsql only plans the branch that runs, so each function may name both tables.
+
+CREATE OR REPLACE FUNCTION report_mark_appointments() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO report_dirty_days (report, day)
+        SELECT DISTINCT 'appointments', appointment_date::date FROM new_rows
+        ON CONFLICT DO NOTHING;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        INSERT INTO report_dirty_days (report, day)
+        SELECT DISTINCT 'appointments', appointment_date::date FROM old_rows
+        ON CONFLICT DO NOTHING;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION report_mark_feedback() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO report_dirty_days (report, day)
+        SELECT DISTINCT 'feedback', feedback_date FROM new_rows
+        ON CONFLICT DO NOTHING;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        INSERT INTO report_dirty_days (report, day)
+        SELECT DISTINCT 'feedback', feedback_date FROM old_rows
+        ON CONFLICT DO NOTHING;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Inventory usage is dated by the prescription, so changes to either table mark its day
+CREATE OR REPLACE FUNCTION report_mark_prescriptions() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO report_dirty_days (report, day)
+        SELECT DISTINCT 'inventory', date_issued::date FROM new_rows
+        ON CONFLICT DO NOTHING;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        INSERT INTO report_dirty_days (report, day)
+        SELECT DISTINCT 'inventory', date_issued::date FROM old_rows
+        ON CONFLICT DO NOTHING;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION report_mark_prescription_items() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO report_dirty_days (report, day)
+        SELECT DISTINCT 'inventory', p.date_issued::date
+        FROM new_rows n JOIN prescriptions p ON p.prescription_id = n.prescription_id
+        ON CONFLICT DO NOTHING;
+    END IF;
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        -- on a cascade from prescriptions the parent is gone; its own trigger marked the day
+        INSERT INTO report_dirty_days (report, day)
+        SELECT DISTINCT 'inventory', p.date_issued::date
+        FROM old_rows o JOIN prescriptions p ON p.prescription_id = o.prescription_id
+        ON CONFLICT DO NOTHING;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER appointments_report_insert AFTER INSERT ON appointments
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION report_mark_appointments();
+CREATE TRIGGER appointments_report_update AFTER UPDATE ON appointments
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION report_mark_appointments();
+CREATE TRIGGER appointments_report_delete AFTER DELETE ON appointments
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION report_mark_appointments();
+
+CREATE TRIGGER patient_feedback_report_insert AFTER INSERT ON patient_feedback
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION report_mark_feedback();
+CREATE TRIGGER patient_feedback_report_update AFTER UPDATE ON patient_feedback
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION report_mark_feedback();
+CREATE TRIGGER patient_feedback_report_delete AFTER DELETE ON patient_feedback
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION report_mark_feedback();
+
+CREATE TRIGGER prescriptions_report_insert AFTER INSERT ON prescriptions
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION report_mark_prescriptions();
+CREATE TRIGGER prescriptions_report_update AFTER UPDATE ON prescriptions
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION report_mark_prescriptions();
+CREATE TRIGGER prescriptions_report_delete AFTER DELETE ON prescriptions
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION report_mark_prescriptions();
+
+CREATE TRIGGER prescription_items_report_insert AFTER INSERT ON prescription_items
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION report_mark_prescription_items();
+CREATE TRIGGER prescription_items_report_update AFTER UPDATE ON prescription_items
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION report_mark_prescription_items();
+CREATE TRIGGER prescription_items_report_delete AFTER DELETE ON prescription_items
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION report_mark_prescription_items();
+
+-- TRUNCATE fires no row or transition triggers; emptying a source table empties its summary
+CREATE OR REPLACE FUNCTION report_truncated() RETURNS trigger AS $$
+BEGIN
+    IF TG_ARGV[0] = 'appointments' THEN
+        TRUNCATE report_appointments_daily;
+    ELSIF TG_ARGV[0] = 'feedback' THEN
+        TRUNCATE report_feedback_daily;
+    ELSE
+        TRUNCATE report_inventory_daily;
+    END IF;
+    DELETE FROM report_dirty_days WHERE report = TG_ARGV[0];
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER appointments_report_truncate AFTER TRUNCATE ON appointments
+    FOR EACH STATEMENT EXECUTE FUNCTION report_truncated('appointments');
+CREATE TRIGGER patient_feedback_report_truncate AFTER TRUNCATE ON patient_feedback
+    FOR EACH STATEMENT EXECUTE FUNCTION report_truncated('feedback');
+CREATE TRIGGER prescriptions_report_truncate AFTER TRUNCATE ON prescriptions
+    FOR EACH STATEMENT EXECUTE FUNCTION report_truncated('inventory');
+CREATE TRIGGER prescription_items_report_truncate AFTER TRUNCATE ON prescription_items
+    FOR EACH STATEMENT EXECUTE FUNCTION report_truncated('inventory');
+
+-- Data that existed before this migration: every day is dirty once
+INSERT INTO report_dirty_days (report, day)
+SELECT DISTINCT 'appointments', appointment_date::date FROM appointments
+ON CONFLICT DO NOTHING;
+INSERT INTO report_dirty_days (report, day)
+SELECT DISTINCT 'feedback', feedback_date FROM patient_feedback
+ON CONFLICT DO NOTHING;
+INSERT INTO report_dirty_days (report, day)
+SELECT DISTINCT 'inventory', date_issued::date FROM prescriptions
+ON CONFLICT DO NOTHING;
+
+-- The feedback refresh recomputes whole days
+CREATE INDEX IF NOT EXISTS patient_feedback_date_idx ON patient_feedback (feedback_date);
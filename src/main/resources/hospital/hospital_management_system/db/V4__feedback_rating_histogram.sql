@@ -0,0 +1,83 @@
+-- Exact per-day rating histogram, kept in step with patient_feedback by triggers in the same
+-- transaction as each write. PatientFeedbackService loads it (one row per day) into its
+-- in-memory aggregator instead of rescanning patient_feedback.
+
+CREATE TABLE IF NOT EXISTS feedback_rating_daily (
+    day      DATE PRIMARY KEY,
+    rating_1 INT NOT NULL DEFAULT 0,
+    rating_2 INT NOT NULL DEFAULT 0,
+    rating_3 INT NOT NULL DEFAULT 0,
+    rating_4 INT NOT NULL DEFAULT 0,
+    rating_5 INT NOT NULL DEFAULT 0
+);
+
+-- Adds delta[i] to the count of rating[i] on day[i]. Rows are upserted in day order so two
+-- concurrent multi-day writes cannot deadlock on each other's rows.
+CREATE OR REPLACE FUNCTION feedback_rating_add(days DATE[], ratings INT[], deltas INT[]) RETURNS void AS $$
+BEGIN
+    INSERT INTO feedback_rating_daily AS f (day, rating_1, rating_2, rating_3, rating_4, rating_5)
+    SELECT c.day,
+           COALESCE(sum(c.delta) FILTER (WHERE c.rating = 1), 0),
+           COALESCE(sum(c.delta) FILTER (WHERE c.rating = 2), 0),
+           COALESCE(sum(c.delta) FILTER (WHERE c.rating = 3), 0),
+           COALESCE(sum(c.delta) FILTER (WHERE c.rating = 4), 0),
+           COALESCE(sum(c.delta) FILTER (WHERE c.rating = 5), 0)
+    FROM unnest(days, ratings, deltas) AS c(day, rating, delta)
+    GROUP BY c.day
+    ORDER BY c.day
+    ON CONFLICT (day) DO UPDATE SET
+        rating_1 = f.rating_1 + EXCLUDED.rating_1,
+        rating_2 = f.rating_2 + EXCLUDED.rating_2,
+        rating_3 = f.rating_3 + EXCLUDED.rating_3,
+        rating_4 = f.rating_4 + EXCLUDED.rating_4,
+        rating_5 = f.rating_5 + EXCLUDED.rating_5;
+END;
+$$ LANGUAGE plpgsql;
+
+-- As in V3, one trigger per event because transition tables cannot be shared between events
+CREATE OR REPLACE FUNCTION feedback_rating_changed() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM feedback_rating_add(array_agg(feedback_date), array_agg(rating), array_agg(1))
+        FROM new_rows;
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM feedback_rating_add(array_agg(feedback_date), array_agg(rating), array_agg(-1))
+        FROM old_rows;
+    ELSE
+        PERFORM feedback_rating_add(array_agg(c.day), array_agg(c.rating), array_agg(c.delta))
+        FROM (SELECT feedback_date, rating, 1 FROM new_rows
+              UNION ALL
+              SELECT feedback_date, rating, -1 FROM old_rows) AS c(day, rating, delta);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER patient_feedback_rating_insert AFTER INSERT ON patient_feedback
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION feedback_rating_changed();
+CREATE TRIGGER patient_feedback_rating_update AFTER UPDATE ON patient_feedback
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION feedback_rating_changed();
+CREATE TRIGGER patient_feedback_rating_delete AFTER DELETE ON patient_feedback
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION feedback_rating_changed();
+
+CREATE OR REPLACE FUNCTION feedback_rating_truncated() RETURNS trigger AS $$
+BEGIN
+    TRUNCATE feedback_rating_daily;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER patient_feedback_rating_truncate AFTER TRUNCATE ON patient_feedback
+    FOR EACH STATEMENT EXECUTE FUNCTION feedback_rating_truncated();
+
+-- Feedback that existed before this migration
+INSERT INTO feedback_rating_daily (day, rating_1, rating_2, rating_3, rating_4, rating_5)
+SELECT feedback_date,
+       count(*) FILTER (WHERE rating = 1),
+       count(*) FILTER (WHERE rating = 2),
+       count(*) FILTER (WHERE rating = 3),
+       count(*) FILTER (WHERE rating = 4),
+       count(*) FILTER (WHERE rating = 5)
+FROM patient_feedback
+GROUP BY feedback_date
+ON CONFLICT (day) DO NOTHING;
@@ -0,0 +1,25 @@
+-- Last-modified timestamps on the reference tables, so clients holding a copy of them (the
+-- local snapshot, see ReferenceDataSync) can ask for rows changed since their watermark.
+-- now() is stable, so existing rows get the migration time without a table rewrite.
+
+ALTER TABLE departments ADD COLUMN IF NOT EXISTS updated_at TIMESTAMPTZ NOT NULL DEFAULT now();
+ALTER TABLE doctors     ADD COLUMN IF NOT EXISTS updated_at TIMESTAMPTZ NOT NULL DEFAULT now();
+ALTER TABLE patients    ADD COLUMN IF NOT EXISTS updated_at TIMESTAMPTZ NOT NULL DEFAULT now();
+
+-- Set on every update whatever the statement says, so no writer can forget it
+CREATE OR REPLACE FUNCTION touch_updated_at() RETURNS trigger AS $$
+BEGIN
+    NEW.updated_at := now();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER departments_touch_updated_at BEFORE UPDATE ON departments
+    FOR EACH ROW EXECUTE FUNCTION touch_updated_at();
+CREATE TRIGGER doctors_touch_updated_at BEFORE UPDATE ON doctors
+    FOR EACH ROW EXECUTE FUNCTION touch_updated_at();
+CREATE TRIGGER patients_touch_updated_at BEFORE UPDATE ON patients
+    FOR EACH ROW EXECUTE FUNCTION touch_updated_at();
+
+-- Only patients is large enough for the delta query to need an index
+CREATE INDEX IF NOT EXISTS patients_updated_at_idx ON patients (updated_at);
@@ -0,0 +1,32 @@
+-- Deleted reference rows, so a client syncing by updated_at (ReferenceDataSync) learns about
+-- deletes from a few index rows instead of comparing every id. Tombstones are kept for 30 days;
+-- a client whose watermark is older than that reloads everything. TRUNCATE is not tracked.
+
+CREATE TABLE IF NOT EXISTS reference_tombstones (
+    table_name VARCHAR(20) NOT NULL,
+    row_id     BIGINT NOT NULL,
+    deleted_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (table_name, row_id)
+);
+
+CREATE INDEX IF NOT EXISTS reference_tombstones_deleted_at_idx ON reference_tombstones (table_name, deleted_at);
+
+-- The id column is passed as the trigger argument; one function serves all three tables
+CREATE OR REPLACE FUNCTION reference_record_deletes() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO reference_tombstones (table_name, row_id)
+    SELECT TG_TABLE_NAME, (to_jsonb(r) ->> TG_ARGV[0])::bigint FROM old_rows r
+    ON CONFLICT (table_name, row_id) DO UPDATE SET deleted_at = EXCLUDED.deleted_at;
+
+    DELETE FROM reference_tombstones
+    WHERE table_name = TG_TABLE_NAME AND deleted_at < now() - interval '30 days';
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER departments_record_deletes AFTER DELETE ON departments
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION reference_record_deletes('dept_id');
+CREATE TRIGGER doctors_record_deletes AFTER DELETE ON doctors
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION reference_record_deletes('doctor_id');
+CREATE TRIGGER patients_record_deletes AFTER DELETE ON patients
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION reference_record_deletes('patient_id');
@@ -0,0 +1,29 @@
+-- Before and after images of every clinical write, filled in batches by AuditTrail. Rows are
+-- only ever inserted: updates, deletes and truncates are refused, so the trail cannot be edited
+-- through the application's account.
+
+CREATE TABLE IF NOT EXISTS audit_log (
+    audit_id     BIGSERIAL PRIMARY KEY,
+    occurred_at  TIMESTAMPTZ NOT NULL,               -- when the write was made
+    recorded_at  TIMESTAMPTZ NOT NULL DEFAULT now(), -- when the batch reached the table
+    actor        VARCHAR(100),
+    entity       VARCHAR(30) NOT NULL,               -- table name: patients, appointments, ...
+    entity_id    BIGINT NOT NULL,
+    action       VARCHAR(6) NOT NULL CHECK (action IN ('INSERT', 'UPDATE', 'DELETE')),
+    before_image JSONB,
+    after_image  JSONB
+);
+
+-- "History of this record"
+CREATE INDEX IF NOT EXISTS audit_log_entity_idx ON audit_log (entity, entity_id, occurred_at);
+
+CREATE OR REPLACE FUNCTION audit_log_append_only() RETURNS trigger AS $$
+BEGIN
+    RAISE EXCEPTION 'audit_log is append-only';
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER audit_log_no_update_or_delete BEFORE UPDATE OR DELETE ON audit_log
+    FOR EACH STATEMENT EXECUTE FUNCTION audit_log_append_only();
+CREATE TRIGGER audit_log_no_truncate BEFORE TRUNCATE ON audit_log
+    FOR EACH STATEMENT EXECUTE FUNCTION audit_log_append_only();
@@ -0,0 +1,29 @@
+-- hms:no-transaction
+-- Blocking keys for duplicate-patient detection: date of birth plus the Soundex code of the last
+-- name, and the same with the first name. A new registration is compared only with the few
+-- patients that share one of them instead of the whole table; two keys, so a misspelling that
+-- changes one name's code is still caught through the other. NameSimilarity.soundex computes the
+-- same code in Java for the batch job; keep the two in step. The indexes are built CONCURRENTLY,
+-- so this script runs outside a transaction.
+
+-- American Soundex over the letters A-Z: vowels separate equal codes, H and W do not, and a
+-- first letter's own code suppresses the same code right after it
+CREATE OR REPLACE FUNCTION patient_soundex(name text) RETURNS text
+    LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE
+AS $$
+    SELECT CASE WHEN letters = '' THEN '' ELSE
+           rpad(left(letters, 1)
+                || left(replace(substr(regexp_replace(replace(codes, '9', ''), '(.)\1+', '\1', 'g'), 2), '0', ''), 3),
+                4, '0')
+           END
+    FROM (SELECT letters,
+                 translate(left(letters, 1), 'AEIOUYHWBFPVCGJKQSXZDTLMNR', '00000000111122222222334556')
+                 || translate(substr(letters, 2), 'AEIOUYHWBFPVCGJKQSXZDTLMNR', '00000099111122222222334556') AS codes
+          FROM (SELECT regexp_replace(upper(name), '[^A-Z]', '', 'g') AS letters) l) c
+$$;
+
+-- PatientDAO.findDuplicateCandidates, one index per name (combined with a BitmapOr)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS patients_dob_last_soundex_idx
+    ON patients (dob, patient_soundex(last_name));
+CREATE INDEX CONCURRENTLY IF NOT EXISTS patients_dob_first_soundex_idx
+    ON patients (dob, patient_soundex(first_name));
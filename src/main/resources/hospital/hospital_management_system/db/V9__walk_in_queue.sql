@@ -0,0 +1,17 @@
+-- Walk-in queues, written asynchronously by WalkInQueueService so that a restart can restore
+-- them. The id is made by the app, since a walk-in is queued before its row is written.
+
+CREATE TABLE IF NOT EXISTS walk_ins (
+    walk_in_id   UUID PRIMARY KEY,
+    dept_id      BIGINT NOT NULL REFERENCES departments (dept_id) ON DELETE CASCADE,
+    patient_id   BIGINT REFERENCES patients (patient_id) ON DELETE SET NULL,
+    patient_name VARCHAR(200),                  -- as given at the desk, for walk-ins not registered yet
+    triage       VARCHAR(20) NOT NULL,
+    arrived_at   TIMESTAMPTZ NOT NULL,
+    status       VARCHAR(20) NOT NULL CHECK (status IN ('Waiting', 'Called', 'Completed', 'Left')),
+    called_at    TIMESTAMPTZ,
+    finished_at  TIMESTAMPTZ
+);
+
+-- What a restart restores: everyone still waiting or being seen
+CREATE INDEX IF NOT EXISTS walk_ins_open_idx ON walk_ins (arrived_at) WHERE status IN ('Waiting', 'Called');
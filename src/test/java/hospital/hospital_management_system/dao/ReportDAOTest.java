@@ -0,0 +1,182 @@
+package hospital.hospital_management_system.dao;
+
+import hospital.hospital_management_system.model.AppointmentVolume;
+import hospital.hospital_management_system.model.InventoryUsage;
+import hospital.hospital_management_system.model.RatingTrend;
+import hospital.hospital_management_system.utils.TestDatabase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportDAOTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 3, 4);
+    private static final LocalDate TUESDAY = MONDAY.plusDays(1);
+
+    private final ReportDAO dao = new ReportDAO();
+
+    @BeforeAll
+    static void startDatabase() throws Exception {
+        TestDatabase.start();
+    }
+
+    @BeforeEach
+    void emptyTables() throws Exception {
+        // The truncate triggers empty the summaries and their dirty days too
+        TestDatabase.execute("TRUNCATE patients, doctors, medical_inventory CASCADE");
+        TestDatabase.execute("INSERT INTO patients (patient_id, first_name, last_name, dob) VALUES (1, 'Alice', 'Uwase', '1990-01-01')");
+        TestDatabase.execute("INSERT INTO doctors (doctor_id, first_name, last_name) VALUES (1, 'Jean', 'Habimana')");
+        TestDatabase.execute("INSERT INTO medical_inventory (item_id, item_name, stock_quantity) VALUES (1, 'Paracetamol', 100)");
+    }
+
+    private static void appointment(long id, LocalDate day, String status) throws SQLException {
+        TestDatabase.execute("INSERT INTO appointments (appointment_id, patient_id, doctor_id, appointment_date, status)"
+                + " VALUES (" + id + ", 1, 1, '" + day + " 09:00', '" + status + "')");
+    }
+
+    private static List<String> dirtyDays() throws SQLException {
+        List<String> days = new ArrayList<>();
+        try (Connection conn = TestDatabase.connect(); Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT report || ' ' || day FROM report_dirty_days ORDER BY 1")) {
+            while (rs.next()) {
+                days.add(rs.getString(1));
+            }
+        }
+        return days;
+    }
+
+    private AppointmentVolume volume(LocalDate day) {
+        List<AppointmentVolume> volumes = dao.findAppointmentVolume(ReportDAO.Grouping.DOCTOR, false, day, day.plusDays(1));
+        return volumes.isEmpty() ? null : volumes.get(0);
+    }
+
+    @Test
+    void writesMarkTheirDaysAndRefreshRecomputesOnlyThose() throws Exception {
+        appointment(1, MONDAY, "Scheduled");
+        appointment(2, MONDAY, "Completed");
+        appointment(3, TUESDAY, "Scheduled");
+        assertEquals(List.of("appointments " + MONDAY, "appointments " + TUESDAY), dirtyDays());
+
+        assertEquals(2, dao.refresh());
+        assertEquals(List.of(), dirtyDays());
+        assertEquals(2, volume(MONDAY).getTotal());
+        assertEquals(1, volume(MONDAY).getCompleted());
+        assertEquals(0, dao.refresh());
+
+        // Moving an appointment marks the day it left as well as the one it went to
+        TestDatabase.execute("UPDATE appointments SET appointment_date = '" + TUESDAY + " 10:00', status = 'Cancelled'"
+                + " WHERE appointment_id = 2");
+        assertEquals(List.of("appointments " + MONDAY, "appointments " + TUESDAY), dirtyDays());
+        assertEquals(2, dao.refresh());
+        assertEquals(1, volume(MONDAY).getTotal());
+        assertEquals(0, volume(MONDAY).getCompleted());
+        assertEquals(2, volume(TUESDAY).getTotal());
+        assertEquals(1, volume(TUESDAY).getCancelled());
+
+        TestDatabase.execute("DELETE FROM appointments WHERE appointment_id = 1");
+        assertEquals(1, dao.refresh());
+        assertNull(volume(MONDAY));
+    }
+
+    @Test
+    void feedbackAndDispensedItemsAreSummarisedByDay() throws Exception {
+        TestDatabase.execute("INSERT INTO patient_feedback (patient_id, rating, feedback_date) VALUES"
+                + " (1, 5, '" + MONDAY + "'), (1, 2, '" + MONDAY + "'), (1, 4, '" + TUESDAY + "')");
+        appointment(1, MONDAY, "Completed");
+        TestDatabase.execute("INSERT INTO prescriptions (prescription_id, appointment_id, date_issued) VALUES (1, 1, '" + MONDAY + " 09:30')");
+        TestDatabase.execute("INSERT INTO prescription_items (prescription_id, item_id, quantity_dispensed) VALUES (1, 1, 6)");
+
+        assertEquals(4, dao.refresh());
+
+        List<RatingTrend> trend = dao.findRatingTrend(ReportDAO.Period.WEEK, MONDAY, MONDAY.plusDays(7));
+        assertEquals(1, trend.size());
+        assertEquals(3, trend.get(0).getRatings());
+        assertEquals(11 / 3.0, trend.get(0).getAverageRating(), 1e-9);
+
+        // Ratings come straight from the histogram; a day left without any has no group
+        TestDatabase.execute("DELETE FROM patient_feedback WHERE feedback_date = '" + TUESDAY + "'");
+        assertEquals(List.of("feedback " + TUESDAY), dirtyDays());
+        trend = dao.findRatingTrend(ReportDAO.Period.MONTH, TUESDAY, TUESDAY.plusDays(1));
+        assertEquals(List.of(), trend);
+        trend = dao.findRatingTrend(ReportDAO.Period.WEEK, MONDAY, MONDAY.plusDays(7));
+        assertEquals(2, trend.get(0).getRatings());
+        assertEquals(3.5, trend.get(0).getAverageRating(), 1e-9);
+        assertEquals(1, dao.refresh());
+
+        List<InventoryUsage> usage = dao.findInventoryUsage(MONDAY, TUESDAY);
+        assertEquals(1, usage.size());
+        assertEquals(6, usage.get(0).getQuantityDispensed());
+        assertEquals(1, usage.get(0).getPrescriptions());
+
+        // A change to the items alone marks the prescription's day
+        TestDatabase.execute("UPDATE prescription_items SET quantity_dispensed = 8");
+        assertEquals(List.of("inventory " + MONDAY), dirtyDays());
+        assertEquals(1, dao.refresh());
+        assertEquals(8, dao.findInventoryUsage(MONDAY, TUESDAY).get(0).getQuantityDispensed());
+    }
+
+    @Test
+    void truncatingASourceTableEmptiesItsSummary() throws Exception {
+        appointment(1, MONDAY, "Scheduled");
+        TestDatabase.execute("INSERT INTO patient_feedback (patient_id, rating, feedback_date) VALUES (1, 5, '" + MONDAY + "')");
+        dao.refresh();
+        appointment(2, TUESDAY, "Scheduled");
+
+        TestDatabase.execute("TRUNCATE appointments CASCADE");
+
+        assertEquals(List.of(), dirtyDays());
+        assertNull(volume(MONDAY));
+        assertEquals(1, dao.findRatingTrend(ReportDAO.Period.MONTH, MONDAY, TUESDAY).size());
+    }
+
+    @Test
+    void aWriteToADayAlreadyMarkedDirtyIsNotLostToAConcurrentRefresh() throws Exception {
+        appointment(1, MONDAY, "Scheduled");
+        assertEquals(List.of("appointments " + MONDAY), dirtyDays());
+
+        try (Connection writer = TestDatabase.connect()) {
+            writer.setAutoCommit(false);
+            try (Statement statement = writer.createStatement()) {
+                statement.execute("INSERT INTO appointments (appointment_id, patient_id, doctor_id, appointment_date)"
+                        + " VALUES (2, 1, 1, '" + MONDAY + " 11:00')");
+            }
+
+            // The refresh has to wait for the writer, which holds the day's dirty row
+            CompletableFuture<Integer> refresh = CompletableFuture.supplyAsync(dao::refresh);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!refresh.isDone() && !waitingOnALock() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertFalse(refresh.isDone(), "refresh did not wait for the open write");
+            writer.commit();
+            assertEquals(1, refresh.get(10, TimeUnit.SECONDS));
+        }
+
+        // Either recomputed with both appointments or still dirty; here the refresh saw the commit
+        assertEquals(2, volume(MONDAY).getTotal());
+        assertTrue(dirtyDays().isEmpty());
+    }
+
+    private static boolean waitingOnALock() throws SQLException {
+        try (Connection conn = TestDatabase.connect(); Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'")) {
+            rs.next();
+            return rs.getInt(1) > 0;
+        }
+    }
+}
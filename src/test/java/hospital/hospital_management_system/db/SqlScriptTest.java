@@ -0,0 +1,106 @@
+package hospital.hospital_management_system.db;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlScriptTest {
+
+    private static String migration(String name) throws IOException {
+        try (InputStream in = SqlScriptTest.class.getResourceAsStream(name)) {
+            assertNotNull(in, name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static int occurrences(String text, String of) {
+        int count = 0;
+        for (int i = text.indexOf(of); i >= 0; i = text.indexOf(of, i + of.length())) {
+            count++;
+        }
+        return count;
+    }
+
+    @Test
+    void splitsOnTopLevelSemicolonsAndSkipsEmptyStatements() {
+        assertEquals(List.of("CREATE TABLE a (id int)", "INSERT INTO a VALUES (1)"),
+                SqlScript.split("CREATE TABLE a (id int);\n\nINSERT INTO a VALUES (1);\n;  \n"));
+    }
+
+    @Test
+    void semicolonsInQuotesDoNotSplit() {
+        assertEquals(List.of("INSERT INTO t VALUES ('a;b', 'it''s; fine')", "SELECT \"odd;name\" FROM t"),
+                SqlScript.split("INSERT INTO t VALUES ('a;b', 'it''s; fine');SELECT \"odd;name\" FROM t"));
+    }
+
+    @Test
+    void commentsAreDroppedWithTheSemicolonsInThem() {
+        String script = """
+                -- header; not a statement
+                SELECT 1; /* a; b */ SELECT 2 -- trailing;
+                ;
+                SELECT '-- kept', '/* kept */';
+                /* unterminated;""";
+
+        assertEquals(List.of("SELECT 1", "SELECT 2", "SELECT '-- kept', '/* kept */'"), SqlScript.split(script));
+    }
+
+    @Test
+    void dollarQuotedBodiesStayWhole() {
+        String function = """
+                CREATE FUNCTION f() RETURNS void AS $body$
+                BEGIN
+                    PERFORM 1; -- a comment inside the body is part of it;
+                    EXECUTE $$SELECT ';'$$;
+                END;
+                $body$ LANGUAGE plpgsql""";
+
+        assertEquals(List.of(function, "SELECT 1"), SqlScript.split(function + ";\nSELECT 1;"));
+    }
+
+    @Test
+    void positionalParametersAreNotDollarQuotes() {
+        assertEquals(List.of("PREPARE p AS SELECT $1 + $2", "EXECUTE p(1, 2)"),
+                SqlScript.split("PREPARE p AS SELECT $1 + $2; EXECUTE p(1, 2);"));
+    }
+
+    @Test
+    void noTransactionHeaderOnlyCountsOnTheFirstLine() throws IOException {
+        assertFalse(SqlScript.runsInTransaction(migration("V2__access_path_indexes.sql")));
+        assertFalse(SqlScript.runsInTransaction(migration("V8__patient_duplicate_blocking.sql")));
+        assertTrue(SqlScript.runsInTransaction(migration("V3__reporting_summaries.sql")));
+        assertTrue(SqlScript.runsInTransaction("SELECT 1;\n" + SqlScript.NO_TRANSACTION + "\n"));
+
+        // The header is a comment, so it never becomes a statement
+        assertEquals(List.of("SELECT 1"), SqlScript.split(SqlScript.NO_TRANSACTION + "\nSELECT 1;"));
+    }
+
+    @Test
+    void functionsInTheMigrationsSplitIntoOneStatementEach() throws IOException {
+        for (String name : List.of("V3__reporting_summaries.sql", "V4__feedback_rating_histogram.sql",
+                "V6__reference_data_tombstones.sql", "V8__patient_duplicate_blocking.sql")) {
+            String script = migration(name);
+            List<String> statements = SqlScript.split(script);
+
+            int functions = 0;
+            for (String statement : statements) {
+                assertFalse(statement.startsWith("--") || statement.startsWith("/*"), name + ": " + statement);
+                assertEquals(0, occurrences(statement, "$$") % 2, name + ": unbalanced body in " + statement);
+                if (statement.startsWith("CREATE OR REPLACE FUNCTION")) {
+                    functions++;
+                    assertTrue(statement.endsWith("$$ LANGUAGE plpgsql") || statement.endsWith("$$"), name + ": " + statement);
+                }
+            }
+            assertTrue(functions > 0, name);
+            assertEquals(occurrences(script, "CREATE OR REPLACE FUNCTION"), functions, name);
+        }
+    }
+}
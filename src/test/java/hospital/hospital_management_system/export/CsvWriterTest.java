@@ -0,0 +1,80 @@
+package hospital.hospital_management_system.export;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Proxy;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvWriterTest {
+
+    private static final List<ExportTable.Column> COLUMNS = List.of(
+            new ExportTable.Column("id", "ID", "id", ExportTable.CellType.NUMBER),
+            new ExportTable.Column("note", "Note, free text", "note", ExportTable.CellType.TEXT));
+
+    @TempDir
+    Path dir;
+
+    // One row of string values; null is SQL NULL
+    static ResultSet row(Object... values) {
+        return (ResultSet) Proxy.newProxyInstance(CsvWriterTest.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getString" -> {
+                        Object value = values[(Integer) args[0] - 1];
+                        yield value == null ? null : value.toString();
+                    }
+                    case "getObject" -> values[(Integer) args[0] - 1];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private String write(ResultSet... rows) throws Exception {
+        Path file = dir.resolve("out.csv");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             CsvWriter writer = new CsvWriter(channel, COLUMNS)) {
+            for (ResultSet rs : rows) {
+                writer.writeRow(rs);
+            }
+        }
+        return Files.readString(file, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void quotesOnlyFieldsThatNeedIt() throws Exception {
+        assertEquals("ID,\"Note, free text\"\r\n"
+                        + "1,plain\r\n"
+                        + "2,\"said \"\"no\"\"\"\r\n"
+                        + "3,\"two\r\nlines\"\r\n"
+                        + ",\r\n",
+                write(row(1, "plain"), row(2, "said \"no\""), row(3, "two\r\nlines"), row(null, null)));
+    }
+
+    @Test
+    void formulasAreWrittenAsText() throws Exception {
+        assertEquals("ID,\"Note, free text\"\r\n"
+                        + "1,\"'=HYPERLINK(\"\"x\"\")\"\r\n"
+                        + "2,\"'=1+2,3\"\r\n"
+                        + "3,'@SUM(A1)\r\n"
+                        + "4,'+cmd|' /C calc'!A0\r\n"
+                        + "5,'-2+3\r\n"
+                        + "6,'\ttabbed\r\n",
+                write(row(1, "=HYPERLINK(\"x\")"), row(2, "=1+2,3"), row(3, "@SUM(A1)"),
+                        row(4, "+cmd|' /C calc'!A0"), row(5, "-2+3"), row(6, "\ttabbed")));
+    }
+
+    @Test
+    void signedNumbersAreLeftAlone() throws Exception {
+        assertEquals("ID,\"Note, free text\"\r\n"
+                        + "-12.50,+250788123456\r\n"
+                        + "'-,'-.\r\n",
+                write(row("-12.50", "+250788123456"), row("-", "-.")));
+    }
+}
@@ -0,0 +1,114 @@
+package hospital.hospital_management_system.export;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static hospital.hospital_management_system.export.CsvWriterTest.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class XlsxWriterTest {
+
+    private static final List<ExportTable.Column> COLUMNS = List.of(
+            new ExportTable.Column("id", "ID", "id", ExportTable.CellType.NUMBER),
+            new ExportTable.Column("note", "Notes & <remarks>", "note", ExportTable.CellType.TEXT),
+            new ExportTable.Column("dob", "Date of birth", "dob", ExportTable.CellType.DATE));
+
+    @TempDir
+    Path dir;
+
+    private static String entry(ZipFile zip, String name) throws IOException {
+        ZipEntry entry = zip.getEntry(name);
+        assertNotNull(entry, name);
+        try (InputStream in = zip.getInputStream(entry)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private Path write(int maxRows, int rowCount) throws IOException, SQLException {
+        Path file = dir.resolve("out.xlsx");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             XlsxWriter writer = new XlsxWriter(channel, "Patients", COLUMNS, maxRows)) {
+            for (int i = 1; i <= rowCount; i++) {
+                writer.writeRow(row(i, "row " + i, null));
+            }
+        }
+        return file;
+    }
+
+    @Test
+    void textIsEscapedAndKeepsItsSpaces() throws Exception {
+        Path file = dir.resolve("out.xlsx");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             XlsxWriter writer = new XlsxWriter(channel, "Patients", COLUMNS)) {
+            writer.writeRow(row(1, "a < b & c > d \"quoted\"", LocalDate.of(1970, 1, 1)));
+            writer.writeRow(row(2, " bell\u0007 and\ttab ", null));
+            writer.writeRow(row(null, "=1+2", LocalDate.of(2024, 3, 31)));
+        }
+
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            String sheet = entry(zip, "xl/worksheets/sheet1.xml");
+            assertTrue(sheet.contains("<t>Notes &amp; &lt;remarks&gt;</t>"), sheet);
+            assertTrue(sheet.contains("<t>a &lt; b &amp; c &gt; d \"quoted\"</t>"), sheet);
+            // control characters other than tab and line breaks are not allowed in XML
+            assertTrue(sheet.contains("<t xml:space=\"preserve\"> bell and\ttab </t>"), sheet);
+            // inline strings are never evaluated, so a formula stays text without a prefix
+            assertTrue(sheet.contains("<c/><c t=\"inlineStr\"><is><t>=1+2</t></is></c><c s=\"1\"><v>45382</v></c>"), sheet);
+            assertTrue(sheet.contains("<c><v>1</v></c>"), sheet);
+            assertTrue(sheet.contains("<c s=\"1\"><v>25569</v></c>"), sheet);
+        }
+    }
+
+    @Test
+    void rowsPastTheLimitContinueOnANewSheetWithTheHeader() throws Exception {
+        // three rows a sheet: the header and two data rows
+        Path file = write(3, 5);
+
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            String first = entry(zip, "xl/worksheets/sheet1.xml");
+            String second = entry(zip, "xl/worksheets/sheet2.xml");
+            String third = entry(zip, "xl/worksheets/sheet3.xml");
+            assertNull(zip.getEntry("xl/worksheets/sheet4.xml"));
+
+            for (String sheet : List.of(first, second, third)) {
+                assertTrue(sheet.contains("<t>Date of birth</t>"), sheet);
+                assertTrue(sheet.endsWith("</sheetData></worksheet>"), sheet);
+            }
+            assertTrue(first.contains("row 1") && first.contains("row 2") && !first.contains("row 3"), first);
+            assertTrue(second.contains("row 3") && second.contains("row 4") && !second.contains("row 5"), second);
+            assertTrue(third.contains("row 5"), third);
+
+            String workbook = entry(zip, "xl/workbook.xml");
+            assertTrue(workbook.contains("<sheet name=\"Patients\" sheetId=\"1\" r:id=\"rId1\"/>"), workbook);
+            assertTrue(workbook.contains("<sheet name=\"Patients (3)\" sheetId=\"3\" r:id=\"rId3\"/>"), workbook);
+            assertTrue(entry(zip, "[Content_Types].xml").contains("/xl/worksheets/sheet3.xml"));
+            assertTrue(entry(zip, "xl/_rels/workbook.xml.rels").contains("Id=\"rId4\""));
+        }
+    }
+
+    @Test
+    void aFullSheetDoesNotStartAnEmptyOne() throws Exception {
+        Path file = write(3, 2);
+
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            assertNotNull(zip.getEntry("xl/worksheets/sheet1.xml"));
+            assertNull(zip.getEntry("xl/worksheets/sheet2.xml"));
+            assertFalse(entry(zip, "xl/workbook.xml").contains("Patients (2)"));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package hospital.hospital_management_system.reminders;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReminderSchedulerTest {
+
+    private static final long DAY = 86_400;
+    private static final long HOUR = 3_600;
+    private static final long[] LEADS = {DAY, HOUR};
+    private static final long GRACE = 15 * 60;
+    private static final long AT = 1_800_000_000L;
+
+    @Test
+    void leadsAreSortedLongestFirstWithoutDuplicates() {
+        assertArrayEquals(LEADS, ReminderScheduler.leadSeconds("60, 1440,60,"));
+        assertArrayEquals(new long[] {300}, ReminderScheduler.leadSeconds("5"));
+    }
+
+    @Test
+    void startsWithTheFirstReminderNotYetDue() {
+        assertEquals(0, ReminderScheduler.firstLead(LEADS, AT, AT - 2 * DAY, GRACE));
+        assertEquals(0, ReminderScheduler.firstLead(LEADS, AT, AT - DAY - 1, GRACE));
+        assertEquals(1, ReminderScheduler.firstLead(LEADS, AT, AT - 23 * HOUR, GRACE));
+        assertEquals(1, ReminderScheduler.firstLead(LEADS, AT, AT - HOUR - 1, GRACE));
+    }
+
+    @Test
+    void sendsTheLastDueReminderWithinTheGracePeriod() {
+        // Due this very second
+        assertEquals(0, ReminderScheduler.firstLead(LEADS, AT, AT - DAY, GRACE));
+        assertEquals(0, ReminderScheduler.firstLead(LEADS, AT, AT - DAY + GRACE, GRACE));
+        assertEquals(1, ReminderScheduler.firstLead(LEADS, AT, AT - DAY + GRACE + 1, GRACE));
+        assertEquals(1, ReminderScheduler.firstLead(LEADS, AT, AT - HOUR + 60, GRACE));
+        assertEquals(1, ReminderScheduler.firstLead(LEADS, AT, AT - HOUR + GRACE, GRACE));
+    }
+
+    @Test
+    void hasNothingLeftOnceTheLastReminderIsOverdueOrTheAppointmentHasStarted() {
+        assertEquals(LEADS.length, ReminderScheduler.firstLead(LEADS, AT, AT - HOUR + GRACE + 1, GRACE));
+        assertEquals(LEADS.length, ReminderScheduler.firstLead(LEADS, AT, AT - 1, GRACE));
+        // A grace period longer than the lead does not revive a reminder for a past appointment
+        assertEquals(LEADS.length, ReminderScheduler.firstLead(LEADS, AT, AT, DAY));
+        assertEquals(LEADS.length, ReminderScheduler.firstLead(LEADS, AT, AT + DAY, GRACE));
+    }
+}
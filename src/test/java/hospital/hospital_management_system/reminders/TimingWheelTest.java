@@ -0,0 +1,261 @@
+package hospital.hospital_management_system.reminders;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    // 64 slots per wheel, four wheels
+    private static final long LEVEL1 = 64;
+    private static final long LEVEL2 = 64 * 64;
+    private static final long LEVEL3 = 64 * 64 * 64;
+    private static final long RANGE = 64L * 64 * 64 * 64;
+
+    private static final class Item extends TimingWheel.Entry {
+        final int id;
+
+        Item(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public String toString() {
+            return "Item " + id + " @" + deadline();
+        }
+    }
+
+    private record Fired(long tick, Item item) {}
+
+    private static List<Fired> advance(TimingWheel<Item> wheel, long target) {
+        List<Fired> fired = new ArrayList<>();
+        wheel.advanceTo(target, item -> fired.add(new Fired(wheel.currentTick(), item)));
+        return fired;
+    }
+
+    @Test
+    void firesEachEntryOnItsDeadlineAtEveryLevel() {
+        // Start off a wheel boundary so that entries cascade through partial turns
+        long start = 1_000_003;
+        TimingWheel<Item> wheel = new TimingWheel<>(start);
+        long[] offsets = {1, 63, 64, 65, LEVEL2 - 1, LEVEL2, LEVEL2 + 1, LEVEL3 - 1, LEVEL3, LEVEL3 + 7,
+                RANGE - 1};
+        Item[] items = new Item[offsets.length];
+        for (int i = 0; i < offsets.length; i++) {
+            items[i] = new Item(i);
+            wheel.add(items[i], start + offsets[i]);
+        }
+        assertEquals(offsets.length, wheel.size());
+
+        List<Fired> fired = advance(wheel, start + RANGE);
+
+        assertEquals(offsets.length, fired.size());
+        for (int i = 0; i < offsets.length; i++) {
+            assertEquals(items[i], fired.get(i).item());
+            assertEquals(start + offsets[i], fired.get(i).tick());
+        }
+        assertEquals(0, wheel.size());
+        assertFalse(items[0].isScheduled());
+    }
+
+    @Test
+    void cascadesThroughAllFourWheelsOnExactBoundaries() {
+        TimingWheel<Item> wheel = new TimingWheel<>(0);
+        // Due just as each wheel comes round, and just after
+        long[] deadlines = {LEVEL1, LEVEL1 + 1, LEVEL2, LEVEL2 + 1, LEVEL3, LEVEL3 + 1, 5 * LEVEL3 + 3 * LEVEL2 + 2 * LEVEL1 + 1};
+        for (int i = 0; i < deadlines.length; i++) {
+            wheel.add(new Item(i), deadlines[i]);
+        }
+
+        List<Fired> fired = advance(wheel, 6 * LEVEL3);
+
+        assertArrayEquals(deadlines, fired.stream().mapToLong(Fired::tick).toArray());
+        for (Fired f : fired) {
+            assertEquals(f.tick(), f.item().deadline());
+        }
+    }
+
+    @Test
+    void holdsDeadlinesBeyondTheRangeUntilTheyComeDue() {
+        long start = 12_345;
+        TimingWheel<Item> wheel = new TimingWheel<>(start);
+        Item far = new Item(1);
+        Item farther = new Item(2);
+        wheel.add(far, start + RANGE);
+        wheel.add(farther, start + 3 * RANGE + 17);
+
+        assertTrue(advance(wheel, start + RANGE - 1).isEmpty());
+        List<Fired> fired = advance(wheel, start + RANGE);
+        assertEquals(1, fired.size());
+        assertEquals(far, fired.get(0).item());
+
+        assertTrue(advance(wheel, start + 3 * RANGE + 16).isEmpty());
+        assertTrue(farther.isScheduled());
+        fired = advance(wheel, start + 3 * RANGE + 17);
+        assertEquals(List.of(new Fired(start + 3 * RANGE + 17, farther)), fired);
+    }
+
+    @Test
+    void pastDeadlinesFireOnTheNextTick() {
+        TimingWheel<Item> wheel = new TimingWheel<>(100);
+        Item late = new Item(1);
+        wheel.add(late, 50);
+
+        assertEquals(101, late.deadline());
+        assertEquals(List.of(new Fired(101, late)), advance(wheel, 200));
+    }
+
+    @Test
+    void addingAgainMovesTheEntry() {
+        TimingWheel<Item> wheel = new TimingWheel<>(0);
+        Item item = new Item(1);
+        wheel.add(item, LEVEL3 + 5);
+        wheel.add(item, 10);
+
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(new Fired(10, item)), advance(wheel, 2 * LEVEL3));
+    }
+
+    @Test
+    void cancelsEntriesThatHaveMovedDownAWheel() {
+        TimingWheel<Item> wheel = new TimingWheel<>(0);
+        Item item = new Item(1);
+        Item other = new Item(2);
+        wheel.add(item, LEVEL3 + LEVEL2 + LEVEL1 + 1);
+        wheel.add(other, LEVEL3 + LEVEL2 + LEVEL1 + 1);
+
+        // Cascaded from the fourth wheel, then the third, then the second
+        assertTrue(advance(wheel, LEVEL3 + LEVEL2 + LEVEL1).isEmpty());
+        assertTrue(wheel.cancel(item));
+        assertFalse(wheel.cancel(item));
+
+        assertEquals(List.of(new Fired(LEVEL3 + LEVEL2 + LEVEL1 + 1, other)), advance(wheel, LEVEL3 + LEVEL2 + LEVEL1 + 1));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void callbackMayCancelAndRescheduleEntriesDueOnTheSameCascadingTick() {
+        TimingWheel<Item> wheel = new TimingWheel<>(0);
+        // All due as the fourth wheel comes round, so they reach the current slot by cascading
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Item item = new Item(i);
+            items.add(item);
+            wheel.add(item, LEVEL3);
+        }
+        Item later = new Item(99);
+        wheel.add(later, LEVEL3 + LEVEL2);
+
+        List<Item> fired = new ArrayList<>();
+        wheel.advanceTo(LEVEL3, item -> {
+            fired.add(item);
+            if (fired.size() == 1) {
+                // Cancel every other entry still waiting this tick, whichever way the slot is
+                // ordered that includes the one next to it, and one elsewhere
+                for (Item other : items) {
+                    if (other.id % 2 != item.id % 2) {
+                        wheel.cancel(other);
+                    }
+                }
+                wheel.cancel(later);
+                wheel.add(item, wheel.currentTick() + 3);
+            }
+        });
+
+        Item first = fired.get(0);
+        assertEquals(items.size() / 2, fired.size());
+        for (Item item : fired.subList(1, fired.size())) {
+            assertEquals(first.id % 2, item.id % 2);
+            assertFalse(item.isScheduled());
+        }
+        assertFalse(later.isScheduled());
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(new Fired(LEVEL3 + 3, first)), advance(wheel, 2 * LEVEL3));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void matchesASortedModelUnderRandomOperations() {
+        Random random = new Random(42);
+        long start = random.nextInt(1 << 20);
+        TimingWheel<Item> wheel = new TimingWheel<>(start);
+        TreeMap<Long, List<Integer>> model = new TreeMap<>();
+        Map<Integer, Item> items = new HashMap<>();
+        Map<Integer, Long> deadlines = new HashMap<>();
+        long now = start;
+
+        for (int round = 0; round < 3000; round++) {
+            int op = random.nextInt(10);
+            if (op < 5) {
+                int id = random.nextInt(500);
+                long deadline = now + randomDelay(random);
+                Item item = items.computeIfAbsent(id, Item::new);
+                Long previous = deadlines.put(id, Math.max(deadline, now + 1));
+                if (previous != null) {
+                    model.get(previous).remove(Integer.valueOf(id));
+                }
+                model.computeIfAbsent(Math.max(deadline, now + 1), k -> new ArrayList<>()).add(id);
+                wheel.add(item, deadline);
+            } else if (op < 7) {
+                int id = random.nextInt(500);
+                Item item = items.get(id);
+                Long previous = deadlines.remove(id);
+                if (previous != null) {
+                    model.get(previous).remove(Integer.valueOf(id));
+                }
+                assertEquals(previous != null, item != null && wheel.cancel(item));
+            } else {
+                long target = now + randomStep(random);
+                List<Fired> fired = advance(wheel, target);
+                List<Fired> expected = new ArrayList<>();
+                for (Map.Entry<Long, List<Integer>> due : model.headMap(target, true).entrySet()) {
+                    for (int id : due.getValue()) {
+                        expected.add(new Fired(due.getKey(), items.get(id)));
+                        deadlines.remove(id);
+                    }
+                }
+                model.headMap(target, true).clear();
+                // The order within one tick is not specified
+                assertEquals(sorted(expected), sorted(fired));
+                now = Math.max(now, target);
+            }
+            assertEquals(deadlines.size(), wheel.size());
+        }
+    }
+
+    private static long randomDelay(Random random) {
+        return switch (random.nextInt(5)) {
+            case 0 -> random.nextInt(70) - 5;
+            case 1 -> random.nextLong(LEVEL2 * 2);
+            case 2 -> random.nextLong(LEVEL3 * 2);
+            case 3 -> random.nextLong(RANGE * 2);
+            default -> random.nextLong(RANGE * 5);
+        };
+    }
+
+    // Mostly short, now and then far enough to bring the outer wheels round
+    private static long randomStep(Random random) {
+        int pick = random.nextInt(20);
+        if (pick < 12) {
+            return random.nextInt(200);
+        }
+        return pick < 19 ? random.nextLong(LEVEL3) : random.nextLong(RANGE + LEVEL3);
+    }
+
+    private static List<String> sorted(List<Fired> fired) {
+        return fired.stream()
+                .map(f -> f.tick() + ":" + f.item().id)
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,85 @@
+package hospital.hospital_management_system.services;
+
+import hospital.hospital_management_system.model.DuplicateCandidate;
+import hospital.hospital_management_system.model.Patient;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DuplicatePatientDetectorTest {
+
+    private static final LocalDate DOB = LocalDate.of(1990, 3, 7);
+
+    private static Patient patient(long id, String first, String last, LocalDate dob, String gender, String phone) {
+        return new Patient(id, first, last, dob, gender, phone, "Kigali");
+    }
+
+    @Test
+    void identicalRecordsScoreOne() {
+        Patient a = patient(1, "Robert", "Mugisha", DOB, "Male", "0788123456");
+        Patient b = patient(2, "Robert", "Mugisha", DOB, "male", null);
+
+        assertEquals(1.0, DuplicatePatientDetector.score(a, b), 1e-9);
+    }
+
+    @Test
+    void swappedNamesScoreLikeTheSameOrder() {
+        Patient a = patient(1, "Robert", "Mugisha", DOB, "Male", null);
+        Patient b = patient(2, "Mugisha", "Robert", DOB, "Male", null);
+
+        assertEquals(1.0, DuplicatePatientDetector.score(a, b), 1e-9);
+        assertEquals(DuplicatePatientDetector.score(a, b), DuplicatePatientDetector.score(b, a), 1e-9);
+    }
+
+    @Test
+    void swappedDayAndMonthCountsForMostOfTheDate() {
+        Patient a = patient(1, "Robert", "Mugisha", DOB, "Male", null);
+        Patient b = patient(2, "Robert", "Mugisha", LocalDate.of(1990, 7, 3), "Male", null);
+        Patient c = patient(3, "Robert", "Mugisha", LocalDate.of(1991, 3, 7), "Male", null);
+
+        assertEquals(0.7 + 0.25 * 0.8 + 0.05, DuplicatePatientDetector.score(a, b), 1e-9);
+        assertEquals(0.7 + 0.05, DuplicatePatientDetector.score(a, c), 1e-9);
+    }
+
+    @Test
+    void samePhoneInAnyFormatClosesHalfTheGap() {
+        Patient a = patient(1, "Robert", "Mugisha", LocalDate.of(1991, 3, 7), "Male", "0788 123 456");
+        Patient b = patient(2, "Robert", "Mugisha", DOB, "Male", "+250788123456");
+        Patient c = patient(3, "Robert", "Mugisha", DOB, "Male", "0788123457");
+
+        assertEquals(0.75 + 0.25 / 2, DuplicatePatientDetector.score(a, b), 1e-9);
+        assertEquals(0.75, DuplicatePatientDetector.score(a, c), 1e-9);
+    }
+
+    @Test
+    void misspelledNamesStayCloseAndDifferentPeopleDoNot() {
+        Patient a = patient(1, "Robert", "Niyonzima", DOB, "Male", null);
+        Patient typo = patient(2, "Rupert", "Niyonzma", DOB, "Male", null);
+        Patient other = patient(3, "Alice", "Uwimana", DOB, "Female", null);
+
+        // Either side of the default threshold, even with the same date of birth
+        assertTrue(DuplicatePatientDetector.score(a, typo) >= 0.9);
+        assertTrue(DuplicatePatientDetector.score(a, other) < 0.9);
+    }
+
+    @Test
+    void batchFindsSwappedRecordsAndReportsTheLaterRegistration() {
+        List<Patient> patients = List.of(
+                patient(1, "Robert", "Mugisha", DOB, "Male", null),
+                patient(2, "Alice", "Uwimana", DOB, "Female", null),
+                // Names and day/month swapped, so only the probe keys find patient 1
+                patient(3, "Mugisha", "Robert", LocalDate.of(1990, 7, 3), "Male", null),
+                patient(4, "Robert", "Mugisha", null, "Male", null),
+                patient(5, "Alice", "Uwimana", LocalDate.of(1985, 1, 20), "Female", null));
+
+        List<DuplicateCandidate> duplicates = DuplicatePatientDetector.findDuplicates(patients);
+
+        assertEquals(1, duplicates.size());
+        assertEquals(3, duplicates.get(0).getPatient().getPatientId());
+        assertEquals(1, duplicates.get(0).getMatch().getPatientId());
+    }
+}
@@ -0,0 +1,90 @@
+package hospital.hospital_management_system.services;
+
+import hospital.hospital_management_system.dao.PatientFeedbackDAO;
+import hospital.hospital_management_system.model.Patient;
+import hospital.hospital_management_system.model.PatientFeedback;
+import hospital.hospital_management_system.model.RatingStats;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PatientFeedbackServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 31);
+
+    // Keeps feedback_rating_daily in memory; a read can be held part-way through
+    private static final class StubFeedbackDAO extends PatientFeedbackDAO {
+        private final int[] histogram = new int[5];
+        private long nextId = 1;
+        volatile CountDownLatch readStarted;
+        volatile CountDownLatch finishRead;
+
+        @Override
+        public synchronized boolean addFeedback(PatientFeedback feedback) {
+            feedback.setFeedbackId(nextId++);
+            histogram[feedback.getRating() - 1]++;
+            return true;
+        }
+
+        @Override
+        public List<RatingStats> findDailyRatingCounts() {
+            List<RatingStats> days = new ArrayList<>();
+            synchronized (this) {
+                days.add(new RatingStats(DAY, histogram.clone()));
+            }
+            CountDownLatch started = readStarted;
+            if (started != null) {
+                readStarted = null;
+                started.countDown();
+                try {
+                    finishRead.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return days;
+        }
+    }
+
+    private static PatientFeedback feedback(int rating) {
+        return new PatientFeedback(null, new Patient(1L), rating, "", DAY);
+    }
+
+    @Test
+    void writesDoNotWaitForAReloadAndAreNotLostToIt() throws Exception {
+        StubFeedbackDAO dao = new StubFeedbackDAO();
+        PatientFeedbackService service = new PatientFeedbackService(dao);
+        service.addFeedback(feedback(5));
+        service.reloadRatings();
+        assertEquals(1, service.getDailyRatings(DAY).getCount());
+
+        // A reload that has read the counts but not yet swapped them in
+        CountDownLatch readStarted = new CountDownLatch(1);
+        dao.finishRead = new CountDownLatch(1);
+        dao.readStarted = readStarted;   // the reload clears the field once it gets there
+        CompletableFuture<Void> reload = CompletableFuture.runAsync(service::reloadRatings);
+        assertTrue(readStarted.await(5, TimeUnit.SECONDS));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertTrue(service.addFeedback(feedback(4)));
+        });
+        dao.finishRead.countDown();
+        reload.get(5, TimeUnit.SECONDS);
+
+        // The reload read one rating, not the two there are now, and must not replace them
+        RatingStats day = service.getDailyRatings(DAY);
+        assertEquals(2, day.getCount());
+        assertEquals(1, day.getCount(4));
+        assertEquals(1, day.getCount(5));
+    }
+}
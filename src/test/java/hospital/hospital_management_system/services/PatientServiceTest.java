@@ -0,0 +1,98 @@
+package hospital.hospital_management_system.services;
+
+import hospital.hospital_management_system.dao.PatientDAO;
+import hospital.hospital_management_system.model.Patient;
+import hospital.hospital_management_system.utils.DataAccessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PatientServiceTest {
+
+    // One stored row, plus a generated one for any other id; updates fail while failUpdates is set
+    private static final class StubPatientDAO extends PatientDAO {
+        Patient row = new Patient(7L, "Alice", "Uwimana", LocalDate.of(1990, 3, 7), "Female", "0788123456", "Kigali");
+        boolean failUpdates;
+        int lookups;
+
+        @Override
+        public Patient searchPatientById(long patientId) {
+            lookups++;
+            if (patientId != row.getPatientId()) {
+                return new Patient(patientId, "Patient", "No" + patientId, null, null, null, null);
+            }
+            return copy(row);
+        }
+
+        @Override
+        public void updatePatient(Patient patient) {
+            if (failUpdates) {
+                throw new DataAccessException("update failed", null);
+            }
+            row = copy(patient);
+        }
+
+        private static Patient copy(Patient p) {
+            return new Patient(p.getPatientId(), p.getFirstName(), p.getLastName(), p.getDob(), p.getGender(),
+                    p.getContact_number(), p.getAddress());
+        }
+    }
+
+    private final StubPatientDAO dao = new StubPatientDAO();
+    private final PatientService service = new PatientService(dao);
+
+    @BeforeEach
+    void emptyCache() {
+        service.clearCache();
+    }
+
+    @Test
+    void changesToAReturnedPatientDoNotReachTheCache() {
+        Patient first = service.getPatientById(7);
+        first.setLastName("Changed");
+
+        Patient second = service.getPatientById(7);
+        assertNotSame(first, second);
+        assertEquals("Uwimana", second.getLastName());
+    }
+
+    @Test
+    void aFailedUpdateLeavesTheCachedPatientAsItWas() {
+        Patient edited = service.getPatientById(7);
+        edited.setAddress("Huye");
+        dao.failUpdates = true;
+
+        assertThrows(DataAccessException.class, () -> service.updatePatient(edited));
+        assertEquals("Kigali", service.getPatientById(7).getAddress());
+    }
+
+    @Test
+    void aSavedUpdateIsCachedAndLaterChangesToTheArgumentAreNot() {
+        Patient edited = service.getPatientById(7);
+        edited.setAddress("Huye");
+        service.updatePatient(edited);
+        edited.setAddress("Musanze");
+
+        assertEquals("Huye", service.getPatientById(7).getAddress());
+        assertEquals("Huye", dao.row.getAddress());
+    }
+
+    @Test
+    void onlyTheMostRecentlyLookedUpPatientsStayCached() {
+        service.getPatientById(7);
+        for (long id = 1000; id < 2000; id++) {
+            service.getPatientById(id);
+        }
+        service.getPatientById(1999);
+        assertEquals(1001, dao.lookups);
+
+        // the default cache holds 1000 patients, so the first one looked up was evicted
+        service.getPatientById(7);
+        assertEquals(1002, dao.lookups);
+    }
+}
@@ -0,0 +1,72 @@
+package hospital.hospital_management_system.services;
+
+import hospital.hospital_management_system.dao.ReportDAO;
+import hospital.hospital_management_system.model.InventoryUsage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReportServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2025, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2025, 2, 1);
+
+    // Counts usage queries; a refresh recomputes refreshDays days. duringQuery runs in the
+    // middle of the next usage query, as a write committed meanwhile would
+    private static final class StubReportDAO extends ReportDAO {
+        int refreshDays;
+        int queries;
+        Runnable duringQuery;
+
+        @Override
+        public int refresh() {
+            return refreshDays;
+        }
+
+        @Override
+        public List<InventoryUsage> findInventoryUsage(LocalDate from, LocalDate to) {
+            queries++;
+            if (duringQuery != null) {
+                Runnable action = duringQuery;
+                duringQuery = null;
+                action.run();
+            }
+            return List.of(new InventoryUsage(1, "Paracetamol", queries, 1));
+        }
+    }
+
+    private final StubReportDAO dao = new StubReportDAO();
+
+    @BeforeEach
+    void emptyCache() {
+        new ReportService(dao).clearCache();
+    }
+
+    @Test
+    void resultsAreSharedByEveryInstance() {
+        new ReportService(dao).getInventoryUsage(FROM, TO);
+        List<InventoryUsage> again = new ReportService(dao).getInventoryUsage(FROM, TO);
+
+        assertEquals(1, dao.queries);
+        assertEquals(1, again.get(0).getQuantityDispensed());
+    }
+
+    @Test
+    void aResultReadBeforeARefreshDropsTheCacheIsNotCached() {
+        ReportService service = new ReportService(dao);
+        dao.refreshDays = 1;
+        dao.duringQuery = new ReportService(dao)::refresh;
+        service.getInventoryUsage(FROM, TO);
+
+        dao.refreshDays = 0;
+        service.refresh();
+        List<InventoryUsage> next = service.getInventoryUsage(FROM, TO);
+        assertEquals(2, dao.queries);
+        assertEquals(2, next.get(0).getQuantityDispensed());
+        assertEquals(2, service.getInventoryUsage(FROM, TO).get(0).getQuantityDispensed());
+    }
+}
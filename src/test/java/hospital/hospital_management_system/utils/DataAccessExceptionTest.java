@@ -0,0 +1,71 @@
+package hospital.hospital_management_system.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataAccessExceptionTest {
+
+    private static SQLException state(String sqlState) {
+        return new SQLException("failed", sqlState);
+    }
+
+    @Test
+    void lostConnectionsAndOverloadAreUnavailable() {
+        for (String state : new String[]{"08000", "08001", "08006", "53300", "53200", "57P01", "57P03", "25006"}) {
+            assertTrue(DataAccessException.isUnavailable(state), state);
+            assertTrue(DataAccessException.isTransient(state(state)), state);
+        }
+    }
+
+    @Test
+    void conflictsBetweenTransactionsAreTransientButTheDatabaseIsUp() {
+        for (String state : new String[]{"40001", "40P01", "55P03"}) {
+            assertFalse(DataAccessException.isUnavailable(state), state);
+            assertTrue(DataAccessException.isTransient(state(state)), state);
+        }
+    }
+
+    @Test
+    void errorsInTheStatementItselfAreNotTransient() {
+        // unique and foreign key violations, syntax error, undefined table, other 25xxx and 57xxx
+        for (String state : new String[]{"23505", "23503", "42601", "42P01", "25001", "57014", "40002"}) {
+            assertFalse(DataAccessException.isUnavailable(state), state);
+            assertFalse(DataAccessException.isTransient(state(state)), state);
+        }
+        assertFalse(DataAccessException.isTransient(state(null)));
+    }
+
+    @Test
+    void driverExceptionTypesCountAsTransientWhateverTheState() {
+        assertTrue(DataAccessException.isTransient(new SQLRecoverableException("gone")));
+        assertTrue(DataAccessException.isTransient(new SQLTransientConnectionException("timeout", "HY000")));
+    }
+
+    @Test
+    void translateChoosesTheMatchingType() {
+        SQLException deadlock = state("40P01");
+        DataAccessException translated = DataAccessException.translate("AppointmentDAO.add", deadlock);
+        assertInstanceOf(TransientDataAccessException.class, translated);
+        assertFalse(translated instanceof DatabaseUnavailableException);
+        assertSame(deadlock, translated.getCause());
+        assertEquals("40P01", translated.getSqlState());
+        assertEquals("AppointmentDAO.add failed: failed", translated.getMessage());
+
+        DataAccessException violation = DataAccessException.translate("PatientDAO.add", state("23505"));
+        assertEquals(DataAccessException.class, violation.getClass());
+
+        assertInstanceOf(DatabaseUnavailableException.class,
+                DataAccessException.translate("PatientDAO.add", new CircuitBreaker.OpenException(5)));
+        assertNull(new DataAccessException("no cause", null).getSqlState());
+    }
+}
@@ -0,0 +1,31 @@
+package hospital.hospital_management_system.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InstrumentedConnectionTest {
+
+    @Test
+    void plainWritesModify() {
+        assertTrue(InstrumentedConnection.modifies("  insert into patients (first_name) values (?)"));
+        assertTrue(InstrumentedConnection.modifies("UPDATE doctors SET phone = ? WHERE doctor_id = ?"));
+        assertTrue(InstrumentedConnection.modifies("DELETE FROM departments WHERE dept_id = ? RETURNING dept_name"));
+        assertFalse(InstrumentedConnection.modifies("SELECT updated_at, deleted FROM patients"));
+    }
+
+    @Test
+    void aWithQueryModifiesOnlyIfOneOfItsPartsDoes() {
+        assertTrue(InstrumentedConnection.modifies("""
+                WITH deleted AS (
+                    DELETE FROM patients p WHERE patient_id = ? RETURNING to_jsonb(p)::text AS row
+                )
+                SELECT d.row FROM deleted d
+                """));
+        assertFalse(InstrumentedConnection.modifies("""
+                WITH updated AS (SELECT patient_id, updated_at FROM patients WHERE updated_at > ?)
+                SELECT * FROM updated
+                """));
+    }
+}
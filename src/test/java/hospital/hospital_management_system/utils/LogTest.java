@@ -0,0 +1,35 @@
+package hospital.hospital_management_system.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogTest {
+
+    @Test
+    void flushReturnsOnlyOnceEverythingLoggedIsPrinted() {
+        PrintStream original = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8));
+        try {
+            Log log = Log.get(LogTest.class);
+            for (int round = 0; round < 5; round++) {
+                // up to the per-message rate limit, so none are suppressed
+                for (int i = 0; i < 4; i++) {
+                    log.info("round {} message {}", round, i);
+                }
+                Log.flush();
+                String output = captured.toString(StandardCharsets.UTF_8);
+                for (int i = 0; i < 4; i++) {
+                    assertTrue(output.contains("round " + round + " message " + i), output);
+                }
+            }
+        } finally {
+            System.setOut(original);
+        }
+    }
+}
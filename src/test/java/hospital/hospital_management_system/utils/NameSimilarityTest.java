@@ -0,0 +1,105 @@
+package hospital.hospital_management_system.utils;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NameSimilarityTest {
+
+    private static final String V8 = "/hospital/hospital_management_system/db/V8__patient_duplicate_blocking.sql";
+
+    // Textbook cases, the usual spellings of local names, and odd input
+    private static final List<String> NAMES = List.of(
+            "Robert", "Rupert", "Rubin", "Ashcraft", "Ashcroft", "Pfister", "Tymczak", "Honeyman",
+            "Jackson", "Gutierrez", "Lee", "Lloyd", "Washington", "Schmidt", "Shaw", "Yhwh", "Hawk",
+            "Bbbbb", "A", "O'Neil", "oneil", "van der Berg", "Mugisha", "Uwimana", "Niyonzima",
+            "Habimana", "Nshimiyimana", "Mukamana", "Twagiramungu", "Ndayisaba", "Müller", "José",
+            "Zoë", "Łukasz", "Ørsted", "1234", "", "  ", "-");
+
+    @Test
+    void soundexMatchesTheStandardCodes() {
+        assertEquals("R163", NameSimilarity.soundex("Robert"));
+        assertEquals("R163", NameSimilarity.soundex("Rupert"));
+        assertEquals("R150", NameSimilarity.soundex("Rubin"));
+        // S and C either side of an H count once
+        assertEquals("A261", NameSimilarity.soundex("Ashcraft"));
+        assertEquals("A261", NameSimilarity.soundex("Ashcroft"));
+        // The first letter's own code suppresses the same code right after it
+        assertEquals("P236", NameSimilarity.soundex("Pfister"));
+        // A vowel between equal codes makes them count twice
+        assertEquals("T522", NameSimilarity.soundex("Tymczak"));
+        assertEquals("H555", NameSimilarity.soundex("Honeyman"));
+        assertEquals("J250", NameSimilarity.soundex("Jackson"));
+        assertEquals("L000", NameSimilarity.soundex("Lee"));
+    }
+
+    @Test
+    void soundexUsesLettersOnly() {
+        assertEquals(NameSimilarity.soundex("oneil"), NameSimilarity.soundex("O'Neil"));
+        assertEquals("O540", NameSimilarity.soundex(" o'neil "));
+        assertEquals("", NameSimilarity.soundex(""));
+        assertEquals("", NameSimilarity.soundex("1234"));
+        assertEquals("", NameSimilarity.soundex(null));
+    }
+
+    @Test
+    void jaroWinklerMatchesKnownValues() {
+        assertEquals(0.961, NameSimilarity.jaroWinkler("Martha", "Marhta"), 0.001);
+        assertEquals(0.840, NameSimilarity.jaroWinkler("Dwayne", "Duane"), 0.001);
+        assertEquals(0.813, NameSimilarity.jaroWinkler("Dixon", "Dicksonx"), 0.001);
+        assertEquals(1.0, NameSimilarity.jaroWinkler("O'Neil", "oneil"));
+        assertEquals(0.0, NameSimilarity.jaroWinkler("Abc", "Xyz"));
+        assertEquals(0.0, NameSimilarity.jaroWinkler("Abc", null));
+        assertEquals(1.0, NameSimilarity.jaroWinkler(null, ""));
+    }
+
+    @Test
+    void jaroWinklerIsSymmetricAndForgivesTypingSlips() {
+        assertEquals(NameSimilarity.jaroWinkler("Robert", "Rupert"), NameSimilarity.jaroWinkler("Rupert", "Robert"));
+        assertTrue(NameSimilarity.jaroWinkler("Uwimana", "Uwimanna") > 0.9);
+        assertTrue(NameSimilarity.jaroWinkler("Niyonzima", "Niyonzma") > 0.9);
+        assertTrue(NameSimilarity.jaroWinkler("Mugisha", "Habimana") < 0.7);
+    }
+
+    // The batch job blocks on the Java code and the registration check on the SQL one
+    @Test
+    void soundexAgreesWithPatientSoundexInTheDatabase() throws Exception {
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             Connection conn = postgres.getPostgresDatabase().getConnection()) {
+            try (Statement statement = conn.createStatement()) {
+                statement.execute(patientSoundexFunction());
+            }
+            try (PreparedStatement statement = conn.prepareStatement("SELECT patient_soundex(?)")) {
+                for (String name : NAMES) {
+                    statement.setString(1, name);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        rs.next();
+                        assertEquals(rs.getString(1), NameSimilarity.soundex(name), name);
+                    }
+                }
+            }
+        }
+    }
+
+    private static String patientSoundexFunction() throws IOException {
+        try (InputStream in = NameSimilarity.class.getResourceAsStream(V8)) {
+            assertNotNull(in, V8);
+            String script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            int start = script.indexOf("CREATE OR REPLACE FUNCTION patient_soundex");
+            int end = script.indexOf("$$;", start);
+            return script.substring(start, end + 2);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package hospital.hospital_management_system.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class QueryMetricsTest {
+
+    @Test
+    void normaliseCollapsesWhitespaceAndLiterals() {
+        assertEquals("SELECT * FROM appointments WHERE status = ? AND doctor_id = ? LIMIT ?",
+                QueryMetrics.normalize("""
+                        SELECT *
+                          FROM appointments
+                         WHERE status = 'it''s'   AND doctor_id = 42
+                         LIMIT 10.5
+                        """));
+    }
+
+    @Test
+    void normaliseKeepsDigitsInsideNames() {
+        assertEquals("SELECT patient_soundex(a1.last_name) FROM v2_patients a1 WHERE x = ?",
+                QueryMetrics.normalize("SELECT patient_soundex(a1.last_name) FROM v2_patients a1 WHERE x = 3"));
+    }
+
+    @Test
+    void statementsThatDifferOnlyInLiteralsShareStats() {
+        StatementStats first = QueryMetrics.forSql("SELECT name FROM doctors WHERE doctor_id = 1");
+        StatementStats second = QueryMetrics.forSql("SELECT name\n  FROM doctors WHERE doctor_id = 2");
+
+        assertSame(first, second);
+        assertEquals("SELECT name FROM doctors WHERE doctor_id = ?", first.getSql());
+    }
+}
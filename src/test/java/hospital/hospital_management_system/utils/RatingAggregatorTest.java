@@ -0,0 +1,135 @@
+package hospital.hospital_management_system.utils;
+
+import hospital.hospital_management_system.model.RatingStats;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RatingAggregatorTest {
+
+    // Sunday the 31st and Monday the 1st: a week and a month boundary on the same night
+    private static final LocalDate SUNDAY = LocalDate.of(2024, 3, 31);
+    private static final LocalDate MONDAY = LocalDate.of(2024, 4, 1);
+
+    private static int[] histogram(RatingStats stats) {
+        int[] histogram = new int[5];
+        for (int rating = 1; rating <= 5; rating++) {
+            histogram[rating - 1] = stats.getCount(rating);
+        }
+        return histogram;
+    }
+
+    @Test
+    void addsLandInTheirDayWeekAndMonth() {
+        RatingAggregator ratings = new RatingAggregator();
+        ratings.add(SUNDAY, 5, 2);
+        ratings.add(SUNDAY.minusDays(6), 3, 1);   // the Monday that week started on
+        ratings.add(MONDAY, 1, 1);
+
+        assertArrayEquals(new int[]{0, 0, 0, 0, 2}, histogram(ratings.getDay(SUNDAY)));
+        assertArrayEquals(new int[]{0, 0, 1, 0, 2}, histogram(ratings.getWeek(SUNDAY)));
+        assertArrayEquals(new int[]{1, 0, 0, 0, 0}, histogram(ratings.getWeek(MONDAY)));
+        assertArrayEquals(new int[]{0, 0, 1, 0, 2}, histogram(ratings.getMonth(YearMonth.of(2024, 3))));
+        assertArrayEquals(new int[]{1, 0, 0, 0, 0}, histogram(ratings.getMonth(YearMonth.of(2024, 4))));
+
+        assertEquals(LocalDate.of(2024, 3, 25), ratings.getWeek(SUNDAY).getPeriodStart());
+        assertEquals(MONDAY, ratings.getWeek(MONDAY.plusDays(6)).getPeriodStart());
+        assertEquals(3, ratings.getWeek(SUNDAY).getCount());
+        assertEquals(13, ratings.getWeek(SUNDAY).getSum());
+    }
+
+    @Test
+    void removalsOnlyTouchTheirOwnPeriods() {
+        RatingAggregator ratings = new RatingAggregator();
+        ratings.add(SUNDAY, 4, 3);
+        ratings.add(MONDAY, 4, 3);
+
+        ratings.add(SUNDAY, 4, -2);
+        ratings.add(MONDAY, 4, -3);
+
+        assertEquals(1, ratings.getDay(SUNDAY).getCount());
+        assertEquals(1, ratings.getWeek(SUNDAY).getCount());
+        assertEquals(1, ratings.getMonth(YearMonth.of(2024, 3)).getCount());
+        assertEquals(0, ratings.getDay(MONDAY).getCount());
+        assertEquals(0, ratings.getWeek(MONDAY).getCount());
+        assertEquals(0, ratings.getMonth(YearMonth.of(2024, 4)).getCount());
+    }
+
+    @Test
+    void weeksSpanTheTurnOfTheYearAndOfTheEpoch() {
+        RatingAggregator ratings = new RatingAggregator();
+        ratings.add(LocalDate.of(2024, 12, 30), 2, 1);
+        ratings.add(LocalDate.of(2025, 1, 5), 2, 1);
+        ratings.add(LocalDate.of(1969, 12, 29), 3, 1);
+        ratings.add(LocalDate.of(1970, 1, 4), 3, 1);
+        ratings.add(LocalDate.of(1969, 12, 28), 3, 1);
+
+        assertEquals(2, ratings.getWeek(LocalDate.of(2025, 1, 1)).getCount());
+        assertEquals(1, ratings.getMonth(YearMonth.of(2024, 12)).getCount());
+        assertEquals(1, ratings.getMonth(YearMonth.of(2025, 1)).getCount());
+        assertEquals(2, ratings.getWeek(LocalDate.of(1970, 1, 1)).getCount());
+        assertEquals(1, ratings.getWeek(LocalDate.of(1969, 12, 22)).getCount());
+    }
+
+    @Test
+    void growsInBothDirectionsWithoutLosingCounts() {
+        RatingAggregator ratings = new RatingAggregator();
+        Random random = new Random(7);
+        int[][] expected = new int[2000][5];
+        LocalDate base = LocalDate.of(2020, 1, 1);
+        // Start in the middle so that later days fall on either side of the first one
+        ratings.add(base.plusDays(1000), 3, 1);
+        expected[1000][2]++;
+        for (int i = 0; i < 20_000; i++) {
+            int day = random.nextInt(expected.length);
+            int rating = random.nextInt(5);
+            int delta = expected[day][rating] > 0 && random.nextBoolean() ? -1 : 1;
+            ratings.add(base.plusDays(day), rating + 1, delta);
+            expected[day][rating] += delta;
+        }
+
+        int[] january = new int[5];
+        for (int day = 0; day < expected.length; day++) {
+            assertArrayEquals(expected[day], histogram(ratings.getDay(base.plusDays(day))));
+            if (day < 31) {
+                for (int r = 0; r < 5; r++) {
+                    january[r] += expected[day][r];
+                }
+            }
+        }
+        assertArrayEquals(january, histogram(ratings.getMonth(YearMonth.of(2020, 1))));
+        assertEquals(0, ratings.getDay(base.minusDays(1)).getCount());
+        assertEquals(0, ratings.getDay(base.plusDays(expected.length)).getCount());
+    }
+
+    @Test
+    void trendListsOnlyPeriodsWithRatings() {
+        RatingAggregator ratings = new RatingAggregator();
+        ratings.add(SUNDAY, 5, 1);
+        ratings.add(MONDAY.plusWeeks(2), 1, 1);
+        ratings.add(MONDAY.plusWeeks(1), 2, 1);
+        ratings.add(MONDAY.plusWeeks(1), 2, -1);
+
+        List<RatingStats> weekly = ratings.getTrend(false, SUNDAY, MONDAY.plusWeeks(3));
+        assertEquals(List.of(LocalDate.of(2024, 3, 25), MONDAY.plusWeeks(2)),
+                weekly.stream().map(RatingStats::getPeriodStart).toList());
+
+        List<RatingStats> monthly = ratings.getTrend(true, LocalDate.of(2024, 3, 15), LocalDate.of(2024, 5, 1));
+        assertEquals(List.of(LocalDate.of(2024, 3, 1), MONDAY), monthly.stream().map(RatingStats::getPeriodStart).toList());
+        assertEquals(1.0, monthly.get(1).getAverage());
+    }
+
+    @Test
+    void rejectsRatingsOutsideOneToFive() {
+        RatingAggregator ratings = new RatingAggregator();
+        assertThrows(IllegalArgumentException.class, () -> ratings.add(SUNDAY, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> ratings.add(SUNDAY, 6, 1));
+    }
+}
@@ -0,0 +1,53 @@
+package hospital.hospital_management_system.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplicaRouterTest {
+
+    private static ReplicaRouter.Replica replica(String name, String replayed, boolean healthy) {
+        ReplicaRouter.Replica replica = new ReplicaRouter.Replica(name);
+        replica.replayedLsn = ReplicaRouter.parseLsn(replayed);
+        replica.healthy = healthy;
+        return replica;
+    }
+
+    @Test
+    void lsnsOrderLikePostgresOrdersThem() {
+        assertEquals(0x16_B374D848L, ReplicaRouter.parseLsn("16/B374D848"));
+        assertTrue(ReplicaRouter.parseLsn("0/FFFFFFFF") < ReplicaRouter.parseLsn("1/0"));
+        assertTrue(ReplicaRouter.parseLsn(null) < ReplicaRouter.parseLsn("0/0"));
+    }
+
+    @Test
+    void beforeAnyWriteEveryHealthyReplicaIsUsedInTurn() {
+        ReplicaRouter.Replica a = replica("a", "0/100", true);
+        ReplicaRouter.Replica b = replica("b", null, true);
+        ReplicaRouter.Replica c = replica("c", "0/300", false);
+        List<ReplicaRouter.Replica> replicas = List.of(a, b, c);
+
+        long nothingWritten = ReplicaRouter.parseLsn(null);
+        assertEquals(List.of(a, b), ReplicaRouter.candidates(replicas, 0, nothingWritten));
+        assertEquals(List.of(b, a), ReplicaRouter.candidates(replicas, 1, nothingWritten));
+        assertEquals(List.of(a, b), ReplicaRouter.candidates(replicas, 2, nothingWritten));
+    }
+
+    @Test
+    void afterAWriteReplicasKnownToHaveReplayedItComeFirst() {
+        ReplicaRouter.Replica behind = replica("behind", "0/1FF", true);
+        ReplicaRouter.Replica caughtUp = replica("caught-up", "0/200", true);
+        ReplicaRouter.Replica notAStandby = replica("promoted", null, true);
+        ReplicaRouter.Replica down = replica("down", "0/900", false);
+        List<ReplicaRouter.Replica> replicas = List.of(behind, caughtUp, notAStandby, down);
+
+        // the ones behind are only used if opening them shows they have caught up since
+        assertEquals(List.of(caughtUp, behind, notAStandby),
+                ReplicaRouter.candidates(replicas, 0, ReplicaRouter.parseLsn("0/200")));
+        assertEquals(List.of(behind, caughtUp, notAStandby),
+                ReplicaRouter.candidates(replicas, 0, ReplicaRouter.parseLsn("0/1FF")));
+    }
+}
@@ -0,0 +1,141 @@
+package hospital.hospital_management_system.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RingBufferTest {
+
+    private record Message(int producer, int sequence) {}
+
+    @Test
+    void roundsCapacityUpToAPowerOfTwo() {
+        assertEquals(16, new RingBuffer<>(16).capacity());
+        assertEquals(32, new RingBuffer<>(17).capacity());
+        assertEquals(1024, new RingBuffer<>(1000).capacity());
+    }
+
+    @Test
+    void offerFailsWhenFullUntilTheConsumerFreesASlot() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(8);
+        for (int i = 0; i < 8; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(8));
+        assertEquals(8, buffer.size());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(1, buffer.drainTo(drained, 1));
+        assertTrue(buffer.offer(8));
+        assertFalse(buffer.offer(9));
+
+        assertEquals(8, buffer.drainTo(drained, Integer.MAX_VALUE));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8), drained);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void drainToTakesAtMostMaxOldestFirst() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(8);
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(0, buffer.drainTo(drained, 10));
+
+        for (int i = 0; i < 6; i++) {
+            buffer.offer(i);
+        }
+        assertEquals(0, buffer.drainTo(drained, 0));
+        assertEquals(4, buffer.drainTo(drained, 4));
+        assertEquals(List.of(0, 1, 2, 3), drained);
+        assertEquals(2, buffer.size());
+        assertEquals(2, buffer.drainTo(drained, 4));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), drained);
+    }
+
+    @Test
+    void keepsOrderAcrossManyTurnsOfTheRing() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+        int next = 0;
+        for (int turn = 0; turn < 1000; turn++) {
+            // Fill it, then take one to three, so each turn starts at a different slot
+            while (buffer.size() < buffer.capacity()) {
+                assertTrue(buffer.offer(next++));
+            }
+            assertFalse(buffer.offer(-1));
+            assertEquals(1 + turn % 3, buffer.drainTo(drained, 1 + turn % 3));
+        }
+        buffer.drainTo(drained, Integer.MAX_VALUE);
+        assertEquals(next, drained.size());
+        for (int i = 0; i < next; i++) {
+            assertEquals(i, drained.get(i));
+        }
+    }
+
+    @Test
+    void manyProducersLoseNothingDuplicateNothingAndKeepTheirOrder() throws Exception {
+        int producers = 8;
+        int perProducer = 50_000;
+        // Small, so that producers keep finding it full
+        RingBuffer<Message> buffer = new RingBuffer<>(64);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int p = 0; p < producers; p++) {
+                int producer = p;
+                results.add(pool.submit(() -> {
+                    go.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        Message message = new Message(producer, i);
+                        while (!buffer.offer(message)) {
+                            Thread.yield();   // let the consumer run, even on one core
+                        }
+                    }
+                    return null;
+                }));
+            }
+            go.countDown();
+
+            int[] expectedNext = new int[producers];
+            List<Message> batch = new ArrayList<>();
+            long received = 0;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+            while (received < (long) producers * perProducer) {
+                assertTrue(System.nanoTime() < deadline, "timed out after " + received + " messages");
+                batch.clear();
+                if (buffer.drainTo(batch, 50) == 0) {
+                    Thread.yield();
+                    continue;
+                }
+                for (Message message : batch) {
+                    // Exactly the next one from that producer: nothing lost, repeated or reordered
+                    assertEquals(expectedNext[message.producer()]++, message.sequence(), "producer " + message.producer());
+                }
+                received += batch.size();
+            }
+
+            for (Future<?> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+            int[] all = new int[producers];
+            Arrays.fill(all, perProducer);
+            assertArrayEquals(all, expectedNext);
+            assertEquals(0, buffer.size());
+            assertEquals(0, buffer.drainTo(batch, 10));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package hospital.hospital_management_system.utils;
+
+import hospital.hospital_management_system.db.MigrationRunner;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * One embedded PostgreSQL per test run, migrated like a production database, with DBConnection
+ * pointed at it. DBConnection reads its settings once, so every test that needs the database
+ * goes through here; each test empties the tables it uses.
+ */
+public final class TestDatabase {
+
+    private static EmbeddedPostgres postgres;
+
+    private TestDatabase() {} // Prevent instantiation
+
+    public static synchronized void start() throws Exception {
+        if (postgres != null) {
+            return;
+        }
+        postgres = EmbeddedPostgres.builder().start();
+        System.setProperty("DB__HOST", "localhost");
+        System.setProperty("DB__PORT", String.valueOf(postgres.getPort()));
+        System.setProperty("DB__NAME", "postgres");
+        System.setProperty("DB__USER", "postgres");
+        System.setProperty("DB__PASSWORD", "postgres");
+        if (!DBConnection.databaseKey().endsWith(":" + postgres.getPort() + "/postgres")) {
+            throw new IllegalStateException("DBConnection was configured before the test database started");
+        }
+        MigrationRunner.migrate();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                postgres.close();
+            } catch (Exception e) {
+                // the JVM is going away anyway
+            }
+        }));
+    }
+
+    /**
+     * A connection of its own, outside DBConnection and any unit of work, in autocommit.
+     */
+    public static Connection connect() throws SQLException {
+        return postgres.getPostgresDatabase().getConnection();
+    }
+
+    public static void execute(String sql) throws SQLException {
+        try (Connection conn = connect(); Statement statement = conn.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package hospital.hospital_management_system.utils;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UnitOfWorkTest {
+
+    @BeforeAll
+    static void startDatabase() throws Exception {
+        TestDatabase.start();
+        TestDatabase.execute("CREATE TABLE IF NOT EXISTS unit_of_work_test (id INT NOT NULL)");
+    }
+
+    @BeforeEach
+    void emptyTable() throws SQLException {
+        TestDatabase.execute("TRUNCATE unit_of_work_test");
+    }
+
+    // Through the unit's connection, as a DAO would
+    private static void insert(int id) throws SQLException {
+        try (Connection conn = DBConnection.getConnection(); Statement statement = conn.createStatement()) {
+            statement.executeUpdate("INSERT INTO unit_of_work_test (id) VALUES (" + id + ")");
+        }
+    }
+
+    // As another session sees it, i.e. what has been committed
+    private static int committedRows() throws SQLException {
+        try (Connection conn = TestDatabase.connect();
+             Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT count(*) FROM unit_of_work_test")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static int backendPid() throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT pg_backend_pid()")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    void nestedUnitsJoinTheConnectionAndOnlyTheOutermostCommits() throws SQLException {
+        try (UnitOfWork outer = UnitOfWork.begin()) {
+            Connection outerConnection = DBConnection.getConnection();
+            int outerPid = backendPid();
+            insert(1);
+            try (UnitOfWork inner = UnitOfWork.begin()) {
+                assertSame(outerConnection, DBConnection.getConnection());
+                assertEquals(outerPid, backendPid());
+                insert(2);
+                inner.commit();
+            }
+            assertEquals(0, committedRows());
+
+            outer.commit();
+            assertEquals(2, committedRows());
+            assertThrows(IllegalStateException.class, outer::commit);
+        }
+        assertFalse(UnitOfWork.isActive());
+        assertEquals(2, committedRows());
+    }
+
+    @Test
+    void closingWithoutCommitRollsBack() throws SQLException {
+        try (UnitOfWork work = UnitOfWork.begin()) {
+            insert(1);
+            assertFalse(work.isRollbackOnly());
+        }
+        assertEquals(0, committedRows());
+
+        // The connection went back; the next unit starts clean
+        UnitOfWork.inTransaction(() -> {
+            insert(2);
+            return null;
+        });
+        assertEquals(1, committedRows());
+    }
+
+    @Test
+    void aFailureSwallowedByAnInnerBlockMakesTheOuterCommitThrow() throws SQLException {
+        try (UnitOfWork outer = UnitOfWork.begin()) {
+            insert(1);
+            try (UnitOfWork inner = UnitOfWork.begin()) {
+                try {
+                    insert(2);
+                    try (Connection conn = DBConnection.getConnection(); Statement statement = conn.createStatement()) {
+                        statement.executeUpdate("INSERT INTO no_such_table VALUES (1)");
+                    }
+                } catch (SQLException e) {
+                    // swallowed, as a DAO that logs and returns false would
+                }
+                assertTrue(inner.isRollbackOnly());
+                assertThrows(SQLException.class, inner::commit);
+            }
+            assertTrue(outer.isRollbackOnly());
+            assertThrows(SQLException.class, outer::commit);
+        }
+        assertEquals(0, committedRows());
+    }
+
+    @Test
+    void anInnerUnitClosedWithoutCommitMarksTheOuterRollbackOnly() throws SQLException {
+        try (UnitOfWork outer = UnitOfWork.begin()) {
+            insert(1);
+            try (UnitOfWork inner = UnitOfWork.begin()) {
+                insert(2);
+                assertFalse(inner.isRollbackOnly());   // until it closes without commit
+            }
+            assertThrows(SQLException.class, outer::commit);
+        }
+        assertEquals(0, committedRows());
+    }
+
+    @Test
+    void afterCommitActionsRunOnceTheOutermostUnitHasCommitted() throws SQLException {
+        List<String> ran = new ArrayList<>();
+        try (UnitOfWork outer = UnitOfWork.begin()) {
+            insert(1);
+            UnitOfWork.afterCommit(() -> ran.add("outer"));
+            try (UnitOfWork inner = UnitOfWork.begin()) {
+                UnitOfWork.afterCommit(() -> ran.add("inner"));
+                inner.commit();
+            }
+            assertEquals(List.of(), ran);
+            outer.commit();
+            assertEquals(List.of(), ran);   // not until the connection is released
+        }
+        assertEquals(List.of("outer", "inner"), ran);
+
+        UnitOfWork.afterCommit(() -> ran.add("outside"));
+        assertEquals(List.of("outer", "inner", "outside"), ran);
+    }
+
+    @Test
+    void afterCommitActionsAreDroppedOnRollback() throws SQLException {
+        List<String> ran = new ArrayList<>();
+        try (UnitOfWork work = UnitOfWork.begin()) {
+            insert(1);
+            UnitOfWork.afterCommit(() -> ran.add("committed"));
+            assertFalse(work.isRollbackOnly());
+        }
+        try (UnitOfWork work = UnitOfWork.begin()) {
+            UnitOfWork.afterCommit(() -> ran.add("rollback-only"));
+            work.setRollbackOnly();
+            assertThrows(SQLException.class, work::commit);
+        }
+        assertEquals(List.of(), ran);
+        assertEquals(0, committedRows());
+    }
+}